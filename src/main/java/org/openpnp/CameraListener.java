@@ -19,8 +19,29 @@
 
 package org.openpnp;
 
+import java.awt.Dimension;
 import java.awt.image.BufferedImage;
 
 public interface CameraListener {
     public void frameReceived(BufferedImage img);
+
+    /**
+     * Receives the frame together with a display frame, downscaled to the size returned by 
+     * getDisplayFrameSize(). 
+     * 
+     * @param img The full resolution frame.
+     * @param displayImg The display frame, or null if none was requested or it could not be produced.
+     */
+    default public void frameReceived(BufferedImage img, BufferedImage displayImg) {
+        frameReceived(img);
+    }
+
+    /**
+     * @return The size of the display frame the listener wants to receive, in addition to the full 
+     * resolution frame, or null if it has no use for one. The camera produces each display frame size 
+     * only once per frame, off the Event Dispatch Thread, and shares it among the listeners.  
+     */
+    default public Dimension getDisplayFrameSize() {
+        return null;
+    }
 }
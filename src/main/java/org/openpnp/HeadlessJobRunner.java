@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) 2026 agent <agent@local>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.Map;
+
+import org.openpnp.machine.reference.SimulationModeMachine;
+import org.openpnp.machine.reference.SimulationModeMachine.SimulationMode;
+import org.openpnp.model.Configuration;
+import org.openpnp.model.Job;
+import org.openpnp.spi.Machine;
+import org.openpnp.spi.PnpJobProcessor;
+import org.openpnp.spi.PnpJobProcessor.JobPlacement;
+import org.openpnp.util.JobMetrics;
+import org.openpnp.util.LatencyHistogram;
+import org.openpnp.util.NanosecondTime;
+import org.openpnp.util.SimulationClock;
+import org.pmw.tinylog.Configurator;
+import org.pmw.tinylog.Level;
+import org.pmw.tinylog.Logger;
+
+/**
+ * Runs a job without the user interface and reports its timing. Intended for throughput benchmarking and to 
+ * detect planner and vision regressions in CI, typically on the simulated machine. Start it with:
+ * 
+ * <pre>
+ * java -jar openpnp-gui-0.0.1-alpha-SNAPSHOT.jar --run-job path/to/board.job.xml [options]
+ * </pre>
+ * 
+ * Options:
+ * <ul>
+ * <li>--config &lt;directory&gt;: the configuration directory, by default the same as the GUI uses.</li>
+ * <li>--metrics &lt;file&gt;: export the job metrics to file.csv and file.json.</li>
+ * <li>--no-home: do not home the machine before running the job.</li>
+ * <li>--log-level &lt;level&gt;: the tinylog level, default WARNING.</li>
+ * <li>--speed &lt;factor&gt;: run the simulated machine faster than real-time by that factor.</li>
+ * <li>--skip-idle: skip simulated waits, see {@link SimulationClock}.</li>
+ * </ul>
+ * 
+ * The report contains the wall time, the simulated time, the planned machine motion time and a per placement 
+ * breakdown of the pick, align and place times. The machine motion time only depends on the motion planning, 
+ * not on the host's speed or the simulation speed.
+ * 
+ * The exit code is 0 if all placements were placed, 1 if some placements errored and 2 if the job failed.
+ */
+public class HeadlessJobRunner {
+    private File configurationDirectory;
+    private File jobFile;
+    private File metricsFile;
+    private boolean home = true;
+    private Level logLevel = Level.WARNING;
+    private Double speedFactor;
+    private boolean skipIdle;
+
+    public HeadlessJobRunner(String[] args) {
+        configurationDirectory = new File(new File(System.getProperty("user.home")), ".openpnp2");
+        if (System.getProperty("configDir") != null) {
+            configurationDirectory = new File(System.getProperty("configDir"));
+        }
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--run-job":
+                    jobFile = new File(argument(args, ++i));
+                    break;
+                case "--config":
+                    configurationDirectory = new File(argument(args, ++i));
+                    break;
+                case "--metrics":
+                    metricsFile = new File(argument(args, ++i));
+                    break;
+                case "--no-home":
+                    home = false;
+                    break;
+                case "--log-level":
+                    logLevel = Level.valueOf(argument(args, ++i).toUpperCase());
+                    break;
+                case "--speed":
+                    speedFactor = Double.parseDouble(argument(args, ++i));
+                    if (!(speedFactor > 0)) {
+                        throw new IllegalArgumentException("Speed factor must be positive.");
+                    }
+                    break;
+                case "--skip-idle":
+                    skipIdle = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option "+args[i]);
+            }
+        }
+        if (jobFile == null) {
+            throw new IllegalArgumentException("No job file given, use --run-job <file>.");
+        }
+    }
+
+    private static String argument(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Option "+args[i - 1]+" needs an argument.");
+        }
+        return args[i];
+    }
+
+    /**
+     * Load the configuration and the job, run it to completion and print the report.
+     * 
+     * @return The exit code.
+     * @throws Exception
+     */
+    public int run() throws Exception {
+        Configurator
+        .currentConfig()
+        .level(logLevel)
+        .activate();
+
+        Configuration.initialize(configurationDirectory);
+        Configuration.get().load();
+        Machine machine = Configuration.get().getMachine();
+        PnpJobProcessor jobProcessor = machine.getPnpJobProcessor();
+        Job job = Configuration.get().loadJob(jobFile);
+        if (speedFactor != null || skipIdle) {
+            if (machine instanceof SimulationModeMachine 
+                    && ((SimulationModeMachine) machine).getSimulationMode() != SimulationMode.Off) {
+                SimulationModeMachine simulationModeMachine = (SimulationModeMachine) machine;
+                if (speedFactor != null) {
+                    simulationModeMachine.setSimulationSpeedFactor(speedFactor);
+                }
+                simulationModeMachine.setSimulationSkipIdle(skipIdle);
+            }
+            else {
+                System.out.println("The machine is not simulated, --speed and --skip-idle are ignored.");
+            }
+        }
+
+        machine.setEnabled(true);
+        long t0 = NanosecondTime.getRuntime();
+        long simulatedT0 = SimulationClock.getRuntime();
+        int exitCode = 0;
+        try {
+            machine.execute(() -> {
+                if (home) {
+                    machine.home();
+                }
+                jobProcessor.initialize(job);
+                while (jobProcessor.next()) {
+                    // Run to completion.
+                }
+                return null;
+            }, false, 0);
+        }
+        catch (Exception e) {
+            System.out.println("Job failed: "+e.getMessage());
+            try {
+                machine.execute(() -> {
+                    jobProcessor.abort();
+                    return null;
+                });
+            }
+            catch (Exception e1) {
+                Logger.warn(e1, "Aborting the job failed.");
+            }
+            exitCode = 2;
+        }
+        long wallTimeNs = NanosecondTime.getRuntime() - t0;
+        long simulatedTimeNs = SimulationClock.getRuntime() - simulatedT0;
+        machine.setEnabled(false);
+
+        report(job, jobProcessor, wallTimeNs, simulatedTimeNs);
+        if (exitCode == 0) {
+            for (JobPlacement jobPlacement : jobProcessor.getJobPlacements()) {
+                if (jobPlacement.getStatus() == JobPlacement.Status.Errored) {
+                    exitCode = 1;
+                }
+            }
+        }
+        if (metricsFile != null) {
+            String path = metricsFile.getPath().replaceAll("\\.(csv|json)$", "");
+            JobMetrics.get().exportCsv(new File(path + ".csv"));
+            JobMetrics.get().exportJson(new File(path + ".json"));
+        }
+        return exitCode;
+    }
+
+    protected void report(Job job, PnpJobProcessor jobProcessor, long wallTimeNs, long simulatedTimeNs) {
+        JobMetrics metrics = JobMetrics.get();
+        Map<String, LatencyHistogram> histograms = metrics.getHistograms();
+        LatencyHistogram motion = histograms.get("Motion/Planned");
+        System.out.println(String.format(Locale.US, "Job %s", jobFile.getName()));
+        System.out.println(String.format(Locale.US, "Wall time           %10.3f s", 1e-9*wallTimeNs));
+        if (!SimulationClock.isRealTime()) {
+            System.out.println(String.format(Locale.US, "Simulated time      %10.3f s", 1e-9*simulatedTimeNs));
+        }
+        System.out.println(String.format(Locale.US, "Machine motion time %10.3f s", 
+                motion == null ? 0.0 : 1e-9*motion.getTotal()));
+        int placed = 0;
+        for (JobPlacement jobPlacement : jobProcessor.getJobPlacements()) {
+            if (jobPlacement.getStatus() == JobPlacement.Status.Complete) {
+                placed++;
+            }
+        }
+        System.out.println(String.format(Locale.US, "Parts placed        %10d", placed));
+        if (wallTimeNs > 0) {
+            System.out.println(String.format(Locale.US, "Parts per hour      %10.0f", placed*3600e9/wallTimeNs));
+        }
+        System.out.println();
+        System.out.println(String.format(Locale.US, "%-5s %-20s %-24s %10s %10s %10s  %s", 
+                "Board", "Placement", "Part", "Pick ms", "Align ms", "Place ms", "Status"));
+        for (JobPlacement jobPlacement : jobProcessor.getJobPlacements()) {
+            System.out.println(String.format(Locale.US, "%-5d %-20s %-24s %10.1f %10.1f %10.1f  %s", 
+                    job.getBoardLocations().indexOf(jobPlacement.getBoardLocation()) + 1,
+                    jobPlacement.getPlacement().getId(),
+                    jobPlacement.getPartId(),
+                    1e-6*jobPlacement.getPickTime(),
+                    1e-6*jobPlacement.getAlignTime(),
+                    1e-6*jobPlacement.getPlaceTime(),
+                    jobPlacement.getStatus()));
+        }
+        System.out.println();
+        System.out.println(String.format(Locale.US, "%-40s %8s %12s %10s %10s", 
+                "Step", "Count", "Total ms", "Mean ms", "P90 ms"));
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            if (entry.getKey().startsWith("Step/")) {
+                LatencyHistogram h = entry.getValue();
+                System.out.println(String.format(Locale.US, "%-40s %8d %12.1f %10.1f %10.1f", 
+                        entry.getKey(), h.getCount(), 1e-6*h.getTotal(), 1e-6*h.getMean(), 
+                        1e-6*h.getValueAtPercentile(90)));
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        int exitCode;
+        try {
+            exitCode = new HeadlessJobRunner(args).run();
+        }
+        catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            exitCode = 2;
+        }
+        catch (Exception e) {
+            e.printStackTrace();
+            exitCode = 2;
+        }
+        // The simulation and driver threads would keep the VM alive.
+        System.exit(exitCode);
+    }
+}
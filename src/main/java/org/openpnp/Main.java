@@ -136,6 +136,11 @@ public class Main {
                 System.out.println(getVersion());
                 System.exit(0);
             }
+            if (s.equals("--run-job")) {
+                // Run a job without the user interface.
+                HeadlessJobRunner.main(args);
+                return;
+            }
         }
         
         // http://developer.apple.com/library/mac/#documentation/Java/Conceptual/Java14Development/07-NativePlatformIntegration/NativePlatformIntegration.html#//apple_ref/doc/uid/TP40001909-212952-TPXREF134
@@ -142,7 +142,7 @@ public class ActuatorControlDialog extends JDialog {
         readBtn = new JButton("Read");
         readBtn.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
-                UiUtils.submitUiMachineTask(() -> {
+                submitReadTask(() -> {
                     String s = actuator.read();
                     readTf.setText(s == null ? "" : s);
                 });
@@ -153,7 +153,7 @@ public class ActuatorControlDialog extends JDialog {
         readWithDoubleBtn = new JButton("Read with Double");
         readWithDoubleBtn.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
-                UiUtils.submitUiMachineTask(() -> {
+                submitReadTask(() -> {
                     String s = actuator.read(Double.parseDouble(withDoubleTf.getText()));
                     readTf.setText(s == null ? "" : s);
                 });
@@ -207,4 +207,14 @@ public class ActuatorControlDialog extends JDialog {
         profile.setVisible(isProfiled);
         setProfileBtn.setVisible(isProfiled);
     }
+
+    private void submitReadTask(UiUtils.Thrunnable thrunnable) {
+        if (actuator.isSafeOffMachineTask()) {
+            // No need to queue behind the machine tasks.
+            UiUtils.submitUiConcurrentTask(thrunnable);
+        }
+        else {
+            UiUtils.submitUiMachineTask(thrunnable);
+        }
+    }
 }
@@ -246,7 +246,10 @@ public class IssuesAndSolutionsPanel extends JPanel {
 
                     @Override
                     public void tableChanged(TableModelEvent e) {
-                        solutionChanged();
+                        if (e.getType() != TableModelEvent.INSERT) {
+                            // Rows are only inserted while a background search is running, it is published when complete.
+                            solutionChanged();
+                        }
                     }
                 });
 
@@ -403,10 +406,12 @@ public class IssuesAndSolutionsPanel extends JPanel {
         return color;
     }
 
+    /**
+     * Find the Issues & Solutions in the background. Subjects with unchanged configuration are taken from the 
+     * analysis cache.
+     */
     public void findIssuesAndSolutions() {
-        UiUtils.messageBoxOnException(() -> {
-            machine.getSolutions().findIssues();
-            machine.getSolutions().publishIssues();
+        machine.getSolutions().findIssuesInBackground(() -> {
             labelWarn.setVisible(false);
             if (table.getRowCount() > 0) {
                 table.setRowSelectionInterval(0, 0);
@@ -434,6 +439,9 @@ public class IssuesAndSolutionsPanel extends JPanel {
 
         @Override
         public void actionPerformed(ActionEvent e) {
+            // Explicitly requested, analyze all the subjects afresh, as issues may also depend on other 
+            // subjects' configuration.
+            machine.getSolutions().clearAnalysisCache();
             findIssuesAndSolutions();
         }
     };
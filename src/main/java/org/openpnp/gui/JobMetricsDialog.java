@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2026 agent <agent@local>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+package org.openpnp.gui;
+
+import java.awt.BorderLayout;
+import java.awt.FileDialog;
+import java.awt.FlowLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.AbstractAction;
+import javax.swing.Action;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+
+import org.openpnp.util.JobMetrics;
+import org.openpnp.util.LatencyHistogram;
+import org.openpnp.util.UiUtils;
+
+/**
+ * Live view of the JobMetrics, refreshed while the dialog is shown. Latencies are shown in 
+ * milliseconds.
+ */
+@SuppressWarnings("serial")
+public class JobMetricsDialog extends JDialog {
+    private static final String[] columnNames = new String[] {
+            "Key", "Count", "Total", "Min", "Mean", "P50", "P90", "P99", "Max"
+    };
+
+    private final MetricsTableModel tableModel = new MetricsTableModel();
+    private final JLabel lblStatus;
+    private final Timer timer;
+
+    public JobMetricsDialog() {
+        super(MainFrame.get(), "Job Metrics", false);
+        getContentPane().setLayout(new BorderLayout());
+
+        JTable table = new JTable(tableModel);
+        table.setAutoCreateRowSorter(true);
+        table.getColumnModel().getColumn(0).setPreferredWidth(300);
+        getContentPane().add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JPanel panelButtons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        lblStatus = new JLabel();
+        panelButtons.add(lblStatus);
+        panelButtons.add(new JButton(exportAction));
+        panelButtons.add(new JButton(resetAction));
+        getContentPane().add(panelButtons, BorderLayout.SOUTH);
+
+        timer = new Timer(1000, (e) -> refresh());
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                timer.stop();
+            }
+        });
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        refresh();
+        timer.start();
+    }
+
+    protected void refresh() {
+        JobMetrics metrics = JobMetrics.get();
+        List<Object[]> rows = new ArrayList<>();
+        for (Map.Entry<String, LatencyHistogram> entry : metrics.getHistograms().entrySet()) {
+            LatencyHistogram h = entry.getValue();
+            rows.add(new Object[] { entry.getKey(), h.getCount(), 
+                    toMs(h.getTotal()), toMs(h.getMin()), toMs((long) h.getMean()), 
+                    toMs(h.getValueAtPercentile(50)), toMs(h.getValueAtPercentile(90)), 
+                    toMs(h.getValueAtPercentile(99)), toMs(h.getMax()) });
+        }
+        for (Map.Entry<String, Long> entry : metrics.getCounters().entrySet()) {
+            rows.add(new Object[] { entry.getKey(), entry.getValue(), 
+                    null, null, null, null, null, null, null });
+        }
+        tableModel.setRows(rows);
+        lblStatus.setText(String.format("%s %.1f s", 
+                metrics.isRecording() ? "Recording" : "Stopped", 1e-9*metrics.getElapsedNs()));
+    }
+
+    private static Double toMs(long ns) {
+        return Math.round(ns*1e-3)*1e-3;
+    }
+
+    private Action exportAction = new AbstractAction("Export...") {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            FileDialog fileDialog = new FileDialog(JobMetricsDialog.this, "Export Job Metrics", FileDialog.SAVE);
+            fileDialog.setFile("job-metrics.csv");
+            fileDialog.setVisible(true);
+            if (fileDialog.getFile() == null) {
+                return;
+            }
+            File file = new File(new File(fileDialog.getDirectory()), fileDialog.getFile());
+            UiUtils.messageBoxOnException(() -> {
+                if (file.getName().toLowerCase().endsWith(".json")) {
+                    JobMetrics.get().exportJson(file);
+                }
+                else {
+                    JobMetrics.get().exportCsv(file);
+                }
+            });
+        }
+    };
+
+    private Action resetAction = new AbstractAction("Reset") {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            JobMetrics.get().reset();
+            refresh();
+        }
+    };
+
+    private static class MetricsTableModel extends AbstractTableModel {
+        private List<Object[]> rows = new ArrayList<>();
+
+        void setRows(List<Object[]> rows) {
+            if (rows.size() != this.rows.size()) {
+                this.rows = rows;
+                fireTableDataChanged();
+            }
+            else {
+                // Keep the selection and sorting stable while refreshing.
+                this.rows = rows;
+                fireTableRowsUpdated(0, rows.size() - 1);
+            }
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columnNames.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columnNames[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int columnIndex) {
+            return columnIndex == 0 ? String.class : (columnIndex == 1 ? Long.class : Double.class);
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            return rows.get(rowIndex)[columnIndex];
+        }
+    }
+}
@@ -457,6 +457,10 @@ public class MainFrame extends JFrame {
         mnJob.addSeparator();
         
         mnJob.add(new JMenuItem(jobPanel.resetAllPlacedAction));
+        
+        mnJob.addSeparator();
+        
+        mnJob.add(new JMenuItem(jobMetricsAction));
 
         // Machine
         //////////////////////////////////////////////////////////////////////
@@ -1263,6 +1267,16 @@ public class MainFrame extends JFrame {
         }
     };
     
+    private Action jobMetricsAction = new AbstractAction("Job Metrics...") { //$NON-NLS-1$
+        @Override
+        public void actionPerformed(ActionEvent arg0) {
+            JobMetricsDialog dialog = new JobMetricsDialog();
+            dialog.setSize(900, 500);
+            dialog.setLocationRelativeTo(MainFrame.get());
+            dialog.setVisible(true);
+        }
+    };
+
     private Action submitDiagnosticsAction = new AbstractAction(Translations.getString("Menu.Help.SubmitDiagnostics")) { //$NON-NLS-1$
         @Override
         public void actionPerformed(ActionEvent arg0) {
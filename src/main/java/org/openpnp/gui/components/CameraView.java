@@ -123,6 +123,18 @@ public class CameraView extends JComponent implements CameraListener {
      */
     private BufferedImage lastFrame;
 
+    /**
+     * The display frame received with the last frame, already downscaled by the Camera to
+     * the scaled width and height. Null if none was received.
+     */
+    private BufferedImage lastDisplayFrame;
+
+    /**
+     * The display frame size requested from the Camera, or null if the full resolution frame is
+     * needed, e.g. when zoomed in.
+     */
+    private volatile Dimension displayFrameSize;
+
     private LinkedHashMap<Object, Reticle> reticles = new LinkedHashMap<>();
 
     private JPopupMenu popupMenu;
@@ -196,7 +208,7 @@ public class CameraView extends JComponent implements CameraListener {
 
     private List<CameraViewActionListener> actionListeners = new ArrayList<>();
 
-    private CameraViewFilter cameraViewFilter;
+    private volatile CameraViewFilter cameraViewFilter;
 
     private long flashStartTimeMs;
     private long flashLengthMs = 250;
@@ -522,14 +534,22 @@ public class CameraView extends JComponent implements CameraListener {
 
     @Override
     public void frameReceived(BufferedImage img) {
+        frameReceived(img, null);
+    }
+
+    @Override
+    public void frameReceived(BufferedImage img, BufferedImage displayImg) {
         if (cameraViewFilter != null) {
             img = cameraViewFilter.filterCameraImage(camera, img);
+            // The display frame does not show the filtered image.
+            displayImg = null;
         }
         if (img == null) {
             return;
         }
         BufferedImage oldFrame = lastFrame;
         lastFrame = img;
+        lastDisplayFrame = displayImg;
         if (oldFrame == null
                 || (oldFrame.getWidth() != img.getWidth() || oldFrame.getHeight() != img.getHeight()
                         || !camera.getUnitsPerPixelAtZ().equals(lastUnitsPerPixel))) {
@@ -540,6 +560,15 @@ public class CameraView extends JComponent implements CameraListener {
         repaint();
     }
 
+    @Override
+    public Dimension getDisplayFrameSize() {
+        if (cameraViewFilter != null) {
+            // The filtered image is shown instead, don't let the camera produce a display frame.
+            return null;
+        }
+        return displayFrameSize;
+    }
+
     /**
      * Calculates a bunch of scaling data that we cache to speed up painting. This is recalculated
      * when the size of the component or the size of the source changes. This method is
@@ -593,6 +622,14 @@ public class CameraView extends JComponent implements CameraListener {
         imageX = ins.left + (width / 2) - (scaledWidth / 2);
         imageY = ins.top + (height / 2) - (scaledHeight / 2);
 
+        if (scaledWidth < lastSourceWidth && scaledHeight < lastSourceHeight) {
+            // Let the camera downscale the frames for us.
+            displayFrameSize = new Dimension(scaledWidth, scaledHeight);
+        }
+        else {
+            displayFrameSize = null;
+        }
+
         scaleRatioX = lastSourceWidth / (double) scaledWidth;
         scaleRatioY = lastSourceHeight / (double) scaledHeight;
         
@@ -621,7 +658,13 @@ public class CameraView extends JComponent implements CameraListener {
         g2d.fillRect(ins.left, ins.top, width, height);
         if (image != null) {
             // Only render if there is a valid image.
-            if (renderingQuality == RenderingQuality.Low) {
+            BufferedImage displayImage = lastDisplayFrame;
+            if (displayImage != null 
+                    && displayImage.getWidth() == scaledWidth && displayImage.getHeight() == scaledHeight) {
+                // Already downscaled by the camera, draw it unscaled.
+                g2d.drawImage(displayImage, imageX, imageY, null);
+            }
+            else if (renderingQuality == RenderingQuality.Low) {
                 g2d.drawImage(lastFrame, imageX, imageY, scaledWidth, scaledHeight, null);
             }
             else {
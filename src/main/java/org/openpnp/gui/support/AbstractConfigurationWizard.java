@@ -23,7 +23,10 @@ import java.awt.BorderLayout;
 import java.awt.FlowLayout;
 import java.awt.event.ActionEvent;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -39,6 +42,7 @@ import org.openpnp.gui.MainFrame;
 import org.openpnp.gui.support.JBindings.WrappedBinding;
 import org.openpnp.model.Configuration;
 import org.openpnp.model.Identifiable;
+import org.openpnp.model.Solutions;
 import org.openpnp.util.BeanUtils;
 
 public abstract class AbstractConfigurationWizard extends JPanel implements Wizard, Identifiable {
@@ -115,9 +119,13 @@ public abstract class AbstractConfigurationWizard extends JPanel implements Wiza
         catch (Exception e) {
             MessageBoxes.errorBox(getTopLevelAncestor(), "Validation Error", e.getMessage());
         }
+        Set<Object> sources = Collections.newSetFromMap(new IdentityHashMap<>());
         for (WrappedBinding wrappedBinding : wrappedBindings) {
             wrappedBinding.save();
+            sources.add(wrappedBinding.getSource());
         }
+        // Most settings do not fire property changes, so tell Issues & Solutions what was changed.
+        Solutions.invalidateAnalyses(sources);
         applyAction.setEnabled(false);
         resetAction.setEnabled(false);
     }
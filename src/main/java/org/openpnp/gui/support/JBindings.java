@@ -119,6 +119,10 @@ public class JBindings {
             return wrapper;
         }
 
+        public SS getSource() {
+            return source;
+        }
+
         @Override
         public String toString() {
             return "WrappedBinding [source=" + source + ", sourceProperty=" + sourceProperty
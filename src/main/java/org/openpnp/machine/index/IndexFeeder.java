@@ -18,13 +18,17 @@ import org.openpnp.model.LengthUnit;
 import org.openpnp.model.Location;
 import org.openpnp.model.Solutions;
 import org.openpnp.spi.*;
+import org.openpnp.spi.PnpJobProcessor.JobPlacement;
+import org.pmw.tinylog.Logger;
 import org.simpleframework.xml.Attribute;
 import org.simpleframework.xml.Element;
 
 import javax.swing.*;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.function.IntConsumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -45,6 +49,13 @@ public class IndexFeeder extends ReferenceFeeder {
 
     protected boolean initialized = false;
 
+    /**
+     * Set when the bus pass of another feeder already made this feeder's first attempt. It holds the
+     * placements of the job the pass was made for, so a pass of an earlier job is never taken for
+     * the current one.
+     */
+    protected List<JobPlacement> busPassAttempted = null;
+
     @Element(required = false)
     private Location offset;
 
@@ -130,9 +141,18 @@ public class IndexFeeder extends ReferenceFeeder {
     @Override
     public void prepareForJob(boolean visit) throws Exception {
         for (int i = 0; i <= indexProperties.getFeederCommunicationMaxRetry(); i++) {
-            findSlotAddressIfNeeded();
+            if (i == 0) {
+                boolean attempted = busPassAttempted != null
+                        && busPassAttempted.equals(getJobPlacements());
+                busPassAttempted = null;
+                if (!attempted) {
+                    initializeAllFeeders(this);
+                }
+            } else {
+                findSlotAddressIfNeeded();
 
-            initializeIfNeeded();
+                initializeIfNeeded();
+            }
 
             if (initialized) {
                 verifyFeederLocationIsFullyConfigured();
@@ -173,6 +193,81 @@ public class IndexFeeder extends ReferenceFeeder {
         findSlotAddress(false);
     }
 
+    /**
+     * Like findSlotAddressIfNeeded() but takes the slot the feeder was last seen in, if known. The
+     * following initialization verifies it.
+     */
+    private void findCachedSlotAddressIfNeeded() throws Exception {
+        if (slotAddress == null) {
+            IndexFeederSlots.Slot slot = indexProperties.getFeederSlots().findSlotByHardwareId(hardwareId);
+            if (slot != null && findBySlotAddress(slot.getAddress()) == null) {
+                setSlotAddress(slot.getAddress());
+                return;
+            }
+        }
+
+        findSlotAddressIfNeeded();
+    }
+
+    /**
+     * @return The placements of the job being processed, as a snapshot.
+     */
+    private static List<JobPlacement> getJobPlacements() {
+        return new ArrayList<>(Configuration.get().getMachine().getPnpJobProcessor().getJobPlacements());
+    }
+
+    /**
+     * Bus pass that finds and initializes the Index feeders on the machine that are not yet
+     * initialized, back to back. Only enabled feeders that the job uses are covered, i.e. the ones
+     * that get their own prepareForJob() in this job. If no job is processed, all the enabled feeders
+     * are covered. Slot addresses are taken from the slot cache where known, which saves the address
+     * lookup round trip. The given feeder goes first and its errors are thrown, the others that fail
+     * are left to be re-verified by their own prepareForJob() retries.
+     *
+     * @param first
+     * @throws Exception
+     */
+    static void initializeAllFeeders(IndexFeeder first) throws Exception {
+        List<JobPlacement> jobPlacements = getJobPlacements();
+        Set<String> partIds = new HashSet<>();
+        for (JobPlacement jobPlacement : jobPlacements) {
+            if (jobPlacement.getStatus() == JobPlacement.Status.Pending) {
+                partIds.add(jobPlacement.getPartId());
+            }
+        }
+        List<IndexFeeder> feeders = new ArrayList<>();
+        feeders.add(first);
+        for (Feeder feeder : Configuration.get().getMachine().getFeeders()) {
+            // Check the enabled flag, not isEnabled(), as that also requires the slot address, which
+            // the pass may still have to find.
+            if (feeder instanceof IndexFeeder && feeder != first && ((IndexFeeder) feeder).enabled
+                    && (jobPlacements.isEmpty() 
+                            || (feeder.getPart() != null && partIds.contains(feeder.getPart().getId())))) {
+                feeders.add((IndexFeeder) feeder);
+            }
+        }
+
+        for (IndexFeeder feeder : feeders) {
+            if (feeder.initialized || feeder.hardwareId == null) {
+                continue;
+            }
+
+            if (feeder == first) {
+                feeder.findCachedSlotAddressIfNeeded();
+                feeder.initializeIfNeeded();
+                continue;
+            }
+
+            feeder.busPassAttempted = jobPlacements;
+            try {
+                feeder.findCachedSlotAddressIfNeeded();
+                feeder.initializeIfNeeded();
+            } catch (Exception e) {
+                Logger.warn(e, "Index feeder {} could not be initialized in the bus pass.", feeder.hardwareId);
+            }
+        }
+    }
+
     private void initializeIfNeeded() throws Exception {
         if (initialized || slotAddress == null) {
             return;
@@ -361,6 +456,10 @@ public class IndexFeeder extends ReferenceFeeder {
 
         this.slotAddress = slotAddress;
 
+        if (slotAddress != null && hardwareId != null && indexProperties != null) {
+            indexProperties.getFeederSlots().setSlotHardwareId(slotAddress, hardwareId);
+        }
+
         firePropertyChange("slotAddress", oldValue, slotAddress);
         firePropertyChange("slot", oldSlot, getSlot());
         firePropertyChange("name", oldName, getName());
@@ -24,6 +24,40 @@ public class IndexFeederSlots {
         return slot;
     }
 
+    /**
+     * @param hardwareId
+     * @return The slot the feeder with the given hardware id was last seen in, or null if unknown.
+     */
+    public Slot findSlotByHardwareId(String hardwareId) {
+        if (hardwareId == null) {
+            return null;
+        }
+
+        for (Slot slot : slots) {
+            if (hardwareId.equals(slot.hardwareId)) {
+                return slot;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Remember the feeder that was seen in the slot with the given address. Any other slot it was
+     * remembered in is forgotten.
+     */
+    public void setSlotHardwareId(int address, String hardwareId) {
+        if (hardwareId != null) {
+            for (Slot slot : slots) {
+                if (slot.address != address && hardwareId.equals(slot.hardwareId)) {
+                    slot.hardwareId = null;
+                }
+            }
+        }
+
+        getSlot(address).hardwareId = hardwareId;
+    }
+
     public static class Slot implements Identifiable {
         @Attribute
         private int address;
@@ -31,6 +65,13 @@ public class IndexFeederSlots {
         @Element(required = false)
         private Location location;
 
+        /**
+         * The hardware id of the feeder last seen in this slot. Used to initialize the feeder
+         * without looking up its address on the bus first.
+         */
+        @Attribute(required = false)
+        private String hardwareId;
+
         private Slot() {}
 
         public Slot(int address) {
@@ -57,5 +98,9 @@ public class IndexFeederSlots {
         public void setLocation(Location location) {
             this.location = location;
         }
+
+        public String getHardwareId() {
+            return hardwareId;
+        }
     }
 }
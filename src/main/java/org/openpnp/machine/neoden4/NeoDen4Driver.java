@@ -3,6 +3,7 @@ package org.openpnp.machine.neoden4;
 import java.awt.geom.Point2D;
 import java.io.IOException;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
 
 import org.openpnp.gui.support.PropertySheetWizardAdapter;
 // import org.openpnp.logging.CalibrationLogger;
@@ -12,6 +13,7 @@ import org.openpnp.machine.reference.ReferenceHead;
 import org.openpnp.machine.reference.ReferenceMachine;
 import org.openpnp.machine.reference.ReferenceNozzle;
 import org.openpnp.machine.reference.driver.AbstractReferenceDriver;
+import org.openpnp.machine.reference.driver.ReferenceDriverCommunications;
 import org.openpnp.model.AxesLocation;
 import org.openpnp.model.Configuration;
 import org.openpnp.model.Length;
@@ -121,6 +123,40 @@ public class NeoDen4Driver extends AbstractReferenceDriver {
     @Attribute(required = false)
     protected double scaleFactorY = 1.04947526;
 
+    /**
+     * Minimum wait before the first status poll. The controller may not yet report busy right after
+     * a motion command.
+     */
+    @Attribute(required = false)
+    protected int statusPollFirstMilliseconds = 100;
+
+    /**
+     * The status is first polled at this interval, then the interval doubles up to
+     * statusPollMaxMilliseconds.
+     */
+    @Attribute(required = false)
+    protected int statusPollMinMicroseconds = 500;
+
+    @Attribute(required = false)
+    protected int statusPollMaxMilliseconds = 10;
+
+    /**
+     * Rotation is issued before the XY move, and only the remainder of the rotation settle time is
+     * waited for after the XY move has completed. Not done when Z moves in the same segment.
+     * Off by default, it requires the controller to accept the XY move while C is still rotating.
+     */
+    @Attribute(required = false)
+    protected boolean overlapRotation = false;
+
+    @Attribute(required = false)
+    protected int settleRotationMilliseconds = 100;
+
+    @Attribute(required = false)
+    protected int settleZMilliseconds = 100;
+
+    @Attribute(required = false)
+    protected int settleXyMilliseconds = 100;
+
     private boolean connected;
 
     double backlashCompensation = 0.5;
@@ -136,6 +172,8 @@ public class NeoDen4Driver extends AbstractReferenceDriver {
 
     private boolean motionPending;
 
+    private NeoDen4SimulatedCommunications simulatedCommunications = new NeoDen4SimulatedCommunications();
+
     private ReferenceActuator getOrCreateActuatorInHead(ReferenceHead head, String actuatorName) throws Exception {
         ReferenceActuator a = (ReferenceActuator) head.getActuatorByName(actuatorName);
         if (a == null) {
@@ -361,7 +399,7 @@ public class NeoDen4Driver extends AbstractReferenceDriver {
         buffer[position + 1] = (byte) ((value >> 8) & 0xff);
     }
 
-    int checksum(byte[] b) {
+    static int checksum(byte[] b) {
         short result;
 
         if (b.length == 0) {
@@ -378,6 +416,16 @@ public class NeoDen4Driver extends AbstractReferenceDriver {
         return result;
     }
 
+    @Override
+    public ReferenceDriverCommunications getCommunications() {
+        if (isInSimulationMode()) {
+            // The stock simulation speaks Gcode, use the simulated NeoDen4 controller instead.
+            setConnectionKeepAlive(false);
+            return simulatedCommunications;
+        }
+        return super.getCommunications();
+    }
+
     @Override
     public void home(Machine machine) throws Exception {
         homingOffsets = new AxesLocation();
@@ -409,7 +457,7 @@ public class NeoDen4Driver extends AbstractReferenceDriver {
         writeWithChecksum(b);
         pollFor(0x07, 0x43);
 
-        if (! waitForStatusReady(100, 30000)) {
+        if (! waitForStatusReady(30000)) {
             throw new Exception("home timeout while waiting for status==ready");
         }
 
@@ -479,7 +527,7 @@ public class NeoDen4Driver extends AbstractReferenceDriver {
         writeWithChecksum(b);
         pollFor(0x08, 0x4d);
 
-        if (! waitForStatusReady(100, 30000)) {
+        if (! waitForStatusReady(30000)) {
             throw new Exception("moveXy timeout while waiting for status==ready");
         }
 
@@ -505,17 +553,54 @@ public class NeoDen4Driver extends AbstractReferenceDriver {
         return false;
     }
 
-    private Boolean waitForStatusReady(int sleepMilliS, int maxMilliS) throws Exception {
-        int totalWaitMilliS = 0;
-        do {
-            Thread.sleep(sleepMilliS);
-            totalWaitMilliS += sleepMilliS;
-
-            if (totalWaitMilliS >= maxMilliS) {
+    /**
+     * Poll the status until the machine is ready. The first poll is made after
+     * statusPollFirstMilliseconds. The poll interval then starts at statusPollMinMicroseconds and
+     * backs off to statusPollMaxMilliseconds, so short moves are detected as soon as they complete,
+     * while long moves do not flood the bus.
+     * 
+     * @param maxMilliS
+     * @return false if the machine was not ready within maxMilliS.
+     * @throws Exception
+     */
+    private Boolean waitForStatusReady(int maxMilliS) throws Exception {
+        long startNs = System.nanoTime();
+        long intervalNs = Math.max(1, statusPollMinMicroseconds)*1000L;
+        long maxIntervalNs = Math.max(intervalNs, statusPollMaxMilliseconds*1000000L);
+        if (statusPollFirstMilliseconds > 0) {
+            // The controller may not yet report busy right after the command.
+            Thread.sleep(statusPollFirstMilliseconds);
+        }
+        else {
+            LockSupport.parkNanos(intervalNs);
+        }
+        while (true) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (isStatusReady()) {
+                return true;
+            }
+            if (System.nanoTime() - startNs >= maxMilliS*1000000L) {
                 return false;
             }
-        } while (! isStatusReady());
-        return true;
+            LockSupport.parkNanos(intervalNs);
+            intervalNs = Math.min(intervalNs*2, maxIntervalNs);
+        }
+    }
+
+    /**
+     * Wait for what remains of the settle time after the given System.nanoTime().
+     * 
+     * @param sinceNs
+     * @param settleMilliS
+     * @throws InterruptedException
+     */
+    private void settle(long sinceNs, int settleMilliS) throws InterruptedException {
+        long remainingNs = settleMilliS*1000000L - (System.nanoTime() - sinceNs);
+        if (remainingNs > 0) {
+            Thread.sleep(remainingNs/1000000, (int) (remainingNs%1000000));
+        }
     }
 
     private void moveZ(int nozzle, double z) throws Exception {
@@ -759,16 +844,32 @@ public class NeoDen4Driver extends AbstractReferenceDriver {
 
     private void moveToInternal(HeadMountable hm, MoveToCommand move) 
             throws Exception {
-        boolean isDelayNeeded = false;
+        moveToInternal(move.getLocation0(), move.getLocation1(), move.getFeedRatePerSecond());
+    }
 
-        AxesLocation location1 = move.getLocation1();
-        AxesLocation location0 = move.getLocation0();
+    /**
+     * Move the axes of this driver from location0 to location1, sequencing rotation, Z and XY with
+     * their settle times.
+     * 
+     * @param location0
+     * @param location1
+     * @param feedRate
+     * @throws Exception
+     */
+    protected void moveToInternal(AxesLocation location0, AxesLocation location1, double feedRate) 
+            throws Exception {
 
         // Take only the changed axes and only those driven by this driver
         AxesLocation displacement = location0.motionSegmentTo(location1)
                 .drivenBy(this);
 
+        boolean isMovingXy = (displacement.getAxis(Axis.Type.X) != null 
+                || displacement.getAxis(Axis.Type.Y) != null);
+        boolean isMovingZ = !displacement.byType(Axis.Type.Z).isEmpty();
+
         // Drive rotation axes.
+        long rotationNs = 0;
+        boolean isRotating = false;
         for(ControllerAxis axis : displacement.byType(Axis.Type.Rotation)
                 .getControllerAxes()){
             // map from axis letter to driver index.
@@ -780,16 +881,20 @@ public class NeoDen4Driver extends AbstractReferenceDriver {
             else {
                 this.c[index] = location1.getCoordinate(axis, getUnits());
                 moveC(index, location1.getCoordinate(axis, getUnits()));
-                isDelayNeeded = true;
+                rotationNs = System.nanoTime();
+                isRotating = true;
             }
         }
 
-        if(isDelayNeeded) {
-            Thread.sleep(100);
-            isDelayNeeded = false;
+        // Rotate while moving XY, unless Z needs to move in between.
+        boolean isOverlappingRotation = isRotating && overlapRotation && isMovingXy && !isMovingZ;
+        if (isRotating && !isOverlappingRotation) {
+            settle(rotationNs, settleRotationMilliseconds);
         }
 
         // Drive Z axes
+        long zNs = 0;
+        boolean isZMoved = false;
         for(ControllerAxis axis : displacement.byType(Axis.Type.Z)
                 .getControllerAxes()){
 
@@ -802,17 +907,16 @@ public class NeoDen4Driver extends AbstractReferenceDriver {
             else {
                 this.z[index] = location1.getCoordinate(axis, getUnits());
                 moveZ(index, location1.getCoordinate(axis, getUnits()));
-                isDelayNeeded = true;
+                zNs = System.nanoTime();
+                isZMoved = true;
             }
         }
 
-        if(isDelayNeeded) {
-            Thread.sleep(100);
-            isDelayNeeded = false;
+        if (isZMoved) {
+            settle(zNs, settleZMilliseconds);
         }
 
         // Drive XY axes
-        double feedRate = move.getFeedRatePerSecond();
         // Reconstruct speed factor from "virtual" feed-rate assuming the default 
         // 250mm/s axes feedrate.
         // TODO: better solution than just assuming 250. 
@@ -821,7 +925,7 @@ public class NeoDen4Driver extends AbstractReferenceDriver {
         double x = location1.getCoordinate(location1.getAxis(this, Axis.Type.X), units);
         double y = location1.getCoordinate(location1.getAxis(this, Axis.Type.Y), units);
 
-        if(displacement.getAxis(Axis.Type.X) != null || displacement.getAxis(Axis.Type.Y) != null)
+        if(isMovingXy)
         {
            setMoveSpeed(speed);
 
@@ -831,11 +935,12 @@ public class NeoDen4Driver extends AbstractReferenceDriver {
            Logger.debug(String.format("Neoden move to to %.3f,%.3f", x, y));
            moveXy(x,y);
 
-           isDelayNeeded = true;
-        }
-
-        if(isDelayNeeded) {
-           Thread.sleep(100);
+           // XY has completed, settle from now.
+           settle(System.nanoTime(), settleXyMilliseconds);
+           if (isOverlappingRotation) {
+               // Only the remainder, the rotation has been running during the XY move. 
+               settle(rotationNs, settleRotationMilliseconds);
+           }
         }
 
         // Store the new location to the axes.
@@ -1316,6 +1421,62 @@ public class NeoDen4Driver extends AbstractReferenceDriver {
         this.homeCoordinateY = homeCoordinateY;
     }    
 
+    public int getStatusPollFirstMilliseconds() {
+        return statusPollFirstMilliseconds;
+    }
+
+    public void setStatusPollFirstMilliseconds(int statusPollFirstMilliseconds) {
+        this.statusPollFirstMilliseconds = statusPollFirstMilliseconds;
+    }
+
+    public int getStatusPollMinMicroseconds() {
+        return statusPollMinMicroseconds;
+    }
+
+    public void setStatusPollMinMicroseconds(int statusPollMinMicroseconds) {
+        this.statusPollMinMicroseconds = statusPollMinMicroseconds;
+    }
+
+    public int getStatusPollMaxMilliseconds() {
+        return statusPollMaxMilliseconds;
+    }
+
+    public void setStatusPollMaxMilliseconds(int statusPollMaxMilliseconds) {
+        this.statusPollMaxMilliseconds = statusPollMaxMilliseconds;
+    }
+
+    public boolean isOverlapRotation() {
+        return overlapRotation;
+    }
+
+    public void setOverlapRotation(boolean overlapRotation) {
+        this.overlapRotation = overlapRotation;
+    }
+
+    public int getSettleRotationMilliseconds() {
+        return settleRotationMilliseconds;
+    }
+
+    public void setSettleRotationMilliseconds(int settleRotationMilliseconds) {
+        this.settleRotationMilliseconds = settleRotationMilliseconds;
+    }
+
+    public int getSettleZMilliseconds() {
+        return settleZMilliseconds;
+    }
+
+    public void setSettleZMilliseconds(int settleZMilliseconds) {
+        this.settleZMilliseconds = settleZMilliseconds;
+    }
+
+    public int getSettleXyMilliseconds() {
+        return settleXyMilliseconds;
+    }
+
+    public void setSettleXyMilliseconds(int settleXyMilliseconds) {
+        this.settleXyMilliseconds = settleXyMilliseconds;
+    }
+
     @Deprecated
     @Override
     public void migrateDriver(Machine machine) throws Exception {
@@ -0,0 +1,394 @@
+/*
+ * Copyright (C) 2026 agent <agent@local>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.machine.neoden4;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import org.openpnp.util.SimulationClock;
+import org.pmw.tinylog.Logger;
+
+/**
+ * Simulates the NeoDen4 controller protocol on a local TCP socket, so the NeoDen4Driver can be
+ * tested without the machine. Like the GcodeServer, it listens on a random port by default.
+ *
+ * The protocol as used by the NeoDen4Driver: a command n is announced with 0x40|n and confirmed
+ * with 0xc0|n, each answered with an acknowledge byte, followed by an 8 byte payload and a
+ * checksum byte. The host then polls with n until the command is acknowledged. Reads are announced
+ * the same way and fetched with 0x80|n, answered by an 8 byte payload and a checksum byte.
+ * Feeders are addressed with 0x3f and written with 0xff.
+ *
+ * Motion takes simulated time according to the SimulationClock. The machine status reports busy
+ * until all the axes have completed their motion.
+ */
+public class NeoDen4Server extends Thread {
+    static final int CMD_AIR_READ = 0x00;
+    static final int CMD_MOVE_C = 0x01;
+    static final int CMD_MOVE_Z = 0x02;
+    static final int CMD_AIR = 0x03;
+    static final int CMD_LIGHTS_DOWN = 0x04;
+    static final int CMD_STATUS_READ = 0x05;
+    static final int CMD_SPEED = 0x06;
+    static final int CMD_SYSTEM = 0x07;
+    static final int CMD_MOVE_XY = 0x08;
+    static final int CMD_RAIL = 0x09;
+    static final int CMD_PEEL_LOWER = 0x0c;
+    static final int CMD_PEEL_UPPER = 0x0e;
+
+    static final int FEEDER_SELECT = 0x3f;
+    static final int FEEDER_WRITE = 0xff;
+    static final int FEEDER_BASE_ADDRESS = 0x46;
+
+    /**
+     * Simulated maximum XY feed-rate in mm/s, when the speed is set to 100%.
+     */
+    static final double maxFeedRate = 250.0;
+    static final double zFeedRate = 100.0;
+    static final double cFeedRate = 1800.0;
+
+    final ServerSocket serverSocket;
+
+    private int xSteps;
+    private int ySteps;
+    private double feedRate = maxFeedRate;
+    private double[] z = new double[5];
+    private double[] c = new double[5];
+    private int[] air = new int[5];
+    private boolean homed;
+    private int feedCount;
+    private int peelCount;
+    private int lastFeederId = -1;
+    private long busyUntilNs;
+
+    /**
+     * Create a NeoDen4Server listening on the given port.
+     *
+     * @param port
+     * @throws IOException
+     */
+    public NeoDen4Server(int port) throws IOException {
+        serverSocket = new ServerSocket(port);
+        setDaemon(true);
+        setName("NeoDen4Server");
+        start();
+    }
+
+    /**
+     * Create a NeoDen4Server listening on a random port. The chosen port can be retrieved by
+     * calling getListenerPort().
+     *
+     * @throws IOException
+     */
+    public NeoDen4Server() throws IOException {
+        this(0);
+    }
+
+    public int getListenerPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public void shutdown() {
+        try {
+            serverSocket.close();
+        }
+        catch (Exception e) {
+        }
+    }
+
+    public synchronized int getXSteps() {
+        return xSteps;
+    }
+
+    public synchronized int getYSteps() {
+        return ySteps;
+    }
+
+    /**
+     * @param nozzle 1-4
+     * @return The Z coordinate of the nozzle, as sent by the driver, i.e. 0 is up.
+     */
+    public synchronized double getZ(int nozzle) {
+        return z[nozzle];
+    }
+
+    /**
+     * @param nozzle 1-4
+     * @return The rotation of the nozzle in degrees.
+     */
+    public synchronized double getC(int nozzle) {
+        return c[nozzle];
+    }
+
+    /**
+     * @param nozzle 1-4
+     * @return The last air setting of the nozzle.
+     */
+    public synchronized int getAir(int nozzle) {
+        return air[nozzle];
+    }
+
+    public synchronized boolean isHomed() {
+        return homed;
+    }
+
+    public synchronized int getFeedCount() {
+        return feedCount;
+    }
+
+    public synchronized int getPeelCount() {
+        return peelCount;
+    }
+
+    /**
+     * @return The id of the feeder that was last fed, or -1.
+     */
+    public synchronized int getLastFeederId() {
+        return lastFeederId;
+    }
+
+    public synchronized boolean isBusy() {
+        return SimulationClock.getRuntime() < busyUntilNs;
+    }
+
+    static int acknowledge(int command) {
+        // As observed on the machine.
+        return command ^ (command < 8 ? 0x0c : 0x0d);
+    }
+
+    static boolean isRead(int command) {
+        return command == CMD_AIR_READ || command == CMD_STATUS_READ;
+    }
+
+    static int pollResponse(int command) {
+        if (isRead(command)) {
+            return command == CMD_AIR_READ ? 0x11 : 0x14;
+        }
+        return 0x40 | (acknowledge(command) ^ 0x08);
+    }
+
+    static int getInt32(byte[] b, int position) {
+        return (b[position] & 0xff)
+                | ((b[position + 1] & 0xff) << 8)
+                | ((b[position + 2] & 0xff) << 16)
+                | ((b[position + 3] & 0xff) << 24);
+    }
+
+    static int getInt16(byte[] b, int position) {
+        return (short) ((b[position] & 0xff) | ((b[position + 1] & 0xff) << 8));
+    }
+
+    private synchronized void addBusyTime(double seconds) {
+        long now = SimulationClock.getRuntime();
+        busyUntilNs = Math.max(busyUntilNs, now + (long) (seconds*1e9));
+    }
+
+    synchronized void execute(int command, byte[] payload) {
+        switch (command) {
+            case CMD_MOVE_XY: {
+                int x = getInt32(payload, 0);
+                int y = getInt32(payload, 4);
+                double distance = Math.hypot(x - xSteps, y - ySteps)/100.0;
+                xSteps = x;
+                ySteps = y;
+                addBusyTime(distance/feedRate);
+                break;
+            }
+            case CMD_MOVE_Z: {
+                int nozzle = payload[3];
+                if (nozzle >= 1 && nozzle <= 4) {
+                    double newZ = getInt16(payload, 0)/1000.0;
+                    addBusyTime(Math.abs(newZ - z[nozzle])/zFeedRate);
+                    z[nozzle] = newZ;
+                }
+                break;
+            }
+            case CMD_MOVE_C: {
+                int nozzle = payload[3];
+                double newC = -getInt16(payload, 0)/10.0;
+                if (nozzle >= 1 && nozzle <= 4) {
+                    addBusyTime(Math.abs(newC - c[nozzle])/cFeedRate);
+                    c[nozzle] = newC;
+                }
+                break;
+            }
+            case CMD_SPEED: {
+                if (payload[2] == 0x09) {
+                    // Move speed, as opposed to the rail speed.
+                    int speed = getInt16(payload, 0);
+                    feedRate = Math.max(1.0, maxFeedRate*(speed - 10)/120.0);
+                }
+                break;
+            }
+            case CMD_AIR: {
+                int nozzle = payload[1];
+                if (nozzle >= 1 && nozzle <= 4) {
+                    air[nozzle] = payload[0];
+                }
+                break;
+            }
+            case CMD_SYSTEM: {
+                if (payload[0] == 0x01) {
+                    xSteps = 0;
+                    ySteps = 0;
+                    homed = true;
+                    addBusyTime(0.5);
+                }
+                break;
+            }
+            case CMD_PEEL_LOWER:
+            case CMD_PEEL_UPPER: {
+                peelCount++;
+                break;
+            }
+            default:
+                break;
+        }
+    }
+
+    synchronized byte[] read(int command) {
+        byte[] payload = new byte[8];
+        if (command == CMD_STATUS_READ) {
+            payload[0] = (byte) (isBusy() ? 1 : 0);
+        }
+        else if (command == CMD_AIR_READ) {
+            for (int i = 0; i < 4; i++) {
+                // Pretend the vacuum follows the air setting.
+                payload[i] = (byte) air[i + 1];
+            }
+        }
+        return payload;
+    }
+
+    synchronized void feed(int feederId) {
+        lastFeederId = feederId;
+        feedCount++;
+    }
+
+    public void run() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                new Worker(socket).start();
+            }
+            catch (Exception e) {
+            }
+        }
+        Logger.debug("Socket port "+getListenerPort()+" bye-bye.");
+    }
+
+    class Worker extends Thread {
+        final Socket socket;
+        final InputStream input;
+        final OutputStream output;
+
+        public Worker(Socket socket) throws IOException {
+            this.socket = socket;
+            socket.setTcpNoDelay(true);
+            input = socket.getInputStream();
+            output = socket.getOutputStream();
+            setDaemon(true);
+        }
+
+        int read() throws IOException {
+            int d = input.read();
+            if (d == -1) {
+                throw new IOException("Connection closed.");
+            }
+            return d;
+        }
+
+        byte[] readPayload() throws IOException {
+            byte[] payload = new byte[8];
+            for (int i = 0; i < payload.length; i++) {
+                payload[i] = (byte) read();
+            }
+            int checksum = read();
+            if (checksum != (NeoDen4Driver.checksum(payload) & 0xff)) {
+                Logger.warn("NeoDen4Server checksum mismatch.");
+            }
+            return payload;
+        }
+
+        void write(int d) throws IOException {
+            output.write(d & 0xff);
+            output.flush();
+        }
+
+        void writePayload(byte[] payload) throws IOException {
+            byte[] b = new byte[payload.length + 1];
+            System.arraycopy(payload, 0, b, 0, payload.length);
+            b[payload.length] = (byte) NeoDen4Driver.checksum(payload);
+            output.write(b);
+            output.flush();
+        }
+
+        public void run() {
+            try {
+                while (!serverSocket.isClosed()) {
+                    int d = read();
+                    if (d == FEEDER_SELECT) {
+                        write(0x0c);
+                        // Feeder address, answered with its status.
+                        read();
+                        write(0x00);
+                    }
+                    else if (d == FEEDER_WRITE) {
+                        write(0x00);
+                        int address = read();
+                        write(0x00);
+                        readPayload();
+                        feed(address - FEEDER_BASE_ADDRESS);
+                    }
+                    else if ((d & 0xc0) == 0x40) {
+                        write(acknowledge(d & 0x0f));
+                    }
+                    else if ((d & 0xc0) == 0xc0) {
+                        int command = d & 0x0f;
+                        write(acknowledge(command) ^ 0x08);
+                        execute(command, readPayload());
+                    }
+                    else if ((d & 0xc0) == 0x80) {
+                        int command = d & 0x0f;
+                        write(pollResponse(command) ^ 0x08);
+                        writePayload(NeoDen4Server.this.read(command));
+                    }
+                    else if (d < 0x10) {
+                        write(pollResponse(d));
+                    }
+                    else {
+                        Logger.warn(String.format("NeoDen4Server unknown command %02x.", d));
+                    }
+                }
+            }
+            catch (IOException e) {
+                // Disconnected.
+            }
+            try {
+                socket.close();
+            }
+            catch (Exception e) {
+            }
+            Logger.debug("Worker port "+getListenerPort()+" bye-bye.");
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2026 agent <agent@local>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.machine.neoden4;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeoutException;
+
+import org.openpnp.machine.reference.driver.ReferenceDriverCommunications;
+
+/**
+ * Binary communications with a NeoDen4Server on a local socket, started on connect. Used by the
+ * NeoDen4Driver in simulation mode.
+ */
+public class NeoDen4SimulatedCommunications extends ReferenceDriverCommunications {
+    protected Socket clientSocket;
+    protected InputStream input;
+    protected OutputStream output;
+
+    protected NeoDen4Server server;
+    private int timeoutMilliseconds = 500;
+
+    @Override
+    public synchronized void connect() throws Exception {
+        disconnect();
+        server = new NeoDen4Server();
+        clientSocket = new Socket("localhost", server.getListenerPort());
+        clientSocket.setTcpNoDelay(true);
+        clientSocket.setSoTimeout(timeoutMilliseconds);
+        input = clientSocket.getInputStream();
+        output = clientSocket.getOutputStream();
+    }
+
+    @Override
+    public synchronized void disconnect() throws Exception {
+        if (clientSocket != null) {
+            clientSocket.close();
+            input = null;
+            output = null;
+            clientSocket = null;
+        }
+        if (server != null) {
+            server.shutdown();
+            server = null;
+        }
+    }
+
+    @Override
+    public String getConnectionName() {
+        NeoDen4Server server = this.server; // prevent race by taking a copy
+        return "simulated: "+(server == null ? "off" : "port "+server.getListenerPort());
+    }
+
+    /**
+     * @return The simulated controller, or null if not connected.
+     */
+    public NeoDen4Server getServer() {
+        return server;
+    }
+
+    public int getTimeoutMilliseconds() {
+        return timeoutMilliseconds;
+    }
+
+    public void setTimeoutMilliseconds(int timeoutMilliseconds) {
+        this.timeoutMilliseconds = timeoutMilliseconds;
+    }
+
+    @Override
+    public int read() throws TimeoutException, IOException {
+        if (input == null) {
+            throw new IOException("Trying to read from a unconnected socket.");
+        }
+        try {
+            int d = input.read();
+            if (d == -1) {
+                throw new IOException("Read error.");
+            }
+            return d;
+        }
+        catch (SocketTimeoutException ex) {
+            throw new TimeoutException(ex.getMessage());
+        }
+    }
+
+    @Override
+    public void write(int d) throws IOException {
+        output.write(d);
+    }
+
+    @Override
+    protected void writeBytes(byte[] data) throws IOException {
+        output.write(data);
+    }
+}
@@ -7,6 +7,7 @@ import java.util.Map;
 import org.openpnp.gui.support.Wizard;
 import org.openpnp.machine.neoden4.wizards.Neoden4SwitcherCameraConfigurationWizard;
 import org.openpnp.machine.reference.camera.ReferenceCamera;
+import org.openpnp.machine.reference.camera.SwitcherChannel;
 import org.openpnp.model.Configuration;
 import org.openpnp.spi.Camera;
 import org.openpnp.spi.PropertySheetHolder;
@@ -25,43 +26,65 @@ public class Neoden4SwitcherCamera extends ReferenceCamera {
     @Attribute(required = false)
     private int gain = 8;
     
-    private static Map<Integer, Camera> switchers = new HashMap<>();
+    @Attribute(required = false)
+    private long previewSwitchMillis = 500;
+    
+    private static Map<Integer, SwitcherChannel> switchers = new HashMap<>();
+    
+    private volatile BufferedImage lastImage;
     
     protected int getCaptureTryCount() {
         return 2;
     }
 
+    protected SwitcherChannel getSwitcherChannel() {
+        synchronized (switchers) {
+            return switchers.computeIfAbsent(switcher, (k) -> new SwitcherChannel());
+        }
+    }
+
     @Override
 	public synchronized BufferedImage internalCapture() {
 		if (!ensureOpen()) {
 			return null;
 		}
-		synchronized (switchers) {
-			if (switchers.get(switcher) != this) {
-				switchers.put(switcher, this);
-			}
-			
-			Neoden4Camera neodenCam = null;
-			for (Camera c : Configuration.get().getMachine().getAllCameras()) {
-				if (c instanceof Neoden4Camera) {
-					neodenCam = (Neoden4Camera) c;
-					break;
-				}
-			}
-			if (neodenCam == null) {
-				Logger.error("Can't find Neoden4Camera!");
-				return null;
-			} 
-			else {
-				neodenCam.setCameraId(switcher);
-				neodenCam.setCameraExposureAndGain(exposure, gain); 
-			}
+		boolean preview = isPreviewThread();
+		try {
+		    BufferedImage image = getSwitcherChannel().capture(this, preview, previewSwitchMillis, 0, 
+		            () -> {
+		                Neoden4Camera neodenCam = null;
+		                for (Camera c : Configuration.get().getMachine().getAllCameras()) {
+		                    if (c instanceof Neoden4Camera) {
+		                        neodenCam = (Neoden4Camera) c;
+		                        break;
+		                    }
+		                }
+		                if (neodenCam == null) {
+		                    Logger.error("Can't find Neoden4Camera!");
+		                    return false;
+		                } 
+		                neodenCam.setCameraId(switcher);
+		                neodenCam.setCameraExposureAndGain(exposure, gain); 
+		                return true;
+		            }, 
+		            // Note, the target camera is actually a capture device with multiple analog cameras connected via multiplexer. 
+		            // Each analog camera can have a different lens attached and may be subject to different mounting imperfections, 
+		            // therefore each SwitcherCamera must have its own set of lens calibration and transforms. 
+		            // The target camera device however must not apply any calibration or transform, hence the raw capture.  
+		            () -> getCamera().captureRaw());
+		    if (image != null) {
+		        lastImage = image;
+		    }
+		    else if (preview) {
+		        // The channel is busy with other cameras, keep showing the last image.
+		        return lastImage;
+		    }
+		    return image;
+		}
+		catch (Exception e) {
+		    Logger.error(e);
+		    return null;
 		}
-        // Note, the target camera is actually a capture device with multiple analog cameras connected via multiplexer. 
-        // Each analog camera can have a different lens attached and may be subject to different mounting imperfections, 
-        // therefore each SwitcherCamera must have its own set of lens calibration and transforms. 
-        // The target camera device however must not apply any calibration or transform, hence the raw capture.  
-        return getCamera().captureRaw();
     }
 
     @Override
@@ -69,11 +92,11 @@ public class Neoden4SwitcherCamera extends ReferenceCamera {
         if (!isOpen()) {
             return false;
         }
-        synchronized (switchers) {
-            if (switchers.get(switcher) != this) {
-                // Always assume an off-switched camera has a new frame.
-                return true;
-            }
+        SwitcherChannel channel = getSwitcherChannel();
+        if (channel.getActiveCamera() != this) {
+            // An off-switched camera only has a new frame for the preview, when the preview 
+            // may switch the channel. 
+            return channel.isPreviewCaptureDue(this, previewSwitchMillis);
         }
         return getCamera().hasNewFrame();
     }
@@ -133,6 +156,15 @@ public class Neoden4SwitcherCamera extends ReferenceCamera {
         firePropertyChange("camera", null, camera);
     }
 
+    public long getPreviewSwitchMillis() {
+        return previewSwitchMillis;
+    }
+
+    public void setPreviewSwitchMillis(long previewSwitchMillis) {
+        this.previewSwitchMillis = previewSwitchMillis;
+        firePropertyChange("previewSwitchMillis", null, previewSwitchMillis);
+    }
+
     public int getExposure() {
         return this.exposure;
     }
@@ -22,6 +22,7 @@ package org.openpnp.machine.neoden4.wizards;
 
 import java.awt.Color;
 
+import javax.swing.JCheckBox;
 import javax.swing.SwingConstants;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
@@ -47,6 +48,13 @@ public class Neoden4DriverConfigurationWizard extends AbstractConfigurationWizar
     private JTextField homeCoordinateYTextField;
     private JTextField scaleFactorXTextField;
     private JTextField scaleFactorYTextField;
+    private JTextField statusPollFirstTextField;
+    private JTextField statusPollMinTextField;
+    private JTextField statusPollMaxTextField;
+    private JCheckBox overlapRotationCheckBox;
+    private JTextField settleRotationTextField;
+    private JTextField settleZTextField;
+    private JTextField settleXyTextField;
 
     public Neoden4DriverConfigurationWizard(NeoDen4Driver driver) {
         this.driver = driver;
@@ -101,6 +109,90 @@ public class Neoden4DriverConfigurationWizard extends AbstractConfigurationWizar
         scaleFactorYTextField.setColumns(10);
         panelMachineDetails.add(scaleFactorYTextField, "4, 8, fill, default");
 
+        JPanel panelMotion = new JPanel();
+        panelMotion.setBorder(new TitledBorder(null,
+                "Motion", TitledBorder.LEADING, TitledBorder.TOP, null, new Color(0, 0, 0)));
+        contentPanel.add(panelMotion);
+        panelMotion.setLayout(new FormLayout(
+                new ColumnSpec[] { 
+                    FormSpecs.RELATED_GAP_COLSPEC, 
+                    FormSpecs.DEFAULT_COLSPEC,
+                    FormSpecs.RELATED_GAP_COLSPEC, 
+                    FormSpecs.DEFAULT_COLSPEC, 
+                    FormSpecs.RELATED_GAP_COLSPEC, },
+                new RowSpec[] { 
+                    FormSpecs.RELATED_GAP_ROWSPEC, 
+                    FormSpecs.DEFAULT_ROWSPEC, 
+                    FormSpecs.RELATED_GAP_ROWSPEC,
+                    FormSpecs.DEFAULT_ROWSPEC, 
+                    FormSpecs.RELATED_GAP_ROWSPEC, 
+                    FormSpecs.DEFAULT_ROWSPEC,
+                    FormSpecs.RELATED_GAP_ROWSPEC, 
+                    FormSpecs.DEFAULT_ROWSPEC,
+                    FormSpecs.RELATED_GAP_ROWSPEC, 
+                    FormSpecs.DEFAULT_ROWSPEC,
+                    FormSpecs.RELATED_GAP_ROWSPEC, 
+                    FormSpecs.DEFAULT_ROWSPEC,
+                    FormSpecs.RELATED_GAP_ROWSPEC, 
+                    FormSpecs.DEFAULT_ROWSPEC,
+                    FormSpecs.RELATED_GAP_ROWSPEC, }));
+
+        JLabel lblStatusPollFirst = new JLabel("Status Poll First [ms]");
+        lblStatusPollFirst.setToolTipText("<html>Minimum wait before the machine status is first polled after a move.<br/>"
+                + "The controller may not yet report busy right after the command.</html>");
+        panelMotion.add(lblStatusPollFirst, "2, 2, right, default");
+
+        statusPollFirstTextField = new JTextField();
+        statusPollFirstTextField.setColumns(10);
+        panelMotion.add(statusPollFirstTextField, "4, 2, fill, default");
+
+        JLabel lblStatusPollMin = new JLabel("Status Poll Min. [µs]");
+        lblStatusPollMin.setToolTipText("<html>After the first poll, the machine status is polled again after this time,<br/>"
+                + "then the poll interval doubles up to the maximum.</html>");
+        panelMotion.add(lblStatusPollMin, "2, 4, right, default");
+
+        statusPollMinTextField = new JTextField();
+        statusPollMinTextField.setColumns(10);
+        panelMotion.add(statusPollMinTextField, "4, 4, fill, default");
+
+        JLabel lblStatusPollMax = new JLabel("Status Poll Max. [ms]");
+        panelMotion.add(lblStatusPollMax, "2, 6, right, default");
+
+        statusPollMaxTextField = new JTextField();
+        statusPollMaxTextField.setColumns(10);
+        panelMotion.add(statusPollMaxTextField, "4, 6, fill, default");
+
+        JLabel lblOverlapRotation = new JLabel("Rotate during XY?");
+        lblOverlapRotation.setToolTipText("<html>Rotate the nozzles while moving XY, unless Z moves in the same segment.<br/>"
+                + "Only the remainder of the rotation settle time is waited for after the XY move.<br/>"
+                + "Requires the controller to accept the XY move while C is still rotating,<br/>"
+                + "verify this on the machine before enabling it.</html>");
+        panelMotion.add(lblOverlapRotation, "2, 8, right, default");
+
+        overlapRotationCheckBox = new JCheckBox("");
+        panelMotion.add(overlapRotationCheckBox, "4, 8");
+
+        JLabel lblSettleRotation = new JLabel("Rotation Settle [ms]");
+        panelMotion.add(lblSettleRotation, "2, 10, right, default");
+
+        settleRotationTextField = new JTextField();
+        settleRotationTextField.setColumns(10);
+        panelMotion.add(settleRotationTextField, "4, 10, fill, default");
+
+        JLabel lblSettleZ = new JLabel("Z Settle [ms]");
+        panelMotion.add(lblSettleZ, "2, 12, right, default");
+
+        settleZTextField = new JTextField();
+        settleZTextField.setColumns(10);
+        panelMotion.add(settleZTextField, "4, 12, fill, default");
+
+        JLabel lblSettleXy = new JLabel("XY Settle [ms]");
+        lblSettleXy.setToolTipText("Additional wait after the machine reports the XY move as completed.");
+        panelMotion.add(lblSettleXy, "2, 14, right, default");
+
+        settleXyTextField = new JTextField();
+        settleXyTextField.setColumns(10);
+        panelMotion.add(settleXyTextField, "4, 14, fill, default");
     }
 
     @Override
@@ -110,5 +202,14 @@ public class Neoden4DriverConfigurationWizard extends AbstractConfigurationWizar
         addWrappedBinding(driver, "homeCoordinateY", homeCoordinateYTextField, "text", doubleConverter);
         addWrappedBinding(driver, "scaleFactorX", scaleFactorXTextField, "text", doubleConverter);
         addWrappedBinding(driver, "scaleFactorY", scaleFactorYTextField, "text", doubleConverter);
+
+        IntegerConverter intConverter = new IntegerConverter();
+        addWrappedBinding(driver, "statusPollFirstMilliseconds", statusPollFirstTextField, "text", intConverter);
+        addWrappedBinding(driver, "statusPollMinMicroseconds", statusPollMinTextField, "text", intConverter);
+        addWrappedBinding(driver, "statusPollMaxMilliseconds", statusPollMaxTextField, "text", intConverter);
+        addWrappedBinding(driver, "overlapRotation", overlapRotationCheckBox, "selected");
+        addWrappedBinding(driver, "settleRotationMilliseconds", settleRotationTextField, "text", intConverter);
+        addWrappedBinding(driver, "settleZMilliseconds", settleZTextField, "text", intConverter);
+        addWrappedBinding(driver, "settleXyMilliseconds", settleXyTextField, "text", intConverter);
     }
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import javax.swing.SwingConstants;
 import org.openpnp.gui.components.ComponentDecorators;
 import org.openpnp.gui.support.AbstractConfigurationWizard;
 import org.openpnp.gui.support.IntegerConverter;
+import org.openpnp.gui.support.LongConverter;
 import org.openpnp.machine.neoden4.Neoden4SwitcherCamera;
 import org.openpnp.model.Configuration;
 import org.openpnp.spi.Camera;
@@ -29,6 +30,8 @@ public class Neoden4SwitcherCameraConfigurationWizard extends AbstractConfigurat
     private JLabel lblGain;
     private JTextField cameraExposureTextField;
     private JTextField cameraGainTextField;
+    private JLabel lblPreviewSwitchMillis;
+    private JTextField previewSwitchMillis;
     
     public Neoden4SwitcherCameraConfigurationWizard(Neoden4SwitcherCamera camera) {
         this.camera = camera;
@@ -89,6 +92,16 @@ public class Neoden4SwitcherCameraConfigurationWizard extends AbstractConfigurat
         cameraGainTextField = new JTextField();
         cameraGainTextField.setColumns(16);
         contentPanel.add(cameraGainTextField, "4, 8, fill, default");
+        
+        lblPreviewSwitchMillis = new JLabel("Preview Switch Interval (ms)");
+        lblPreviewSwitchMillis.setToolTipText("<html>Minimum interval between camera switches for the preview.<br/>"
+                + "Captures for computer vision always take precedence and are never throttled.</html>");
+        lblPreviewSwitchMillis.setHorizontalAlignment(SwingConstants.TRAILING);
+        contentPanel.add(lblPreviewSwitchMillis, "2, 10, right, default");
+        
+        previewSwitchMillis = new JTextField();
+        previewSwitchMillis.setColumns(16);
+        contentPanel.add(previewSwitchMillis, "4, 10, fill, default");
     }
 
     @Override
@@ -98,7 +111,9 @@ public class Neoden4SwitcherCameraConfigurationWizard extends AbstractConfigurat
         addWrappedBinding(camera, "switcher", switcher, "text", intConverter);
         addWrappedBinding(camera, "exposure", cameraExposureTextField, "text", intConverter);
         addWrappedBinding(camera, "gain", cameraGainTextField, "text", intConverter);
+        addWrappedBinding(camera, "previewSwitchMillis", previewSwitchMillis, "text", new LongConverter());
         
         ComponentDecorators.decorateWithAutoSelect(switcher);
+        ComponentDecorators.decorateWithAutoSelect(previewSwitchMillis);
     }
 }
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2026 agent <agent@local>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.machine.reference;
+
+import java.util.function.DoublePredicate;
+
+import org.openpnp.util.NanosecondTime;
+
+/**
+ * Time series of streamed actuator readings, e.g. of a vacuum sensor that is auto-reported by the
+ * controller. The readings are recorded by the driver as they arrive, consumers can wait for a
+ * reading that meets a condition instead of polling the actuator with synchronous reads.
+ *
+ * The series is a fixed size ring buffer, only the most recent readings are kept.
+ */
+public class ActuatorReadingSeries {
+    public static class Reading {
+        private final long timeNs;
+        private final double value;
+
+        public Reading(long timeNs, double value) {
+            this.timeNs = timeNs;
+            this.value = value;
+        }
+
+        /**
+         * @return The NanosecondTime.getRuntime() time the reading was received.
+         */
+        public long getTimeNs() {
+            return timeNs;
+        }
+
+        public double getValue() {
+            return value;
+        }
+    }
+
+    private final long[] times;
+    private final double[] values;
+    private long count;
+
+    public ActuatorReadingSeries(int capacity) {
+        times = new long[capacity];
+        values = new double[capacity];
+    }
+
+    /**
+     * Record a reading received now.
+     *
+     * @param value
+     */
+    public void record(double value) {
+        record(NanosecondTime.getRuntime(), value);
+    }
+
+    public synchronized void record(long timeNs, double value) {
+        int i = (int) (count % times.length);
+        times[i] = timeNs;
+        values[i] = value;
+        count++;
+        notifyAll();
+    }
+
+    /**
+     * @return The latest reading or null if there is none.
+     */
+    public synchronized Reading getLatest() {
+        if (count == 0) {
+            return null;
+        }
+        int i = (int) ((count - 1) % times.length);
+        return new Reading(times[i], values[i]);
+    }
+
+    /**
+     * @return The interval between the two most recent readings in milliseconds, or 0 if there are 
+     * fewer than two. Unlike an average over the buffer, this is not inflated by idle gaps in the 
+     * stream.
+     */
+    public synchronized long getLatestIntervalMilliseconds() {
+        if (count < 2) {
+            return 0;
+        }
+        long last = times[(int) ((count - 1) % times.length)];
+        long previous = times[(int) ((count - 2) % times.length)];
+        return (last - previous)/1000000;
+    }
+
+    /**
+     * Get the readings received after the given time, that are still in the buffer.
+     *
+     * @param timeNs
+     * @return The readings in chronological order.
+     */
+    public synchronized Reading[] getReadingsAfter(long timeNs) {
+        long first = Math.max(0, count - times.length);
+        long n = count;
+        while (n > first && times[(int) ((n - 1) % times.length)] > timeNs) {
+            n--;
+        }
+        Reading[] readings = new Reading[(int) (count - n)];
+        for (long k = n; k < count; k++) {
+            int i = (int) (k % times.length);
+            readings[(int) (k - n)] = new Reading(times[i], values[i]);
+        }
+        return readings;
+    }
+
+    /**
+     * Wait for the first reading received after the given time that satisfies the condition.
+     *
+     * @param timeNs The time the reading must be newer than.
+     * @param condition
+     * @param timeoutMs
+     * @return The reading or null if none was received within the timeout.
+     * @throws InterruptedException
+     */
+    public synchronized Reading awaitReading(long timeNs, DoublePredicate condition, long timeoutMs)
+            throws InterruptedException {
+        long timeout = NanosecondTime.getRuntimeMilliseconds() + timeoutMs;
+        long next = count;
+        // Check the readings already received.
+        for (Reading reading : getReadingsAfter(timeNs)) {
+            if (condition.test(reading.getValue())) {
+                return reading;
+            }
+        }
+        while (true) {
+            long wait = timeout - NanosecondTime.getRuntimeMilliseconds();
+            if (wait <= 0) {
+                return null;
+            }
+            wait(wait);
+            for (long k = Math.max(next, count - times.length); k < count; k++) {
+                int i = (int) (k % times.length);
+                if (times[i] > timeNs && condition.test(values[i])) {
+                    return new Reading(times[i], values[i]);
+                }
+            }
+            next = count;
+        }
+    }
+}
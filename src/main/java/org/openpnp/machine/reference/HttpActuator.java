@@ -20,12 +20,15 @@
 
 package org.openpnp.machine.reference;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
-import java.net.ProtocolException;
 import java.net.URL;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -36,6 +39,7 @@ import org.openpnp.model.Solutions.Milestone;
 import org.openpnp.model.Solutions.Severity;
 import org.openpnp.util.TextUtils;
 import org.pmw.tinylog.Logger;
+import org.simpleframework.xml.Attribute;
 import org.simpleframework.xml.Element;
 
 public class HttpActuator extends ReferenceActuator {
@@ -59,12 +63,31 @@ public class HttpActuator extends ReferenceActuator {
 
     // Instead we remember the last formed URL per session. 
     // Storing the formed URL instead of the value covers folding through formating/canonical form as well as
-    // configuration changes. 
-    protected String lastActuationUrl = null;
+    // configuration changes. Volatile, as asynchronous actuations reset it on failure.
+    protected volatile String lastActuationUrl = null;
 
     @Element(required = false)
     protected String readUrl = "";
 
+    @Attribute(required = false)
+    protected int connectTimeoutMilliseconds = 5000;
+
+    @Attribute(required = false)
+    protected int readTimeoutMilliseconds = 5000;
+
+    /**
+     * If true, actuations are sent in the background, in the order they were made. A failed
+     * actuation is reported on the next actuation or read. If the actuator is coordinated after 
+     * actuation, the machine must not continue before the actuation is done, therefore the 
+     * actuation still waits for the response.
+     */
+    @Attribute(required = false)
+    protected boolean asynchronous = false;
+
+    private ExecutorService executor;
+    private Future<?> lastRequest;
+    private IOException asynchronousError;
+
     public HttpActuator() {}
 
     @Override
@@ -72,6 +95,13 @@ public class HttpActuator extends ReferenceActuator {
         return true;
     }
 
+    @Override
+    public boolean isSafeOffMachineTask() {
+        // Reads over its own connection, but read() coordinates with the machine before and after, 
+        // if so configured, which must happen on a machine task.
+        return !isCoordinatedBeforeRead() && !isCoordinatedAfterActuate();
+    }
+
     @Override
     protected void driveActuation(boolean on) throws Exception {
         if (on && this.onUrl.isEmpty()) {
@@ -102,32 +132,122 @@ public class HttpActuator extends ReferenceActuator {
         actuateUrl(value, url);
     }
 
-    protected void actuateUrl(Object value, URL url) throws IOException, ProtocolException {
+    protected void actuateUrl(Object value, URL url) throws Exception {
+        // A pending asynchronous error must surface, even if the actuation itself is skipped.
+        throwAsynchronousError();
         if (this.lastActuationUrl != null 
                 && this.lastActuationUrl.equals(url.toString())) {
             // URL hasn't changed: don't bother.
             return;
         }
+        if (asynchronous) {
+            this.lastActuationUrl = url.toString();
+            submitRequest(() -> {
+                try {
+                    sendActuation(value, url);
+                }
+                catch (IOException e) {
+                    Logger.warn(e, "{}.HTTPActuate failed asynchronously.", getName());
+                    synchronized (this) {
+                        asynchronousError = e;
+                        // Make sure the next actuation is sent again.
+                        lastActuationUrl = null;
+                    }
+                }
+            });
+            if (isCoordinatedAfterActuate()) {
+                // Keep the order with earlier pending actuations, but complete this one before returning.
+                waitForPendingActuations();
+            }
+        }
+        else {
+            sendActuation(value, url);
+            this.lastActuationUrl = url.toString();
+        }
+    }
+
+    protected void sendActuation(Object value, URL url) throws IOException {
+        String response = request(url);
+        Logger.trace("{}.HTTPActuate value: {} )", getName(), value);
+        Logger.trace("{}.HTTPActuate requesting: {} )", getName(), url.toString());
+        Logger.trace("{}.HTTPActuate response: {} )", getName(), response);
+    }
+
+    /**
+     * Send a GET request and return the response body. The body is always read to the end and the
+     * stream closed, including on HTTP errors, so that the JVM can return the connection to its
+     * keep-alive cache and reuse it for the next request to the same host.
+     * 
+     * @param url
+     * @return The response body.
+     * @throws IOException
+     */
+    protected String request(URL url) throws IOException {
         HttpURLConnection con = (HttpURLConnection) url.openConnection();
         con.setRequestMethod("GET");
         con.setRequestProperty("User-Agent", "Mozilla/5.0");
+        con.setConnectTimeout(connectTimeoutMilliseconds);
+        con.setReadTimeout(readTimeoutMilliseconds);
+        con.setUseCaches(false);
 
         int responseCode = con.getResponseCode();
+        InputStream in = (responseCode >= 400 ? con.getErrorStream() : con.getInputStream());
+        String response = "";
+        if (in != null) {
+            try (InputStream stream = in) {
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                byte[] buffer = new byte[1024];
+                int n;
+                while ((n = stream.read(buffer)) != -1) {
+                    body.write(buffer, 0, n);
+                }
+                response = body.toString();
+            }
+        }
+        if (responseCode >= 400) {
+            throw new IOException(getName()+" HTTP response code "+responseCode+" for URL: "+url);
+        }
+        return response;
+    }
 
-        BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()));
-        String inputLine;
-        StringBuffer response = new StringBuffer();
+    private synchronized void submitRequest(Runnable request) {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, getClass().getSimpleName()+" "+getName());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        lastRequest = executor.submit(request);
+    }
 
-        while ((inputLine = in.readLine()) != null) {
-            response.append(inputLine);
+    /**
+     * Wait for the asynchronous actuations that are still pending.
+     * 
+     * @throws Exception
+     */
+    public void waitForPendingActuations() throws Exception {
+        Future<?> pending;
+        synchronized (this) {
+            pending = lastRequest;
+        }
+        if (pending != null) {
+            try {
+                pending.get();
+            }
+            catch (ExecutionException e) {
+                Logger.warn(e);
+            }
         }
-        in.close();
+        throwAsynchronousError();
+    }
 
-        Logger.trace("{}.HTTPActuate value: {} )", getName(), value);
-        Logger.trace("{}.HTTPActuate requesting: {} )", getName(), url.toString());
-        Logger.trace("{}.HTTPActuate responseCode: {} )", getName(), responseCode);
-        Logger.trace("{}.HTTPActuate response: {} )", getName(), response);
-        this.lastActuationUrl = url.toString();
+    private synchronized void throwAsynchronousError() throws IOException {
+        if (asynchronousError != null) {
+            IOException e = asynchronousError;
+            asynchronousError = null;
+            throw e;
+        }
     }
 
     @Override
@@ -137,35 +257,26 @@ public class HttpActuator extends ReferenceActuator {
         }
         
         
-        // getDriver().actuate(this, on);
-        URL obj = null;
-        obj = new URL(this.readUrl);
+        // Read after the pending actuations, in order.
+        waitForPendingActuations();
 
-        HttpURLConnection con = (HttpURLConnection) obj.openConnection();
-
-        con.setRequestMethod("GET");
-        con.setRequestProperty("User-Agent", "Mozilla/5.0");
-
-        int responseCode = con.getResponseCode();
-
-        BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()));
-        String inputLine;
+        String body = request(new URL(this.readUrl));
         StringBuffer response = new StringBuffer();
 
         Pattern pattern = Pattern.compile(regex);
 
-        while ((inputLine = in.readLine()) != null) {
-            Matcher matcher = pattern.matcher(inputLine);
-            if (matcher.matches()) {
-                String s = matcher.group("Value");
-                response.append(s);
-            }
-            if (regex.length() == 0) {
-                response.append(inputLine);
+        if (!body.isEmpty()) {
+            for (String inputLine : body.split("\\r\\n|\\r|\\n")) {
+                Matcher matcher = pattern.matcher(inputLine);
+                if (matcher.matches()) {
+                    String s = matcher.group("Value");
+                    response.append(s);
+                }
+                if (regex.length() == 0) {
+                    response.append(inputLine);
+                }
             }
-
         }
-        in.close();
 
         if (isCoordinatedAfterActuate()) {
             coordinateWithMachine(true);
@@ -215,6 +326,33 @@ public class HttpActuator extends ReferenceActuator {
         firePropertyChange("readUrl", null, this.readUrl);
     }
 
+    public int getConnectTimeoutMilliseconds() {
+        return connectTimeoutMilliseconds;
+    }
+
+    public void setConnectTimeoutMilliseconds(int connectTimeoutMilliseconds) {
+        this.connectTimeoutMilliseconds = connectTimeoutMilliseconds;
+        firePropertyChange("connectTimeoutMilliseconds", null, this.connectTimeoutMilliseconds);
+    }
+
+    public int getReadTimeoutMilliseconds() {
+        return readTimeoutMilliseconds;
+    }
+
+    public void setReadTimeoutMilliseconds(int readTimeoutMilliseconds) {
+        this.readTimeoutMilliseconds = readTimeoutMilliseconds;
+        firePropertyChange("readTimeoutMilliseconds", null, this.readTimeoutMilliseconds);
+    }
+
+    public boolean isAsynchronous() {
+        return asynchronous;
+    }
+
+    public void setAsynchronous(boolean asynchronous) {
+        this.asynchronous = asynchronous;
+        firePropertyChange("asynchronous", null, this.asynchronous);
+    }
+
     public String getRegex() {
         return this.regex;
     }
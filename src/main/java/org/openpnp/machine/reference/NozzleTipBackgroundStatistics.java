@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2026 agent <agent@local>
+ * inspired and based on work
+ * Copyright (C) 2011 Jason von Nieda <jason@vonnieda.org>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not,
+ * see <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.machine.reference;
+
+import java.util.Arrays;
+
+import org.opencv.core.Mat;
+import org.pmw.tinylog.Logger;
+
+/**
+ * Streaming accumulator for the nozzle tip background calibration. Instead of storing every
+ * background image of the calibration run, each image is folded into global histograms and into
+ * a per-pixel "brightest observation" image as soon as it arrives. Memory use is therefore
+ * constant (about one frame), regardless of the number of angle subdivisions.
+ *
+ * The histograms are exactly the ones formerly computed over the stored images. The brightest
+ * observation image is used for the diagnostic images, showing the worst background seen at each
+ * pixel across all the angles.
+ *
+ * Images are expected to be HSV (BackgroundCalibrationMethod.BrightnessAndKeyColor) or grayscale
+ * (BackgroundCalibrationMethod.Brightness) 8 bit images.
+ */
+public class NozzleTipBackgroundStatistics {
+    private final boolean keyColor;
+    private final int worstSaturation;
+    private final int maskSq;
+
+    private int rows;
+    private int cols;
+    private int channels;
+    private int samples;
+
+    private final int histogramHueValue[] = new int[256*256];
+    private final int histogramMonochrome[] = new int[256];
+    private final int minSaturationAtValue[] = new int[256];
+    private final int maxSaturationAtValue[] = new int[256];
+
+    /**
+     * Per pixel brightest observation, i.e. the sample with the largest value (brightness).
+     */
+    private byte brightest[];
+    /**
+     * Reused frame buffer.
+     */
+    private byte frame[];
+
+    /**
+     * @param keyColor true if images are HSV and key color statistics are to be gathered.
+     * @param worstSaturation The saturation below which a pixel is considered monochrome.
+     * @param maskSq The squared radius (in pixels) around the image center that is evaluated.
+     */
+    public NozzleTipBackgroundStatistics(boolean keyColor, int worstSaturation, int maskSq) {
+        this.keyColor = keyColor;
+        this.worstSaturation = worstSaturation;
+        this.maskSq = maskSq;
+        Arrays.fill(minSaturationAtValue, 255);
+    }
+
+    /**
+     * Fold one prepared background image into the statistics.
+     *
+     * @param image
+     */
+    public synchronized void accumulate(Mat image) {
+        int ch = image.channels();
+        if (ch != (keyColor ? 3 : 1)) {
+            Logger.warn("[nozzleTipCalibration] background image with unexpected {} channels ignored.", ch);
+            return;
+        }
+        if (samples == 0) {
+            rows = image.rows();
+            cols = image.cols();
+            channels = ch;
+            frame = new byte[rows*cols*channels];
+            brightest = new byte[rows*cols*channels];
+        }
+        else if (image.rows() != rows || image.cols() != cols) {
+            Logger.warn("[nozzleTipCalibration] background image size {}x{} differs from {}x{}, ignored.",
+                    image.cols(), image.rows(), cols, rows);
+            return;
+        }
+        image.get(0, 0, frame);
+        byte data[] = frame;
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0, idx = y*cols*ch; x < cols; x++, idx += ch) {
+                int dx = x - cols/2;
+                int dy = y - rows/2;
+                int rSq = dx*dx + dy*dy;
+                if (rSq < maskSq) {
+                    if (keyColor) {
+                        int hue = Byte.toUnsignedInt(data[idx+0]);
+                        int saturation = Byte.toUnsignedInt(data[idx+1]);
+                        int value = Byte.toUnsignedInt(data[idx+2]);
+                        if (saturation >= worstSaturation) {
+                            histogramHueValue[hue*256 + value]++;
+                            minSaturationAtValue[value] = Math.min(minSaturationAtValue[value], saturation);
+                            maxSaturationAtValue[value] = Math.max(maxSaturationAtValue[value], saturation);
+                        }
+                        else {
+                            histogramMonochrome[value]++;
+                        }
+                        if (samples == 0 || value > Byte.toUnsignedInt(brightest[idx+2])) {
+                            brightest[idx+0] = data[idx+0];
+                            brightest[idx+1] = data[idx+1];
+                            brightest[idx+2] = data[idx+2];
+                        }
+                    }
+                    else {
+                        int value = Byte.toUnsignedInt(data[idx]);
+                        histogramMonochrome[value]++;
+                        if (samples == 0 || value > Byte.toUnsignedInt(brightest[idx])) {
+                            brightest[idx] = data[idx];
+                        }
+                    }
+                }
+            }
+        }
+        samples++;
+    }
+
+    /**
+     * @return The number of images accumulated.
+     */
+    public synchronized int getSamples() {
+        return samples;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getChannels() {
+        return channels;
+    }
+
+    public int getMaskSq() {
+        return maskSq;
+    }
+
+    /**
+     * @return The hue/value histogram of sufficiently saturated pixels, indexed as [hue*256 + value].
+     */
+    public int[] getHistogramHueValue() {
+        return histogramHueValue;
+    }
+
+    /**
+     * @return The value histogram of monochrome pixels (all pixels in grayscale mode).
+     */
+    public int[] getHistogramMonochrome() {
+        return histogramMonochrome;
+    }
+
+    public int[] getMinSaturationAtValue() {
+        return minSaturationAtValue;
+    }
+
+    public int[] getMaxSaturationAtValue() {
+        return maxSaturationAtValue;
+    }
+
+    /**
+     * @return The per pixel brightest observation image data, with the layout of the accumulated
+     * images.
+     */
+    public byte[] getBrightestObservation() {
+        return brightest;
+    }
+}
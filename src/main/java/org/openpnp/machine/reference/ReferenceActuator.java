@@ -31,6 +31,7 @@ import org.openpnp.gui.MainFrame;
 import org.openpnp.gui.support.Icons;
 import org.openpnp.gui.support.PropertySheetWizardAdapter;
 import org.openpnp.gui.support.Wizard;
+import org.openpnp.machine.reference.driver.GcodeDriver;
 import org.openpnp.machine.reference.wizards.ReferenceActuatorConfigurationWizard;
 import org.openpnp.model.Configuration;
 import org.openpnp.model.Length;
@@ -143,6 +144,67 @@ public class ReferenceActuator extends AbstractActuator implements ReferenceHead
         this.index = index;
     }
 
+    /**
+     * If enabled, the readings the driver receives for this actuator are recorded in the reading 
+     * series, including the values the controller reports on its own. 
+     */
+    @Attribute(required = false)
+    protected boolean streamedReadings = false;
+
+    /**
+     * The period at which the controller reports the readings on its own, or at which they are 
+     * requested otherwise. Used to tell whether the stream is alive. 
+     */
+    @Attribute(required = false)
+    protected int readingReportMilliseconds = 100;
+
+    protected final ActuatorReadingSeries readingSeries = new ActuatorReadingSeries(1024);
+
+    public boolean isStreamedReadings() {
+        return streamedReadings;
+    }
+
+    public void setStreamedReadings(boolean streamedReadings) {
+        Object oldValue = this.streamedReadings;
+        this.streamedReadings = streamedReadings;
+        firePropertyChange("streamedReadings", oldValue, streamedReadings);
+        if (getDriver() instanceof GcodeDriver) {
+            // Re-index the streamed reading actuators.
+            ((GcodeDriver) getDriver()).invalidateCommandIndex();
+        }
+    }
+
+    public int getReadingReportMilliseconds() {
+        return readingReportMilliseconds;
+    }
+
+    public void setReadingReportMilliseconds(int readingReportMilliseconds) {
+        Object oldValue = this.readingReportMilliseconds;
+        this.readingReportMilliseconds = readingReportMilliseconds;
+        firePropertyChange("readingReportMilliseconds", oldValue, readingReportMilliseconds);
+    }
+
+    public ActuatorReadingSeries getReadingSeries() {
+        return readingSeries;
+    }
+
+    /**
+     * Record a reading in the series, if readings are streamed. Drivers that receive actuator 
+     * readings asynchronously call this directly, otherwise it is done on read(). 
+     * 
+     * @param value
+     */
+    public void recordReading(String value) {
+        if (streamedReadings && value != null) {
+            try {
+                readingSeries.record(Double.parseDouble(value.trim()));
+            }
+            catch (NumberFormatException e) {
+                // Not a numeric reading.
+            }
+        }
+    }
+
     @Element(required = false)
     private ReferenceActuatorProfiles actuatorProfiles;
 
@@ -329,6 +391,10 @@ public class ReferenceActuator extends AbstractActuator implements ReferenceHead
         }
         String value = getDriver().actuatorRead(this);
         Logger.debug("{}.read(): {}", getName(), value);
+        if (!(getDriver() instanceof GcodeDriver)) {
+            // The GcodeDriver records the readings as they are received.
+            recordReading(value);
+        }
         if (isCoordinatedAfterActuate()) {
             coordinateWithMachine(true);
         }
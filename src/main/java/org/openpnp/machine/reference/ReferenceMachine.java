@@ -50,6 +50,7 @@ import org.openpnp.machine.reference.camera.MjpgCaptureCamera;
 import org.openpnp.machine.reference.camera.OnvifIPCamera;
 import org.openpnp.machine.reference.camera.OpenCvCamera;
 import org.openpnp.machine.reference.camera.OpenPnpCaptureCamera;
+import org.openpnp.machine.reference.camera.ReplayCamera;
 import org.openpnp.machine.reference.camera.SimulatedUpCamera;
 import org.openpnp.machine.reference.camera.SwitcherCamera;
 import org.openpnp.machine.reference.camera.Webcams;
@@ -426,6 +427,7 @@ public class ReferenceMachine extends AbstractMachine {
         l.add(SwitcherCamera.class);
         l.add(SimulatedUpCamera.class);
         l.add(MjpgCaptureCamera.class);
+        l.add(ReplayCamera.class);
         return l;
     }
 
@@ -505,6 +507,7 @@ public class ReferenceMachine extends AbstractMachine {
 
     @Override
     public void close() throws IOException {
+        shutdownConcurrentTasks();
         for (Driver driver : getDrivers()) {
             try {
                 driver.close();
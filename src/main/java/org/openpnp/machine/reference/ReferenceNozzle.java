@@ -4,6 +4,7 @@ import java.awt.event.ActionEvent;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.DoublePredicate;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -45,8 +46,11 @@ import org.openpnp.spi.NozzleTip;
 import org.openpnp.spi.PropertySheetHolder;
 import org.openpnp.spi.base.AbstractActuator;
 import org.openpnp.spi.base.AbstractNozzle;
+import org.openpnp.util.JobMetrics;
 import org.openpnp.util.MovableUtils;
+import org.openpnp.util.NanosecondTime;
 import org.openpnp.util.SimpleGraph;
+import org.openpnp.util.SimulationClock;
 import org.openpnp.util.UiUtils;
 import org.pmw.tinylog.Logger;
 import org.simpleframework.xml.Attribute;
@@ -1050,25 +1054,28 @@ public class ReferenceNozzle extends AbstractNozzle implements ReferenceHeadMoun
     }
 
     protected void establishPickVacuumLevel(int milliseconds) throws Exception {
+        long t0 = NanosecondTime.getRuntime();
+        try {
+            establishPickVacuumLevelImpl(milliseconds);
+        }
+        finally {
+            if (JobMetrics.get().isRecording()) {
+                JobMetrics.get().recordSince("Nozzle/"+getName()+"/PickVacuumDwell", t0);
+            }
+        }
+    }
+
+    private void establishPickVacuumLevelImpl(int milliseconds) throws Exception {
         ReferenceNozzleTip nt = getNozzleTip();
         SimpleGraph vacuumGraph = nt.getVacuumPartOnGraph();
         if (vacuumGraph != null) {
             // valve is sure on
             vacuumGraph.getRow(ReferenceNozzleTip.BOOLEAN, ReferenceNozzleTip.VALVE_ON)
             .recordDataPoint(vacuumGraph.getT(), 1);
-            long timeout = System.currentTimeMillis() + milliseconds;
-            SimpleGraph.DataRow vacuumData = vacuumGraph.getRow(ReferenceNozzleTip.PRESSURE, ReferenceNozzleTip.VACUUM);
-            double vacuumLevel;
-            do {
-                vacuumLevel = readVacuumLevel();
-                vacuumData.recordDataPoint(vacuumGraph.getT(), vacuumLevel);
-                if (nt.isEstablishPartOnLevel() 
-                        && vacuumLevel >= nt.getVacuumLevelPartOnLow() && vacuumLevel <= nt.getVacuumLevelPartOnHigh()) {
-                    // within range, we're done
-                    break;
-                }
-            }
-            while (System.currentTimeMillis() < timeout);
+            double vacuumLevel = establishVacuumLevel(vacuumGraph, milliseconds, 
+                    nt.isEstablishPartOnLevel() ? 
+                            (level) -> level >= nt.getVacuumLevelPartOnLow() && level <= nt.getVacuumLevelPartOnHigh() 
+                            : null);
             // valve is still on
             vacuumGraph.getRow(ReferenceNozzleTip.BOOLEAN, ReferenceNozzleTip.VALVE_ON)
                 .recordDataPoint(vacuumGraph.getT(), 1);
@@ -1079,30 +1086,33 @@ public class ReferenceNozzle extends AbstractNozzle implements ReferenceHeadMoun
         }
         else {
             // simple method, just dwell
-            Thread.sleep(milliseconds);
+            SimulationClock.sleep(milliseconds);
         }
     }
 
     protected void establishPlaceVacuumLevel(int milliseconds) throws Exception {
+        long t0 = NanosecondTime.getRuntime();
+        try {
+            establishPlaceVacuumLevelImpl(milliseconds);
+        }
+        finally {
+            if (JobMetrics.get().isRecording()) {
+                JobMetrics.get().recordSince("Nozzle/"+getName()+"/PlaceVacuumDwell", t0);
+            }
+        }
+    }
+
+    private void establishPlaceVacuumLevelImpl(int milliseconds) throws Exception {
         ReferenceNozzleTip nt = getNozzleTip();
         SimpleGraph vacuumGraph = nt.getVacuumPartOffGraph();
         if (vacuumGraph != null) {
             // valve is sure off
             vacuumGraph.getRow(ReferenceNozzleTip.BOOLEAN, ReferenceNozzleTip.VALVE_ON)
             .recordDataPoint(vacuumGraph.getT(), 0);
-            long timeout = System.currentTimeMillis() + milliseconds;
-            SimpleGraph.DataRow vacuumData = vacuumGraph.getRow(ReferenceNozzleTip.PRESSURE, ReferenceNozzleTip.VACUUM);
-            double vacuumLevel;
-            do {
-                vacuumLevel = readVacuumLevel();
-                vacuumData.recordDataPoint(vacuumGraph.getT(), vacuumLevel);
-                if (nt.isEstablishPartOffLevel() 
-                        && vacuumLevel >= nt.getVacuumLevelPartOffLow() && vacuumLevel <= nt.getVacuumLevelPartOffHigh()) {
-                    // within range, we're done
-                    break;
-                }
-            }
-            while (System.currentTimeMillis() < timeout);
+            double vacuumLevel = establishVacuumLevel(vacuumGraph, milliseconds, 
+                    nt.isEstablishPartOffLevel() ? 
+                            (level) -> level >= nt.getVacuumLevelPartOffLow() && level <= nt.getVacuumLevelPartOffHigh() 
+                            : null);
             // valve is still off
             vacuumGraph.getRow(ReferenceNozzleTip.BOOLEAN, ReferenceNozzleTip.VALVE_ON)
                 .recordDataPoint(vacuumGraph.getT(), 0);
@@ -1113,8 +1123,87 @@ public class ReferenceNozzle extends AbstractNozzle implements ReferenceHeadMoun
         }
         else {
             // simple method, just dwell
-            Thread.sleep(milliseconds);
+            SimulationClock.sleep(milliseconds);
+        }
+    }
+
+    /**
+     * Record the vacuum level in the graph for the given time, or until it is within range.
+     * 
+     * @param vacuumGraph
+     * @param milliseconds
+     * @param withinRange The range condition or null to take the full time.
+     * @return The last vacuum level.
+     * @throws Exception
+     */
+    protected double establishVacuumLevel(SimpleGraph vacuumGraph, int milliseconds, DoublePredicate withinRange) 
+            throws Exception {
+        SimpleGraph.DataRow vacuumData = vacuumGraph.getRow(ReferenceNozzleTip.PRESSURE, ReferenceNozzleTip.VACUUM);
+        long timeout = System.currentTimeMillis() + milliseconds;
+        ReferenceActuator streamingActuator = getVacuumStreamingActuator();
+        if (streamingActuator != null) {
+            // The readings are streamed, just wait for the condition to be met, no polling. But only 
+            // if the stream is alive, i.e. the first reading must arrive within two report periods. 
+            // The configured period is the floor, a controller that reports slower than configured 
+            // still counts as alive.
+            ActuatorReadingSeries readingSeries = streamingActuator.getReadingSeries();
+            long t0 = NanosecondTime.getRuntime();
+            long reportPeriod = Math.max(Math.max(streamingActuator.getReadingReportMilliseconds(), 
+                    minReadingReportMilliseconds), readingSeries.getLatestIntervalMilliseconds());
+            long firstTimeout = Math.min(milliseconds, 2*reportPeriod);
+            ActuatorReadingSeries.Reading first = readingSeries.awaitReading(t0, (level) -> true, firstTimeout);
+            if (first != null) {
+                ActuatorReadingSeries.Reading reached = null;
+                long remaining = Math.max(0, timeout - System.currentTimeMillis());
+                if (withinRange != null) {
+                    reached = readingSeries.awaitReading(t0, withinRange, remaining);
+                }
+                else {
+                    SimulationClock.sleep(remaining);
+                }
+                // Keep the vacuum curve. 
+                ActuatorReadingSeries.Reading last = null;
+                for (ActuatorReadingSeries.Reading reading : readingSeries.getReadingsAfter(t0)) {
+                    if (reached != null && reading.getTimeNs() > reached.getTimeNs()) {
+                        break;
+                    }
+                    vacuumData.recordDataPoint(vacuumGraph.getT(reading.getTimeNs()), reading.getValue());
+                    last = reading;
+                }
+                return (last != null ? last : first).getValue();
+            }
+            // Nothing streamed, fall back to reading it, for the remaining time.
+            Logger.debug("Nozzle {} no streamed vacuum readings received, reading it.", getName());
+        }
+        double vacuumLevel;
+        do {
+            vacuumLevel = readVacuumLevel();
+            vacuumData.recordDataPoint(vacuumGraph.getT(), vacuumLevel);
+            if (withinRange != null && withinRange.test(vacuumLevel)) {
+                // within range, we're done
+                break;
+            }
         }
+        while (System.currentTimeMillis() < timeout);
+        return vacuumLevel;
+    }
+
+    /**
+     * Lower bound of the report period used to tell whether streamed vacuum readings are alive.
+     */
+    private static final int minReadingReportMilliseconds = 20;
+
+    /**
+     * @return The vacuum sense actuator, if its readings are streamed, otherwise null.
+     * @throws Exception
+     */
+    protected ReferenceActuator getVacuumStreamingActuator() throws Exception {
+        Actuator actuator = getExpectedVacuumSenseActuator();
+        if (actuator instanceof ReferenceActuator 
+                && ((ReferenceActuator) actuator).isStreamedReadings()) {
+            return (ReferenceActuator) actuator;
+        }
+        return null;
     }
 
     protected double probePartOffVacuumLevel(int probingMilliseconds, int dwellMilliseconds) throws Exception {
@@ -1171,7 +1260,7 @@ public class ReferenceNozzle extends AbstractNozzle implements ReferenceHeadMoun
             }
             else {
                 // simple method, just dwell 
-                Thread.sleep(probingMilliseconds);
+                SimulationClock.sleep(probingMilliseconds);
                 if (dwellMilliseconds <= 0) {
                     returnedVacuumLevel = readVacuumLevel();
                 }
@@ -1209,7 +1298,7 @@ public class ReferenceNozzle extends AbstractNozzle implements ReferenceHeadMoun
         else {
             // simple method, just dwell and then read the level
             if (dwellMilliseconds > 0) {
-                Thread.sleep(dwellMilliseconds);
+                SimulationClock.sleep(dwellMilliseconds);
                 returnedVacuumLevel = readVacuumLevel();
             }
             // return the vacuum level, either from before or after valve closed
@@ -10,6 +10,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.io.IOUtils;
 import org.opencv.core.KeyPoint;
@@ -590,7 +593,15 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
     @Attribute(required = false)
     private int backgroundWorstValue = 255/2; 
 
-    private List<byte []> backgroundImages = new ArrayList<>();
+    /**
+     * Streaming statistics of the background images of the current calibration run.  
+     */
+    private NozzleTipBackgroundStatistics backgroundStatistics;
+
+    /**
+     * Worker that prepares and accumulates background images, while the nozzle rotates to the next angle.
+     */
+    private ExecutorService backgroundExecutor;
 
     /**
      * TODO Left for backward compatibility. Unused. Can be removed after Feb 7, 2020.
@@ -642,12 +653,6 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
 
     private List<BufferedImage> backgroundCalibrationImages;
 
-    private int backgroundImageRows;
-
-    private int backgroundImageCols;
-
-    private int backgroundImageChannels;
-
     public ReferenceNozzleTipCalibration.RunoutCompensationAlgorithm getRunoutCompensationAlgorithm() {
         return this.runoutCompensationAlgorithm;
     }
@@ -694,6 +699,10 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
             Location excenter = new Location(measureBaseLocation.getUnits());
             if (! calibrateCamera) {
                 reset(nozzle);
+                backgroundStatistics = createBackgroundStatistics(camera, nozzle);
+                if (backgroundStatistics != null) {
+                    backgroundExecutor = Executors.newSingleThreadExecutor();
+                }
             }
             else {
                 if (! isCalibrated(nozzle)) {
@@ -840,19 +849,27 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
             }
         }
         finally {
-            // go to camera position (now offset-corrected). prevents the user from being irritated if it's not exactly centered
-            nozzle.moveTo(camera.getLocation(nozzle).derive(null, null, measureBaseLocation.getZ(), angleStop));
+            try {
+                // go to camera position (now offset-corrected). prevents the user from being irritated if it's not exactly centered
+                nozzle.moveTo(camera.getLocation(nozzle).derive(null, null, measureBaseLocation.getZ(), angleStop));
 
-            if (!calibrateCamera) {
-                // Finish the background calibration, if images were successfully collected.  
-                finishBackgroundCalibration(referenceCamera, nozzle);
-            }
+                if (!calibrateCamera) {
+                    // Wait for the background images still in the works, then finish the background calibration,
+                    // if images were successfully collected.  
+                    awaitBackgroundImages();
+                    finishBackgroundCalibration(referenceCamera, nozzle);
+                }
 
-            // after processing the nozzle returns to safe-z
-            nozzle.moveToSafeZ();
+                // after processing the nozzle returns to safe-z
+                nozzle.moveToSafeZ();
 
-            // setting to false in the very end to prevent endless calibration repetitions if calibration was not successful (pipeline not well or similar) and the nozzle is commanded afterwards somewhere else (where the calibration is asked for again ...)
-            calibrating = false;
+                // setting to false in the very end to prevent endless calibration repetitions if calibration was not successful (pipeline not well or similar) and the nozzle is commanded afterwards somewhere else (where the calibration is asked for again ...)
+                calibrating = false;
+            }
+            finally {
+                // If the moves above failed, the background worker must still not be left behind.
+                shutdownBackgroundExecutor();
+            }
         }
     }
 
@@ -992,45 +1009,92 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
         }
     }
 
+    private NozzleTipBackgroundStatistics createBackgroundStatistics(Camera camera, ReferenceNozzle nozzle) {
+        ReferenceNozzleTip nozzleTip = nozzle.getCalibrationNozzleTip();
+        if (nozzleTip == null
+                || getBackgroundCalibrationMethod() == BackgroundCalibrationMethod.None) {
+            return null;
+        }
+        double maskDiameterPixels = nozzleTip.getMaxPartDiameter()
+                .add(nozzleTip.getMaxPickTolerance().multiply(2.0))
+                .divide(camera.getUnitsPerPixel().getLengthX())*0.5;
+        int maskSq = (int)Math.pow(maskDiameterPixels, 2);
+        return new NozzleTipBackgroundStatistics(
+                getBackgroundCalibrationMethod() == BackgroundCalibrationMethod.BrightnessAndKeyColor,
+                backgroundWorstSaturation, maskSq);
+    }
+
     private void addBackgroundImage(Camera camera, ReferenceNozzle nozzle, BufferedImage bufferedImage, Location location) {
+        NozzleTipBackgroundStatistics statistics = backgroundStatistics;
+        ExecutorService executor = backgroundExecutor;
         if (bufferedImage != null
-                && getBackgroundCalibrationMethod() != BackgroundCalibrationMethod.None) {
-            Mat image = OpenCvUtils.toMat(bufferedImage);
-            ReferenceNozzleTip nozzleTip = nozzle.getCalibrationNozzleTip();
-            if (nozzleTip != null) {
-                // Blot out the nozzle tip center part.
-                Point center = VisionUtils.getLocationPixels(camera, location.add(camera.getLocation()));
-                org.opencv.core.Point center2 = new org.opencv.core.Point(center.x, center.y);
-                Length minPartDiameter = nozzleTip.getMinPartDiameter()
-                .subtract(nozzleTip.getMaxPickTolerance().multiply(2.0));
-                if (minPartDiameter.compareTo(getCalibrationTipDiameter()) < 0) {
-                    minPartDiameter = getCalibrationTipDiameter();
+                && statistics != null
+                && executor != null) {
+            // The image preparation and accumulation is done by the worker, while the nozzle 
+            // already rotates to the next angle.
+            executor.execute(() -> {
+                try {
+                    Mat image = prepareBackgroundImage(camera, nozzle, bufferedImage, location);
+                    statistics.accumulate(image);
+                    image.release();
                 }
-                int radius = (int)Math.ceil(minPartDiameter
-                        .divide(camera.getUnitsPerPixel().getLengthX())
-                        *0.5);
-                Imgproc.circle(image, center2, 
-                        radius, 
-                        FluentCv.colorToScalar(new Color(0, 0, 0)),
-                        Imgproc.FILLED, 8, 0);
-            }
-            // Blur.
-            int kernelSize = ((int)getMinimumDetailSize()
-                    .divide(camera.getUnitsPerPixel().getLengthX()))|1;
-            Imgproc.GaussianBlur(image, image, new Size(kernelSize, kernelSize), 0);
-            if (getBackgroundCalibrationMethod() == BackgroundCalibrationMethod.BrightnessAndKeyColor) {
-                Imgproc.cvtColor(image, image, FluentCv.ColorCode.Bgr2HsvFull.getCode());
+                catch (Exception e) {
+                    Logger.warn(e, "[nozzleTipCalibration] background image could not be processed.");
+                }
+            });
+        }
+    }
+
+    private Mat prepareBackgroundImage(Camera camera, ReferenceNozzle nozzle, BufferedImage bufferedImage, Location location) {
+        Mat image = OpenCvUtils.toMat(bufferedImage);
+        ReferenceNozzleTip nozzleTip = nozzle.getCalibrationNozzleTip();
+        if (nozzleTip != null) {
+            // Blot out the nozzle tip center part.
+            Point center = VisionUtils.getLocationPixels(camera, location.add(camera.getLocation()));
+            org.opencv.core.Point center2 = new org.opencv.core.Point(center.x, center.y);
+            Length minPartDiameter = nozzleTip.getMinPartDiameter()
+            .subtract(nozzleTip.getMaxPickTolerance().multiply(2.0));
+            if (minPartDiameter.compareTo(getCalibrationTipDiameter()) < 0) {
+                minPartDiameter = getCalibrationTipDiameter();
             }
-            else {
-                Imgproc.cvtColor(image, image, FluentCv.ColorCode.Bgr2Gray.getCode());
+            int radius = (int)Math.ceil(minPartDiameter
+                    .divide(camera.getUnitsPerPixel().getLengthX())
+                    *0.5);
+            Imgproc.circle(image, center2, 
+                    radius, 
+                    FluentCv.colorToScalar(new Color(0, 0, 0)),
+                    Imgproc.FILLED, 8, 0);
+        }
+        // Blur.
+        int kernelSize = ((int)getMinimumDetailSize()
+                .divide(camera.getUnitsPerPixel().getLengthX()))|1;
+        Imgproc.GaussianBlur(image, image, new Size(kernelSize, kernelSize), 0);
+        if (getBackgroundCalibrationMethod() == BackgroundCalibrationMethod.BrightnessAndKeyColor) {
+            Imgproc.cvtColor(image, image, FluentCv.ColorCode.Bgr2HsvFull.getCode());
+        }
+        else {
+            Imgproc.cvtColor(image, image, FluentCv.ColorCode.Bgr2Gray.getCode());
+        }
+        return image;
+    }
+
+    private void awaitBackgroundImages() throws InterruptedException {
+        ExecutorService executor = backgroundExecutor;
+        if (executor != null) {
+            backgroundExecutor = null;
+            executor.shutdown();
+            if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
+                Logger.warn("[nozzleTipCalibration] timeout waiting for background images.");
+                executor.shutdownNow();
             }
-            backgroundImageRows = image.rows();
-            backgroundImageCols = image.cols();
-            backgroundImageChannels = image.channels();
-            byte data[] = new byte[backgroundImageRows*backgroundImageCols*backgroundImageChannels];
-            image.get(0, 0, data);
-            image.release();
-            backgroundImages.add(data);
+        }
+    }
+
+    private void shutdownBackgroundExecutor() {
+        ExecutorService executor = backgroundExecutor;
+        if (executor != null) {
+            backgroundExecutor = null;
+            executor.shutdownNow();
         }
     }
 
@@ -1038,43 +1102,21 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
         try{
             backgroundCalibrationImages = new ArrayList<BufferedImage>();
             ReferenceNozzleTip nozzleTip = nozzle.getCalibrationNozzleTip();
+            NozzleTipBackgroundStatistics statistics = backgroundStatistics;
             if (nozzleTip != null 
-                    && backgroundImages.size() > 3) {
+                    && statistics != null
+                    && statistics.getSamples() > 3) {
                 double t0 = NanosecondTime.getRuntimeSeconds();
-                double maskDiameterPixels = nozzleTip.getMaxPartDiameter()
-                .add(nozzleTip.getMaxPickTolerance().multiply(2.0))
-                        .divide(camera.getUnitsPerPixel().getLengthX())*0.5;
-                int maskSq = (int)Math.pow(maskDiameterPixels, 2);
-                int rows = backgroundImageRows, cols = backgroundImageCols, ch = backgroundImageChannels;
+                int maskSq = statistics.getMaskSq();
+                int rows = statistics.getRows(), cols = statistics.getCols(), ch = statistics.getChannels();
+                // The diagnostics are performed on the brightest observation per pixel, i.e. on the worst case background.
+                byte data[] = statistics.getBrightestObservation();
                 if (getBackgroundCalibrationMethod() == BackgroundCalibrationMethod.BrightnessAndKeyColor) {
-                    int histogramHueValue[] = new int[256*256];
-                    int histogramMonochrome[] = new int[256];
-                    int minSaturationAtValue[] = new int[256];
-                    int maxSaturationAtValue[] = new int[256];
+                    int histogramHueValue[] = statistics.getHistogramHueValue();
+                    int histogramMonochrome[] = statistics.getHistogramMonochrome();
+                    int minSaturationAtValue[] = statistics.getMinSaturationAtValue();
+                    int maxSaturationAtValue[] = statistics.getMaxSaturationAtValue();
                     int maxValue = 0;
-                    Arrays.fill(minSaturationAtValue, 255);
-                    for (byte data[] : backgroundImages) {
-                        for (int y = 0; y < rows; y++) {
-                            for (int x = 0, idx = y*cols*ch; x < cols; x++, idx += ch) {
-                                int dx = x - cols/2;
-                                int dy = y - rows/2;
-                                int rSq = dx*dx + dy*dy;
-                                if (rSq < maskSq) {
-                                    int hue = Byte.toUnsignedInt(data[idx+0]);
-                                    int saturation = Byte.toUnsignedInt(data[idx+1]);
-                                    int value = Byte.toUnsignedInt(data[idx+2]);
-                                    if (saturation >= backgroundWorstSaturation) { 
-                                        histogramHueValue[hue*256 + value]++;
-                                        minSaturationAtValue[value] = Math.min(minSaturationAtValue[value], saturation);
-                                        maxSaturationAtValue[value] = Math.max(maxSaturationAtValue[value], saturation);
-                                    }
-                                    else {
-                                        histogramMonochrome[value]++;
-                                    }
-                                }
-                            }
-                        }
-                    }
                     // Sum histogram at value and larger.
                     for (int hue = 0; hue < 256; hue++) {
                         for (int value = 1; value < 256; value++) {
@@ -1175,48 +1217,46 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
                     // Create the diagnostic images.
                     int avgHue = (bestMinHue > bestMaxHue ? (bestMinHue + bestMaxHue)/2 : ((255 + bestMinHue + bestMaxHue)/2) & 0xFF);
                     int signalColor = Color.getHSBColor(avgHue/255.0f, 1.0f, 1.0f).getRGB();
-                    for (byte data[] : backgroundImages) {
-                        int imagePixels[] = new int[cols*rows];
-                        int problemPixels[] = new int[cols*rows];
-                        boolean hasProblems = false;
-                        for (int y = 0; y < rows; y++) {
-                            for (int x = 0, idx = y*cols*ch; x < cols; x++, idx += ch) {
-                                int dx = x - cols/2;
-                                int dy = y - rows/2;
-                                int rSq = dx*dx + dy*dy;
-                                if (rSq < maskSq) {
-                                    int hue = Byte.toUnsignedInt(data[idx+0]);
-                                    int saturation = Byte.toUnsignedInt(data[idx+1]);
-                                    int value = Byte.toUnsignedInt(data[idx+2]);
-                                    Color color = Color.getHSBColor(hue/255.0f, saturation/255.0f, value/255.0f);
-                                    int rgb = color.getRGB();
-                                    if (value >= bestMinValue
-                                            && (value > bestMaxValue
-                                            || saturation < bestMinSaturation
-                                            || saturation > bestMaxSaturation
-                                            || (bestMinHue < bestMaxHue ? 
-                                                    hue > bestMaxHue || hue < bestMinHue :
-                                                        hue > bestMaxHue && hue < bestMinHue))) {
-                                        // outside mask
-                                        imagePixels[y*cols + x] = rgb;
-                                        problemPixels[y*cols + x] = signalColor;
-                                        hasProblems = true;
-                                    }
-                                    else {
-                                        imagePixels[y*cols + x] = rgb;
-                                        problemPixels[y*cols + x] = rgb;
-                                    }
+                    int imagePixels[] = new int[cols*rows];
+                    int problemPixels[] = new int[cols*rows];
+                    boolean hasProblems = false;
+                    for (int y = 0; y < rows; y++) {
+                        for (int x = 0, idx = y*cols*ch; x < cols; x++, idx += ch) {
+                            int dx = x - cols/2;
+                            int dy = y - rows/2;
+                            int rSq = dx*dx + dy*dy;
+                            if (rSq < maskSq) {
+                                int hue = Byte.toUnsignedInt(data[idx+0]);
+                                int saturation = Byte.toUnsignedInt(data[idx+1]);
+                                int value = Byte.toUnsignedInt(data[idx+2]);
+                                Color color = Color.getHSBColor(hue/255.0f, saturation/255.0f, value/255.0f);
+                                int rgb = color.getRGB();
+                                if (value >= bestMinValue
+                                        && (value > bestMaxValue
+                                        || saturation < bestMinSaturation
+                                        || saturation > bestMaxSaturation
+                                        || (bestMinHue < bestMaxHue ? 
+                                                hue > bestMaxHue || hue < bestMinHue :
+                                                    hue > bestMaxHue && hue < bestMinHue))) {
+                                    // outside mask
+                                    imagePixels[y*cols + x] = rgb;
+                                    problemPixels[y*cols + x] = signalColor;
+                                    hasProblems = true;
+                                }
+                                else {
+                                    imagePixels[y*cols + x] = rgb;
+                                    problemPixels[y*cols + x] = rgb;
                                 }
                             }
                         }
-                        if (hasProblems) {
-                            BufferedImage backgroundCalibrationImage = new BufferedImage(cols, rows, BufferedImage.TYPE_INT_ARGB);
-                            backgroundCalibrationImage.setRGB(0, 0, cols, rows, imagePixels, 0, cols);
-                            backgroundCalibrationImages.add(backgroundCalibrationImage);
-                            backgroundCalibrationImage = new BufferedImage(cols, rows, BufferedImage.TYPE_INT_ARGB);
-                            backgroundCalibrationImage.setRGB(0, 0, cols, rows, problemPixels, 0, cols);
-                            backgroundCalibrationImages.add(backgroundCalibrationImage);
-                        }
+                    }
+                    if (hasProblems) {
+                        BufferedImage backgroundCalibrationImage = new BufferedImage(cols, rows, BufferedImage.TYPE_INT_ARGB);
+                        backgroundCalibrationImage.setRGB(0, 0, cols, rows, imagePixels, 0, cols);
+                        backgroundCalibrationImages.add(backgroundCalibrationImage);
+                        backgroundCalibrationImage = new BufferedImage(cols, rows, BufferedImage.TYPE_INT_ARGB);
+                        backgroundCalibrationImage.setRGB(0, 0, cols, rows, problemPixels, 0, cols);
+                        backgroundCalibrationImages.add(backgroundCalibrationImage);
                     }
 
                     // Diagnostics.
@@ -1282,48 +1322,49 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
                     // Simple grayscale.
                     int bestMinValue = 255; 
                     int bestMaxValue = 0;
+                    int histogramMonochrome[] = statistics.getHistogramMonochrome();
+                    for (int value = 0; value < 256; value++) {
+                        if (histogramMonochrome[value] > 0) {
+                            bestMaxValue = value;
+                            if (value < bestMinValue && value > 0) {
+                                // Exclude 0 from black point as it could be an undefined pixel 
+                                // (from image transforms or advanced camera calibration). 
+                                bestMinValue = value;
+                            }
+                        }
+                    }
                     int signalColor = new Color(255, 0, 255).getRGB();
-                    for (byte data[] : backgroundImages) {
-                        int imagePixels[] = new int[cols*rows];
-                        int problemPixels[] = new int[cols*rows];
-                        boolean hasProblems = false;
-                        for (int y = 0; y < rows; y++) {
-                            for (int x = 0, idx = y*cols*ch; x < cols; x++, idx += ch) {
-                                int dx = x - cols/2;
-                                int dy = y - rows/2;
-                                int rSq = dx*dx + dy*dy;
-                                if (rSq < maskSq) {
-                                    int value = Byte.toUnsignedInt(data[idx]);
-                                    if (value > bestMaxValue) {
-                                        bestMaxValue = value;
-                                    }
-                                    if (value < bestMinValue && value > 0) {
-                                        // Exclude 0 from black point as it could be an undefined pixel 
-                                        // (from image transforms or advanced camera calibration). 
-                                        bestMinValue = value;
-                                    }
-                                    int rgb = new Color(value, value, value).getRGB();
-                                    if (value > backgroundWorstValue) {
-                                        // outside mask
-                                        imagePixels[y*cols + x] = rgb;
-                                        problemPixels[y*cols + x] = signalColor;
-                                        hasProblems = true;
-                                    }
-                                    else {
-                                        imagePixels[y*cols + x] = rgb;
-                                        problemPixels[y*cols + x] = rgb;
-                                    }
+                    int imagePixels[] = new int[cols*rows];
+                    int problemPixels[] = new int[cols*rows];
+                    boolean hasProblems = false;
+                    for (int y = 0; y < rows; y++) {
+                        for (int x = 0, idx = y*cols*ch; x < cols; x++, idx += ch) {
+                            int dx = x - cols/2;
+                            int dy = y - rows/2;
+                            int rSq = dx*dx + dy*dy;
+                            if (rSq < maskSq) {
+                                int value = Byte.toUnsignedInt(data[idx]);
+                                int rgb = new Color(value, value, value).getRGB();
+                                if (value > backgroundWorstValue) {
+                                    // outside mask
+                                    imagePixels[y*cols + x] = rgb;
+                                    problemPixels[y*cols + x] = signalColor;
+                                    hasProblems = true;
+                                }
+                                else {
+                                    imagePixels[y*cols + x] = rgb;
+                                    problemPixels[y*cols + x] = rgb;
                                 }
                             }
                         }
-                        if (hasProblems) {
-                            BufferedImage backgroundCalibrationImage = new BufferedImage(cols, rows, BufferedImage.TYPE_INT_ARGB);
-                            backgroundCalibrationImage.setRGB(0, 0, cols, rows, imagePixels, 0, cols);
-                            backgroundCalibrationImages.add(backgroundCalibrationImage);
-                            backgroundCalibrationImage = new BufferedImage(cols, rows, BufferedImage.TYPE_INT_ARGB);
-                            backgroundCalibrationImage.setRGB(0, 0, cols, rows, problemPixels, 0, cols);
-                            backgroundCalibrationImages.add(backgroundCalibrationImage);
-                        }
+                    }
+                    if (hasProblems) {
+                        BufferedImage backgroundCalibrationImage = new BufferedImage(cols, rows, BufferedImage.TYPE_INT_ARGB);
+                        backgroundCalibrationImage.setRGB(0, 0, cols, rows, imagePixels, 0, cols);
+                        backgroundCalibrationImages.add(backgroundCalibrationImage);
+                        backgroundCalibrationImage = new BufferedImage(cols, rows, BufferedImage.TYPE_INT_ARGB);
+                        backgroundCalibrationImage.setRGB(0, 0, cols, rows, problemPixels, 0, cols);
+                        backgroundCalibrationImages.add(backgroundCalibrationImage);
                     }
                     if (bestMinValue == 1) {
                         // black point goes all the way down.
@@ -1366,7 +1407,7 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
             }
         }
         finally {
-            backgroundImages = null;
+            backgroundStatistics = null;
         }
     }
 
@@ -1391,7 +1432,7 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
         // deprecated
         runoutCompensation = null;
         // Start a new set of background images.
-        backgroundImages = new ArrayList<>();
+        backgroundStatistics = null;
     }
 
     public void resetAll() {
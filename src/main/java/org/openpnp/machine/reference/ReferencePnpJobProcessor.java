@@ -19,18 +19,28 @@
 
 package org.openpnp.machine.reference;
 
+import java.io.File;
+import java.io.IOException;
 import java.text.DecimalFormat;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.openpnp.gui.support.Wizard;
+import org.openpnp.machine.reference.driver.ReferenceAdvancedMotionPlanner;
 import org.openpnp.machine.reference.vision.AbstractPartAlignment;
+import org.openpnp.machine.reference.vision.ReferenceFiducialLocator;
 import org.openpnp.machine.reference.wizards.ReferencePnpJobProcessorConfigurationWizard;
 import org.openpnp.model.BoardLocation;
 import org.openpnp.model.Configuration;
@@ -45,6 +55,8 @@ import org.openpnp.spi.Feeder;
 import org.openpnp.spi.FiducialLocator;
 import org.openpnp.spi.Head;
 import org.openpnp.spi.Machine;
+import org.openpnp.spi.MotionPlanner;
+import org.openpnp.spi.MotionPlanner.CompletionType;
 import org.openpnp.spi.Nozzle;
 import org.openpnp.spi.NozzleTip;
 import org.openpnp.spi.PartAlignment;
@@ -53,7 +65,9 @@ import org.openpnp.spi.PnpJobPlanner.PlannedPlacement;
 import org.openpnp.spi.PnpJobProcessor.JobPlacement.Status;
 import org.openpnp.spi.base.AbstractJobProcessor;
 import org.openpnp.spi.base.AbstractPnpJobProcessor;
+import org.openpnp.util.JobMetrics;
 import org.openpnp.util.MovableUtils;
+import org.openpnp.util.NanosecondTime;
 import org.openpnp.util.TravellingSalesman;
 import org.openpnp.util.Utils2D;
 import org.openpnp.util.VisionUtils;
@@ -82,9 +96,20 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
     @Attribute(required = false)
     boolean steppingToNextMotion = true;
 
+    @Attribute(required = false)
+    boolean exportMetrics = false;
+
+    @Attribute(required = false)
+    boolean continuousMotion = false;
+
     @Element(required = false)
     public PnpJobPlanner planner = new SimplePnpJobPlanner();
 
+    /**
+     * Maximum number of setup errors listed in the PreFlight error message, the rest is logged.
+     */
+    private static final int maxReportedSetupErrors = 10;
+
     protected Job job;
 
     protected Machine machine;
@@ -113,19 +138,58 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
     @Override
     public synchronized boolean next() throws JobProcessorException {
         this.fireJobState(Configuration.get().getMachine().getSignalers(), AbstractJobProcessor.State.RUNNING);
+        Step step = currentStep;
+        long t0 = NanosecondTime.getRuntime();
         try {
-            currentStep = currentStep.step();
+            currentStep = step(step);
         }
         catch (Exception e) {
             this.fireJobState(Configuration.get().getMachine().getSignalers(), AbstractJobProcessor.State.ERROR);
             throw e;
         }
+        finally {
+            if (JobMetrics.get().isRecording()) {
+                JobMetrics.get().recordSince("Step/"+step.getClass().getSimpleName(), t0);
+            }
+        }
         if (currentStep == null) {
             this.fireJobState(Configuration.get().getMachine().getSignalers(), AbstractJobProcessor.State.FINISHED);
         }
         return currentStep != null;
     }
 
+    /**
+     * Performs the step. With continuous motion, the Advanced Motion Planner looks ahead across the
+     * moves of the step and blends them. The moves of one step are not blended with those of the next
+     * step: when the step ends, its pending moves are planned and sent to the controllers, so the
+     * machine can already execute them while the next step is prepared.
+     * 
+     * @param step
+     * @return The next step.
+     * @throws JobProcessorException
+     */
+    Step step(Step step) throws JobProcessorException {
+        MotionPlanner motionPlanner = Configuration.get().getMachine().getMotionPlanner();
+        if (!(continuousMotion && motionPlanner instanceof ReferenceAdvancedMotionPlanner)) {
+            return step.step();
+        }
+        ReferenceAdvancedMotionPlanner advancedMotionPlanner = (ReferenceAdvancedMotionPlanner) motionPlanner;
+        boolean previousScope = advancedMotionPlanner.setContinuousMotionScope(true);
+        try {
+            Step nextStep = step.step();
+            try {
+                advancedMotionPlanner.waitForCompletion(null, CompletionType.CommandJog);
+            }
+            catch (Exception e) {
+                throw new JobProcessorException(advancedMotionPlanner, e);
+            }
+            return nextStep;
+        }
+        finally {
+            advancedMotionPlanner.setContinuousMotionScope(previousScope);
+        }
+    }
+
     public synchronized void abort() throws JobProcessorException {
         try {
             new Cleanup().step();
@@ -135,6 +199,7 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
             // we can do. We have to end the job.
             Logger.error(e);
         }
+        JobMetrics.get().stop();
         this.fireJobState(Configuration.get().getMachine().getSignalers(), AbstractJobProcessor.State.STOPPED);
         currentStep = null;
     }
@@ -157,6 +222,7 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
         public Step step() throws JobProcessorException {
             startTime = System.currentTimeMillis();
             totalPartsPlaced = 0;
+            JobMetrics.get().start();
             
             jobPlacements.clear();
 
@@ -211,16 +277,72 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
                         continue;
                     }
 
-                    JobPlacement jobPlacement = new JobPlacement(boardLocation, placement);
+                    jobPlacements.add(new JobPlacement(boardLocation, placement));
+                }
+            }
 
-                    checkJobPlacement(jobPlacement);
+            // Most placements share their parts, so check each part only once. The parts are 
+            // independent, check them in parallel.
+            List<Part> parts = jobPlacements.stream()
+                    .map(jobPlacement -> jobPlacement.getPlacement().getPart())
+                    .filter(part -> part != null)
+                    .distinct()
+                    .collect(Collectors.toList());
+            // Initialize the lazily loaded nozzle tip compatibility on this thread first.  
+            for (Nozzle nozzle : head.getNozzles()) {
+                nozzle.getCompatibleNozzleTips();
+            }
+            for (Part part : parts) {
+                if (part.getPackage() != null) {
+                    part.getPackage().getCompatibleNozzleTips();
+                }
+            }
+            Map<Part, JobProcessorException> partErrors = new ConcurrentHashMap<>();
+            parts.parallelStream().forEach(part -> {
+                try {
+                    checkPart(part);
+                }
+                catch (JobProcessorException e) {
+                    partErrors.put(part, e);
+                }
+            });
 
-                    jobPlacements.add(jobPlacement);
+            // Collect the errors in placement order, each error only once.
+            Set<JobProcessorException> errors = new LinkedHashSet<>();
+            for (JobPlacement jobPlacement : jobPlacements) {
+                try {
+                    checkJobPlacement(jobPlacement, partErrors);
+                }
+                catch (JobProcessorException e) {
+                    errors.add(e);
+                }
+            }
+            if (errors.size() == 1) {
+                throw errors.iterator().next();
+            }
+            else if (errors.size() > 1) {
+                // Report them all, so they can be fixed in one go.
+                JobProcessorException first = errors.iterator().next();
+                StringBuilder message = new StringBuilder();
+                message.append(errors.size());
+                message.append(" setup errors found:");
+                int n = 0;
+                for (JobProcessorException e : errors) {
+                    Logger.warn("Setup error: {}", e.getMessage());
+                    if (n++ < maxReportedSetupErrors) {
+                        message.append("\n");
+                        message.append(e.getMessage());
+                    }
+                }
+                if (n > maxReportedSetupErrors) {
+                    message.append(String.format("\n... and %d more, see the log.", n - maxReportedSetupErrors));
                 }
+                throw new JobProcessorException(first.getSource(), message.toString());
             }
         }
         
-        private void checkJobPlacement(JobPlacement jobPlacement) throws JobProcessorException {
+        private void checkJobPlacement(JobPlacement jobPlacement, 
+                Map<Part, JobProcessorException> partErrors) throws JobProcessorException {
             BoardLocation boardLocation = jobPlacement.getBoardLocation();
             Placement placement = jobPlacement.getPlacement();
             
@@ -230,8 +352,13 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
                         boardLocation.getBoard().getName(), placement.getId()));
             }
             
-            Part part = placement.getPart();
-            
+            JobProcessorException partError = partErrors.get(placement.getPart());
+            if (partError != null) {
+                throw partError;
+            }
+        }
+
+        private void checkPart(Part part) throws JobProcessorException {
             // Make sure the part has a package assigned
             if (part.getPackage() == null) {
                 throw new JobProcessorException(part, String.format("No package set for part %s.",
@@ -239,10 +366,10 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
             }
 
             // Make sure there is at least one compatible nozzle tip available
-            validatePartNozzleTip(head, placement.getPart());
+            validatePartNozzleTip(head, part);
 
             // Make sure there is at least one compatible and enabled feeder available
-            findFeeder(machine, placement.getPart());
+            findFeeder(machine, part);
         }
         
         private void validatePartNozzleTip(Head head, Part part) throws JobProcessorException {
@@ -307,19 +434,19 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
             Machine machine = Configuration.get().getMachine();
             List<Feeder> feederVisitList = new ArrayList<>();
             List<Feeder> feederNoVisitList = new ArrayList<>();
-            // Get all the feeders that are used in the pending placements.
+            // Get all the feeders that are used in the pending placements, each feeder once.
+            Set<String> partIds = getPendingJobPlacements().stream()
+                    .map(JobPlacement::getPartId)
+                    .collect(Collectors.toSet());
             for (Feeder feeder : machine.getFeeders()) {
-                if (feeder.isEnabled() && feeder.getPart() != null) {
-                    for (JobPlacement placement : getPendingJobPlacements()) {
-                        if (placement.getPartId().equals(feeder.getPart().getId())) {
-                            if (feeder.getJobPreparationLocation() != null) {
-                                // only feeders with location added to the visit list
-                                feederVisitList.add(feeder);
-                            }
-                            // always also add them to the general (second pass) prep list
-                            feederNoVisitList.add(feeder);
-                        }
+                if (feeder.isEnabled() && feeder.getPart() != null
+                        && partIds.contains(feeder.getPart().getId())) {
+                    if (feeder.getJobPreparationLocation() != null) {
+                        // only feeders with location added to the visit list
+                        feederVisitList.add(feeder);
                     }
+                    // always also add them to the general (second pass) prep list
+                    feederNoVisitList.add(feeder);
                 }
             }
             
@@ -412,6 +539,25 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
         public Step step() throws JobProcessorException {
             FiducialLocator locator = Configuration.get().getMachine().getFiducialLocator();
 
+            if (locator instanceof ReferenceFiducialLocator 
+                    && ((ReferenceFiducialLocator) locator).isBatchFiducialScan()) {
+                // Locate all the pending boards on one planned camera route.
+                List<BoardLocation> boardLocations = new ArrayList<>();
+                for (BoardLocation boardLocation : job.getBoardLocations()) {
+                    if (boardLocation.isEnabled() 
+                            && boardLocation.isCheckFiducials()
+                            && !completed.contains(boardLocation)) {
+                        boardLocations.add(boardLocation);
+                    }
+                }
+                if (!boardLocations.isEmpty()) {
+                    fireTextStatus("Fiducial check for %d boards", boardLocations.size());
+                    ((ReferenceFiducialLocator) locator).locateBoards(boardLocations, 
+                            boardLocation -> completed.add(boardLocation));
+                }
+                return new Plan();
+            }
+
             for (BoardLocation boardLocation : job.getBoardLocations()) {
                 if (!boardLocation.isEnabled()) {
                     continue;
@@ -505,6 +651,7 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
             fireTextStatus("Change nozzle tip on nozzle %s to %s.", 
                     nozzle.getName(), 
                     nozzleTip.getName());
+            long t0 = NanosecondTime.getRuntime();
             try {
                 nozzle.unloadNozzleTip();
                 nozzle.loadNozzleTip(nozzleTip);
@@ -512,6 +659,9 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
             catch (Exception e) {
                 throw new JobProcessorException(nozzleTip,  e);
             }
+            if (JobMetrics.get().isRecording()) {
+                JobMetrics.get().recordSince("Nozzle/"+nozzle.getName()+"/NozzleTipChange", t0);
+            }
             
             return this;
         }
@@ -539,12 +689,16 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
             }
             
             fireTextStatus("Calibrate nozzle tip %s", nozzleTip);
+            long t0 = NanosecondTime.getRuntime();
             try {
                 plannedPlacement.nozzle.calibrate();
             }
             catch (Exception e) {
                 throw new JobProcessorException(nozzleTip, e);
             }
+            if (JobMetrics.get().isRecording()) {
+                JobMetrics.get().recordSince("NozzleTip/"+nozzleTip.getName()+"/Calibrate", t0);
+            }
             
             return this;
         }
@@ -575,6 +729,11 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
              */
             JobProcessorException lastException = null;
             for (int partPickTry = 0; partPickTry < 1 + part.getPickRetryCount(); partPickTry++) {
+                if (partPickTry > 0) {
+                    if (JobMetrics.get().isRecording()) {
+                        JobMetrics.get().count("Part/"+part.getId()+"/PickRetries");
+                    }
+                }
                 /**
                  * Find an available feeder. If one cannot be found this will throw. There's nothing
                  * else we can do with this part.
@@ -649,10 +808,19 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
         private void feed(Feeder feeder, Nozzle nozzle) throws JobProcessorException {
             Exception lastException = null;
             for (int i = 0; i < 1 + feeder.getFeedRetryCount(); i++) {
+                if (i > 0) {
+                    if (JobMetrics.get().isRecording()) {
+                        JobMetrics.get().count("Feeder/"+feeder.getName()+"/FeedRetries");
+                    }
+                }
                 try {
                     fireTextStatus("Feed %s on %s.", feeder.getName(), feeder.getPart().getId());
                     
+                    long t0 = NanosecondTime.getRuntime();
                     feeder.feed(nozzle);
+                    if (JobMetrics.get().isRecording()) {
+                        JobMetrics.get().recordSince("Feeder/"+feeder.getName()+"/Feed", t0);
+                    }
                     return;
                 }
                 catch (Exception e) {
@@ -686,6 +854,11 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
         private void feederPickRetry(Nozzle nozzle, Feeder feeder, JobPlacement jobPlacement, Part part) throws JobProcessorException {
             Exception lastException = null;
             for (int i = 0; i < 1 + feeder.getPickRetryCount(); i++) {
+                if (i > 0) {
+                    if (JobMetrics.get().isRecording()) {
+                        JobMetrics.get().count("Feeder/"+feeder.getName()+"/PickRetries");
+                    }
+                }
                 try {
                     pick(nozzle, feeder, jobPlacement, part);
                     postPick(feeder, nozzle);
@@ -709,6 +882,7 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
                 nozzle.prepareForPickAndPlaceArticulation(feeder.getPickLocation(), placementLocation);
 
                 // Move to pick location.
+                long t0 = NanosecondTime.getRuntime();
                 nozzle.moveToPickLocation(feeder);
 
                 // Pick
@@ -716,6 +890,13 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
 
                 // Retract
                 nozzle.moveToSafeZ();
+                long t = NanosecondTime.getRuntime() - t0;
+                if (JobMetrics.get().isRecording()) {
+                    JobMetrics.get().record("Nozzle/"+nozzle.getName()+"/Pick", t);
+                    JobMetrics.get().record("Feeder/"+feeder.getName()+"/Pick", t);
+                    JobMetrics.get().record("Part/"+part.getId()+"/Pick", t);
+                }
+                jobPlacement.addPickTime(t);
             }
             catch (Exception e) {
                 throw new JobProcessorException(nozzle, e);
@@ -789,13 +970,25 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
 
             Exception lastException = null;
             for (int i = 0; i < ReferencePnpJobProcessor.this.getMaxVisionRetries(); i++) {
+                if (i > 0) {
+                    if (JobMetrics.get().isRecording()) {
+                        JobMetrics.get().count("Part/"+part.getId()+"/VisionRetries");
+                    }
+                }
                 fireTextStatus("Aligning %s for %s.", part.getId(), placement.getId());
                 try {
+                    long t0 = NanosecondTime.getRuntime();
                     plannedPlacement.alignmentOffsets = VisionUtils.findPartAlignmentOffsets(
                             partAlignment,
                             part,
                             boardLocation,
                             placement.getLocation(), nozzle);
+                    long t = NanosecondTime.getRuntime() - t0;
+                    if (JobMetrics.get().isRecording()) {
+                        JobMetrics.get().record("Nozzle/"+nozzle.getName()+"/Align", t);
+                        JobMetrics.get().record("Part/"+part.getId()+"/Align", t);
+                    }
+                    jobPlacement.addAlignTime(t);
                     Logger.debug("Align {} with {}, offsets {}", part, nozzle, plannedPlacement.alignmentOffsets);
                     return;
                 }
@@ -847,7 +1040,7 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
 
             checkPartOn(nozzle);
             
-            place(nozzle, part, placement, placementLocation);
+            place(nozzle, part, jobPlacement, placementLocation);
             
             checkPartOff(nozzle, part);
             
@@ -864,11 +1057,13 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
             return this;
         }
         
-        private void place(Nozzle nozzle, Part part, Placement placement, Location placementLocation) throws JobProcessorException {
+        private void place(Nozzle nozzle, Part part, JobPlacement jobPlacement, Location placementLocation) throws JobProcessorException {
+            final Placement placement = jobPlacement.getPlacement();
             fireTextStatus("Placing %s for %s.", part.getId(), placement.getId());
             
             try {
                 // Move to the placement location
+                long t0 = NanosecondTime.getRuntime();
                nozzle.moveToPlacementLocation(placementLocation, part);
 
                 // Place the part
@@ -876,6 +1071,12 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
 
                 // Retract
                 nozzle.moveToSafeZ();
+                long t = NanosecondTime.getRuntime() - t0;
+                if (JobMetrics.get().isRecording()) {
+                    JobMetrics.get().record("Nozzle/"+nozzle.getName()+"/Place", t);
+                    JobMetrics.get().record("Part/"+part.getId()+"/Place", t);
+                }
+                jobPlacement.addPlaceTime(t);
             }
             catch (Exception e) {
                 throw new JobProcessorException(nozzle, e);
@@ -1110,6 +1311,10 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
                         df.format(totalPartsPlaced / (dtSec / 3600.0)));
             }
 
+            JobMetrics.get().stop();
+            if (exportMetrics) {
+                exportMetrics();
+            }
             return null;
         }
     }
@@ -1117,6 +1322,7 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
     protected class Abort implements Step {
         public Step step() throws JobProcessorException {
             new Cleanup().step();
+            JobMetrics.get().stop();
             
             fireTextStatus("Aborted.");
             
@@ -1124,6 +1330,38 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
         }
     }
     
+    /**
+     * @return The placements of the job, as populated in PreFlight, with their status. 
+     */
+    @Override
+    public List<JobPlacement> getJobPlacements() {
+        return Collections.unmodifiableList(jobPlacements);
+    }
+
+    public int getTotalPartsPlaced() {
+        return totalPartsPlaced;
+    }
+
+    /**
+     * Export the job metrics as CSV and JSON files into the job-metrics subdirectory of the 
+     * configuration directory. 
+     */
+    protected void exportMetrics() {
+        try {
+            File directory = new File(Configuration.get().getConfigurationDirectory(), "job-metrics");
+            directory.mkdirs();
+            String name = (job.getFile() != null ? job.getFile().getName().replace(".job.xml", "") : "job")
+                    + "-" + new SimpleDateFormat("yyyy-MM-dd_HH.mm.ss").format(new Date());
+            File csvFile = new File(directory, name + ".csv");
+            JobMetrics.get().exportCsv(csvFile);
+            JobMetrics.get().exportJson(new File(directory, name + ".json"));
+            Logger.info("Job metrics exported to {}", csvFile.getParent());
+        }
+        catch (IOException e) {
+            Logger.warn(e, "Job metrics export failed");
+        }
+    }
+
     protected List<JobPlacement> getPendingJobPlacements() {
         return this.jobPlacements.stream().filter((jobPlacement) -> {
             return jobPlacement.getStatus() == Status.Pending;
@@ -1164,6 +1402,22 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
         this.steppingToNextMotion = steppingToNextMotion;
     }
 
+    public boolean isContinuousMotion() {
+        return continuousMotion;
+    }
+
+    public void setContinuousMotion(boolean continuousMotion) {
+        this.continuousMotion = continuousMotion;
+    }
+
+    public boolean isExportMetrics() {
+        return exportMetrics;
+    }
+
+    public void setExportMetrics(boolean exportMetrics) {
+        this.exportMetrics = exportMetrics;
+    }
+
     protected abstract class PlannedPlacementStep implements Step {
         protected final List<PlannedPlacement> plannedPlacements;
         private Set<PlannedPlacement> completed = new HashSet<>();
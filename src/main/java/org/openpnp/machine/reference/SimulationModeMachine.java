@@ -58,7 +58,7 @@ import org.openpnp.spi.Nozzle;
 import org.openpnp.spi.base.AbstractNozzle;
 import org.openpnp.util.Collect;
 import org.openpnp.util.GcodeServer;
-import org.openpnp.util.NanosecondTime;
+import org.openpnp.util.SimulationClock;
 import org.pmw.tinylog.Logger;
 import org.simpleframework.xml.Attribute;
 import org.simpleframework.xml.Element;
@@ -171,12 +171,39 @@ public class SimulationModeMachine extends ReferenceMachine {
     @Element(required = false)
     private boolean pickAndPlaceChecking = false;
 
+    /**
+     * Runs the simulation clock faster than real-time by that factor. See {@link SimulationClock}.
+     */
+    @Attribute(required = false)
+    private double simulationSpeedFactor = 1.0;
+
+    /**
+     * Skips the simulation clock ahead, when the simulated machine waits. See {@link SimulationClock}.
+     */
+    @Attribute(required = false)
+    private boolean simulationSkipIdle = false;
+
     @Override
     public void setEnabled(boolean enabled) throws Exception {
         // TODO: re-wire drivers and cameras. 
+        if (enabled) {
+            applySimulationSpeed();
+        }
         super.setEnabled(enabled);
     }
 
+    /**
+     * Apply the simulation speed to the SimulationClock. A machine that is not simulated always runs in real-time.
+     */
+    protected void applySimulationSpeed() {
+        if (simulationMode == SimulationMode.Off) {
+            SimulationClock.setSpeed(1.0, false);
+        }
+        else {
+            SimulationClock.setSpeed(simulationSpeedFactor > 0 ? simulationSpeedFactor : 1.0, simulationSkipIdle);
+        }
+    }
+
     @Override
     public PropertySheet[] getPropertySheets() {
         return Collect.concat(super.getPropertySheets(),
@@ -189,6 +216,32 @@ public class SimulationModeMachine extends ReferenceMachine {
         return simulationMode;
     }
 
+    public double getSimulationSpeedFactor() {
+        return simulationSpeedFactor;
+    }
+
+    public void setSimulationSpeedFactor(double simulationSpeedFactor) {
+        Object oldValue = this.simulationSpeedFactor;
+        this.simulationSpeedFactor = simulationSpeedFactor;
+        firePropertyChange("simulationSpeedFactor", oldValue, simulationSpeedFactor);
+        if (isEnabled()) {
+            applySimulationSpeed();
+        }
+    }
+
+    public boolean isSimulationSkipIdle() {
+        return simulationSkipIdle;
+    }
+
+    public void setSimulationSkipIdle(boolean simulationSkipIdle) {
+        Object oldValue = this.simulationSkipIdle;
+        this.simulationSkipIdle = simulationSkipIdle;
+        firePropertyChange("simulationSkipIdle", oldValue, simulationSkipIdle);
+        if (isEnabled()) {
+            applySimulationSpeed();
+        }
+    }
+
     public void setSimulationMode(SimulationMode simulationMode) {
         if (this.simulationMode != simulationMode) {
             try {
@@ -398,7 +451,7 @@ public class SimulationModeMachine extends ReferenceMachine {
         }
         if (realtime) {
             try {
-                Thread.sleep(50);
+                SimulationClock.sleep(50);
             }
             catch (InterruptedException e) {
             }
@@ -426,7 +479,7 @@ public class SimulationModeMachine extends ReferenceMachine {
         if (machine == null || machine.getSimulationMode() == SimulationMode.Off) {
             // Not a simulation machine. Just take the momentary nominal location.
             if (plainMachine instanceof ReferenceMachine) {
-                double cameraTime = NanosecondTime.getRuntimeSeconds();
+                double cameraTime = SimulationClock.getRuntimeSeconds();
                 Motion momentary = ((ReferenceMachine)plainMachine).getMotionPlanner()
                         .getMomentaryMotion(cameraTime);
                 AxesLocation axesLocation = momentary.getMomentaryLocation(cameraTime - momentary.getPlannedTime0());
@@ -449,7 +502,7 @@ public class SimulationModeMachine extends ReferenceMachine {
                         && machine.getSimulationMode().isDynamicallyImperfectMachine()) {
                     lag = machine.getSimulatedCameraLag();
                 }
-                double cameraTime = NanosecondTime.getRuntimeSeconds() - lag;
+                double cameraTime = SimulationClock.getRuntimeSeconds() - lag;
                 AxesLocation axesLocation = getMomentaryVector(machine, cameraTime, (m, time) -> m.getMomentaryLocation(time));
                 AxesLocation mappedAxes = hm.getMappedAxes(machine);
                 axesLocation = applyHomingOffsets(machine, axesLocation, mappedAxes, looking);
@@ -595,7 +648,7 @@ public class SimulationModeMachine extends ReferenceMachine {
     public void fireMachineActuatorActivity(Actuator actuator) {
         super.fireMachineActuatorActivity(actuator);
         ActuatorHistory history = getActuatorHistory(actuator);
-        history.put(NanosecondTime.getRuntimeSeconds(), actuator.isActuated() != null && actuator.isActuated());
+        history.put(SimulationClock.getRuntimeSeconds(), actuator.isActuated() != null && actuator.isActuated());
     }
 
     private static class ActuatorHistory  {
@@ -634,7 +687,7 @@ public class SimulationModeMachine extends ReferenceMachine {
             Actuator lightActuator = camera.getLightActuator();
             if (lightActuator != null) {
                 ActuatorHistory actuatorHistory = machine.getActuatorHistory(lightActuator);
-                if (!actuatorHistory.getActuationAt(NanosecondTime.getRuntimeSeconds() - machine.getSimulatedCameraLag())) {
+                if (!actuatorHistory.getActuationAt(SimulationClock.getRuntimeSeconds() - machine.getSimulatedCameraLag())) {
                     // Shade the view. 
                     gFrame.setColor(new Color(0, 0, 0, 200));
                     gFrame.fillRect(0, 0, width, height);
@@ -33,6 +33,7 @@ import org.openpnp.model.Solutions;
 import org.openpnp.spi.Axis;
 import org.openpnp.spi.base.AbstractControllerAxis;
 import org.openpnp.util.SimpleGraph;
+import org.openpnp.util.TextTemplate;
 import org.simpleframework.xml.Attribute;
 import org.simpleframework.xml.Element;
 import org.simpleframework.xml.core.Commit;
@@ -130,6 +131,8 @@ public class ReferenceControllerAxis extends AbstractControllerAxis {
     @Element(required = false, data = true)
     private String preMoveCommand;
 
+    private TextTemplate preMoveCommandTemplate;
+
     @Element(required = false)
     private Length softLimitLow = new Length(0.0, LengthUnit.Millimeters);
 
@@ -250,6 +253,23 @@ public class ReferenceControllerAxis extends AbstractControllerAxis {
         this.preMoveCommand = preMoveCommand;
     }
 
+    /**
+     * @return The pre-move command compiled as a TextTemplate, or null if none is set. The template
+     * is kept until the command changes.
+     */
+    public TextTemplate getPreMoveCommandTemplate() {
+        String preMoveCommand = this.preMoveCommand;
+        if (preMoveCommand == null || preMoveCommand.isEmpty()) {
+            return null;
+        }
+        TextTemplate template = preMoveCommandTemplate;
+        if (template == null || template.getTemplate() != preMoveCommand) {
+            template = new TextTemplate(preMoveCommand);
+            preMoveCommandTemplate = template;
+        }
+        return template;
+    }
+
     public BacklashCompensationMethod getBacklashCompensationMethod() {
         return backlashCompensationMethod;
     }
@@ -23,13 +23,19 @@ package org.openpnp.machine.reference.camera;
 
 import java.awt.BasicStroke;
 import java.awt.Color;
+import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
 import org.openpnp.CameraListener;
 import org.openpnp.ConfigurationListener;
 import org.openpnp.model.Configuration;
@@ -43,6 +49,7 @@ import org.openpnp.spi.Machine;
 import org.openpnp.spi.MachineListener;
 import org.openpnp.spi.base.AbstractActuator;
 import org.openpnp.util.MovableUtils;
+import org.openpnp.util.OpenCvUtils;
 import org.pmw.tinylog.Logger;
 import org.simpleframework.xml.Attribute;
 
@@ -161,6 +168,14 @@ public abstract class AbstractBroadcastingCamera extends AbstractSettlingCamera
         return thread;
     }
 
+    /**
+     * @return true if called from the preview thread of this camera, i.e. the capture is a preview
+     * capture rather than one for computer vision.
+     */
+    protected boolean isPreviewThread() {
+        return thread != null && thread == Thread.currentThread();
+    }
+
     protected BufferedImage getLastTransformedImage() {
         return lastTransformedImage.get();
     }
@@ -233,8 +248,45 @@ public abstract class AbstractBroadcastingCamera extends AbstractSettlingCamera
     }
 
     protected void broadcastCapture(BufferedImage img) {
+        // Display frames are produced once per size and shared among the listeners.
+        Map<Dimension, BufferedImage> displayFrames = new HashMap<>();
         for (ListenerEntry listener : new ArrayList<>(listeners)) {
-            listener.listener.frameReceived(img);
+            BufferedImage displayImg = null;
+            Dimension size = (img != null ? listener.listener.getDisplayFrameSize() : null);
+            if (size != null 
+                    && size.width > 0 && size.height > 0
+                    && size.width < img.getWidth() && size.height < img.getHeight()) {
+                displayImg = displayFrames.computeIfAbsent(size, (s) -> createDisplayFrame(img, s));
+            }
+            listener.listener.frameReceived(img, displayImg);
+        }
+    }
+
+    /**
+     * Downscale the image to the display size by pixel area averaging. This runs on the camera 
+     * thread, so the views can draw the display frame unscaled on the Event Dispatch Thread. 
+     * 
+     * @param img
+     * @param size
+     * @return The display frame or null if it could not be produced.
+     */
+    protected BufferedImage createDisplayFrame(BufferedImage img, Dimension size) {
+        Mat mat = null;
+        Mat scaled = new Mat();
+        try {
+            mat = OpenCvUtils.toMat(img);
+            Imgproc.resize(mat, scaled, new Size(size.width, size.height), 0, 0, Imgproc.INTER_AREA);
+            return OpenCvUtils.toBufferedImage(scaled);
+        }
+        catch (Exception e) {
+            Logger.trace(e);
+            return null;
+        }
+        finally {
+            if (mat != null) {
+                mat.release();
+            }
+            scaled.release();
         }
     }
 
@@ -43,9 +43,11 @@ import org.openpnp.gui.MainFrame;
 import org.openpnp.model.Configuration;
 import org.openpnp.spi.MotionPlanner.CompletionType;
 import org.openpnp.spi.base.AbstractCamera;
+import org.openpnp.util.JobMetrics;
 import org.openpnp.util.NanosecondTime;
 import org.openpnp.util.OpenCvUtils;
 import org.openpnp.util.SimpleGraph;
+import org.openpnp.util.SimulationClock;
 import org.pmw.tinylog.Logger;
 import org.simpleframework.xml.Attribute;
 import org.simpleframework.xml.core.Commit;
@@ -224,6 +226,12 @@ public abstract class AbstractSettlingCamera extends AbstractCamera {
     public static final String THRESHOLD = "TH"; 
     public static final String DATA = "D"; 
 
+    /**
+     * The time when the camera (or its subject) was last confirmed to stand still before settling.
+     * Cameras that know the time of their frames can use this to only deliver frames taken after it.
+     */
+    protected volatile long stillstandTimeNs;
+
     protected TreeMap<Double, BufferedImage> recordedImages = null;
     protected TreeMap<Double, BufferedImage> heatMappedImages = null;
     protected Double recordedImagePlayed = null;
@@ -644,9 +652,15 @@ public abstract class AbstractSettlingCamera extends AbstractCamera {
         globals.put("camera", this);
         Configuration.get().getScripting().on("Camera.BeforeSettle", globals);
 
+        long t0 = NanosecondTime.getRuntime();
+        long tStillstand = 0;
         try {
             // Make sure the camera (or its subject) stands still.
             waitForCompletion(CompletionType.WaitForStillstand);
+            stillstandTimeNs = tStillstand = NanosecondTime.getRuntime();
+            if (JobMetrics.get().isRecording()) {
+                JobMetrics.get().record("Camera/"+getName()+"/Motion", tStillstand - t0);
+            }
 
             if (settleMethod == null) {
                 // Method undetermined, probably created a new camera (no @Commit handler)
@@ -654,7 +668,7 @@ public abstract class AbstractSettlingCamera extends AbstractCamera {
             }
             if (settleMethod == SettleMethod.FixedTime) {
                 try {
-                    Thread.sleep(getSettleTimeMs());
+                    SimulationClock.sleep(getSettleTimeMs());
                 }
                 catch (Exception e) {
 
@@ -666,11 +680,19 @@ public abstract class AbstractSettlingCamera extends AbstractCamera {
             }
         }
         finally {
-
+            if (tStillstand != 0) {
+                if (JobMetrics.get().isRecording()) {
+                    JobMetrics.get().recordSince("Camera/"+getName()+"/Settle", tStillstand);
+                }
+            }
             Configuration.get().getScripting().on("Camera.AfterSettle", globals);
         }
     }
 
+    public long getStillstandTimeNs() {
+        return stillstandTimeNs;
+    }
+
     public SettleMethod getSettleMethod() {
         return settleMethod;
     }
@@ -21,25 +21,34 @@ package org.openpnp.machine.reference.camera;
 
 import java.awt.Color;
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.openpnp.gui.MainFrame;
 import org.openpnp.gui.components.CameraView;
 import org.openpnp.gui.support.Wizard;
+import org.openpnp.machine.reference.ReferenceMachine;
 import org.openpnp.machine.reference.camera.wizards.AutoFocusProviderConfigurationWizard;
+import org.openpnp.model.AbstractModelObject;
 import org.openpnp.model.Configuration;
 import org.openpnp.model.Length;
 import org.openpnp.model.LengthUnit;
 import org.openpnp.model.Location;
+import org.openpnp.model.Motion;
 import org.openpnp.spi.Camera;
 import org.openpnp.spi.FocusProvider;
 import org.openpnp.spi.HeadMountable;
+import org.openpnp.spi.Machine;
+import org.openpnp.spi.MotionPlanner;
+import org.openpnp.spi.MotionPlanner.CompletionType;
 import org.openpnp.util.ImageUtils;
 import org.openpnp.util.MovableUtils;
+import org.openpnp.util.SimulationClock;
 import org.pmw.tinylog.Logger;
 import org.simpleframework.xml.Attribute;
 import org.simpleframework.xml.Element;
 
-public class AutoFocusProvider implements FocusProvider {
+public class AutoFocusProvider extends AbstractModelObject implements FocusProvider {
     @Element(required = false)
     Length focalResolution = new Length(0.05, LengthUnit.Millimeters);
 
@@ -52,6 +61,36 @@ public class AutoFocusProvider implements FocusProvider {
     @Attribute(required = false)
     boolean showDiagnostics = true;
 
+    /**
+     * If true, the focus range is swept in one continuous motion, while frames are captured. Each
+     * frame is mapped to its location using the motion plan. This needs a driver that executes
+     * motion asynchronously, otherwise the stepped method is used.
+     */
+    @Attribute(required = false)
+    boolean continuousSweep = false;
+
+    /**
+     * If true, a continuous sweep is followed by a short and slower sweep around the found peak.
+     */
+    @Attribute(required = false)
+    boolean fineSweep = true;
+
+    /**
+     * The time from the exposure of a frame to camera.capture() returning it. Sweep frames are mapped to the 
+     * location of the motion at the return time minus this lag. 
+     */
+    @Attribute(required = false)
+    double frameLagMilliseconds = 0;
+
+    /**
+     * If true, the next fine sweep is repeated in the opposite direction. An error in the frame lag shifts the 
+     * peaks of the two sweeps in opposite directions, so their difference calibrates the frame lag, and their
+     * mean cancels the remaining error. This is a one-shot calibration, it is switched off once the frame lag
+     * is calibrated.
+     */
+    @Attribute(required = false)
+    boolean calibrateFrameLag = false;
+
     public Length getFocalResolution() {
         return focalResolution;
     }
@@ -84,6 +123,42 @@ public class AutoFocusProvider implements FocusProvider {
         this.showDiagnostics = showDiagnostics;
     }
 
+    public boolean isContinuousSweep() {
+        return continuousSweep;
+    }
+
+    public void setContinuousSweep(boolean continuousSweep) {
+        this.continuousSweep = continuousSweep;
+    }
+
+    public boolean isFineSweep() {
+        return fineSweep;
+    }
+
+    public void setFineSweep(boolean fineSweep) {
+        this.fineSweep = fineSweep;
+    }
+
+    public double getFrameLagMilliseconds() {
+        return frameLagMilliseconds;
+    }
+
+    public void setFrameLagMilliseconds(double frameLagMilliseconds) {
+        Object oldValue = this.frameLagMilliseconds;
+        this.frameLagMilliseconds = frameLagMilliseconds;
+        firePropertyChange("frameLagMilliseconds", oldValue, frameLagMilliseconds);
+    }
+
+    public boolean isCalibrateFrameLag() {
+        return calibrateFrameLag;
+    }
+
+    public void setCalibrateFrameLag(boolean calibrateFrameLag) {
+        Object oldValue = this.calibrateFrameLag;
+        this.calibrateFrameLag = calibrateFrameLag;
+        firePropertyChange("calibrateFrameLag", oldValue, calibrateFrameLag);
+    }
+
     @Override
     public Location autoFocus(Camera camera, HeadMountable movable,
             Length subjectMaxSize,
@@ -112,6 +187,14 @@ public class AutoFocusProvider implements FocusProvider {
         CameraView cameraView = MainFrame.get().getCameraViews().getCameraView(camera);
         BufferedImage bestFilteredImage = null; 
         try {
+            if (continuousSweep) {
+                Location l = sweepFocus(camera, movable, diameter, location0, location1, retract, speed, cameraView);
+                if (l != null) {
+                    return l;
+                }
+                Logger.debug("Auto focus could not sweep continuously, using steps.");
+                movable.moveTo(retractedLocation, focusSpeed*speed);
+            }
             final int maxCurveSteps = 10+1;
             while(true) {
                 int curveSteps = Math.max(2, Math.min(maxCurveSteps, 
@@ -176,6 +259,208 @@ public class AutoFocusProvider implements FocusProvider {
         }
     }
 
+    /**
+     * Sweep the focus range in one continuous motion, capturing frames as fast as the camera 
+     * delivers them. Each frame is mapped to the momentary location of the motion plan at capture 
+     * time, minus the frame lag, and the peak of the focus curve is interpolated from its best three 
+     * samples. Optionally, a second, slower sweep is done around the peak, so the frames are spaced by the
+     * focal resolution. This fine sweep can be repeated backwards, to calibrate the frame lag.
+     * 
+     * @return The focus location or null if the motion could not be overlapped with capturing.
+     * @throws Exception
+     */
+    protected Location sweepFocus(Camera camera, HeadMountable movable, int diameter, 
+            Location location0, Location location1, Location retract, double speed, 
+            CameraView cameraView) throws Exception {
+        Machine machine = Configuration.get().getMachine();
+        if (!(machine instanceof ReferenceMachine)) {
+            return null;
+        }
+        MotionPlanner motionPlanner = ((ReferenceMachine) machine).getMotionPlanner();
+        location0 = location0.convertToUnits(LengthUnit.Millimeters);
+        location1 = location1.convertToUnits(LengthUnit.Millimeters);
+        double length = location1.getXyzLengthTo(location0).convertToUnits(LengthUnit.Millimeters).getValue();
+        if (length == 0) {
+            movable.moveTo(location0, focusSpeed*speed);
+            return location0;
+        }
+        double [] peak = sweepPass(camera, movable, motionPlanner, diameter, 
+                location0, location1, 0.0, 1.0, focusSpeed*speed, cameraView);
+        if (peak == null) {
+            return null;
+        }
+        double resolution = focalResolution.convertToUnits(LengthUnit.Millimeters).getValue();
+        double spacing = peak[1]*length;
+        if (fineSweep && spacing > resolution) {
+            // Sweep two frame spacings around the peak, slow enough to get frames at focal resolution. 
+            double from = Math.max(0.0, peak[0] - 2*peak[1]);
+            double to = Math.min(1.0, peak[0] + 2*peak[1]);
+            Location fineFrom = location0.add(location1.subtractWithRotation(location0).multiply(from));
+            movable.moveTo(movable.getApproximativeLocation(fineFrom.add(retract), fineFrom), focusSpeed*speed);
+            double fineSpeed = focusSpeed*speed*Math.max(0.05, resolution/spacing);
+            double [] finePeak = sweepPass(camera, movable, motionPlanner, diameter, 
+                    location0, location1, from, to, fineSpeed, cameraView);
+            if (finePeak != null) {
+                peak = finePeak;
+                if (calibrateFrameLag && finePeak[2] > 0) {
+                    // Sweep back at the same speed.
+                    double [] backPeak = sweepPass(camera, movable, motionPlanner, diameter, 
+                            location0, location1, to, from, fineSpeed, cameraView);
+                    if (backPeak != null) {
+                        double lagError = frameLagError(finePeak[0], backPeak[0], finePeak[2]);
+                        setFrameLagMilliseconds(Math.max(0, Math.min(1000, frameLagMilliseconds + lagError*1000)));
+                        setCalibrateFrameLag(false);
+                        Logger.debug("Focus sweep frame lag calibrated to "+frameLagMilliseconds+"ms");
+                        peak = new double[] { (finePeak[0] + backPeak[0])/2, finePeak[1], finePeak[2] };
+                    }
+                }
+            }
+        }
+        Location l = location0.add(location1.subtractWithRotation(location0).multiply(peak[0]));
+        l = movable.getApproximativeLocation(l, l);
+        movable.moveTo(l, focusSpeed*speed);
+        Logger.trace("Focus sweep peak at "+l);
+        return l;
+    }
+
+    /**
+     * One continuous sweep from/to the given fractions of the location0 to location1 range.
+     * 
+     * @return The fraction of the peak focus, the mean fraction between frames and the sweep velocity at the peak
+     * in fractions per second, or null if there were not enough frames captured during the motion. 
+     * @throws Exception
+     */
+    protected double [] sweepPass(Camera camera, HeadMountable movable, MotionPlanner motionPlanner, 
+            int diameter, Location location0, Location location1, double from, double to, double speed, 
+            CameraView cameraView) throws Exception {
+        Location range = location1.subtractWithRotation(location0);
+        Location sweep0 = location0.add(range.multiply(from));
+        Location sweep1 = location0.add(range.multiply(to));
+        movable.moveTo(movable.getApproximativeLocation(sweep0, sweep0), speed);
+        movable.waitForCompletion(CompletionType.WaitForStillstand);
+        movable.moveTo(movable.getApproximativeLocation(sweep1, sweep1), speed);
+        // Send the sweep, but do not wait for it.
+        movable.waitForCompletion(CompletionType.CommandStillstand);
+        Motion sweep = motionPlanner.getLastMotion();
+        if (sweep == null || SimulationClock.getRuntimeSeconds() >= sweep.getPlannedTime1()) {
+            // Driver did not return before the motion completed.
+            movable.waitForCompletion(CompletionType.WaitForStillstand);
+            return null;
+        }
+        double timeEnd = sweep.getPlannedTime1();
+        List<double[]> samples = new ArrayList<>();
+        BufferedImage bestFilteredImage = null;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        double rangeSquare = Math.pow(range.getXyzLengthTo(Location.origin).getValue(), 2);
+        double frameLag = frameLagMilliseconds*0.001;
+        while (true) {
+            BufferedImage image = camera.capture();
+            // The frame was exposed the frame lag before it was returned.
+            double time = SimulationClock.getRuntimeSeconds() - frameLag;
+            if (time > timeEnd) {
+                break;
+            }
+            Motion motion = motionPlanner.getMomentaryMotion(time);
+            Location l = movable.toHeadMountableLocation(
+                    movable.toTransformed(motion.getMomentaryLocation(time - motion.getPlannedTime0())))
+                    .convertToUnits(LengthUnit.Millimeters);
+            // Project onto the focus range.
+            Location delta = l.subtract(location0);
+            double fraction = (delta.getX()*range.getX() + delta.getY()*range.getY() + delta.getZ()*range.getZ())
+                    /rangeSquare;
+            BufferedImage filteredImage = null;
+            if (showDiagnostics) {
+                final int xCrop = (image.getWidth() - diameter)/2;
+                final int yCrop = (image.getHeight() - diameter)/2;
+                filteredImage = ImageUtils.clone(image.getSubimage(xCrop, yCrop, diameter+1, diameter+1)); 
+            }
+            double focusScore = focusScore(image, diameter, filteredImage);
+            samples.add(new double[] { fraction, focusScore, time });
+            if (focusScore > bestScore) {
+                bestScore = focusScore;
+                bestFilteredImage = filteredImage;
+            }
+            if (filteredImage != null) { 
+                cameraView.showFilteredImage(filteredImage, "Auto Focus "+(bestFilteredImage == filteredImage ? "▲" : "▼"), 1000);
+            }
+            Logger.trace("Focus score at "+l+" is "+focusScore);
+        }
+        movable.waitForCompletion(CompletionType.WaitForStillstand);
+        if (samples.size() < 3) {
+            return null;
+        }
+        if (bestFilteredImage != null) { 
+            cameraView.showFilteredImage(bestFilteredImage, "Auto Focus \u26AB", 2000);
+        }
+        double [] peak = new double[] {
+                focusPeak(samples), 
+                Math.abs(samples.get(samples.size() - 1)[0] - samples.get(0)[0])/(samples.size() - 1),
+                peakVelocity(samples)
+        };
+        Logger.debug("Focus sweep "+from+" to "+to+" captured "+samples.size()+" frames, peak at "+peak[0]);
+        return peak;
+    }
+
+    /**
+     * @param samples The samples as fraction, focus score and time triples, in capture order.
+     * @return The velocity around the best sample in fractions per second.
+     */
+    protected static double peakVelocity(List<double[]> samples) {
+        int best = 0;
+        for (int i = 1; i < samples.size(); i++) {
+            if (samples.get(i)[1] > samples.get(best)[1]) {
+                best = i;
+            }
+        }
+        double [] s0 = samples.get(Math.max(0, best - 1));
+        double [] s1 = samples.get(Math.min(samples.size() - 1, best + 1));
+        return s1[2] > s0[2] ? (s1[0] - s0[0])/(s1[2] - s0[2]) : 0.0;
+    }
+
+    /**
+     * Compute the frame lag error from the peaks of a forward and a backward sweep at the same speed. 
+     * If the frames are older than assumed, they are mapped to locations further along the sweep, which 
+     * shifts the peaks in the direction of each sweep.
+     * 
+     * @param forwardPeak The fraction of the forward sweep peak.
+     * @param backwardPeak The fraction of the backward sweep peak.
+     * @param velocity The forward sweep velocity in fractions per second.
+     * @return The error in seconds, positive if the frame lag is larger than assumed.
+     */
+    protected static double frameLagError(double forwardPeak, double backwardPeak, double velocity) {
+        return (forwardPeak - backwardPeak)/(2*velocity);
+    }
+
+    /**
+     * Interpolate the peak of the focus curve by fitting a parabola through the best sample and its 
+     * neighbors.
+     * 
+     * @param samples The samples as fraction and focus score pairs, in capture order.
+     * @return The fraction of the peak. 
+     */
+    protected static double focusPeak(List<double[]> samples) {
+        int best = 0;
+        for (int i = 1; i < samples.size(); i++) {
+            if (samples.get(i)[1] > samples.get(best)[1]) {
+                best = i;
+            }
+        }
+        if (best == 0 || best == samples.size() - 1) {
+            return samples.get(best)[0];
+        }
+        double x0 = samples.get(best - 1)[0], y0 = samples.get(best - 1)[1];
+        double x1 = samples.get(best)[0], y1 = samples.get(best)[1];
+        double x2 = samples.get(best + 1)[0], y2 = samples.get(best + 1)[1];
+        double numerator = (x1 - x0)*(x1 - x0)*(y1 - y2) - (x1 - x2)*(x1 - x2)*(y1 - y0);
+        double denominator = (x1 - x0)*(y1 - y2) - (x1 - x2)*(y1 - y0);
+        if (denominator == 0) {
+            return x1;
+        }
+        double x = x1 - 0.5*numerator/denominator;
+        // Stay within the bracket.
+        return Math.max(Math.min(x0, x2), Math.min(Math.max(x0, x2), x));
+    }
+
     /**
      * The focus score is computed by detecting the hardest edges in the camera image for a specific fraction of the pixels  
      * and then returning the lowest edge hardness of that group (fractile). 
@@ -0,0 +1,327 @@
+/*
+ * Copyright (C) 2026 agent <agent@local>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.machine.reference.camera;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.imageio.ImageIO;
+
+import org.openpnp.model.LengthUnit;
+import org.openpnp.model.Location;
+import org.openpnp.util.ImageUtils;
+import org.openpnp.util.NanosecondTime;
+import org.pmw.tinylog.Logger;
+
+/**
+ * A compact container file for recorded camera frames, with the camera location and the capture
+ * time of each frame. Used by the ReferenceCamera recording mode and by the ReplayCamera.
+ *
+ * The file starts with an 8 byte magic, followed by the frame records. Each record consists of:
+ * <ul>
+ * <li>int record length (excluding this int)</li>
+ * <li>long capture time in nanoseconds, relative to the start of the recording</li>
+ * <li>double X, Y, Z, Rotation of the camera location in millimeters/degrees</li>
+ * <li>int width, int height, byte encoding</li>
+ * <li>the image data: 3 byte BGR pixels or PNG, depending on the encoding</li>
+ * </ul>
+ * All numbers are stored big-endian.
+ */
+public class CameraFrameRecording {
+    static final long MAGIC = 0x4f504e5046524d31L; // "OPNPFRM1"
+    static final int HEADER_BYTES = 8;
+    static final int FRAME_HEADER_BYTES = 8 + 4*8 + 4 + 4 + 1;
+
+    static final byte ENCODING_BGR = 0;
+    static final byte ENCODING_PNG = 1;
+
+    public static class Frame {
+        private final long timeNs;
+        private final Location location;
+        private final BufferedImage image;
+
+        public Frame(long timeNs, Location location, BufferedImage image) {
+            this.timeNs = timeNs;
+            this.location = location;
+            this.image = image;
+        }
+
+        /**
+         * @return The capture time in nanoseconds, relative to the start of the recording.
+         */
+        public long getTimeNs() {
+            return timeNs;
+        }
+
+        /**
+         * @return The camera location at the time of the capture.
+         */
+        public Location getLocation() {
+            return location;
+        }
+
+        public BufferedImage getImage() {
+            return image;
+        }
+    }
+
+    /**
+     * Records frames to a file. The image encoding and the file writing is done on a writer thread,
+     * so the capturing thread is not held up. If the writer can't keep up, frames are dropped.
+     */
+    public static class Writer implements Closeable, Runnable {
+        private final File file;
+        private final boolean compressed;
+        private final BlockingQueue<Frame> queue;
+        private final long t0 = NanosecondTime.getRuntime();
+        private final Frame endOfRecording = new Frame(0, null, null);
+        private FileChannel channel;
+        private Thread thread;
+        // Frames are recorded from the threads calling capture(), i.e. vision and camera settling, 
+        // but not the preview. 
+        private final AtomicLong framesWritten = new AtomicLong();
+        private final AtomicLong framesDropped = new AtomicLong();
+
+        /**
+         * @param file The file to record to. An existing file is overwritten.
+         * @param compressed If true, the frames are stored as PNG, otherwise as raw BGR pixels.
+         * @param queueCapacity The number of frames that can wait for the writer.
+         * @throws IOException
+         */
+        public Writer(File file, boolean compressed, int queueCapacity) throws IOException {
+            this.file = file;
+            this.compressed = compressed;
+            this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putLong(MAGIC);
+            header.flip();
+            channel.write(header);
+            thread = new Thread(this, "CameraFrameRecording "+file.getName());
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        /**
+         * Queue a frame for recording.
+         *
+         * @param image
+         * @param location
+         * @return false if the frame was dropped.
+         */
+        public boolean record(BufferedImage image, Location location) {
+            Frame frame = new Frame(NanosecondTime.getRuntime() - t0,
+                    location.convertToUnits(LengthUnit.Millimeters), image);
+            if (thread == null || !queue.offer(frame)) {
+                framesDropped.incrementAndGet();
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    Frame frame = queue.take();
+                    if (frame == endOfRecording) {
+                        break;
+                    }
+                    write(frame);
+                }
+            }
+            catch (InterruptedException e) {
+                // Stop.
+            }
+            catch (Exception e) {
+                Logger.error(e, "Camera frame recording to {} failed.", file);
+            }
+        }
+
+        protected void write(Frame frame) throws IOException {
+            BufferedImage image = frame.getImage();
+            byte[] data;
+            byte encoding;
+            if (compressed) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                ImageIO.write(image, "png", out);
+                data = out.toByteArray();
+                encoding = ENCODING_PNG;
+            }
+            else {
+                if (image.getType() != BufferedImage.TYPE_3BYTE_BGR) {
+                    image = ImageUtils.convertBufferedImage(image, BufferedImage.TYPE_3BYTE_BGR);
+                }
+                data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+                encoding = ENCODING_BGR;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(4 + FRAME_HEADER_BYTES + data.length);
+            buffer.putInt(FRAME_HEADER_BYTES + data.length);
+            buffer.putLong(frame.getTimeNs());
+            Location location = frame.getLocation();
+            buffer.putDouble(location.getX());
+            buffer.putDouble(location.getY());
+            buffer.putDouble(location.getZ());
+            buffer.putDouble(location.getRotation());
+            buffer.putInt(image.getWidth());
+            buffer.putInt(image.getHeight());
+            buffer.put(encoding);
+            buffer.put(data);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            framesWritten.incrementAndGet();
+        }
+
+        public long getFramesWritten() {
+            return framesWritten.get();
+        }
+
+        public long getFramesDropped() {
+            return framesDropped.get();
+        }
+
+        /**
+         * Writes the frames still queued and closes the file.
+         */
+        @Override
+        public synchronized void close() throws IOException {
+            if (thread != null) {
+                Thread writerThread = thread;
+                thread = null;
+                try {
+                    queue.put(endOfRecording);
+                    writerThread.join();
+                }
+                catch (InterruptedException e) {
+                    writerThread.interrupt();
+                }
+                channel.close();
+                Logger.debug("Camera frame recording {} closed, {} frames written, {} frames dropped.",
+                        file, framesWritten.get(), framesDropped.get());
+            }
+        }
+    }
+
+    /**
+     * Reads frames from a recording file. The file is memory-mapped and indexed when opened, frames
+     * are decoded on demand.
+     */
+    public static class Reader implements Closeable {
+        private final File file;
+        private FileChannel channel;
+        private MappedByteBuffer buffer;
+        private final List<Integer> frameOffsets = new ArrayList<>();
+
+        public Reader(File file) throws IOException {
+            this.file = file;
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            if (channel.size() > Integer.MAX_VALUE) {
+                channel.close();
+                throw new IOException("Camera frame recording "+file+" is too large to be mapped.");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (buffer.limit() < HEADER_BYTES || buffer.getLong(0) != MAGIC) {
+                channel.close();
+                throw new IOException(file+" is not a camera frame recording.");
+            }
+            int offset = HEADER_BYTES;
+            while (offset + 4 <= buffer.limit()) {
+                int length = buffer.getInt(offset);
+                if (length < FRAME_HEADER_BYTES || offset + 4 + length > buffer.limit()) {
+                    // Truncated recording, e.g. when the application was terminated while recording.
+                    Logger.warn("Camera frame recording {} truncated after {} frames.", file, frameOffsets.size());
+                    break;
+                }
+                frameOffsets.add(offset + 4);
+                offset += 4 + length;
+            }
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public int getFrameCount() {
+            return frameOffsets.size();
+        }
+
+        /**
+         * @param index
+         * @return The capture time of the frame, without decoding the image.
+         */
+        public long getFrameTimeNs(int index) {
+            return buffer.getLong(frameOffsets.get(index));
+        }
+
+        public Frame getFrame(int index) throws IOException {
+            ByteBuffer record = buffer.duplicate();
+            int offset = frameOffsets.get(index);
+            int length = buffer.getInt(offset - 4);
+            record.position(offset);
+            record.limit(offset + length);
+            long timeNs = record.getLong();
+            Location location = new Location(LengthUnit.Millimeters,
+                    record.getDouble(), record.getDouble(), record.getDouble(), record.getDouble());
+            int width = record.getInt();
+            int height = record.getInt();
+            byte encoding = record.get();
+            byte[] data = new byte[record.remaining()];
+            record.get(data);
+            BufferedImage image;
+            if (encoding == ENCODING_PNG) {
+                image = ImageIO.read(new ByteArrayInputStream(data));
+            }
+            else if (encoding == ENCODING_BGR && data.length == width*height*3) {
+                image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+                System.arraycopy(data, 0,
+                        ((DataBufferByte) image.getRaster().getDataBuffer()).getData(), 0, data.length);
+            }
+            else {
+                throw new IOException("Camera frame recording "+file+" frame "+index+" has an invalid encoding.");
+            }
+            return new Frame(timeNs, location, image);
+        }
+
+        @Override
+        public void close() throws IOException {
+            buffer = null;
+            channel.close();
+        }
+    }
+}
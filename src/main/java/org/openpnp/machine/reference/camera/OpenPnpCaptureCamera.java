@@ -22,6 +22,7 @@ package org.openpnp.machine.reference.camera;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.openpnp.capture.CaptureDevice;
 import org.openpnp.capture.CaptureFormat;
@@ -33,6 +34,7 @@ import org.openpnp.gui.support.Wizard;
 import org.openpnp.machine.reference.camera.wizards.OpenPnpCaptureCameraConfigurationWizard;
 import org.openpnp.model.AbstractModelObject;
 import org.openpnp.spi.PropertySheetHolder;
+import org.openpnp.util.NanosecondTime;
 import org.pmw.tinylog.Logger;
 import org.simpleframework.xml.Attribute;
 import org.simpleframework.xml.Element;
@@ -45,6 +47,11 @@ public class OpenPnpCaptureCamera extends ReferenceCamera implements Runnable {
     private CaptureFormat format;
     private CaptureStream stream;
 
+    private Thread grabThread;
+    private final AtomicReference<GrabbedFrame> latestFrame = new AtomicReference<>();
+    private final Object frameNotifier = new Object();
+    private volatile long consumedSequence;
+
     @Attribute(required = false)
     private String uniqueId;
 
@@ -95,30 +102,128 @@ public class OpenPnpCaptureCamera extends ReferenceCamera implements Runnable {
     }
 
     @Override
-    public synchronized BufferedImage internalCapture() {
+    public BufferedImage internalCapture() {
         if (! ensureOpen()) {
             return null;
         }
+        /**
+         * The timeout is only needed if the stream is somehow in error and not producing frames (anymore) 
+         * which can happen, if you disconnect the USB port and then try to capture from a pipeline.  
+         */
+        return captureFrameAfter(getStillstandTimeNs(), 500);
+    }
+
+    /**
+     * Returns the first frame that was grabbed after the given time, and that was not consumed before.
+     * Waits for the grab thread to deliver it, if necessary.
+     * 
+     * @param timeNs The NanosecondTime.getRuntime() time the frame must be newer than.
+     * @param timeoutMs
+     * @return The frame or null if none was grabbed within the timeout.
+     */
+    public BufferedImage captureFrameAfter(long timeNs, long timeoutMs) {
+        long timeout = NanosecondTime.getRuntimeMilliseconds() + timeoutMs;
         try {
-            /**
-             * The timeout is only needed if the stream is somehow in error and not producing frames (anymore) 
-             * which can happen, if you disconnect the USB port and then try to capture from a pipeline.  
-             */
-            long timeout = System.currentTimeMillis()+500;
-            while (!stream.hasNewFrame()) {
-                Thread.yield();
-                if (System.currentTimeMillis() > timeout) {
-                    return null;
+            synchronized (frameNotifier) {
+                while (true) {
+                    GrabbedFrame frame = latestFrame.get();
+                    if (frame != null 
+                            && frame.sequence > consumedSequence
+                            && frame.timeNs > timeNs) {
+                        consumedSequence = frame.sequence;
+                        return frame.image;
+                    }
+                    long wait = timeout - NanosecondTime.getRuntimeMilliseconds();
+                    if (wait <= 0) {
+                        return null;
+                    }
+                    frameNotifier.wait(wait);
                 }
             }
-            BufferedImage img = stream.capture();
-            return img;
         }
-        catch (Exception e) {
+        catch (InterruptedException e) {
             return null;
         }
     }
 
+    /**
+     * A frame grabbed from the stream, with the NanosecondTime.getRuntime() time it was grabbed.
+     */
+    protected static class GrabbedFrame {
+        final BufferedImage image;
+        final long timeNs;
+        final long sequence;
+
+        GrabbedFrame(BufferedImage image, long timeNs, long sequence) {
+            this.image = image;
+            this.timeNs = timeNs;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * The grab thread pulls frames from the stream as soon as they arrive. Unlike the stream 
+     * itself, it does not need to be polled by the consumers, they just wait for the next frame.
+     * 
+     * @param stream
+     */
+    private void grabFrames(CaptureStream stream) {
+        long sequence = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (stream.hasNewFrame()) {
+                    BufferedImage image = stream.capture();
+                    if (image != null) {
+                        latestFrame.set(new GrabbedFrame(image, NanosecondTime.getRuntime(), ++sequence));
+                        synchronized (frameNotifier) {
+                            frameNotifier.notifyAll();
+                        }
+                    }
+                }
+                else {
+                    // The stream can only be polled. Sleeping a millisecond is negligible against 
+                    // any frame interval, but does not burn a core.
+                    Thread.sleep(1);
+                }
+            }
+            catch (InterruptedException e) {
+                break;
+            }
+            catch (Exception e) {
+                Logger.trace(e, "Camera {} frame grab failed.", getName());
+                try {
+                    Thread.sleep(10);
+                }
+                catch (InterruptedException e1) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private synchronized void startGrabbing() {
+        stopGrabbing();
+        CaptureStream stream = this.stream;
+        if (stream != null) {
+            grabThread = new Thread(() -> grabFrames(stream), "OpenPnpCaptureCamera "+getName()+" grab");
+            grabThread.setDaemon(true);
+            grabThread.start();
+        }
+    }
+
+    private synchronized void stopGrabbing() {
+        if (grabThread != null) {
+            grabThread.interrupt();
+            try {
+                grabThread.join(200);
+            }
+            catch (InterruptedException e) {
+            }
+            grabThread = null;
+        }
+        latestFrame.set(null);
+    }
+
     @Override
     protected synchronized boolean isOpen() {
         return super.isOpen() 
@@ -126,17 +231,16 @@ public class OpenPnpCaptureCamera extends ReferenceCamera implements Runnable {
     }
     
     @Override
-    public synchronized boolean hasNewFrame() {
-        if (isOpen()) {
-            return stream.hasNewFrame();
-        }        
-        return false;
+    public boolean hasNewFrame() {
+        GrabbedFrame frame = latestFrame.get();
+        return frame != null && frame.sequence > consumedSequence;
     }
 
     @Override
     public synchronized void open() throws Exception {
         stop();
 
+        stopGrabbing();
         if (stream != null) {
             try {
                 stream.close();
@@ -199,6 +303,7 @@ public class OpenPnpCaptureCamera extends ReferenceCamera implements Runnable {
 
             stream = device.openStream(format);
             setPropertiesStream(stream);
+            startGrabbing();
         }
         catch (Exception e) {
             e.printStackTrace();
@@ -222,8 +327,8 @@ public class OpenPnpCaptureCamera extends ReferenceCamera implements Runnable {
         long t1 = 0;
         int capturedFrames = 0;
         for (int frames = 0; frames < 480; frames++) {
-            stream.capture();
-            while (!stream.hasNewFrame()) {
+            if (captureFrameAfter(0, 1000) == null) {
+                break;
             }
             t1 = System.currentTimeMillis();
             capturedFrames++;
@@ -285,6 +390,7 @@ public class OpenPnpCaptureCamera extends ReferenceCamera implements Runnable {
     public synchronized void close() throws IOException {
         super.close();
 
+        stopGrabbing();
         if (stream != null) {
             try {
                 stream.close();
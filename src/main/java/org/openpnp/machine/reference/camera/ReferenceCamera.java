@@ -20,8 +20,10 @@
 package org.openpnp.machine.reference.camera;
 
 import java.awt.Color;
+import java.awt.FileDialog;
 import java.awt.event.ActionEvent;
 import java.awt.image.BufferedImage;
+import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -43,6 +45,7 @@ import org.opencv.imgproc.Imgproc;
 import org.openpnp.ConfigurationListener;
 import org.openpnp.gui.MainFrame;
 import org.openpnp.gui.support.Icons;
+import org.openpnp.gui.support.MessageBoxes;
 import org.openpnp.gui.support.PropertySheetWizardAdapter;
 import org.openpnp.gui.support.WizardUtils;
 import org.openpnp.gui.wizards.CameraConfigurationWizard;
@@ -69,6 +72,7 @@ import org.openpnp.spi.Machine;
 import org.openpnp.util.Collect;
 import org.openpnp.util.OpenCvUtils;
 import org.openpnp.util.SimpleGraph;
+import org.openpnp.util.UiUtils;
 import org.openpnp.util.VisionUtils;
 import org.openpnp.vision.LensCalibration;
 import org.openpnp.vision.LensCalibration.LensModel;
@@ -189,6 +193,8 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
 
     private Actuator lightActuator;
 
+    private CameraFrameRecording.Writer frameRecorder;
+
     public enum FocusSensingMethod {
         None,
         AutoFocus
@@ -225,10 +231,48 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
         Configuration.get().getScripting().on("Camera.BeforeCapture", globals);
 
         BufferedImage image = captureTransformed();
+        CameraFrameRecording.Writer recorder = frameRecorder;
+        if (recorder != null) {
+            recorder.record(image, getLocation());
+        }
 
         Configuration.get().getScripting().on("Camera.AfterCapture", globals);
         return image;
     }
+
+    /**
+     * Starts recording the captured frames together with the camera location and capture time. 
+     * Only frames obtained through capture() are recorded, i.e. the frames used by computer vision 
+     * and camera settling, but not the preview frames. The recording can be replayed using the 
+     * ReplayCamera.
+     * 
+     * @param file The recording file. An existing file is overwritten.
+     * @param compressed If true, the frames are stored as PNG, otherwise as raw pixels.
+     * @throws IOException
+     */
+    public synchronized void startRecording(File file, boolean compressed) throws IOException {
+        stopRecording();
+        frameRecorder = new CameraFrameRecording.Writer(file, compressed, 64);
+        firePropertyChange("recording", false, true);
+    }
+
+    /**
+     * Stops the recording, if one is running. Frames still queued are written before the file is closed.
+     * 
+     * @throws IOException
+     */
+    public synchronized void stopRecording() throws IOException {
+        CameraFrameRecording.Writer recorder = frameRecorder;
+        if (recorder != null) {
+            frameRecorder = null;
+            recorder.close();
+            firePropertyChange("recording", true, false);
+        }
+    }
+
+    public boolean isRecording() {
+        return frameRecorder != null;
+    }
     
     /**
      * Captures an image using captureRaw(), applies local transformations and returns the image.
@@ -1234,8 +1278,36 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
     
     @Override
     public Action[] getPropertySheetHolderActions() {
-        return new Action[] { deleteAction };
+        return new Action[] { deleteAction, recordAction };
     }
+
+    public Action recordAction = new AbstractAction("Record Frames") {
+        {
+            putValue(SMALL_ICON, Icons.captureCamera);
+            putValue(NAME, "Record Frames");
+            putValue(SHORT_DESCRIPTION, "<html>Start or stop recording the frames captured by this camera, including the camera location<br/>"
+                    + "and capture time. The recording can be replayed using a ReplayCamera.</html>");
+        }
+
+        @Override
+        public void actionPerformed(ActionEvent arg0) {
+            UiUtils.messageBoxOnException(() -> {
+                if (isRecording()) {
+                    stopRecording();
+                    MessageBoxes.infoBox("Recording", "Camera "+getName()+" stopped recording.");
+                    return;
+                }
+                FileDialog fileDialog = new FileDialog(MainFrame.get(), "Record Frames to", FileDialog.SAVE);
+                fileDialog.setFile(getName()+".opnpfrm");
+                fileDialog.setVisible(true);
+                if (fileDialog.getFile() == null) {
+                    return;
+                }
+                File file = new File(new File(fileDialog.getDirectory()), fileDialog.getFile());
+                startRecording(file, true);
+            });
+        }
+    };
     
     public Action deleteAction = new AbstractAction("Delete Camera") {
         {
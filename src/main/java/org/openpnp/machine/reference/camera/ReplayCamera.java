@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2026 agent <agent@local>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.machine.reference.camera;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import org.openpnp.gui.support.Wizard;
+import org.openpnp.machine.reference.camera.wizards.ReplayCameraConfigurationWizard;
+import org.openpnp.model.Location;
+import org.openpnp.spi.PropertySheetHolder;
+import org.openpnp.util.NanosecondTime;
+import org.pmw.tinylog.Logger;
+import org.simpleframework.xml.Attribute;
+import org.simpleframework.xml.Element;
+
+/**
+ * A camera that replays a frame recording made with the ReferenceCamera "Record Frames" action.
+ * Used to reproduce vision problems and to tune pipelines offline, without the machine.
+ *
+ * The recorded frames are already transformed, therefore no image transforms are applied.
+ */
+public class ReplayCamera extends ReferenceCamera {
+    public enum PlaybackSpeed {
+        /**
+         * Frames are served with the timing they were recorded with.
+         */
+        Recorded,
+        /**
+         * Each capture for computer vision advances to the next frame, regardless of time. This
+         * makes replays deterministic, i.e. the n-th vision capture always gets the n-th frame.
+         */
+        Maximum
+    }
+
+    @Element(required = false)
+    private String recordingFile = "";
+
+    @Attribute(required = false)
+    private PlaybackSpeed playbackSpeed = PlaybackSpeed.Recorded;
+
+    @Attribute(required = false)
+    private boolean loop = true;
+
+    private CameraFrameRecording.Reader reader;
+    private long playbackStartNs;
+    private int frameIndex;
+    private int decodedIndex = -1;
+    /**
+     * True once a vision capture has been served the current frame in Maximum playback speed.
+     */
+    private boolean frameCaptured;
+    private CameraFrameRecording.Frame frame;
+
+    public String getRecordingFile() {
+        return recordingFile;
+    }
+
+    public void setRecordingFile(String recordingFile) {
+        String oldValue = this.recordingFile;
+        this.recordingFile = recordingFile;
+        firePropertyChange("recordingFile", oldValue, recordingFile);
+    }
+
+    public PlaybackSpeed getPlaybackSpeed() {
+        return playbackSpeed;
+    }
+
+    public void setPlaybackSpeed(PlaybackSpeed playbackSpeed) {
+        this.playbackSpeed = playbackSpeed;
+    }
+
+    public boolean isLoop() {
+        return loop;
+    }
+
+    public void setLoop(boolean loop) {
+        this.loop = loop;
+    }
+
+    /**
+     * @return The recorded camera location of the frame last served, or null if none was served yet.
+     */
+    public synchronized Location getReplayedLocation() {
+        return frame == null ? null : frame.getLocation();
+    }
+
+    /**
+     * @return The index of the frame currently served.
+     */
+    public synchronized int getFrameIndex() {
+        return frameIndex;
+    }
+
+    /**
+     * Restart the replay from the first frame.
+     */
+    public synchronized void rewind() {
+        frameIndex = 0;
+        frameCaptured = false;
+        playbackStartNs = NanosecondTime.getRuntime();
+    }
+
+    @Override
+    public synchronized void open() throws Exception {
+        closeReader();
+        if (recordingFile != null && !recordingFile.isEmpty()) {
+            reader = new CameraFrameRecording.Reader(new File(recordingFile));
+            Logger.debug("Camera {} replaying {} frames from {}.", getName(), reader.getFrameCount(), recordingFile);
+        }
+        rewind();
+        super.open();
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+        synchronized (this) {
+            closeReader();
+        }
+    }
+
+    private void closeReader() throws IOException {
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+        decodedIndex = -1;
+        frame = null;
+    }
+
+    @Override
+    public BufferedImage capture() throws Exception {
+        if (playbackSpeed == PlaybackSpeed.Maximum) {
+            // Only vision captures advance, the preview just shows the current frame. Whether the 
+            // preview has decoded the frame already does not matter, so the first vision capture always 
+            // gets the first frame.
+            synchronized (this) {
+                if (frameCaptured && reader != null) {
+                    advance(frameIndex + 1);
+                }
+                frameCaptured = true;
+            }
+        }
+        return super.capture();
+    }
+
+    @Override
+    public synchronized BufferedImage internalCapture() {
+        if (!ensureOpen() || reader == null || reader.getFrameCount() == 0) {
+            return null;
+        }
+        if (playbackSpeed == PlaybackSpeed.Recorded) {
+            long t = NanosecondTime.getRuntime() - playbackStartNs + reader.getFrameTimeNs(0);
+            int index = frameIndex;
+            while (index + 1 < reader.getFrameCount() && reader.getFrameTimeNs(index + 1) <= t) {
+                index++;
+            }
+            // Show the last frame for an average frame interval before looping.
+            long lastTimeNs = reader.getFrameTimeNs(index);
+            long intervalNs = (lastTimeNs - reader.getFrameTimeNs(0))/Math.max(1, reader.getFrameCount() - 1);
+            if (loop && index == reader.getFrameCount() - 1 && t > lastTimeNs + intervalNs) {
+                rewind();
+                index = 0;
+            }
+            advance(index);
+        }
+        if (decodedIndex != frameIndex) {
+            try {
+                frame = reader.getFrame(frameIndex);
+                decodedIndex = frameIndex;
+            }
+            catch (IOException e) {
+                Logger.error(e);
+                return null;
+            }
+        }
+        return frame.getImage();
+    }
+
+    private void advance(int index) {
+        if (index >= reader.getFrameCount()) {
+            index = loop ? 0 : reader.getFrameCount() - 1;
+        }
+        frameIndex = index;
+    }
+
+    @Override
+    protected BufferedImage transformImage(BufferedImage image) {
+        return image;
+    }
+
+    @Override
+    public Wizard getConfigurationWizard() {
+        return new ReplayCameraConfigurationWizard(this);
+    }
+
+    @Override
+    public String getPropertySheetHolderTitle() {
+        return getClass().getSimpleName() + " " + getName();
+    }
+
+    @Override
+    public PropertySheetHolder[] getChildPropertySheetHolders() {
+        return null;
+    }
+}
@@ -49,46 +49,64 @@ public class SwitcherCamera extends ReferenceCamera {
     @Attribute(required=false)
     private long actuatorDelayMillis = 500;
     
-    private static Map<Integer, Camera> switchers = new HashMap<>();
+    @Attribute(required=false)
+    private long previewSwitchMillis = 2000;
+    
+    private static Map<Integer, SwitcherChannel> switchers = new HashMap<>();
+    
+    private volatile BufferedImage lastImage;
     
     protected int getCaptureTryCount() {
         return 1;
     }
 
+    protected SwitcherChannel getSwitcherChannel() {
+        synchronized (switchers) {
+            return switchers.computeIfAbsent(switcher, (k) -> new SwitcherChannel());
+        }
+    }
+
     @Override
     public synchronized BufferedImage internalCapture() {
         if (!ensureOpen()) {
             return null;
         }
-        synchronized (switchers) {
-            if (switchers.get(switcher) != this) {
-                try {
-                    // Make sure this happens within a machine task, but wait for it.
-                    Camera switchedCamera = Configuration.get().getMachine().execute(() -> {
-                            getActuator().actuate(actuatorDoubleValue);
-                            return this;
-                        }, true, 0); // execute only if the Machine is enabled and with zero timeout if it is busy.
-                    if (this != switchedCamera) {
-                        return null;
-                    }
-                    Thread.sleep(actuatorDelayMillis);
-                    switchers.put(switcher, this);
-                }
-                catch (TimeoutException e) {
-                    // If the machine is busy we can't switch, so we should return a null image.
-                    return null;
-                }
-                catch (Exception e) {
-                    e.printStackTrace();
-                    return null;
-                }
+        boolean preview = isPreviewThread();
+        try {
+            BufferedImage image = getSwitcherChannel().capture(this, preview, 
+                    previewSwitchMillis, actuatorDelayMillis, 
+                    () -> {
+                        try {
+                            // Make sure this happens within a machine task, but wait for it.
+                            Camera switchedCamera = Configuration.get().getMachine().execute(() -> {
+                                getActuator().actuate(actuatorDoubleValue);
+                                return this;
+                            }, true, 0); // execute only if the Machine is enabled and with zero timeout if it is busy.
+                            return (this == switchedCamera);
+                        }
+                        catch (TimeoutException e) {
+                            // If the machine is busy we can't switch.
+                            return false;
+                        }
+                    }, 
+                    // Note, the target camera is actually a capture device with multiple analog cameras connected via multiplexer. 
+                    // Each analog camera can have a different lens attached and may be subject to different mounting imperfections, 
+                    // therefore each SwitcherCamera must have its own set of lens calibration and transforms. 
+                    // The target camera device however must not apply any calibration or transform, hence the raw capture.  
+                    () -> getCamera().captureRaw());
+            if (image != null) {
+                lastImage = image;
+            }
+            else if (preview) {
+                // The channel is busy with other cameras, keep showing the last image.
+                return lastImage;
             }
+            return image;
+        }
+        catch (Exception e) {
+            e.printStackTrace();
+            return null;
         }
-        // Note, the target camera is actually a capture device with multiple analog cameras connected via multiplexer. 
-        // Each analog camera can have a different lens attached and may be subject to different mounting imperfections, 
-        // therefore each SwitcherCamera must have its own set of lens calibration and transforms. 
-        // The target camera device however must not apply any calibration or transform, hence the raw capture.  
-        return getCamera().captureRaw();
     }
 
     @Override
@@ -96,11 +114,11 @@ public class SwitcherCamera extends ReferenceCamera {
         if (!isOpen()) {
             return false;
         }
-        synchronized (switchers) {
-            if (switchers.get(switcher) != this) {
-                // Always assume an off-switched camera has a new frame.
-                return true;
-            }
+        SwitcherChannel channel = getSwitcherChannel();
+        if (channel.getActiveCamera() != this) {
+            // An off-switched camera only has a new frame for the preview, when the preview 
+            // may switch the channel. 
+            return channel.isPreviewCaptureDue(this, previewSwitchMillis);
         }
         return getCamera().hasNewFrame();
     }
@@ -164,6 +182,15 @@ public class SwitcherCamera extends ReferenceCamera {
         firePropertyChange("actuatorDelayMillis", null, actuatorDelayMillis);
     }
 
+    public long getPreviewSwitchMillis() {
+        return previewSwitchMillis;
+    }
+
+    public void setPreviewSwitchMillis(long previewSwitchMillis) {
+        this.previewSwitchMillis = previewSwitchMillis;
+        firePropertyChange("previewSwitchMillis", null, previewSwitchMillis);
+    }
+
     public int getSwitcher() {
         return switcher;
     }
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2026 agent <agent@local>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.machine.reference.camera;
+
+import java.awt.image.BufferedImage;
+import java.util.function.Supplier;
+
+import org.openpnp.spi.Camera;
+
+/**
+ * Schedules the captures of the switched cameras sharing one physical capture channel, i.e. one
+ * capture device behind a video multiplexer.
+ * 
+ * Captures for computer vision take priority over preview captures. Pending vision captures are
+ * served one after the other, without the preview switching the channel in between. A preview
+ * capture only switches the channel when no vision capture is pending and at most once per preview
+ * switch interval. A vision capture can take over the channel while a preview switch is still
+ * settling.
+ */
+public class SwitcherChannel {
+    public interface SwitchAction {
+        /**
+         * Switch the channel to the camera.
+         * 
+         * @return true if switched, false if the switch is not possible right now.
+         * @throws Exception
+         */
+        boolean switchTo() throws Exception;
+    }
+
+    private Camera activeCamera;
+    private long settledTimeMs;
+    private long lastPreviewSwitchTimeMs;
+    private int pendingCaptures;
+    private boolean captureBusy;
+
+    /**
+     * @return The camera the channel is currently switched to.
+     */
+    public synchronized Camera getActiveCamera() {
+        return activeCamera;
+    }
+
+    /**
+     * @param camera
+     * @param previewSwitchMillis
+     * @return true if the preview of the camera may capture, i.e. the channel is switched to it, or 
+     * the preview may switch it now.
+     */
+    public synchronized boolean isPreviewCaptureDue(Camera camera, long previewSwitchMillis) {
+        if (activeCamera == camera) {
+            return true;
+        }
+        return pendingCaptures == 0 
+                && System.currentTimeMillis() - lastPreviewSwitchTimeMs >= previewSwitchMillis;
+    }
+
+    /**
+     * Capture an image from the camera, switching the channel if needed.
+     * 
+     * @param camera The switched camera.
+     * @param preview true if this is a preview capture. 
+     * @param previewSwitchMillis The minimum interval between preview switches. 
+     * @param switchDelayMillis The time the channel takes to settle after a switch.
+     * @param switchAction Switches the channel to the camera. 
+     * @param capture Captures the image once the channel is switched and settled.
+     * @return The image or null if the channel could not be switched, or if a preview capture was
+     * preempted.
+     * @throws Exception
+     */
+    public BufferedImage capture(Camera camera, boolean preview, long previewSwitchMillis, 
+            long switchDelayMillis, SwitchAction switchAction, Supplier<BufferedImage> capture) 
+                    throws Exception {
+        synchronized (this) {
+            if (!preview) {
+                pendingCaptures++;
+                try {
+                    // Serve vision captures one after the other.
+                    while (captureBusy) {
+                        wait();
+                    }
+                }
+                catch (InterruptedException e) {
+                    pendingCaptures--;
+                    notifyAll();
+                    throw e;
+                }
+                captureBusy = true;
+            }
+            try {
+                while (true) {
+                    if (activeCamera != camera) {
+                        if (preview && !isPreviewCaptureDue(camera, previewSwitchMillis)) {
+                            return null;
+                        }
+                        if (!switchAction.switchTo()) {
+                            return null;
+                        }
+                        activeCamera = camera;
+                        settledTimeMs = System.currentTimeMillis() + switchDelayMillis;
+                        if (preview) {
+                            lastPreviewSwitchTimeMs = System.currentTimeMillis();
+                        }
+                    }
+                    long remaining = settledTimeMs - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    // Wait for the switch to settle. This releases the channel, so a vision capture 
+                    // can take over a preview switch. 
+                    wait(remaining);
+                }
+                return capture.get();
+            }
+            finally {
+                if (!preview) {
+                    captureBusy = false;
+                    pendingCaptures--;
+                    notifyAll();
+                }
+            }
+        }
+    }
+}
@@ -92,6 +92,12 @@ public class AutoFocusProviderConfigurationWizard extends AbstractConfigurationW
                         FormSpecs.RELATED_GAP_ROWSPEC,
                         FormSpecs.DEFAULT_ROWSPEC,
                         FormSpecs.RELATED_GAP_ROWSPEC,
+                        FormSpecs.DEFAULT_ROWSPEC,
+                        FormSpecs.RELATED_GAP_ROWSPEC,
+                        FormSpecs.DEFAULT_ROWSPEC,
+                        FormSpecs.RELATED_GAP_ROWSPEC,
+                        FormSpecs.DEFAULT_ROWSPEC,
+                        FormSpecs.RELATED_GAP_ROWSPEC,
                         FormSpecs.DEFAULT_ROWSPEC,}));
 
         lblFocalResolution = new JLabel("Focal Resolution");
@@ -128,16 +134,52 @@ public class AutoFocusProviderConfigurationWizard extends AbstractConfigurationW
         showDiagnostics = new JCheckBox("");
         panelGeneral.add(showDiagnostics, "4, 8");
 
+        lblContinuousSweep = new JLabel("Continuous Sweep?");
+        lblContinuousSweep.setToolTipText("<html>Sweep the focus range in one continuous motion while capturing frames.<br/>\n"
+                + "Each frame is mapped to its location using the motion plan.<br/>\n"
+                + "This needs a driver that executes motion asynchronously, e.g. the GcodeAsyncDriver,<br/>\n"
+                + "otherwise the focus is stepped.</html>");
+        panelGeneral.add(lblContinuousSweep, "2, 10, right, default");
+
+        continuousSweep = new JCheckBox("");
+        panelGeneral.add(continuousSweep, "4, 10");
+
+        lblFineSweep = new JLabel("Fine Sweep?");
+        lblFineSweep.setToolTipText("<html>After a continuous sweep, sweep again around the found peak,<br/>\n"
+                + "slow enough to capture the frames at the Focal Resolution.</html>");
+        panelGeneral.add(lblFineSweep, "2, 12, right, default");
+
+        fineSweep = new JCheckBox("");
+        panelGeneral.add(fineSweep, "4, 12");
+
+        lblFrameLag = new JLabel("Frame Lag [ms]");
+        lblFrameLag.setToolTipText("<html>The time from the exposure of a frame to the capture returning it.<br/>\n"
+                + "Sweep frames are mapped to the location the motion had at that time.</html>");
+        panelGeneral.add(lblFrameLag, "2, 14, right, default");
+
+        frameLag = new JTextField();
+        panelGeneral.add(frameLag, "4, 14, fill, default");
+        frameLag.setColumns(10);
+
+        lblCalibrateFrameLag = new JLabel("Calibrate Frame Lag?");
+        lblCalibrateFrameLag.setToolTipText("<html>Repeat the next fine sweep backwards, at the same speed.<br/>\n"
+                + "The difference of the two peaks calibrates the Frame Lag, their mean is taken as the focus.<br/>\n"
+                + "Switched off again, once the Frame Lag is calibrated.</html>");
+        panelGeneral.add(lblCalibrateFrameLag, "2, 16, right, default");
+
+        calibrateFrameLag = new JCheckBox("");
+        panelGeneral.add(calibrateFrameLag, "4, 16");
+
         lblLastFocusDistance = new JLabel("Last Focus Distance");
-        panelGeneral.add(lblLastFocusDistance, "2, 12, right, default");
+        panelGeneral.add(lblLastFocusDistance, "2, 18, right, default");
 
         txtLastFocusDistance = new JTextField();
         txtLastFocusDistance.setEditable(false);
-        panelGeneral.add(txtLastFocusDistance, "4, 12, fill, default");
+        panelGeneral.add(txtLastFocusDistance, "4, 18, fill, default");
         txtLastFocusDistance.setColumns(10);
         
                 btnSetCameraZ = new JButton(adjustCameraZAction);
-                panelGeneral.add(btnSetCameraZ, "6, 12");
+                panelGeneral.add(btnSetCameraZ, "6, 18");
     }
 
     @Override
@@ -150,12 +192,18 @@ public class AutoFocusProviderConfigurationWizard extends AbstractConfigurationW
         addWrappedBinding(focusProvider, "averagedFrames", averagedFrames, "text", intConverter);
         addWrappedBinding(focusProvider, "focusSpeed", focusSpeed, "text", doubleConverter);
         addWrappedBinding(focusProvider, "showDiagnostics", showDiagnostics, "selected");
+        addWrappedBinding(focusProvider, "continuousSweep", continuousSweep, "selected");
+        addWrappedBinding(focusProvider, "fineSweep", fineSweep, "selected");
+        addWrappedBinding(focusProvider, "frameLagMilliseconds", frameLag, "text", 
+                new DoubleConverter("%f"));
+        addWrappedBinding(focusProvider, "calibrateFrameLag", calibrateFrameLag, "selected");
 
         addWrappedBinding(this, "lastFocusDistance", txtLastFocusDistance, "text", lengthConverter);
 
         ComponentDecorators.decorateWithAutoSelectAndLengthConversion(focalResolution);
         ComponentDecorators.decorateWithAutoSelect(averagedFrames);
         ComponentDecorators.decorateWithAutoSelect(focusSpeed);
+        ComponentDecorators.decorateWithAutoSelect(frameLag);
         ComponentDecorators.decorateWithAutoSelectAndLengthConversion(txtLastFocusDistance);
     }
 
@@ -256,4 +304,12 @@ public class AutoFocusProviderConfigurationWizard extends AbstractConfigurationW
     private JLabel lblShowDiagnostics;
     private JCheckBox showDiagnostics;
     private JButton btnSetCameraZ;
+    private JLabel lblContinuousSweep;
+    private JCheckBox continuousSweep;
+    private JLabel lblFineSweep;
+    private JCheckBox fineSweep;
+    private JLabel lblFrameLag;
+    private JTextField frameLag;
+    private JLabel lblCalibrateFrameLag;
+    private JCheckBox calibrateFrameLag;
 }
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2026 agent <agent@local>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.machine.reference.camera.wizards;
+
+import java.awt.FileDialog;
+import java.awt.Frame;
+import java.awt.event.ActionEvent;
+import java.io.File;
+
+import javax.swing.AbstractAction;
+import javax.swing.Action;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+import javax.swing.border.TitledBorder;
+
+import org.openpnp.gui.components.ComponentDecorators;
+import org.openpnp.gui.support.AbstractConfigurationWizard;
+import org.openpnp.machine.reference.camera.ReplayCamera;
+import org.openpnp.machine.reference.camera.ReplayCamera.PlaybackSpeed;
+import org.openpnp.util.UiUtils;
+
+import com.jgoodies.forms.layout.ColumnSpec;
+import com.jgoodies.forms.layout.FormLayout;
+import com.jgoodies.forms.layout.FormSpecs;
+import com.jgoodies.forms.layout.RowSpec;
+
+@SuppressWarnings("serial")
+public class ReplayCameraConfigurationWizard extends AbstractConfigurationWizard {
+    private final ReplayCamera camera;
+
+    private JPanel panelGeneral;
+    private JLabel lblRecordingFile;
+    private JTextField recordingFile;
+    private JButton btnBrowse;
+    private JLabel lblPlaybackSpeed;
+    private JComboBox playbackSpeed;
+    private JLabel lblLoop;
+    private JCheckBox loop;
+
+    public ReplayCameraConfigurationWizard(ReplayCamera camera) {
+        this.camera = camera;
+
+        panelGeneral = new JPanel();
+        contentPanel.add(panelGeneral);
+        panelGeneral.setBorder(new TitledBorder(null,
+                "Replay", TitledBorder.LEADING, TitledBorder.TOP, null));
+        panelGeneral.setLayout(new FormLayout(new ColumnSpec[] {
+                FormSpecs.RELATED_GAP_COLSPEC,
+                ColumnSpec.decode("max(70dlu;default)"),
+                FormSpecs.RELATED_GAP_COLSPEC,
+                ColumnSpec.decode("default:grow"),
+                FormSpecs.RELATED_GAP_COLSPEC,
+                FormSpecs.DEFAULT_COLSPEC,},
+            new RowSpec[] {
+                FormSpecs.RELATED_GAP_ROWSPEC,
+                FormSpecs.DEFAULT_ROWSPEC,
+                FormSpecs.RELATED_GAP_ROWSPEC,
+                FormSpecs.DEFAULT_ROWSPEC,
+                FormSpecs.RELATED_GAP_ROWSPEC,
+                FormSpecs.DEFAULT_ROWSPEC,}));
+
+        lblRecordingFile = new JLabel("Recording File");
+        lblRecordingFile.setToolTipText("Frame recording made with the \"Record Frames\" camera action.");
+        panelGeneral.add(lblRecordingFile, "2, 2, right, default");
+
+        recordingFile = new JTextField();
+        panelGeneral.add(recordingFile, "4, 2, fill, default");
+        recordingFile.setColumns(40);
+
+        btnBrowse = new JButton(browseAction);
+        panelGeneral.add(btnBrowse, "6, 2");
+
+        lblPlaybackSpeed = new JLabel("Playback Speed");
+        lblPlaybackSpeed.setToolTipText("<html>"
+                + "<strong>Recorded</strong>: frames are served with the recorded timing.<br/>"
+                + "<strong>Maximum</strong>: each vision capture advances to the next frame.</html>");
+        panelGeneral.add(lblPlaybackSpeed, "2, 4, right, default");
+
+        playbackSpeed = new JComboBox(PlaybackSpeed.values());
+        panelGeneral.add(playbackSpeed, "4, 4, left, default");
+
+        lblLoop = new JLabel("Loop?");
+        panelGeneral.add(lblLoop, "2, 6, right, default");
+
+        loop = new JCheckBox("");
+        panelGeneral.add(loop, "4, 6");
+    }
+
+    @Override
+    public void createBindings() {
+        addWrappedBinding(camera, "recordingFile", recordingFile, "text");
+        addWrappedBinding(camera, "playbackSpeed", playbackSpeed, "selectedItem");
+        addWrappedBinding(camera, "loop", loop, "selected");
+
+        ComponentDecorators.decorateWithAutoSelect(recordingFile);
+    }
+
+    private Action browseAction = new AbstractAction() {
+        {
+            putValue(NAME, "Browse");
+            putValue(SHORT_DESCRIPTION, "Browse");
+        }
+
+        public void actionPerformed(ActionEvent e) {
+            FileDialog fileDialog = new FileDialog((Frame) getTopLevelAncestor());
+            fileDialog.setFilenameFilter((dir, name) -> name.toLowerCase().endsWith(".opnpfrm"));
+            fileDialog.setVisible(true);
+            if (fileDialog.getFile() == null) {
+                return;
+            }
+            File file = new File(new File(fileDialog.getDirectory()), fileDialog.getFile());
+            recordingFile.setText(file.getAbsolutePath());
+        }
+    };
+
+    @Override
+    protected void saveToModel() {
+        super.saveToModel();
+        UiUtils.messageBoxOnException(() -> {
+            camera.reinitialize();
+        });
+    }
+}
@@ -53,6 +53,8 @@ public class SwitcherCameraConfigurationWizard extends AbstractConfigurationWiza
     private JTextField actuatorDoubleValue;
     private JLabel lblNewLabel_4;
     private JTextField actuatorDelayMillis;
+    private JLabel lblPreviewSwitchMillis;
+    private JTextField previewSwitchMillis;
     
     public SwitcherCameraConfigurationWizard(SwitcherCamera camera) {
         this.camera = camera;
@@ -74,6 +76,8 @@ public class SwitcherCameraConfigurationWizard extends AbstractConfigurationWiza
                 FormSpecs.RELATED_GAP_ROWSPEC,
                 FormSpecs.DEFAULT_ROWSPEC,
                 FormSpecs.RELATED_GAP_ROWSPEC,
+                FormSpecs.DEFAULT_ROWSPEC,
+                FormSpecs.RELATED_GAP_ROWSPEC,
                 FormSpecs.DEFAULT_ROWSPEC,}));
         
         lblNewLabel = new JLabel("Source Camera");
@@ -109,6 +113,15 @@ public class SwitcherCameraConfigurationWizard extends AbstractConfigurationWiza
         contentPanel.add(actuatorDoubleValue, "4, 10, fill, default");
         actuatorDoubleValue.setColumns(10);
         
+        lblPreviewSwitchMillis = new JLabel("Preview Switch Interval (ms)");
+        lblPreviewSwitchMillis.setToolTipText("<html>Minimum interval between camera switches for the preview.<br/>"
+                + "Captures for computer vision always take precedence and are never throttled.</html>");
+        contentPanel.add(lblPreviewSwitchMillis, "2, 12, right, default");
+        
+        previewSwitchMillis = new JTextField();
+        contentPanel.add(previewSwitchMillis, "4, 12, fill, default");
+        previewSwitchMillis.setColumns(10);
+        
         for (Camera camera : Configuration.get().getMachine().getCameras()) {
             sourceCamera.addItem(camera);
         }
@@ -128,9 +141,11 @@ public class SwitcherCameraConfigurationWizard extends AbstractConfigurationWiza
         addWrappedBinding(camera, "actuator", actuator, "selectedItem");
         addWrappedBinding(camera, "actuatorDelayMillis", actuatorDelayMillis, "text", longConverter);
         addWrappedBinding(camera, "actuatorDoubleValue", actuatorDoubleValue, "text", doubleConverter);
+        addWrappedBinding(camera, "previewSwitchMillis", previewSwitchMillis, "text", longConverter);
         
         ComponentDecorators.decorateWithAutoSelect(switcher);
         ComponentDecorators.decorateWithAutoSelect(actuatorDelayMillis);
         ComponentDecorators.decorateWithAutoSelect(actuatorDoubleValue);
+        ComponentDecorators.decorateWithAutoSelect(previewSwitchMillis);
     }
 }
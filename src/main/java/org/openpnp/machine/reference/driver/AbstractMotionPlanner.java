@@ -57,7 +57,9 @@ import org.openpnp.spi.HeadMountable;
 import org.openpnp.spi.Locatable.LocationOption;
 import org.openpnp.spi.MotionPlanner;
 import org.openpnp.spi.PropertySheetHolder;
+import org.openpnp.util.JobMetrics;
 import org.openpnp.util.NanosecondTime;
+import org.openpnp.util.SimulationClock;
 import org.openpnp.util.Utils2D;
 import org.pmw.tinylog.Logger;
 import org.simpleframework.xml.Attribute;
@@ -403,7 +405,7 @@ public abstract class AbstractMotionPlanner extends AbstractModelObject implemen
 
         // Now execute the plan against the drivers.
         // We also record it into the real-time motionPlan to enable motion prediction and simulation. 
-        double t = NanosecondTime.getRuntimeSeconds();
+        double t = SimulationClock.getRuntimeSeconds();
         if (motionPlan.isEmpty() == false && motionPlan.lastKey() > t) {
             // Append to a plan that is still running. 
             t = motionPlan.lastKey();
@@ -420,6 +422,8 @@ public abstract class AbstractMotionPlanner extends AbstractModelObject implemen
                 t += Math.max(dt, 1e-9);  
                 plannedMotion.setPlannedTime1(t);
                 motionPlan.put(t, plannedMotion);
+                // The planned time is what the machine takes, regardless of the host's timing.
+                JobMetrics.get().record("Motion/Planned", (long) (dt*1e9));
                 // Execute across drivers.
                 ReferenceHeadMountable  hm = (ReferenceHeadMountable) plannedMotion.getHeadMountable();
                 if (hm != null) {
@@ -725,7 +729,11 @@ public abstract class AbstractMotionPlanner extends AbstractModelObject implemen
 
         if (completionType.isEnforcingStillstand()) {
             // Wait for the drivers.
+            long t0 = NanosecondTime.getRuntime();
             waitForDriverCompletion(hm, completionType);
+            if (JobMetrics.get().isRecording()) {
+                JobMetrics.get().recordSince("Motion/"+(hm != null ? hm.getName() : "Machine")+"/WaitForStillstand", t0);
+            }
             // The drivers might have reported new coordinates back. Propagate to planned axis coordinates, 
             // applying the backlash offset in reverse.
             AxesLocation reportedLocation = new AxesLocation(getMachine().getAxes(), 
@@ -749,7 +757,7 @@ public abstract class AbstractMotionPlanner extends AbstractModelObject implemen
         // Apply the rotation axes wrap-around handling.
         wrapUpCoordinates(hm);
         // Remove old stuff.
-        clearMotionPlanOlderThan(NanosecondTime.getRuntimeSeconds() - maximumPlanHistory);
+        clearMotionPlanOlderThan(SimulationClock.getRuntimeSeconds() - maximumPlanHistory);
     }
 
     /**
@@ -25,15 +25,18 @@ import java.io.PrintWriter;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import org.openpnp.gui.support.PropertySheetWizardAdapter;
 import org.openpnp.machine.reference.ReferenceActuator;
@@ -75,6 +78,7 @@ import org.openpnp.spi.base.AbstractHeadMountable;
 import org.openpnp.spi.base.AbstractSingleTransformedAxis;
 import org.openpnp.spi.base.AbstractTransformedAxis;
 import org.openpnp.util.NanosecondTime;
+import org.openpnp.util.TextTemplate;
 import org.openpnp.util.TextUtils;
 import org.pmw.tinylog.Logger;
 import org.simpleframework.xml.Attribute;
@@ -186,12 +190,49 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
         }
 
         public String getCommand() {
-            return Joiner.on('\n').join(commands);
+            List<String> lines = textLines;
+            String text = this.text;
+            if (text == null || !commands.equals(lines)) {
+                text = Joiner.on('\n').join(commands);
+                this.text = text;
+                this.textLines = new ArrayList<>(commands);
+                this.template = null;
+            }
+            return text;
+        }
+
+        /**
+         * @return The command compiled as a TextTemplate. The template is kept until the command text
+         * changes.
+         */
+        public TextTemplate getTemplate() {
+            String text = getCommand();
+            TextTemplate template = this.template;
+            if (template == null || template.getTemplate() != text) {
+                template = new TextTemplate(text);
+                this.template = template;
+            }
+            return template;
         }
 
         private Command() {
 
         }
+
+        private String text;
+        private List<String> textLines;
+        private TextTemplate template;
+    }
+
+    /**
+     * The commands list exposes its modification count, so the command index can tell when it is
+     * stale.
+     */
+    @SuppressWarnings("serial")
+    public static class CommandList extends ArrayList<Command> {
+        int getModificationCount() {
+            return modCount;
+        }
     }
 
     @Attribute(required = false)
@@ -271,8 +312,8 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
     @Element(required = false, data=true)
     String configuredAxes = null;
 
-    @ElementList(required = false, inline = true)
-    public ArrayList<Command> commands = new ArrayList<>();
+    @ElementList(required = false, inline = true, entry = "command", type = Command.class)
+    public CommandList commands = new CommandList();
 
     @Deprecated
     @ElementList(required = false)
@@ -322,6 +363,39 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
 
     private PrintWriter gcodeLogger;
 
+    private static final Command[] noCommands = new Command[0];
+    private static final TextTemplate noCommandTemplate = new TextTemplate("");
+    /**
+     * Separate lock, as the index is also used on the reader thread, which must never block on the driver.
+     */
+    private final Object commandIndexLock = new Object();
+    private EnumMap<CommandType, Command[]> commandIndex;
+    private CommandList commandIndexList;
+    private int commandIndexModificationCount;
+    private ReadingActuator[] readingActuators;
+    /**
+     * The actuator that is currently read by {@link #actuatorRead(Actuator, Object)}, if any.
+     */
+    private volatile Actuator pendingReadActuator;
+
+    /**
+     * An actuator with streamed readings and its compiled ACTUATOR_READ_REGEX.
+     */
+    private static class ReadingActuator {
+        private final ReferenceActuator actuator;
+        private final Pattern pattern;
+        /**
+         * True if other actuators on the driver have the same regex, i.e. a matching line cannot 
+         * be attributed by the regex alone. 
+         */
+        private boolean shared;
+
+        ReadingActuator(ReferenceActuator actuator, Pattern pattern) {
+            this.actuator = actuator;
+            this.pattern = pattern;
+        }
+    }
+
     @Commit
     public void commit() {
         super.commit();
@@ -338,6 +412,8 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
                 }
             }
         }
+        // Command types were changed in place.
+        invalidateCommandIndex();
     }
 
     @Override
@@ -348,7 +424,7 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
     }
 
     public void createDefaultCommands() {
-        commands = new ArrayList<>();
+        commands = new CommandList();
         commands.add(new Command(null, CommandType.COMMAND_CONFIRM_REGEX, "^ok.*"));
         commands.add(new Command(null, CommandType.CONNECT_COMMAND, "G21 ; Set millimeters mode\nG90 ; Set absolute positioning mode\nM82 ; Set absolute mode for extruder"));
         commands.add(new Command(null, CommandType.HOME_COMMAND, "G28 ; Home all axes"));
@@ -359,6 +435,7 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
 
     public synchronized void connect() throws Exception {
         disconnectRequested = false;
+        invalidateCommandIndex();
         getCommunications().connect();
         connected = false;
 
@@ -436,11 +513,11 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
     public void home(Machine machine) throws Exception {
         // Home is sent with an infinite timeout since it's tough to tell how long it will
         // take.
-        String command = getCommand(null, CommandType.HOME_COMMAND);
+        TextTemplate.Substitution command = getCommandSubstitution(null, CommandType.HOME_COMMAND);
         // legacy head support
         Head head = machine.getDefaultHead();
-        command = substituteVariable(command, "Id", head.getId()); 
-        command = substituteVariable(command, "Name", head.getName());
+        command.set("Id", head.getId()); 
+        command.set("Name", head.getName());
         if (isUsingLetterVariables()) {
             AxesLocation axesHomeLocation =  new AxesLocation(machine, 
                     (axis) -> (axis.getHomeCoordinate())); 
@@ -458,8 +535,8 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
                     else {
                         coordinate = axesHomeLocation.getCoordinate(axis, getUnits());
                     }
-                    command = substituteVariable(command, variable, coordinate);
-                    command = substituteVariable(command, variable+"L", 
+                    command.set(variable, coordinate);
+                    command.set(variable+"L", 
                             axis.getLetter());
 
                     // Because in homing we don't know which axis is moved when and in what combination, 
@@ -481,33 +558,33 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
                     }
                 }
                 else {
-                    command = substituteVariable(command, variable, null);
-                    command = substituteVariable(command, variable+"L", null); 
+                    command.set(variable, null);
+                    command.set(variable+"L", null); 
                 }
             }
 
             if (getMotionControlType().isUnpredictable()) {
                 // Do not initialize rates, as the motion control is unpredictable, i.e. not controlled by us.  
-                command = substituteVariable(command, "FeedRate", null);
-                command = substituteVariable(command, "Acceleration", null);
-                command = substituteVariable(command, "Jerk", null);
+                command.set("FeedRate", null);
+                command.set("Acceleration", null);
+                command.set("Jerk", null);
             }
             else {
                 // For the purpose of homing, initialize the rates to the lowest of any axis. 
-                command = substituteVariable(command, "FeedRate", feedrate);
-                command = substituteVariable(command, "Acceleration", acceleration);
-                command = substituteVariable(command, "Jerk", jerk);
+                command.set("FeedRate", feedrate);
+                command.set("Acceleration", acceleration);
+                command.set("Jerk", jerk);
             }
         }
         else {
             // Do not initialize rates in legacy mode.  
-            command = substituteVariable(command, "FeedRate", null);
-            command = substituteVariable(command, "Acceleration", null);
-            command = substituteVariable(command, "Jerk", null);
+            command.set("FeedRate", null);
+            command.set("Acceleration", null);
+            command.set("Jerk", null);
         }
 
         long timeout = -1;
-        sendGcode_Ex(command, timeout, 0);
+        sendGcode_Ex(command.render(), timeout, 0);
 
         // Check home complete response against user's regex
         String homeCompleteRegex = getCommand(null, CommandType.HOME_COMPLETE_REGEX);
@@ -543,17 +620,18 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
     public void setGlobalOffsets(Machine machine, AxesLocation axesLocation)
             throws Exception {
         // Compose the command
-        String command = getCommand(null, CommandType.SET_GLOBAL_OFFSETS_COMMAND);
-        if (command != null) {
+        TextTemplate template = getCommandTemplate(null, CommandType.SET_GLOBAL_OFFSETS_COMMAND);
+        if (template != null) {
+            TextTemplate.Substitution command = template.substitution();
             // legacy head support
             Head head = machine.getDefaultHead();
-            command = substituteVariable(command, "Id", head.getId());
-            command = substituteVariable(command, "Name", head.getName());
+            command.set("Id", head.getId());
+            command.set("Name", head.getName());
             boolean isEmpty = true;
             for (String variable : getAxisVariables((ReferenceMachine) machine)) {
                 ControllerAxis axis = axesLocation.getAxisByVariable(this, variable);
                 if (axis != null) {
-                    if (hasVariable(command, variable)) {
+                    if (command.hasVariable(variable)) {
                         double coordinate;
                         if (axis.getType() == Type.Rotation) {
                             // Never convert rotation to driver units.
@@ -562,8 +640,8 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
                         else {
                             coordinate = axesLocation.getCoordinate(axis, getUnits());
                         }
-                        command = substituteVariable(command, variable, coordinate);
-                        command = substituteVariable(command, variable+"L", 
+                        command.set(variable, coordinate);
+                        command.set(variable+"L", 
                                 axis.getLetter());
                         // Store the new driver coordinate on the axis.
                         axis.setDriverCoordinate(coordinate);
@@ -576,31 +654,30 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
                     }
                 }
                 else {
-                    command = substituteVariable(command, variable, null);
-                    command = substituteVariable(command, variable+"L", null); 
+                    command.set(variable, null);
+                    command.set(variable+"L", null); 
                 }
             }
             if (!isEmpty) {
                 // If no axes are included, the G92 command must not be executed, because it would otherwise reset all
                 // axes to zero in some controllers! 
-                sendGcode_Ex(command, -1, 0);
+                sendGcode_Ex(command.render(), -1, 0);
             }
         }
         else {
             // Try the legacy POST_VISION_HOME_COMMAND
-            String postVisionHomeCommand = getCommand(null, CommandType.POST_VISION_HOME_COMMAND);
+            TextTemplate postVisionHomeTemplate = getCommandTemplate(null, CommandType.POST_VISION_HOME_COMMAND);
             ControllerAxis axisX = axesLocation.getAxisByVariable(this, "X");
             ControllerAxis axisY = axesLocation.getAxisByVariable(this, "Y");
-            if (postVisionHomeCommand != null 
+            if (postVisionHomeTemplate != null 
                     && axisX != null
                     && axisY != null) { 
                 // X, Y, are mapped to this driver, legacy support enabled
-                postVisionHomeCommand = substituteVariable(postVisionHomeCommand, "X", 
-                        axesLocation.getCoordinate(axisX, getUnits()));
-                postVisionHomeCommand = substituteVariable(postVisionHomeCommand, "Y", 
-                        axesLocation.getCoordinate(axisY, getUnits()));
+                TextTemplate.Substitution postVisionHomeCommand = postVisionHomeTemplate.substitution();
+                postVisionHomeCommand.set("X", axesLocation.getCoordinate(axisX, getUnits()));
+                postVisionHomeCommand.set("Y", axesLocation.getCoordinate(axisY, getUnits()));
                 // Execute the command
-                sendGcode_Ex(postVisionHomeCommand, -1, 0);
+                sendGcode_Ex(postVisionHomeCommand.render(), -1, 0);
                 // Store the new current coordinate on the axis.
                 axisX.setDriverCoordinate(axesLocation.getCoordinate(axisX, getUnits()));
                 axisY.setDriverCoordinate(axesLocation.getCoordinate(axisY, getUnits()));
@@ -639,11 +716,7 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
      * exactly. By passing in null or "*", you will get a command that matches that head mountable id or null.
      */
     public Command getExactCommand(String headMountableId, CommandType type) {
-        for (Command c : commands) {
-            if(c.type != type) {
-                continue;
-            }
-
+        for (Command c : getIndexedCommands(type)) {
             if(c.headMountableId != null && c.headMountableId.equals(headMountableId)) {
                 return c;
             } else if(c.headMountableId == null && headMountableId == null) {
@@ -655,11 +728,12 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
     }
 
     public Command getCommand(HeadMountable hm, CommandType type, boolean checkDefaults) {
+        Command[] typeCommands = getIndexedCommands(type);
         // If a HeadMountable is specified, see if we can find a match
         // for both the HeadMountable ID and the command type.
         if (type.headMountable && hm != null) {
-            for (Command c : commands) {
-                if (hm.getId().equals(c.headMountableId) && type == c.type) {
+            for (Command c : typeCommands) {
+                if (hm.getId().equals(c.headMountableId)) {
                     return c;
                 }
             }
@@ -669,8 +743,8 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
         }
         // If not, see if we can find a match for the command type with a
         // null or * HeadMountable ID.
-        for (Command c : commands) {
-            if ((c.headMountableId == null || c.headMountableId.equals("*")) && type == c.type) {
+        for (Command c : typeCommands) {
+            if (c.headMountableId == null || c.headMountableId.equals("*")) {
                 return c;
             }
         }
@@ -678,6 +752,126 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
         return null;
     }
 
+    /**
+     * Returns the commands of the given type, in list order. The commands are indexed by type, the
+     * index is rebuilt whenever the commands list has been modified.
+     *
+     * @param type
+     * @return
+     */
+    protected Command[] getIndexedCommands(CommandType type) {
+        synchronized (commandIndexLock) {
+            return getIndexedCommandsLocked(type);
+        }
+    }
+
+    private Command[] getIndexedCommandsLocked(CommandType type) {
+        updateCommandIndexLocked();
+        Command[] typeCommands = commandIndex.get(type);
+        return typeCommands != null ? typeCommands : noCommands;
+    }
+
+    private void updateCommandIndexLocked() {
+        CommandList list = commands;
+        if (commandIndex == null
+                || commandIndexList != list
+                || commandIndexModificationCount != list.getModificationCount()) {
+            EnumMap<CommandType, List<Command>> index = new EnumMap<>(CommandType.class);
+            for (Command c : list) {
+                index.computeIfAbsent(c.type, t -> new ArrayList<>()).add(c);
+            }
+            commandIndex = new EnumMap<>(CommandType.class);
+            for (Entry<CommandType, List<Command>> entry : index.entrySet()) {
+                commandIndex.put(entry.getKey(), entry.getValue().toArray(new Command[entry.getValue().size()]));
+            }
+            commandIndexList = list;
+            commandIndexModificationCount = list.getModificationCount();
+            readingActuators = null;
+        }
+    }
+
+    /**
+     * Returns the actuators with streamed readings on this driver, that have an ACTUATOR_READ_REGEX. 
+     * The index is rebuilt together with the command index, i.e. on connect(), when the commands are 
+     * modified, or when {@link #invalidateCommandIndex()} is called.
+     * 
+     * @return
+     */
+    private ReadingActuator[] getReadingActuators() {
+        synchronized (commandIndexLock) {
+            updateCommandIndexLocked();
+            if (readingActuators == null) {
+                List<ReadingActuator> list = new ArrayList<>();
+                Machine machine = Configuration.get().getMachine();
+                if (machine != null) {
+                    for (Actuator actuator : machine.getAllActuators()) {
+                        if (actuator instanceof ReferenceActuator 
+                                && ((ReferenceActuator) actuator).isStreamedReadings()
+                                && actuator.getDriver() == this) {
+                            String regex = getCommand(actuator, CommandType.ACTUATOR_READ_REGEX);
+                            if (regex != null) {
+                                try {
+                                    list.add(new ReadingActuator((ReferenceActuator) actuator, Pattern.compile(regex)));
+                                }
+                                catch (PatternSyntaxException e) {
+                                    // Reported by actuatorRead().
+                                }
+                            }
+                        }
+                    }
+                }
+                for (ReadingActuator readingActuator : list) {
+                    for (ReadingActuator other : list) {
+                        if (other != readingActuator 
+                                && other.pattern.pattern().equals(readingActuator.pattern.pattern())) {
+                            readingActuator.shared = true;
+                        }
+                    }
+                }
+                readingActuators = list.toArray(new ReadingActuator[list.size()]);
+            }
+            return readingActuators;
+        }
+    }
+
+    /**
+     * Must be called when commands are changed in place, i.e. without modifying the commands list.
+     */
+    public void invalidateCommandIndex() {
+        synchronized (commandIndexLock) {
+            commandIndex = null;
+        }
+    }
+
+    /**
+     * Returns the command as a compiled TextTemplate, see {@link #getCommand(HeadMountable, CommandType)}.
+     *
+     * @param hm
+     * @param type
+     * @return
+     */
+    public TextTemplate getCommandTemplate(HeadMountable hm, CommandType type) {
+        Command c = getCommand(hm, type, true);
+        if (c == null) {
+            return null;
+        }
+        return c.getTemplate();
+    }
+
+    /**
+     * Returns a new Substitution of the compiled command, see {@link #getCommandTemplate(HeadMountable, CommandType)}.
+     * If the command is not set, the Substitution renders empty, which {@link #sendGcode_Ex(String, long)} 
+     * skips, like a null command.
+     *
+     * @param hm
+     * @param type
+     * @return
+     */
+    public TextTemplate.Substitution getCommandSubstitution(HeadMountable hm, CommandType type) {
+        TextTemplate template = getCommandTemplate(hm, type);
+        return (template == null ? noCommandTemplate : template).substitution();
+    }
+
     public String getCommand(HeadMountable hm, CommandType type) {
         Command c = getCommand(hm, type, true);
         if (c == null) {
@@ -720,8 +914,8 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
             movedAxesLocation.getLengthCoordinate(axis).convertToUnits(getUnits()).getValue() - axis.getDriverCoordinate()).third;
 
         // Start composing the command, will decide later, whether we actually send it.
-        String command = getCommand(hm, CommandType.MOVE_TO_COMMAND);
-        if (command == null) {
+        TextTemplate template = getCommandTemplate(hm, CommandType.MOVE_TO_COMMAND);
+        if (template == null) {
             if (movedAxesLocation.isEmpty()) {
                 return;
             }
@@ -733,16 +927,18 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
                 throw new Exception(getName()+" MOVE_TO_COMMAND missing, please use Issues & Solutions to propose proper G-code commands.");
             }
         }
-        if (hasVariable(command, "BacklashFeedRate")) {
+        if (template.hasVariable("BacklashFeedRate")) {
             throw new Exception(getName()+" configuration upgrade needed: Please remove the extra backlash compensation move from your MOVE_TO_COMMAND. "
                     +"Backlash compensation is now done outside of the drivers and configured on the axes.");
         }
 
-        command = substituteVariable(command, "Id", hm.getId());
-        command = substituteVariable(command, "Name", hm.getName());
-        command = substituteVariable(command, "FeedRate", feedRate);
-        command = substituteVariable(command, "Acceleration", acceleration);
-        command = substituteVariable(command, "Jerk", jerk);
+        // The template is rendered in one pass, once all the variables are set.
+        TextTemplate.Substitution command = template.substitution();
+        command.set("Id", hm.getId());
+        command.set("Name", hm.getName());
+        command.set("FeedRate", feedRate);
+        command.set("Acceleration", acceleration);
+        command.set("Jerk", jerk);
 
         ReferenceMachine machine = (ReferenceMachine) hm.getHead().getMachine();
         // Get a map of the axes of ...
@@ -769,7 +965,7 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
                 // position change after all. 
                 // Note, there is no need for separate backlash compensation variables, as these are always 
                 // substituted alongside. 
-                if (hasVariable(command, variable+"F")) {
+                if (command.hasVariable(variable+"F")) {
                     // Force it! Must get it from the mappedAxes. If the mappedAxes do not have it, it is 
                     // still suppressed (this never happens when using letter variables). 
                     axis = mappedAxes.getAxisByVariable(this, variable);
@@ -790,47 +986,48 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
                 double previousCoordinate = axis.getDriverCoordinate(); 
                 int direction = ((Double)coordinate).compareTo(previousCoordinate);
                 // Substitute the axis variables.
-                command = substituteVariable(command, variable, coordinate);
-                command = substituteVariable(command, variable+"F", coordinate);
-                command = substituteVariable(command, variable+"L", axis.getLetter());
-                if (hasVariable(command, "BacklashOffset"+variable)) {
+                command.set(variable, coordinate);
+                command.set(variable+"F", coordinate);
+                command.set(variable+"L", axis.getLetter());
+                if (command.hasVariable("BacklashOffset"+variable)) {
                     throw new Exception(getName()+" configuration upgrade needed: Please remove the extra backlash compensation move from your MOVE_TO_COMMAND. "
                             +"Backlash compensation is now done outside of the drivers.");
                 }
-                command = substituteVariable(command, variable+"Decreasing", direction < 0 ? true : null);
-                command = substituteVariable(command, variable+"Increasing", direction > 0 ? true : null);
+                command.set(variable+"Decreasing", direction < 0 ? true : null);
+                command.set(variable+"Increasing", direction > 0 ? true : null);
                 if (isSupportingPreMove() && axis instanceof ReferenceControllerAxis) {
                     // Check for a pre-move command.
-                    String preMoveCommand = ((ReferenceControllerAxis) axis).getPreMoveCommand();
-                    if (preMoveCommand != null && !preMoveCommand.isEmpty()) {
-                        preMoveCommand = substituteVariable(preMoveCommand, "Coordinate", previousCoordinate);
-                        sendGcode_Ex(preMoveCommand, 0);
+                    TextTemplate preMoveCommand = ((ReferenceControllerAxis) axis).getPreMoveCommandTemplate();
+                    if (preMoveCommand != null) {
+                        sendGcode_Ex(preMoveCommand.substitution()
+                                .set("Coordinate", previousCoordinate)
+                                .render(), 0);
                     }
                 }
                 // Axis specific jerk limits are needed on TinyG.
                 double axisDistance = coordinate - previousCoordinate;
                 double axisJerk = (jerk != null ? jerk : 0)*Math.abs(axisDistance)/driverDistance;
-                command = substituteVariable(command, variable+"Jerk", axisJerk > 1 ? axisJerk : null);
-                command = substituteVariable(command, variable+"JerkMupm3", axisJerk > 4.63 ? axisJerk*1e-6*Math.pow(60, 3) : null); // TinyG: Megaunits/min^3 
+                command.set(variable+"Jerk", axisJerk > 1 ? axisJerk : null);
+                command.set(variable+"JerkMupm3", axisJerk > 4.63 ? axisJerk*1e-6*Math.pow(60, 3) : null); // TinyG: Megaunits/min^3 
                 // Store the new driver coordinate on the axis.
                 axis.setDriverCoordinate(coordinate);
             }
             else {
                 // Delete the unused axis variables.
-                command = substituteVariable(command, variable, null);
-                command = substituteVariable(command, variable+"F", null);
-                command = substituteVariable(command, variable+"L", null); 
-                command = substituteVariable(command, "BacklashOffset"+variable, null);
-                command = substituteVariable(command, variable+"Decreasing", null);
-                command = substituteVariable(command, variable+"Increasing", null);
-                command = substituteVariable(command, variable+"Jerk", null);
-                command = substituteVariable(command, variable+"JerkMupm3", null);  
+                command.set(variable, null);
+                command.set(variable+"F", null);
+                command.set(variable+"L", null); 
+                command.set("BacklashOffset"+variable, null);
+                command.set(variable+"Decreasing", null);
+                command.set(variable+"Increasing", null);
+                command.set(variable+"Jerk", null);
+                command.set(variable+"JerkMupm3", null);  
             }
         }
         if (doesMove) {
             // We do actually send the command.
             motionPending = true;
-            sendGcode_Ex(command, 0);
+            sendGcode_Ex(command.render(), 0);
         }
     }
 
@@ -894,43 +1091,43 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
 
     @Override
     public void actuate(Actuator actuator, boolean on) throws Exception {
-        String command = getCommand(actuator, CommandType.ACTUATE_BOOLEAN_COMMAND);
-        command = substituteVariable(command, "Id", actuator.getId());
-        command = substituteVariable(command, "Name", actuator.getName());
+        TextTemplate.Substitution command = getCommandSubstitution(actuator, CommandType.ACTUATE_BOOLEAN_COMMAND);
+        command.set("Id", actuator.getId());
+        command.set("Name", actuator.getName());
         if (actuator instanceof ReferenceActuator) {
-            command = substituteVariable(command, "Index", ((ReferenceActuator)actuator).getIndex());
+            command.set("Index", ((ReferenceActuator)actuator).getIndex());
         }
-        command = substituteVariable(command, "BooleanValue", on);
-        command = substituteVariable(command, "True", on ? on : null);
-        command = substituteVariable(command, "False", on ? null : on);
-        sendGcode_Ex(command, 200);
+        command.set("BooleanValue", on);
+        command.set("True", on ? on : null);
+        command.set("False", on ? null : on);
+        sendGcode_Ex(command.render(), 200);
         SimulationModeMachine.simulateActuate(actuator, on, true);
     }
 
     @Override
     public void actuate(Actuator actuator, double value) throws Exception {
-        String command = getCommand(actuator, CommandType.ACTUATE_DOUBLE_COMMAND);
-        command = substituteVariable(command, "Id", actuator.getId());
-        command = substituteVariable(command, "Name", actuator.getName());
+        TextTemplate.Substitution command = getCommandSubstitution(actuator, CommandType.ACTUATE_DOUBLE_COMMAND);
+        command.set("Id", actuator.getId());
+        command.set("Name", actuator.getName());
         if (actuator instanceof ReferenceActuator) {
-            command = substituteVariable(command, "Index", ((ReferenceActuator)actuator).getIndex());
+            command.set("Index", ((ReferenceActuator)actuator).getIndex());
         }
-        command = substituteVariable(command, "DoubleValue", value);
-        command = substituteVariable(command, "IntegerValue", (int) value);
-        sendGcode_Ex(command, 200);
+        command.set("DoubleValue", value);
+        command.set("IntegerValue", (int) value);
+        sendGcode_Ex(command.render(), 200);
         SimulationModeMachine.simulateActuate(actuator, value, true);
     }
 
     @Override
     public void actuate(Actuator actuator, String value) throws Exception {
-        String command = getCommand(actuator, CommandType.ACTUATE_STRING_COMMAND);
-        command = substituteVariable(command, "Id", actuator.getId());
-        command = substituteVariable(command, "Name", actuator.getName());
+        TextTemplate.Substitution command = getCommandSubstitution(actuator, CommandType.ACTUATE_STRING_COMMAND);
+        command.set("Id", actuator.getId());
+        command.set("Name", actuator.getName());
         if (actuator instanceof ReferenceActuator) {
-            command = substituteVariable(command, "Index", ((ReferenceActuator)actuator).getIndex());
+            command.set("Index", ((ReferenceActuator)actuator).getIndex());
         }
-        command = substituteVariable(command, "StringValue", value);
-        sendGcode_Ex(command, 200);
+        command.set("StringValue", value);
+        sendGcode_Ex(command.render(), 200);
     }
 
     @Override
@@ -940,27 +1137,35 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
          * not fire and forget. In this case, we need to know if the command was serviced or not
          * and throw an Exception if not.
          */
-        String command = getCommand(actuator, CommandType.ACTUATOR_READ_COMMAND);
+        TextTemplate template = getCommandTemplate(actuator, CommandType.ACTUATOR_READ_COMMAND);
         String regex = getCommand(actuator, CommandType.ACTUATOR_READ_REGEX);
-        if (command != null && regex != null) {
-            command = substituteVariable(command, "Id", actuator.getId());
-            command = substituteVariable(command, "Name", actuator.getName());
+        if (template != null && regex != null) {
+            TextTemplate.Substitution command = template.substitution();
+            command.set("Id", actuator.getId());
+            command.set("Name", actuator.getName());
             if (actuator instanceof ReferenceActuator) {
-                command = substituteVariable(command, "Index", ((ReferenceActuator)actuator).getIndex());
+                command.set("Index", ((ReferenceActuator)actuator).getIndex());
             }
             if (parameter != null) {
                 if (parameter instanceof Double) { // Backwards compatibility
                     Double doubleParameter = (Double) parameter;
-                    command = substituteVariable(command, "DoubleValue", doubleParameter);
-                    command = substituteVariable(command, "IntegerValue", (int) doubleParameter.doubleValue());
+                    command.set("DoubleValue", doubleParameter);
+                    command.set("IntegerValue", (int) doubleParameter.doubleValue());
                 }
 
-                command = substituteVariable(command, "Value", parameter);
+                command.set("Value", parameter);
+            }
+            List<Line> responses;
+            pendingReadActuator = actuator;
+            try {
+                sendGcode_Ex(command.render(), 200);
+                responses = receiveResponses(regex, timeoutMilliseconds, (r) -> {
+                    throw new Exception(String.format("Actuator \"%s\" read error: No matching responses found.", actuator.getName()));
+                });
+            }
+            finally {
+                pendingReadActuator = null;
             }
-            sendGcode_Ex(command, 200);
-            List<Line> responses = receiveResponses(regex, timeoutMilliseconds, (r) -> {
-                throw new Exception(String.format("Actuator \"%s\" read error: No matching responses found.", actuator.getName()));
-            });
 
             Pattern pattern = Pattern.compile(regex);
             for (Line line : responses) {
@@ -1339,6 +1544,34 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
             errorResponse = line;
         }
         processPositionReport(line);
+        processActuatorReadings(line);
+    }
+
+    /**
+     * Record actuator readings for actuators with streamed readings. This includes both the 
+     * responses to ACTUATOR_READ_COMMANDs and values auto-reported by the controller, as long as 
+     * they match the ACTUATOR_READ_REGEX. If several actuators share the same regex, a matching 
+     * line is only recorded for the actuator that is currently read, otherwise they would record 
+     * each other's values.
+     * 
+     * @param line
+     */
+    protected void processActuatorReadings(Line line) {
+        Actuator pendingReadActuator = this.pendingReadActuator;
+        for (ReadingActuator readingActuator : getReadingActuators()) {
+            if (readingActuator.shared && readingActuator.actuator != pendingReadActuator) {
+                continue;
+            }
+            Matcher matcher = readingActuator.pattern.matcher(line.getLine());
+            if (matcher.matches()) {
+                try {
+                    readingActuator.actuator.recordReading(matcher.group("Value"));
+                }
+                catch (IllegalArgumentException e) {
+                    // Regex is missing the "Value" group, reported by actuatorRead().
+                }
+            }
+        }
     }
 
     protected boolean processPositionReport(Line line) {
@@ -1404,7 +1637,7 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
         if (command == null) {
             return false;
         }
-        Matcher matcher = Pattern.compile("\\{(\\w+)(?::(.+?))?\\}").matcher(command);
+        Matcher matcher = TextUtils.variablePattern.matcher(command);
         while (matcher.find()) {
             String n = matcher.group(1);
             if (!n.equals(name)) {
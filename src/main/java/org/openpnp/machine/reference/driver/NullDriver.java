@@ -44,7 +44,7 @@ import org.openpnp.spi.HeadMountable;
 import org.openpnp.spi.Machine;
 import org.openpnp.spi.MotionPlanner.CompletionType;
 import org.openpnp.spi.base.AbstractDriver;
-import org.openpnp.util.NanosecondTime;
+import org.openpnp.util.SimulationClock;
 import org.pmw.tinylog.Logger;
 import org.simpleframework.xml.Attribute;
 
@@ -134,9 +134,9 @@ public class NullDriver extends AbstractDriver {
     public void waitForCompletion(HeadMountable hm, CompletionType completionType) throws Exception {
         ReferenceMachine machine = (ReferenceMachine) Configuration.get().getMachine();
         while (! machine.getMotionPlanner()
-                .getMomentaryMotion(NanosecondTime.getRuntimeSeconds())
+                .getMomentaryMotion(SimulationClock.getRuntimeSeconds())
                 .hasOption(Motion.MotionOption.Stillstand)) {
-            Thread.sleep(1);
+            SimulationClock.sleep(1);
         }
         motionPending = false;
     }
@@ -144,7 +144,7 @@ public class NullDriver extends AbstractDriver {
     @Override
     public AxesLocation getReportedLocation(long timeout) throws Exception {
         ReferenceMachine machine = (ReferenceMachine) Configuration.get().getMachine();
-        double now = NanosecondTime.getRuntimeSeconds();
+        double now = SimulationClock.getRuntimeSeconds();
         Motion motion = machine.getMotionPlanner()
                 .getMomentaryMotion(now);
         return motion.getMomentaryLocation(now - motion.getPlannedTime0());
@@ -171,7 +171,7 @@ public class NullDriver extends AbstractDriver {
         Logger.debug("actuate({}, {})", actuator, value);
         checkEnabled();
         if (feedRateMmPerMinute > 0) {
-            Thread.sleep(10);
+            SimulationClock.sleep(10);
         }
     }
 
@@ -22,6 +22,7 @@
 package org.openpnp.machine.reference.driver;
 
 import java.awt.Color;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -31,6 +32,7 @@ import javax.swing.UIManager;
 
 import org.openpnp.gui.support.PropertySheetWizardAdapter;
 import org.openpnp.gui.support.Wizard;
+import org.openpnp.machine.reference.ReferencePnpJobProcessor;
 import org.openpnp.machine.reference.driver.wizards.ReferenceAdvancedMotionPlannerConfigurationWizard;
 import org.openpnp.machine.reference.driver.wizards.ReferenceAdvancedMotionPlannerDiagnosticsWizard;
 import org.openpnp.model.AbstractMotionPath;
@@ -43,10 +45,13 @@ import org.openpnp.model.Motion.MoveToCommand;
 import org.openpnp.model.MotionProfile;
 import org.openpnp.model.Solutions;
 import org.openpnp.model.Solutions.Severity;
+import org.openpnp.spi.Actuator;
 import org.openpnp.spi.Axis;
 import org.openpnp.spi.ControllerAxis;
 import org.openpnp.spi.Driver;
+import org.openpnp.spi.Head;
 import org.openpnp.spi.HeadMountable;
+import org.openpnp.spi.base.AbstractActuator;
 import org.openpnp.util.MovableUtils;
 import org.openpnp.util.NanosecondTime;
 import org.openpnp.util.SimpleGraph;
@@ -117,6 +122,7 @@ public class ReferenceAdvancedMotionPlanner extends AbstractMotionPlanner {
     private boolean interpolationFailed;
     private boolean recordingInterpolationFailed;
     private boolean recordingMotionLocked;
+    private volatile boolean continuousMotionScope;
 
     public boolean isAllowContinuousMotion() {
         return allowContinuousMotion;
@@ -126,6 +132,32 @@ public class ReferenceAdvancedMotionPlanner extends AbstractMotionPlanner {
         this.allowContinuousMotion = allowContinuousMotion;
     }
 
+    /**
+     * @return True if moveTo() queues the motion without waiting for its completion, i.e. if continuous motion 
+     * is allowed generally or within the current scope. 
+     */
+    public boolean isContinuousMotion() {
+        return allowContinuousMotion || continuousMotionScope;
+    }
+
+    /**
+     * Allow continuous motion within a scope, such as one step of a job, even when it is not allowed generally. 
+     * Within the scope, moves are queued and planned as a whole on the next waitForCompletion(), so the 
+     * jerk-limited motion solver can blend them, e.g. the Safe Z retreat after a pick with the following 
+     * XY move. Moves are only blended within the scope, the owner of the scope should plan the pending moves 
+     * when it ends. The stillstand points that matter, such as camera settling and coordinated vacuum actuation, 
+     * are still enforced, because these wait for completion explicitly. Actuators that are not coordinated 
+     * before actuation are not, see findIssues(). 
+     * 
+     * @param continuousMotionScope
+     * @return The previous scope state, to be restored when the scope ends. 
+     */
+    public boolean setContinuousMotionScope(boolean continuousMotionScope) {
+        boolean previous = this.continuousMotionScope;
+        this.continuousMotionScope = continuousMotionScope;
+        return previous;
+    }
+
     public boolean isAllowUncoordinated() {
         return allowUncoordinated;
     }
@@ -316,7 +348,7 @@ public class ReferenceAdvancedMotionPlanner extends AbstractMotionPlanner {
             MotionOption... options) throws Exception {
         super.moveTo(hm, axesLocation, speed, options);
 
-        if (!allowContinuousMotion) {
+        if (!isContinuousMotion()) {
             getMachine().getMotionPlanner().waitForCompletion(hm, 
                     Arrays.asList(options).contains(MotionOption.JogMotion) ? 
                             CompletionType.CommandJog 
@@ -834,5 +866,34 @@ public class ReferenceAdvancedMotionPlanner extends AbstractMotionPlanner {
                 }
             });
         }
+        if (getMachine().getPnpJobProcessor() instanceof ReferencePnpJobProcessor
+                && ((ReferencePnpJobProcessor) getMachine().getPnpJobProcessor()).isContinuousMotion()) {
+            // In the continuous motion scope of a job step, moves are only queued. An actuator that is not
+            // coordinated before actuation would therefore switch before the machine has reached the location.
+            List<Actuator> actuators = new ArrayList<>(getMachine().getActuators());
+            for (Head head : getMachine().getHeads()) {
+                actuators.addAll(head.getActuators());
+            }
+            for (Actuator actuator : actuators) {
+                if (actuator instanceof AbstractActuator && !actuator.isCoordinatedBeforeActuate()) {
+                    AbstractActuator abstractActuator = (AbstractActuator) actuator;
+                    solutions.add(new Solutions.Issue(
+                            abstractActuator, 
+                            "Actuator "+abstractActuator.getName()+" is not coordinated before actuation. "
+                                    + "With the job processor's Continuous Motion, it may actuate before the machine "
+                                    + "has reached the location.", 
+                            "Enable Before Actuation machine coordination.", 
+                            Severity.Warning,
+                            "https://github.com/openpnp/openpnp/wiki/Motion-Planner#actuator-machine-coordination") {
+
+                        @Override
+                        public void setState(Solutions.State state) throws Exception {
+                            abstractActuator.setCoordinatedBeforeActuate((state == Solutions.State.Solved));
+                            super.setState(state);
+                        }
+                    });
+                }
+            }
+        }
     }
 }
@@ -30,6 +30,7 @@ import org.openpnp.gui.support.PropertySheetWizardAdapter;
 import org.openpnp.gui.support.Wizard;
 import org.openpnp.machine.reference.ReferenceFeeder;
 import org.openpnp.machine.reference.feeder.wizards.AdvancedLoosePartFeederConfigurationWizard;
+import org.openpnp.machine.reference.feeder.wizards.PartCandidateCacheConfigurationWizard;
 import org.openpnp.model.LengthUnit;
 import org.openpnp.model.Location;
 import org.openpnp.spi.Camera;
@@ -50,6 +51,9 @@ public class AdvancedLoosePartFeeder extends ReferenceFeeder {
     @Element(required = false)
     private CvPipeline trainingPipeline = createDefaultTrainingPipeline();
 
+    @Element(required = false)
+    private PartCandidateCache candidateCache = new PartCandidateCache();
+
     private Location pickLocation;
 
     @Override
@@ -59,6 +63,16 @@ public class AdvancedLoosePartFeeder extends ReferenceFeeder {
 
     @Override
     public void feed(Nozzle nozzle) throws Exception {
+        Camera camera = nozzle.getHead().getDefaultCamera();
+        Location cachedLocation = candidateCache.feedCandidate(camera, getPickLocation(), 
+                (candidateLocation) -> candidateLocation);
+        if (cachedLocation != null) {
+            cachedLocation = checkIfInInitialView(camera, cachedLocation);
+        }
+        if (cachedLocation != null) {
+            pickLocation = cachedLocation;
+            return;
+        }
         // no part found => no pick location
         pickLocation = location;
 
@@ -68,8 +82,10 @@ public class AdvancedLoosePartFeeder extends ReferenceFeeder {
         }
         // throw if feed results in no parts
         if (pickLocation == null) {
+            candidateCache.invalidate();
             throw new Exception("Feeder " + getName() + ": No parts found.");
         }
+        candidateCache.markPicked(pickLocation);
     }
 
     @Override
@@ -99,6 +115,8 @@ public class AdvancedLoosePartFeeder extends ReferenceFeeder {
                 //nothing found
                 return null;
             }
+            candidateCache.store(camera, pipeline.getLastCapturedImage(), results, 
+                    (result) -> checkIfInInitialView(camera, getPartLocation(camera, result)));
             // Find the closest result
             results.sort((a, b) -> {
                 Double da = VisionUtils.getPixelLocation(camera, a.center.x, a.center.y)
@@ -108,15 +126,7 @@ public class AdvancedLoosePartFeeder extends ReferenceFeeder {
                 return da.compareTo(db);
             });
             RotatedRect result = results.get(0);
-            Location partLocation = VisionUtils.getPixelLocation(camera, result.center.x, result.center.y);
-            // Get the result's Location
-            // Update the location with the result's rotation
-            partLocation = partLocation.derive(null, null, null, -(result.angle + getLocation().getRotation()));
-            // Update the location with the correct Z, which is the configured Location's Z.
-            partLocation =
-                    partLocation.derive(null, null,
-                            this.location.convertToUnits(partLocation.getUnits()).getZ(),
-                            null);
+            Location partLocation = getPartLocation(camera, result);
             MainFrame.get().getCameraViews().getCameraView(camera)
             .showFilteredImage(OpenCvUtils.toBufferedImage(pipeline.getWorkingImage()), 250);
             
@@ -124,6 +134,19 @@ public class AdvancedLoosePartFeeder extends ReferenceFeeder {
         }
     }
 
+    private Location getPartLocation(Camera camera, RotatedRect result) {
+        // Get the result's Location
+        Location partLocation = VisionUtils.getPixelLocation(camera, result.center.x, result.center.y);
+        // Update the location with the result's rotation
+        partLocation = partLocation.derive(null, null, null, -(result.angle + getLocation().getRotation()));
+        // Update the location with the correct Z, which is the configured Location's Z.
+        partLocation =
+                partLocation.derive(null, null,
+                        this.location.convertToUnits(partLocation.getUnits()).getZ(),
+                        null);
+        return partLocation;
+    }
+
     /**
      * Checks if the testLocation is inside the camera view starting on the feeder location.
      * Avoids to run outside the initial area if a bad pipeline repeated detects the parts
@@ -183,6 +206,18 @@ public class AdvancedLoosePartFeeder extends ReferenceFeeder {
         }
         // set pickLocation to null, avoid putting a second part on the same location
         pickLocation = null;
+        // the part might have disturbed its neighbors
+        candidateCache.invalidate();
+    }
+
+    @Override
+    public void setLocation(Location location) {
+        super.setLocation(location);
+        candidateCache.invalidate();
+    }
+
+    public PartCandidateCache getCandidateCache() {
+        return candidateCache;
     }
 
     
@@ -219,7 +254,9 @@ public class AdvancedLoosePartFeeder extends ReferenceFeeder {
 
     @Override
     public PropertySheet[] getPropertySheets() {
-        return new PropertySheet[] {new PropertySheetWizardAdapter(getConfigurationWizard())};
+        return new PropertySheet[] {
+                new PropertySheetWizardAdapter(getConfigurationWizard()),
+                new PropertySheetWizardAdapter(new PartCandidateCacheConfigurationWizard(candidateCache), "Candidate Cache")};
     }
 
     @Override
@@ -0,0 +1,322 @@
+/*
+ * Copyright (C) 2026 agent <agent@local>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.machine.reference.feeder;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+import org.opencv.core.Core;
+import org.opencv.core.Core.MinMaxLocResult;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.core.RotatedRect;
+import org.opencv.imgproc.Imgproc;
+import org.openpnp.model.LengthUnit;
+import org.openpnp.model.Location;
+import org.openpnp.spi.Camera;
+import org.openpnp.spi.MotionPlanner.CompletionType;
+import org.openpnp.util.ImageUtils;
+import org.openpnp.util.MovableUtils;
+import org.openpnp.util.NanosecondTime;
+import org.openpnp.util.OpenCvUtils;
+import org.openpnp.util.VisionUtils;
+import org.pmw.tinylog.Logger;
+import org.simpleframework.xml.Attribute;
+
+/**
+ * The part candidates a vision feeder detected in one capture, so that the following picks can
+ * be served without running the full pipeline again. Each candidate keeps a crop of the captured
+ * image, to quickly verify that the part is still there, using template matching.
+ *
+ * Picked parts leave an exclusion zone behind: candidates whose extent overlaps a picked part are
+ * dropped, as the pick might have disturbed them. The cache expires after a timeout and should be
+ * invalidated by the feeder whenever the parts might have been moved, e.g. when a part is taken
+ * back or a verification fails.
+ *
+ * The cache is part of the feeder configuration, with its settings. It is disabled by default, then
+ * nothing is stored and the feeder always runs the full pipeline.
+ */
+public class PartCandidateCache {
+    public static class Candidate {
+        private final Location location;
+        private final double radius;
+        private final BufferedImage template;
+
+        /**
+         * @param location The pick location of the part.
+         * @param radius The radius of the part extent in millimeters.
+         * @param template The image of the part, centered on the location.
+         */
+        public Candidate(Location location, double radius, BufferedImage template) {
+            this.location = location;
+            this.radius = radius;
+            this.template = template;
+        }
+
+        public Location getLocation() {
+            return location;
+        }
+
+        public double getRadius() {
+            return radius;
+        }
+
+        public BufferedImage getTemplate() {
+            return template;
+        }
+
+        boolean overlaps(Candidate other) {
+            return location.convertToUnits(LengthUnit.Millimeters)
+                    .getLinearDistanceTo(other.location.convertToUnits(LengthUnit.Millimeters))
+                    < radius + other.radius;
+        }
+    }
+
+    /**
+     * If true, all the parts detected by the pipeline are cached and used for the following feeds,
+     * with only a quick template match to verify them.
+     */
+    @Attribute(required = false)
+    private boolean enabled = false;
+
+    @Attribute(required = false)
+    private int timeoutSeconds = 120;
+
+    /**
+     * The minimum normed correlation of the template match, to accept a cached part.
+     */
+    @Attribute(required = false)
+    private double minimumScore = 0.7;
+
+    private final List<Candidate> candidates = new ArrayList<>();
+    private long captureTimeMs;
+
+    /**
+     * Replace the cache with the results of a pipeline run.
+     *
+     * @param camera The camera, still at the capture location.
+     * @param image The captured image the results were detected in.
+     * @param results
+     * @param locator Computes the pick location of a result, or null if the result is not a valid
+     * part.
+     */
+    public synchronized void store(Camera camera, BufferedImage image, List<RotatedRect> results,
+            Function<RotatedRect, Location> locator) {
+        invalidate();
+        if (!enabled || image == null || results == null) {
+            return;
+        }
+        captureTimeMs = NanosecondTime.getRuntimeMilliseconds();
+        for (RotatedRect result : results) {
+            Location location = locator.apply(result);
+            if (location == null) {
+                continue;
+            }
+            Rect bounds = result.boundingRect();
+            int width = bounds.width & ~1;
+            int height = bounds.height & ~1;
+            int x = (int) Math.round(result.center.x) - width/2;
+            int y = (int) Math.round(result.center.y) - height/2;
+            if (width < 4 || height < 4 || x < 0 || y < 0
+                    || x + width > image.getWidth() || y + height > image.getHeight()) {
+                // Touching the image border, cannot verify.
+                continue;
+            }
+            BufferedImage template = ImageUtils.clone(image.getSubimage(x, y, width, height));
+            double radius = VisionUtils.getPixelLocation(camera, result.center.x + width/2.0, result.center.y + height/2.0)
+                    .getLinearLengthTo(VisionUtils.getPixelLocation(camera, result.center.x, result.center.y))
+                    .convertToUnits(LengthUnit.Millimeters).getValue();
+            candidates.add(new Candidate(location, radius, template));
+        }
+    }
+
+    synchronized void add(Candidate candidate) {
+        if (candidates.isEmpty()) {
+            captureTimeMs = NanosecondTime.getRuntimeMilliseconds();
+        }
+        candidates.add(candidate);
+    }
+
+    /**
+     * Mark the part at the given location as picked, i.e. remove it and any overlapping candidates.
+     *
+     * @param location
+     */
+    public synchronized void markPicked(Location location) {
+        Candidate pick = null;
+        for (Candidate candidate : candidates) {
+            if (pick == null
+                    || candidate.getLocation().getLinearDistanceTo(location)
+                    < pick.getLocation().getLinearDistanceTo(location)) {
+                pick = candidate;
+            }
+        }
+        if (pick == null || !pick.overlaps(new Candidate(location, 0, null))) {
+            // Not one of the candidates, still exclude its surroundings.
+            pick = new Candidate(location, 0, null);
+        }
+        pick(pick);
+    }
+
+    /**
+     * Take the candidate nearest to the given location. The candidate is marked as picked.
+     *
+     * @param near
+     * @param timeoutMs Maximum age of the cache, or 0 for no timeout.
+     * @return The candidate or null if the cache is empty or expired.
+     */
+    public synchronized Candidate take(Location near, long timeoutMs) {
+        if (timeoutMs > 0 && NanosecondTime.getRuntimeMilliseconds() - captureTimeMs > timeoutMs) {
+            invalidate();
+        }
+        Candidate best = null;
+        for (Candidate candidate : candidates) {
+            if (best == null
+                    || candidate.getLocation().getLinearDistanceTo(near)
+                    < best.getLocation().getLinearDistanceTo(near)) {
+                best = candidate;
+            }
+        }
+        if (best != null) {
+            pick(best);
+        }
+        return best;
+    }
+
+    private void pick(Candidate pick) {
+        candidates.remove(pick);
+        for (Iterator<Candidate> iterator = candidates.iterator(); iterator.hasNext(); ) {
+            if (iterator.next().overlaps(pick)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Take the candidate nearest to the given location, move the camera over it and verify that the
+     * part is still there. If it is not, the parts were disturbed and the cache is invalidated.
+     *
+     * @param camera
+     * @param near
+     * @param cameraLocation Returns the location the camera should capture from, for the candidate
+     * location.
+     * @return The verified part location, or null if there is no valid candidate, i.e. the pipeline
+     * must be run.
+     * @throws Exception
+     */
+    public Location feedCandidate(Camera camera, Location near,
+            Function<Location, Location> cameraLocation) throws Exception {
+        if (!enabled) {
+            return null;
+        }
+        Candidate candidate = take(near, timeoutSeconds*1000L);
+        if (candidate == null) {
+            return null;
+        }
+        MovableUtils.moveToLocationAtSafeZ(camera, cameraLocation.apply(candidate.getLocation()));
+        camera.waitForCompletion(CompletionType.WaitForStillstand);
+        Location location = verify(camera, candidate, minimumScore);
+        if (location == null) {
+            Logger.debug("Part candidate at {} not verified, running the pipeline.", candidate.getLocation());
+            invalidate();
+        }
+        return location;
+    }
+
+    public synchronized void invalidate() {
+        candidates.clear();
+    }
+
+    public synchronized int size() {
+        return candidates.size();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        invalidate();
+    }
+
+    public int getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    public void setTimeoutSeconds(int timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    public double getMinimumScore() {
+        return minimumScore;
+    }
+
+    public void setMinimumScore(double minimumScore) {
+        this.minimumScore = minimumScore;
+    }
+
+    /**
+     * Verify a candidate by matching its template in a new capture from the current camera location,
+     * which should be near the candidate.
+     *
+     * @param camera
+     * @param candidate
+     * @param minimumScore The minimum normed correlation of the match.
+     * @return The location of the verified part or null if not found.
+     * @throws Exception
+     */
+    public static Location verify(Camera camera, Candidate candidate, double minimumScore) throws Exception {
+        BufferedImage template = candidate.getTemplate();
+        BufferedImage image = camera.lightSettleAndCapture();
+        image = ImageUtils.convertBufferedImage(image, template.getType());
+        // Search around the image center, allowing for half the part size of displacement.
+        int width = Math.min(image.getWidth(), template.getWidth()*2);
+        int height = Math.min(image.getHeight(), template.getHeight()*2);
+        int x = (image.getWidth() - width)/2;
+        int y = (image.getHeight() - height)/2;
+        Mat imageMat = OpenCvUtils.toMat(image);
+        Mat cropMat = new Mat(imageMat, new Rect(x, y, width, height));
+        Mat templateMat = OpenCvUtils.toMat(template);
+        Mat resultMat = new Mat();
+        MinMaxLocResult match;
+        try {
+            Imgproc.matchTemplate(cropMat, templateMat, resultMat, Imgproc.TM_CCOEFF_NORMED);
+            match = Core.minMaxLoc(resultMat);
+        }
+        finally {
+            resultMat.release();
+            templateMat.release();
+            cropMat.release();
+            imageMat.release();
+        }
+        Logger.trace("Part candidate at {} verified with score {}", candidate.getLocation(), match.maxVal);
+        if (match.maxVal < minimumScore) {
+            return null;
+        }
+        Location location = VisionUtils.getPixelLocation(camera,
+                x + match.maxLoc.x + template.getWidth()/2.0,
+                y + match.maxLoc.y + template.getHeight()/2.0);
+        return candidate.getLocation().derive(location, true, true, false, false);
+    }
+}
@@ -8,10 +8,12 @@ import org.apache.commons.io.IOUtils;
 import org.opencv.core.RotatedRect;
 import org.openpnp.ConfigurationListener;
 import org.openpnp.gui.MainFrame;
+import org.openpnp.gui.support.PropertySheetWizardAdapter;
 import org.openpnp.gui.support.Wizard;
 import org.openpnp.machine.reference.ReferenceFeeder;
 import org.openpnp.machine.reference.ReferenceNozzle;
 import org.openpnp.machine.reference.ReferenceNozzleTip;
+import org.openpnp.machine.reference.feeder.wizards.PartCandidateCacheConfigurationWizard;
 import org.openpnp.machine.reference.feeder.wizards.ReferenceHeapFeederConfigurationWizard;
 import org.openpnp.model.AbstractModelObject;
 import org.openpnp.model.Configuration;
@@ -123,6 +125,8 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
     @Element(required = false)
     private boolean pokeForParts = false;
 
+    @Element(required = false)
+    private PartCandidateCache candidateCache = new PartCandidateCache();
 
     private Location pickLocation;
 
@@ -173,6 +177,13 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
         return new ReferenceHeapFeederConfigurationWizard(this);
     }
 
+    @Override
+    public PropertySheet[] getPropertySheets() {
+        return new PropertySheet[] {
+                new PropertySheetWizardAdapter(getConfigurationWizard(), "Configuration"),
+                new PropertySheetWizardAdapter(new PartCandidateCacheConfigurationWizard(candidateCache), "Candidate Cache")};
+    }
+
     /**
      * If a pick location exist, return that.
      * Else the center of the DropBox.
@@ -190,6 +201,7 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
     public void feed(Nozzle nozzle) throws Exception {       
         // there might be foreign parts in the dropBox, clean up first.
         if (dropBox.getLastHeap() != this) {
+            candidateCache.invalidate();
             dropBox.clean(nozzle);
         } 
         // now claim the dropBox
@@ -200,6 +212,15 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
             nozzle.loadNozzleTip(getPart().getPackage().getCompatibleNozzleTips().toArray(new NozzleTip[0])[0]);
         }
 
+        // parts left from the last detection?
+        pickLocation = candidateCache.feedCandidate(nozzle.getHead().getDefaultCamera(), 
+                dropBox.getCenterBottomLocation(), 
+                (candidateLocation) -> candidateLocation.derive(null, null, Double.NaN, 0d));
+        if (pickLocation != null) {
+            pickLocation = adjustPickZ(pickLocation);
+            return;
+        }
+
         // no part found => no pick location
         pickLocation = null;
 
@@ -208,8 +229,11 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
         for (int attempt = 0; attempt <= maxThrowRetries; attempt++) {
             pickLocation = getFeederPart(nozzle);
             if (pickLocation != null) {
+                candidateCache.markPicked(pickLocation);
                 return; // found part
             }
+            // the DropBox content will be disturbed
+            candidateCache.invalidate();
             // no part found, try to flip a part by throwing it in the dropBox again
             if (!dropBox.tryToFlipSomePart(nozzle)) {
                 if (lastRoundPartsFetched == true) {
@@ -502,11 +526,10 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
         // if there is a part, get a precise location
         for (int i = 0; i < 3 && location != null; i++) {
             MovableUtils.moveToLocationAtSafeZ(camera, location.derive(null, null, Double.NaN, 0d));
-            location = HeapFeederHelper.getNearestPart(pipeline, camera, nozzle, this, getDropBox());
+            location = HeapFeederHelper.getNearestPart(pipeline, camera, nozzle, this, getDropBox(), 
+                    candidateCache);
             if (location != null) {
-                // adjust Z
-                location = location.derive(new Location(LengthUnit.Millimeters, 0, 0, dropBox.centerBottomLocation.convertToUnits(location.getUnits()).getZ()
-                        + part.getHeight().convertToUnits(location.getUnits()).getValue(), 0), false, false, true, false);
+                location = adjustPickZ(location);
             }
         }
         MainFrame.get()
@@ -517,6 +540,11 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
         return location;
     }
 
+    private Location adjustPickZ(Location location) {
+        return location.derive(new Location(LengthUnit.Millimeters, 0, 0, dropBox.centerBottomLocation.convertToUnits(location.getUnits()).getZ()
+                + part.getHeight().convertToUnits(location.getUnits()).getValue(), 0), false, false, true, false);
+    }
+
     /**
      * Since a heap can store so many parts, we can always accept parts
      */
@@ -536,6 +564,7 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
         }
 
         // ok, now move the part back to the heap
+        candidateCache.invalidate();
         moveToHeap(nozzle);
         HeapFeederHelper.dropPart(nozzle, location);
         nozzle.moveToSafeZ();
@@ -618,6 +647,9 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
     public void setTrainingPipeline(CvPipeline trainingPipeline) {
         this.trainingPipeline = trainingPipeline;
     }
+    public PartCandidateCache getCandidateCache() {
+        return candidateCache;
+    }
     public DropBox getDropBox() {
         if (dropBox == null) {
             dropBox = getDropBoxes().get(getDropBoxes().size() - 1);
@@ -972,6 +1004,17 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
          * @throws Exception 
          */
         static Location getNearestPart(CvPipeline pipeline, Camera camera, Nozzle nozzle, ReferenceFeeder feeder, DropBox dropBox) throws Exception {
+            return getNearestPart(pipeline, camera, nozzle, feeder, dropBox, null);
+        }
+
+        /**
+         * Returns the nearest part from the current center and stores all the detected parts in the candidate cache.
+         * @param candidateCache cache for all the detected parts, or null
+         * @return location if found, otherwise null
+         * @throws Exception 
+         */
+        static Location getNearestPart(CvPipeline pipeline, Camera camera, Nozzle nozzle, ReferenceFeeder feeder, DropBox dropBox, 
+                PartCandidateCache candidateCache) throws Exception {
             // make sure move halted for vision
             camera.waitForCompletion(CompletionType.WaitForStillstand);
             // Process the pipeline to extract RotatedRect results
@@ -988,6 +1031,10 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
             if (results == null || results.isEmpty()) {
                 return null;
             }
+            if (candidateCache != null) {
+                candidateCache.store(camera, pipeline.getLastCapturedImage(), results, 
+                        (result) -> getPartLocation(camera, result, dropBox));
+            }
             // Find the closest result
             results.sort((a, b) -> {
                 Double da = VisionUtils.getPixelLocation(camera, a.center.x, a.center.y)
@@ -997,13 +1044,8 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
                 return da.compareTo(db);
             });
             RotatedRect result = results.get(0);
-            // Get the result's Location
-            Location location = VisionUtils.getPixelLocation(camera, result.center.x, result.center.y);
-            // Update the location's rotation with the result's angle 
-            location = location.derive(null, null, null, -result.angle);
-            
-            // just make sure vision has not left the dropBox
-            if(location.convertToUnits(LengthUnit.Millimeters).getLinearDistanceTo(dropBox.getCenterBottomLocation()) > 8) {
+            Location location = getPartLocation(camera, result, dropBox);
+            if (location == null) {
                 return null;
             }
             
@@ -1017,6 +1059,23 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
             return location;
         }
 
+        /**
+         * Returns the location of a pipeline result.
+         * @return location, or null if outside the dropBox
+         */
+        static Location getPartLocation(Camera camera, RotatedRect result, DropBox dropBox) {
+            // Get the result's Location
+            Location location = VisionUtils.getPixelLocation(camera, result.center.x, result.center.y);
+            // Update the location's rotation with the result's angle 
+            location = location.derive(null, null, null, -result.angle);
+            
+            // just make sure vision has not left the dropBox
+            if(location.convertToUnits(LengthUnit.Millimeters).getLinearDistanceTo(dropBox.getCenterBottomLocation()) > 8) {
+                return null;
+            }
+            return location;
+        }
+
         
         static CvPipeline createPipeline(String type, DropBox dropBox) {
             String dropBoxColor = "GREEN";  // default
@@ -29,6 +29,7 @@ import org.openpnp.gui.MainFrame;
 import org.openpnp.gui.support.PropertySheetWizardAdapter;
 import org.openpnp.gui.support.Wizard;
 import org.openpnp.machine.reference.ReferenceFeeder;
+import org.openpnp.machine.reference.feeder.wizards.PartCandidateCacheConfigurationWizard;
 import org.openpnp.machine.reference.feeder.wizards.ReferenceLoosePartFeederConfigurationWizard;
 import org.openpnp.model.Location;
 import org.openpnp.spi.Camera;
@@ -44,6 +45,9 @@ public class ReferenceLoosePartFeeder extends ReferenceFeeder {
     @Element(required = false)
     private CvPipeline pipeline = createDefaultPipeline();
 
+    @Element(required = false)
+    private PartCandidateCache candidateCache = new PartCandidateCache();
+
     private Location pickLocation;
 
     @Override
@@ -55,6 +59,13 @@ public class ReferenceLoosePartFeeder extends ReferenceFeeder {
     public void feed(Nozzle nozzle) throws Exception {
         Camera camera = nozzle.getHead()
                               .getDefaultCamera();
+        Location cachedLocation = candidateCache.feedCandidate(camera, getPickLocation(), 
+                (candidateLocation) -> candidateLocation.derive(null, null, null, 0.0));
+        if (cachedLocation != null) {
+            pickLocation = cachedLocation;
+            return;
+        }
+        candidateCache.invalidate();
         // Move to the feeder pick location
         MovableUtils.moveToLocationAtSafeZ(camera, location);
         try (CvPipeline pipeline = getPipeline()) {
@@ -68,6 +79,7 @@ public class ReferenceLoosePartFeeder extends ReferenceFeeder {
                      .showFilteredImage(OpenCvUtils.toBufferedImage(pipeline.getWorkingImage()),
                              1000);
         }
+        candidateCache.markPicked(pickLocation);
     }
 
     @Override
@@ -86,6 +98,8 @@ public class ReferenceLoosePartFeeder extends ReferenceFeeder {
         List<RotatedRect> results = pipeline.getExpectedResult(VisionUtils.PIPELINE_RESULTS_NAME)
                 .getExpectedListModel(RotatedRect.class, 
                         new Exception("Feeder " + getName() + ": No parts found."));
+        candidateCache.store(camera, pipeline.getLastCapturedImage(), results, 
+                (result) -> getPartLocation(camera, result));
 
         // Find the closest result
         results.sort((a, b) -> {
@@ -96,6 +110,10 @@ public class ReferenceLoosePartFeeder extends ReferenceFeeder {
             return da.compareTo(db);
         });
         RotatedRect result = results.get(0);
+        return getPartLocation(camera, result);
+    }
+
+    private Location getPartLocation(Camera camera, RotatedRect result) {
         // Get the result's Location
         Location location = VisionUtils.getPixelLocation(camera, result.center.x, result.center.y);
         // Update the location's rotation with the result's angle
@@ -142,6 +160,18 @@ public class ReferenceLoosePartFeeder extends ReferenceFeeder {
         }
         // set pickLocation to null, avoid putting a second part on the same location
         pickLocation = null;
+        // the part might have disturbed its neighbors
+        candidateCache.invalidate();
+    }
+
+    @Override
+    public void setLocation(Location location) {
+        super.setLocation(location);
+        candidateCache.invalidate();
+    }
+
+    public PartCandidateCache getCandidateCache() {
+        return candidateCache;
     }
     
     public CvPipeline getPipeline() {
@@ -169,7 +199,9 @@ public class ReferenceLoosePartFeeder extends ReferenceFeeder {
 
     @Override
     public PropertySheet[] getPropertySheets() {
-        return new PropertySheet[] {new PropertySheetWizardAdapter(getConfigurationWizard())};
+        return new PropertySheet[] {
+                new PropertySheetWizardAdapter(getConfigurationWizard()),
+                new PropertySheetWizardAdapter(new PartCandidateCacheConfigurationWizard(candidateCache), "Candidate Cache")};
     }
 
     @Override
@@ -21,6 +21,7 @@ package org.openpnp.machine.reference.feeder;
 
 
 
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.swing.Action;
@@ -43,6 +44,7 @@ import org.openpnp.util.Utils2D;
 import org.openpnp.util.VisionUtils;
 import org.openpnp.vision.pipeline.CvPipeline;
 import org.openpnp.vision.pipeline.CvStage;
+import org.pmw.tinylog.Logger;
 import org.simpleframework.xml.Attribute;
 import org.simpleframework.xml.Element;
 import org.simpleframework.xml.core.Commit;
@@ -115,6 +117,12 @@ public class ReferenceStripFeeder extends ReferenceFeeder {
 	@Attribute(required = false)
 	private int maxFeedCount = 0;
 
+    @Attribute(required = false)
+    private boolean multiHoleRegistration = false;
+
+    @Element(required = false)
+    private Length registrationTolerance = new Length(0.1, LengthUnit.Millimeters);
+
     private Length holeDiameter = new Length(1.5, LengthUnit.Millimeters);
 
     private Length holePitch = new Length(4, LengthUnit.Millimeters);
@@ -123,6 +131,8 @@ public class ReferenceStripFeeder extends ReferenceFeeder {
 
     private Location visionLocation;
 
+    private HoleRegistration holeRegistration;
+
     public Length getHoleDiameterMin() {
         return getHoleDiameter().multiply(0.9);
     }
@@ -254,7 +264,7 @@ public class ReferenceStripFeeder extends ReferenceFeeder {
         // go to where we expect to find the next reference hole
         Camera camera = nozzle.getHead().getDefaultCamera();
         ensureFeederZ(camera);
-        Location expectedLocation = null;
+        Length expectedDistance;
         Location[] lineLocations = getIdealLineLocations();
 
         if (partPitch.convertToUnits(LengthUnit.Millimeters).getValue() < 4) {
@@ -262,19 +272,38 @@ public class ReferenceStripFeeder extends ReferenceFeeder {
             // twice since there are two parts per reference hole.
             // Note the use of holePitch here and partPitch in the
             // alternate case below.
-            expectedLocation = Utils2D.getPointAlongLine(lineLocations[0], lineLocations[1],
-                    holePitch.multiply((feedCount - 1) / 2));
+            expectedDistance = holePitch.multiply((feedCount - 1) / 2);
         }
         else {
             // For tapes with a part pitch >= 4 there is always a reference
             // hole 2mm from a part so we just multiply by the part pitch
             // skipping over holes that are not reference holes.
-            expectedLocation = Utils2D.getPointAlongLine(lineLocations[0], lineLocations[1],
-                    partPitch.multiply(feedCount - 1));
+            expectedDistance = partPitch.multiply(feedCount - 1);
+        }
+        Location expectedLocation = Utils2D.getPointAlongLine(lineLocations[0], lineLocations[1],
+                expectedDistance);
+        int holeIndex = (int) Math.round(expectedDistance.divide(holePitch));
+        int lastHoleIndex = getLastHoleIndex();
+        if (multiHoleRegistration) {
+            // Try to predict the hole from the last capture. Past the end of the strip, the vision 
+            // check below must fail the feed, like without registration.
+            HoleRegistration registration = holeRegistration;
+            if (registration != null 
+                    && holeIndex <= lastHoleIndex
+                    && registration.getDrift() <= registrationTolerance.convertToUnits(LengthUnit.Millimeters).getValue()) {
+                Location predictedLocation = registration.get(holeIndex);
+                if (predictedLocation != null) {
+                    Logger.trace("Feeder {}: reference hole {} predicted from registration at {}.", 
+                            getName(), holeIndex, predictedLocation);
+                    visionLocation = predictedLocation.convertToUnits(lineLocations[0].getUnits());
+                    return;
+                }
+            }
         }
         MovableUtils.moveToLocationAtSafeZ(camera, expectedLocation);
         // and look for the hole
-        Location actualLocation = findClosestHole(camera);
+        List<Location> holes = findHoles(camera);
+        Location actualLocation = holes.isEmpty() ? null : holes.get(0);
         if (actualLocation == null) {
             throw new Exception("Unable to locate reference hole. End of strip?");
         }
@@ -285,9 +314,206 @@ public class ReferenceStripFeeder extends ReferenceFeeder {
             throw new Exception("Unable to locate reference hole. End of strip?");
         }
         visionLocation = actualLocation;
+        if (multiHoleRegistration) {
+            // Register all the holes in view, for the following feeds.
+            HoleRegistration registration = HoleRegistration.fit(lineLocations[0], lineLocations[1], 
+                    holePitch, lastHoleIndex, getHoleLineDistanceMax(), holes);
+            if (registration != null) {
+                HoleRegistration previous = holeRegistration;
+                if (previous != null) {
+                    Location predictedLocation = previous.predict(holeIndex);
+                    if (predictedLocation != null) {
+                        // The previous registration's error, extrapolated to this hole.
+                        registration.addDrift(predictedLocation.getLinearLengthTo(actualLocation)
+                                .convertToUnits(LengthUnit.Millimeters).getValue());
+                    }
+                }
+                Logger.debug("Feeder {}: registered holes {} to {}, drift {}mm.", 
+                        getName(), registration.getIndexMin(), registration.getIndexMax(), registration.getDrift());
+            }
+            holeRegistration = registration;
+        }
+    }
+
+    /**
+     * @return The index of the last hole on the strip, counted from the reference hole.
+     */
+    private int getLastHoleIndex() {
+        return (int) Math.round(referenceHoleLocation.getLinearLengthTo(lastHoleLocation)
+                .divide(holePitch));
     }
 
-    private Location findClosestHole(Camera camera) throws Exception {
+    /**
+     * The sprocket holes found in one capture, fitted to a line of equally spaced holes. The following 
+     * feeds are predicted from the registration, as long as their reference hole lies inside the 
+     * registered window, i.e. between the first and last hole that was in view. The window never 
+     * extends beyond the holes of the strip. 
+     * 
+     * The drift is the RMS residual of the fit, or the error of the previous registration when 
+     * extrapolated to the newly captured hole, whichever is larger. 
+     */
+    static class HoleRegistration {
+        private final Location origin;
+        private final double ux;
+        private final double uy;
+        private final int indexMin;
+        private final int indexMax;
+        // along = a + b*k, across = c + d*k, for hole index k, in millimeters.
+        private final double a;
+        private final double b;
+        private final double c;
+        private final double d;
+        private double drift;
+
+        private HoleRegistration(Location origin, double ux, double uy, int indexMin, int indexMax, 
+                double a, double b, double c, double d, double drift) {
+            this.origin = origin;
+            this.ux = ux;
+            this.uy = uy;
+            this.indexMin = indexMin;
+            this.indexMax = indexMax;
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            this.d = d;
+            this.drift = drift;
+        }
+
+        /**
+         * Fit the holes to the line of holes starting at the reference hole.
+         * 
+         * @param referenceHole The hole with index 0.
+         * @param lineHole Another hole on the line, giving the direction.
+         * @param holePitch
+         * @param lastHoleIndex The index of the last hole on the strip. Holes beyond are ignored.
+         * @param lineTolerance Maximum distance of a hole from the line. 
+         * @param holes
+         * @return The registration or null if no hole of the strip is on the line.
+         */
+        static HoleRegistration fit(Location referenceHole, Location lineHole, Length holePitch, 
+                int lastHoleIndex, Length lineTolerance, List<Location> holes) {
+            Location origin = referenceHole.convertToUnits(LengthUnit.Millimeters);
+            Location end = lineHole.convertToUnits(LengthUnit.Millimeters);
+            double length = origin.getLinearDistanceTo(end);
+            double pitch = holePitch.convertToUnits(LengthUnit.Millimeters).getValue();
+            double tolerance = lineTolerance.convertToUnits(LengthUnit.Millimeters).getValue();
+            if (length <= 0 || pitch <= 0) {
+                return null;
+            }
+            double ux = (end.getX() - origin.getX())/length;
+            double uy = (end.getY() - origin.getY())/length;
+            List<double[]> samples = new ArrayList<>();
+            int indexMin = Integer.MAX_VALUE;
+            int indexMax = Integer.MIN_VALUE;
+            for (Location hole : holes) {
+                hole = hole.convertToUnits(LengthUnit.Millimeters);
+                double dx = hole.getX() - origin.getX();
+                double dy = hole.getY() - origin.getY();
+                double along = dx*ux + dy*uy;
+                double across = -dx*uy + dy*ux;
+                int k = (int) Math.round(along/pitch);
+                if (k < 0 || k > lastHoleIndex || Math.abs(across) > tolerance) {
+                    continue;
+                }
+                samples.add(new double[] { k, along, across });
+                indexMin = Math.min(indexMin, k);
+                indexMax = Math.max(indexMax, k);
+            }
+            if (samples.isEmpty()) {
+                return null;
+            }
+            double a, b, c, d;
+            int n = samples.size();
+            if (indexMin == indexMax) {
+                // Single hole, assume the nominal pitch along the line.
+                b = pitch;
+                d = 0;
+                a = 0;
+                c = 0;
+                for (double[] sample : samples) {
+                    a += (sample[1] - b*sample[0])/n;
+                    c += sample[2]/n;
+                }
+            }
+            else {
+                double sk = 0, sa = 0, sc = 0;
+                for (double[] sample : samples) {
+                    sk += sample[0];
+                    sa += sample[1];
+                    sc += sample[2];
+                }
+                double mk = sk/n, ma = sa/n, mc = sc/n;
+                double skk = 0, ska = 0, skc = 0;
+                for (double[] sample : samples) {
+                    skk += (sample[0] - mk)*(sample[0] - mk);
+                    ska += (sample[0] - mk)*(sample[1] - ma);
+                    skc += (sample[0] - mk)*(sample[2] - mc);
+                }
+                b = ska/skk;
+                d = skc/skk;
+                a = ma - b*mk;
+                c = mc - d*mk;
+            }
+            double sum2 = 0;
+            for (double[] sample : samples) {
+                double ea = sample[1] - (a + b*sample[0]);
+                double ec = sample[2] - (c + d*sample[0]);
+                sum2 += ea*ea + ec*ec;
+            }
+            return new HoleRegistration(origin, ux, uy, indexMin, indexMax, a, b, c, d, 
+                    Math.sqrt(sum2/n));
+        }
+
+        /**
+         * @param k
+         * @return The location of hole k, or null if it is outside the registered window. 
+         */
+        Location get(int k) {
+            if (k < indexMin || k > indexMax) {
+                return null;
+            }
+            return predict(k);
+        }
+
+        /**
+         * @param k
+         * @return The location of hole k, extrapolated if outside the registered window.
+         */
+        Location predict(int k) {
+            double along = a + b*k;
+            double across = c + d*k;
+            return origin.add(new Location(LengthUnit.Millimeters, 
+                    along*ux - across*uy, along*uy + across*ux, 0, 0));
+        }
+
+        int getIndexMin() {
+            return indexMin;
+        }
+
+        int getIndexMax() {
+            return indexMax;
+        }
+
+        /**
+         * @return The drift estimate in millimeters.
+         */
+        double getDrift() {
+            return drift;
+        }
+
+        void addDrift(double error) {
+            drift = Math.max(drift, error);
+        }
+    }
+
+    /**
+     * Find the tape holes in view of the camera.
+     * 
+     * @param camera
+     * @return The hole locations, the closest to the camera first.
+     * @throws Exception
+     */
+    private List<Location> findHoles(Camera camera) throws Exception {
         try (CvPipeline pipeline = getPipeline()) {
             Integer pxMinDistance = (int) VisionUtils.toPixels(getHolePitchMin(), camera);
             Integer pxMinDiameter = (int) VisionUtils.toPixels(getHoleDiameterMin(), camera);
@@ -319,7 +545,7 @@ public class ReferenceStripFeeder extends ReferenceFeeder {
                     .getExpectedListModel(CvStage.Result.Circle.class, 
                             new Exception("Feeder " + getName() + ": No tape holes found."));            
 
-            // Find the closest result
+            // Sort by distance, the closest result first
             results.sort((a, b) -> {
                 Double da = VisionUtils.getPixelLocation(camera, a.x, a.y)
                         .getLinearDistanceTo(camera.getLocation());
@@ -328,9 +554,11 @@ public class ReferenceStripFeeder extends ReferenceFeeder {
                 return da.compareTo(db);
             });
     
-            CvStage.Result.Circle closestResult = results.get(0);
-            Location holeLocation = VisionUtils.getPixelLocation(camera, closestResult.x, closestResult.y);
-            return holeLocation;
+            List<Location> holeLocations = new ArrayList<>();
+            for (CvStage.Result.Circle result : results) {
+                holeLocations.add(VisionUtils.getPixelLocation(camera, result.x, result.y));
+            }
+            return holeLocations;
         }
     }
    
@@ -403,6 +631,7 @@ public class ReferenceStripFeeder extends ReferenceFeeder {
         Object oldValue = this.referenceHoleLocation;
         this.referenceHoleLocation = referenceHoleLocation;
         visionLocation = null;
+        holeRegistration = null;
         firePropertyChange("referenceHoleLocation", oldValue, referenceHoleLocation);
     }
 
@@ -414,6 +643,7 @@ public class ReferenceStripFeeder extends ReferenceFeeder {
         Object oldValue = this.lastHoleLocation;
         this.lastHoleLocation = lastHoleLocation;
         visionLocation = null;
+        holeRegistration = null;
         firePropertyChange("lastHoleLocation", oldValue, lastHoleLocation);
     }
 
@@ -431,6 +661,7 @@ public class ReferenceStripFeeder extends ReferenceFeeder {
 
     public void setHolePitch(Length holePitch) {
         this.holePitch = holePitch;
+        holeRegistration = null;
     }
 
     public Length getPartPitch() {
@@ -456,6 +687,10 @@ public class ReferenceStripFeeder extends ReferenceFeeder {
     public void setFeedCount(int feedCount) {
         int oldValue = this.feedCount;
         this.feedCount = feedCount;
+        if (feedCount < oldValue) {
+            // Possibly a new strip.
+            holeRegistration = null;
+        }
         firePropertyChange("feedCount", oldValue, feedCount);
     }
 
@@ -483,6 +718,27 @@ public class ReferenceStripFeeder extends ReferenceFeeder {
         this.visionEnabled = visionEnabled;
     }
 
+    public boolean isMultiHoleRegistration() {
+        return multiHoleRegistration;
+    }
+
+    public void setMultiHoleRegistration(boolean multiHoleRegistration) {
+        Object oldValue = this.multiHoleRegistration;
+        this.multiHoleRegistration = multiHoleRegistration;
+        holeRegistration = null;
+        firePropertyChange("multiHoleRegistration", oldValue, multiHoleRegistration);
+    }
+
+    public Length getRegistrationTolerance() {
+        return registrationTolerance;
+    }
+
+    public void setRegistrationTolerance(Length registrationTolerance) {
+        Object oldValue = this.registrationTolerance;
+        this.registrationTolerance = registrationTolerance;
+        firePropertyChange("registrationTolerance", oldValue, registrationTolerance);
+    }
+
     @Commit
     void commit() {
         if (standardEia481 == null) {
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2026 agent <agent@local>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.machine.reference.feeder.wizards;
+
+import javax.swing.JCheckBox;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+import javax.swing.border.TitledBorder;
+
+import org.openpnp.gui.components.ComponentDecorators;
+import org.openpnp.gui.support.AbstractConfigurationWizard;
+import org.openpnp.gui.support.DoubleConverter;
+import org.openpnp.gui.support.IntegerConverter;
+import org.openpnp.machine.reference.feeder.PartCandidateCache;
+
+import com.jgoodies.forms.layout.ColumnSpec;
+import com.jgoodies.forms.layout.FormLayout;
+import com.jgoodies.forms.layout.FormSpecs;
+import com.jgoodies.forms.layout.RowSpec;
+
+@SuppressWarnings("serial")
+public class PartCandidateCacheConfigurationWizard extends AbstractConfigurationWizard {
+    private final PartCandidateCache candidateCache;
+    private JCheckBox enabled;
+    private JTextField timeoutSeconds;
+    private JTextField minimumScore;
+
+    public PartCandidateCacheConfigurationWizard(PartCandidateCache candidateCache) {
+        this.candidateCache = candidateCache;
+
+        JPanel panel = new JPanel();
+        panel.setBorder(new TitledBorder(null, "Candidate Cache", TitledBorder.LEADING, TitledBorder.TOP,
+                null, null));
+        contentPanel.add(panel);
+        panel.setLayout(new FormLayout(new ColumnSpec[] {
+                FormSpecs.RELATED_GAP_COLSPEC,
+                ColumnSpec.decode("right:default"),
+                FormSpecs.RELATED_GAP_COLSPEC,
+                FormSpecs.DEFAULT_COLSPEC,},
+            new RowSpec[] {
+                FormSpecs.RELATED_GAP_ROWSPEC,
+                FormSpecs.DEFAULT_ROWSPEC,
+                FormSpecs.RELATED_GAP_ROWSPEC,
+                FormSpecs.DEFAULT_ROWSPEC,
+                FormSpecs.RELATED_GAP_ROWSPEC,
+                FormSpecs.DEFAULT_ROWSPEC,}));
+
+        JLabel lblEnabled = new JLabel("Cache Candidates?");
+        lblEnabled.setToolTipText("<html>If enabled, all the parts detected by the pipeline are remembered and picked<br/>\n"
+                + "one by one, verified by a quick template match instead of the pipeline.</html>");
+        panel.add(lblEnabled, "2, 2");
+
+        enabled = new JCheckBox("");
+        panel.add(enabled, "4, 2");
+
+        JLabel lblTimeout = new JLabel("Timeout [s]");
+        lblTimeout.setToolTipText("Time after which the cached parts are discarded and the pipeline is run again.");
+        panel.add(lblTimeout, "2, 4");
+
+        timeoutSeconds = new JTextField();
+        panel.add(timeoutSeconds, "4, 4");
+        timeoutSeconds.setColumns(10);
+
+        JLabel lblMinimumScore = new JLabel("Minimum Score");
+        lblMinimumScore.setToolTipText("Minimum template match score (0.0 - 1.0) to accept a cached part.");
+        panel.add(lblMinimumScore, "2, 6");
+
+        minimumScore = new JTextField();
+        panel.add(minimumScore, "4, 6");
+        minimumScore.setColumns(10);
+    }
+
+    @Override
+    public void createBindings() {
+        IntegerConverter intConverter = new IntegerConverter();
+        DoubleConverter doubleConverter = new DoubleConverter("%f");
+
+        addWrappedBinding(candidateCache, "enabled", enabled, "selected");
+        addWrappedBinding(candidateCache, "timeoutSeconds", timeoutSeconds, "text", intConverter);
+        addWrappedBinding(candidateCache, "minimumScore", minimumScore, "text", doubleConverter);
+
+        ComponentDecorators.decorateWithAutoSelect(timeoutSeconds);
+        ComponentDecorators.decorateWithAutoSelect(minimumScore);
+    }
+}
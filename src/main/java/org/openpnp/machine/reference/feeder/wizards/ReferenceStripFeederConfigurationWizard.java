@@ -126,6 +126,8 @@ public class ReferenceStripFeederConfigurationWizard extends AbstractConfigurati
     private JButton btnAutoSetup;
     private JCheckBox chckbxUseVision;
     private JLabel lblUseVision;
+    private JCheckBox chckbxMultiHoleRegistration;
+    private JTextField textFieldRegistrationTolerance;
     private JLabel lblPart;
     private JLabel lblRetryCount;
     private JTextField retryCountTf;
@@ -295,6 +297,8 @@ public class ReferenceStripFeederConfigurationWizard extends AbstractConfigurati
                 new ColumnSpec[] {FormSpecs.RELATED_GAP_COLSPEC, FormSpecs.DEFAULT_COLSPEC,
                         FormSpecs.RELATED_GAP_COLSPEC, FormSpecs.DEFAULT_COLSPEC,},
                 new RowSpec[] {FormSpecs.RELATED_GAP_ROWSPEC, FormSpecs.DEFAULT_ROWSPEC,
+                        FormSpecs.RELATED_GAP_ROWSPEC, FormSpecs.DEFAULT_ROWSPEC,
+                        FormSpecs.RELATED_GAP_ROWSPEC, FormSpecs.DEFAULT_ROWSPEC,
                         FormSpecs.RELATED_GAP_ROWSPEC, FormSpecs.DEFAULT_ROWSPEC,}));
 
         lblUseVision = new JLabel("Use Vision?");
@@ -321,6 +325,23 @@ public class ReferenceStripFeederConfigurationWizard extends AbstractConfigurati
         });
         panelVision.add(btnResetPipeline, "4, 4");
 
+        JLabel lblMultiHoleRegistration = new JLabel("Multi-Hole Registration?");
+        lblMultiHoleRegistration.setToolTipText("<html>Register all the sprocket holes in view of one capture.<br/>"
+                + "The following feeds are predicted from the registration without a camera visit,<br/>"
+                + "until the tape leaves the registered holes or the drift exceeds the tolerance.</html>");
+        panelVision.add(lblMultiHoleRegistration, "2, 6");
+
+        chckbxMultiHoleRegistration = new JCheckBox("");
+        panelVision.add(chckbxMultiHoleRegistration, "4, 6");
+
+        JLabel lblRegistrationTolerance = new JLabel("Registration Tolerance");
+        lblRegistrationTolerance.setToolTipText("Maximum drift of the registration, before the holes are captured again.");
+        panelVision.add(lblRegistrationTolerance, "2, 8");
+
+        textFieldRegistrationTolerance = new JTextField();
+        panelVision.add(textFieldRegistrationTolerance, "4, 8");
+        textFieldRegistrationTolerance.setColumns(5);
+
         panelLocations = new JPanel();
         contentPanel.add(panelLocations);
         panelLocations.setBorder(new TitledBorder(null, "Locations", TitledBorder.LEADING,
@@ -426,6 +447,8 @@ public class ReferenceStripFeederConfigurationWizard extends AbstractConfigurati
 //        addWrappedBinding(feedEndLocation, "lengthZ", textFieldFeedEndZ, "text", lengthConverter);
 
         addWrappedBinding(feeder, "visionEnabled", chckbxUseVision, "selected");
+        addWrappedBinding(feeder, "multiHoleRegistration", chckbxMultiHoleRegistration, "selected");
+        addWrappedBinding(feeder, "registrationTolerance", textFieldRegistrationTolerance, "text", lengthConverter);
 
         ComponentDecorators.decorateWithAutoSelect(textFieldLocationRotation);
         ComponentDecorators.decorateWithAutoSelectAndLengthConversion(textFieldTapeWidth);
@@ -439,6 +462,7 @@ public class ReferenceStripFeederConfigurationWizard extends AbstractConfigurati
         ComponentDecorators.decorateWithAutoSelectAndLengthConversion(textFieldFeedStartZ);
         ComponentDecorators.decorateWithAutoSelectAndLengthConversion(textFieldFeedEndX);
         ComponentDecorators.decorateWithAutoSelectAndLengthConversion(textFieldFeedEndY);
+        ComponentDecorators.decorateWithAutoSelectAndLengthConversion(textFieldRegistrationTolerance);
 //        ComponentDecorators.decorateWithAutoSelectAndLengthConversion(textFieldFeedEndZ);
     }
 
@@ -750,6 +750,8 @@ public class GcodeDriverSolutions implements Solutions.Subject {
                             if (state.equals(Solutions.State.Solved)) {
                                 gcodeDriver.commands.remove(readCommand);
                                 command.type = CommandType.ACTUATOR_READ_COMMAND;
+                                // The command type was changed in place.
+                                gcodeDriver.invalidateCommandIndex();
                             } else if (state.equals(Solutions.State.Dismissed)) {
                                 gcodeDriver.commands.remove(command);
                             }
@@ -10,6 +10,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import javax.swing.Action;
 import javax.swing.Icon;
@@ -43,6 +44,7 @@ import org.openpnp.model.Placement.Type;
 import org.openpnp.model.Point;
 import org.openpnp.spi.Camera;
 import org.openpnp.spi.FiducialLocator;
+import org.openpnp.spi.JobProcessor.JobProcessorException;
 import org.openpnp.spi.PropertySheetHolder;
 import org.openpnp.util.IdentifiableList;
 import org.openpnp.util.MovableUtils;
@@ -80,6 +82,13 @@ public class ReferenceFiducialLocator extends AbstractPartSettingsHolder impleme
     @Attribute(required = false)
     protected int repeatFiducialRecognition = 3;
 
+    /**
+     * When enabled, the job locates all its boards in one pass, visiting the fiducials of all 
+     * the boards on a single planned camera route.
+     */
+    @Attribute(required = false)
+    protected boolean batchFiducialScan = false;
+
     @Element(required = false)
     protected Length maxDistance = new Length(4, LengthUnit.Millimeters);
 
@@ -142,14 +151,6 @@ public class ReferenceFiducialLocator extends AbstractPartSettingsHolder impleme
         // to find the fiducials.
         boardLocation.setPlacementTransform(null);
 
-        //Define where the fiducial trip will begin
-        Location currentCameraLocation = new Location(LengthUnit.Millimeters);
-        try {
-            currentCameraLocation = MainFrame.get().getMachineControls().getSelectedTool().getHead().getDefaultCamera().getLocation();
-        } catch (Exception e) {
-            currentCameraLocation = boardLocation.getLocation();
-        }
-        
         // Use a traveling salesman algorithm to optimize the path to visit the fiducials
         TravellingSalesman<Placement> tsm = new TravellingSalesman<>(
                 fiducials, 
@@ -160,7 +161,7 @@ public class ReferenceFiducialLocator extends AbstractPartSettingsHolder impleme
                     }
                 }, 
                 // start from current camera location
-                currentCameraLocation,
+                getCurrentCameraLocation(boardLocation),
                 // and end at the board origin
                 boardLocation.getLocation());
 
@@ -180,7 +181,155 @@ public class ReferenceFiducialLocator extends AbstractPartSettingsHolder impleme
             
             Logger.debug("Found {} at {}", fiducial.getId(), measuredLocation);
         }
-        
+
+        try {
+            return applyFiducialResults(boardLocation, savedBoardLocation, savedPlacementTransform, 
+                    expectedLocations, measuredLocations);
+        }
+        finally {
+            if (checkPanel) {
+                boardLocation.setSide(boardSide);   // restore side
+            }
+        }
+    }
+
+    /**
+     * Locates the given boards in one pass. The fiducials of all the boards are visited on a single
+     * camera route, planned by the travelling salesman solver. As soon as all the fiducials of a 
+     * board are measured, its placement transform is set, i.e. the following boards are not waited for.  
+     * 
+     * @param boardLocations The boards to be located.
+     * @param located Called for each board, as soon as it is successfully located. Can be null.
+     * @throws JobProcessorException with the failing BoardLocation as the source.
+     */
+    public void locateBoards(List<BoardLocation> boardLocations, Consumer<BoardLocation> located) 
+            throws JobProcessorException {
+        class BoardFiducials {
+            final BoardLocation boardLocation;
+            final Location savedBoardLocation;
+            final AffineTransform savedPlacementTransform;
+            final List<Placement> fiducials;
+            final List<Location> expectedLocations = new ArrayList<>();
+            final List<Location> measuredLocations = new ArrayList<>();
+
+            BoardFiducials(BoardLocation boardLocation) {
+                this.boardLocation = boardLocation;
+                this.savedBoardLocation = boardLocation.getLocation();
+                this.savedPlacementTransform = boardLocation.getPlacementTransform();
+                this.fiducials = getFiducials(boardLocation);
+            }
+        }
+        class FiducialVisit {
+            final BoardFiducials board;
+            final Placement fiducial;
+
+            FiducialVisit(BoardFiducials board, Placement fiducial) {
+                this.board = board;
+                this.fiducial = fiducial;
+            }
+        }
+        if (boardLocations.isEmpty()) {
+            return;
+        }
+        // Collect the fiducials of all the boards.
+        List<BoardFiducials> boards = new ArrayList<>();
+        List<FiducialVisit> visits = new ArrayList<>();
+        for (BoardLocation boardLocation : boardLocations) {
+            BoardFiducials board = new BoardFiducials(boardLocation);
+            if (board.fiducials.size() < 2) {
+                throw new JobProcessorException(boardLocation, String.format(
+                        "The board side contains only %d placements marked as fiducials, but at least 2 are required.",
+                        board.fiducials.size()));
+            }
+            boards.add(board);
+            for (Placement fiducial : board.fiducials) {
+                visits.add(new FiducialVisit(board, fiducial));
+            }
+        }
+        // The nominal locations must be taken with the current transforms cleared, 
+        // so they don't potentially send us to the wrong spot to find the fiducials.
+        for (BoardFiducials board : boards) {
+            board.boardLocation.setPlacementTransform(null);
+        }
+
+        // Plan one route across all the fiducials of all the boards.
+        TravellingSalesman<FiducialVisit> tsm = new TravellingSalesman<>(
+                visits, 
+                new TravellingSalesman.Locator<FiducialVisit>() { 
+                    @Override
+                    public Location getLocation(FiducialVisit locatable) {
+                        return Utils2D.calculateBoardPlacementLocation(locatable.board.boardLocation, 
+                                locatable.fiducial.getLocation());
+                    }
+                }, 
+                // start from current camera location
+                getCurrentCameraLocation(boardLocations.get(0)),
+                // and end freely
+                null);
+        double distance = tsm.solve();
+        Logger.debug("Batch fiducial scan of {} boards, {} fiducials, travel distance {}mm", 
+                boards.size(), visits.size(), distance);
+
+        BoardFiducials currentBoard = null;
+        try {
+            for (FiducialVisit visit : tsm.getTravel()) {
+                BoardFiducials board = visit.board;
+                currentBoard = board;
+                Location measuredLocation = getFiducialLocation(board.boardLocation, visit.fiducial);
+                if (measuredLocation == null) {
+                    throw new Exception("Unable to locate " + visit.fiducial.getId());
+                }
+                board.expectedLocations.add(visit.fiducial.getLocation()
+                        .invert(board.boardLocation.getSide() == Side.Bottom, false, false, false));
+                board.measuredLocations.add(measuredLocation);
+                Logger.debug("Found {} at {}", visit.fiducial.getId(), measuredLocation);
+
+                if (board.measuredLocations.size() == board.fiducials.size()) {
+                    // All the fiducials of this board are in, solve it right away.
+                    applyFiducialResults(board.boardLocation, board.savedBoardLocation, 
+                            board.savedPlacementTransform, 
+                            board.expectedLocations, board.measuredLocations);
+                    boards.remove(board);
+                    if (located != null) {
+                        located.accept(board.boardLocation);
+                    }
+                }
+                currentBoard = null;
+            }
+        }
+        catch (Exception e) {
+            // Restore the transforms of all the boards that did not finish, including the ones 
+            // that were partially measured in the interleaved route. 
+            for (BoardFiducials board : boards) {
+                board.boardLocation.setPlacementTransform(board.savedPlacementTransform);
+            }
+            throw new JobProcessorException(currentBoard != null ? 
+                    currentBoard.boardLocation : boardLocations.get(0), e);
+        }
+    }
+
+    /**
+     * @param boardLocation
+     * @return The location where a fiducial trip will begin, i.e. the current camera location.
+     */
+    protected Location getCurrentCameraLocation(BoardLocation boardLocation) {
+        try {
+            return MainFrame.get().getMachineControls().getSelectedTool().getHead().getDefaultCamera().getLocation();
+        } catch (Exception e) {
+            return boardLocation.getLocation();
+        }
+    }
+
+    /**
+     * Derives the placement transform from the expected and measured fiducial locations, sets it on the 
+     * board and checks the result against the tolerances.
+     * 
+     * @return The compensated board location.
+     * @throws Exception if the results are out of tolerance. The saved placement transform is then restored.
+     */
+    protected Location applyFiducialResults(BoardLocation boardLocation, Location savedBoardLocation,
+            AffineTransform savedPlacementTransform, List<Location> expectedLocations,
+            List<Location> measuredLocations) throws Exception {
         // Calculate the transform.
         AffineTransform tx = Utils2D.deriveAffineTransform(expectedLocations, measuredLocations);
         
@@ -196,10 +345,6 @@ public class ReferenceFiducialLocator extends AbstractPartSettingsHolder impleme
         newBoardLocation = newBoardLocation.convertToUnits(boardLocation.getLocation().getUnits());
         newBoardLocation = newBoardLocation.derive(null, null, boardLocation.getLocation().getZ(), null);
 
-        if (checkPanel) {
-            boardLocation.setSide(boardSide);	// restore side
-        }
-        
         Utils2D.AffineInfo ai = Utils2D.affineInfo(tx);
         Logger.info("Fiducial results: " + ai);
         double[] matrix = new double[6];
@@ -560,6 +705,14 @@ public class ReferenceFiducialLocator extends AbstractPartSettingsHolder impleme
         this.enabledAveraging = enabledAveraging;
     }
 
+    public boolean isBatchFiducialScan() {
+        return batchFiducialScan;
+    }
+
+    public void setBatchFiducialScan(boolean batchFiducialScan) {
+        this.batchFiducialScan = batchFiducialScan;
+    }
+
     public int getRepeatFiducialRecognition() {
     	return this.repeatFiducialRecognition;
     }
@@ -33,6 +33,7 @@ public class ReferenceFiducialLocatorConfigurationWizard extends AbstractConfigu
     private static Part defaultPart = createDefaultPart();
     
     JCheckBox enabledAveragingCheckbox; 
+    JCheckBox batchFiducialScanCheckbox; 
     JTextField textFieldRepeatFiducialRecognition;
     private JTextField maxDistance;
     private JComboBox visionSettings;
@@ -63,6 +64,8 @@ public class ReferenceFiducialLocatorConfigurationWizard extends AbstractConfigu
                 FormSpecs.RELATED_GAP_ROWSPEC,
                 FormSpecs.DEFAULT_ROWSPEC,
                 FormSpecs.RELATED_GAP_ROWSPEC,
+                FormSpecs.DEFAULT_ROWSPEC,
+                FormSpecs.RELATED_GAP_ROWSPEC,
                 FormSpecs.DEFAULT_ROWSPEC,}));
         
         JLabel lblVisionSettings = new JLabel("Vision Settings");
@@ -101,6 +104,13 @@ public class ReferenceFiducialLocatorConfigurationWizard extends AbstractConfigu
         panel.add(maxDistance, "4, 8, fill, default");
         maxDistance.setColumns(10);
 
+        JLabel lblBatchFiducialScan = new JLabel("Batch Job Scan?");
+        lblBatchFiducialScan.setToolTipText("<html>In a job, locate all the boards in one pass, visiting the fiducials of all the boards<br/>"
+                + "on a single planned camera route. Each board is solved as soon as its fiducials are located.</html>");
+        panel.add(lblBatchFiducialScan, "2, 10");
+
+        batchFiducialScanCheckbox = new JCheckBox("");
+        panel.add(batchFiducialScanCheckbox, "4, 10");
     }
 
     private static Part createDefaultPart() {
@@ -128,6 +138,7 @@ public class ReferenceFiducialLocatorConfigurationWizard extends AbstractConfigu
         addWrappedBinding(fiducialLocator, "fiducialVisionSettings", visionSettings, "selectedItem");
         
         addWrappedBinding(fiducialLocator, "enabledAveraging", enabledAveragingCheckbox, "selected");
+        addWrappedBinding(fiducialLocator, "batchFiducialScan", batchFiducialScanCheckbox, "selected");
         addWrappedBinding(fiducialLocator, "repeatFiducialRecognition", textFieldRepeatFiducialRecognition, "text", intConverter);
         addWrappedBinding(fiducialLocator, "maxDistance", maxDistance, "text", lengthConverter);
 
@@ -85,6 +85,10 @@ public abstract class AbstractActuatorConfigurationWizard extends AbstractConfig
     private JCheckBox coordinatedAfterActuate;
     private JLabel lblBeforeRead;
     private JCheckBox coordinatedBeforeRead;
+    private JLabel lblStreamedReadings;
+    private JCheckBox streamedReadings;
+    private JLabel lblReadingReportMilliseconds;
+    private JTextField readingReportMilliseconds;
 
     private boolean reloadWizard;
     private JLabel lblAxisInterlock;
@@ -232,6 +236,10 @@ public abstract class AbstractActuatorConfigurationWizard extends AbstractConfig
                 FormSpecs.RELATED_GAP_COLSPEC,
                 FormSpecs.DEFAULT_COLSPEC,},
             new RowSpec[] {
+                FormSpecs.RELATED_GAP_ROWSPEC,
+                FormSpecs.DEFAULT_ROWSPEC,
+                FormSpecs.RELATED_GAP_ROWSPEC,
+                FormSpecs.DEFAULT_ROWSPEC,
                 FormSpecs.RELATED_GAP_ROWSPEC,
                 FormSpecs.DEFAULT_ROWSPEC,
                 FormSpecs.RELATED_GAP_ROWSPEC,
@@ -259,6 +267,21 @@ public abstract class AbstractActuatorConfigurationWizard extends AbstractConfig
         
         coordinatedBeforeRead = new JCheckBox("");
         panelCoordination.add(coordinatedBeforeRead, "4, 6");
+
+        lblStreamedReadings = new JLabel("Streamed Readings?");
+        lblStreamedReadings.setToolTipText("<html>\r\nRecord all the readings received for this actuator, including values the controller reports <br/>\r\non its own. Vacuum sensing then waits for the streamed readings instead of polling. <br/>\r\nThe GcodeDriver matches received lines against the ACTUATOR_READ_REGEX.\r\n</html>");
+        panelCoordination.add(lblStreamedReadings, "2, 8, right, default");
+
+        streamedReadings = new JCheckBox("");
+        panelCoordination.add(streamedReadings, "4, 8");
+
+        lblReadingReportMilliseconds = new JLabel("Report Period [ms]");
+        lblReadingReportMilliseconds.setToolTipText("<html>\r\nThe period at which the controller reports the readings on its own. <br/>\r\nIf no streamed reading arrives within two periods, the actuator is read instead.\r\n</html>");
+        panelCoordination.add(lblReadingReportMilliseconds, "2, 10, right, default");
+
+        readingReportMilliseconds = new JTextField();
+        panelCoordination.add(readingReportMilliseconds, "4, 10");
+        readingReportMilliseconds.setColumns(10);
         
         generalPanel = new JPanel();
         generalPanel.setBorder(new TitledBorder(null, "General", TitledBorder.LEADING, TitledBorder.TOP, null, null));
@@ -408,6 +431,8 @@ public abstract class AbstractActuatorConfigurationWizard extends AbstractConfig
         addWrappedBinding(actuator, "coordinatedBeforeActuate", coordinatedBeforeActuate, "selected");
         addWrappedBinding(actuator, "coordinatedAfterActuate", coordinatedAfterActuate, "selected");
         addWrappedBinding(actuator, "coordinatedBeforeRead", coordinatedBeforeRead, "selected");
+        addWrappedBinding(actuator, "streamedReadings", streamedReadings, "selected");
+        addWrappedBinding(actuator, "readingReportMilliseconds", readingReportMilliseconds, "text", intConverter);
 
         addWrappedBinding(actuator, "valueType", valueType, "selectedItem");
         addWrappedBinding(actuator, "defaultOnDouble", defaultOnDouble, "text", doubleConverter);
@@ -422,6 +447,7 @@ public abstract class AbstractActuatorConfigurationWizard extends AbstractConfig
         addWrappedBinding(actuator, "index", indexTextField, "text", intConverter);
 
         ComponentDecorators.decorateWithAutoSelect(indexTextField);
+        ComponentDecorators.decorateWithAutoSelect(readingReportMilliseconds);
         ComponentDecorators.decorateWithAutoSelectAndLengthConversion(locationX);
         ComponentDecorators.decorateWithAutoSelectAndLengthConversion(locationY);
         ComponentDecorators.decorateWithAutoSelectAndLengthConversion(locationZ);
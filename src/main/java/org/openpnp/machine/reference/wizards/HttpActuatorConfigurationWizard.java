@@ -22,12 +22,14 @@ package org.openpnp.machine.reference.wizards;
 
 import java.util.List;
 
+import javax.swing.JCheckBox;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JTextField;
 import javax.swing.border.TitledBorder;
 
 import org.openpnp.gui.components.ComponentDecorators;
+import org.openpnp.gui.support.IntegerConverter;
 import org.openpnp.machine.reference.HttpActuator;
 import org.openpnp.machine.reference.camera.SimulatedUpCamera;
 import org.openpnp.model.Solutions;
@@ -56,6 +58,12 @@ public class HttpActuatorConfigurationWizard extends AbstractActuatorConfigurati
     private JLabel lblReadUrl;
     private JTextField regexTf;
     private JLabel lblRegex;
+    private JLabel lblConnectTimeout;
+    private JTextField connectTimeout;
+    private JLabel lblReadTimeout;
+    private JTextField readTimeout;
+    private JLabel lblAsynchronous;
+    private JCheckBox asynchronous;
 
     public HttpActuatorConfigurationWizard(AbstractMachine machine, HttpActuator httpActuator) {
         super(machine, httpActuator);
@@ -84,6 +92,12 @@ public class HttpActuatorConfigurationWizard extends AbstractActuatorConfigurati
                 FormSpecs.RELATED_GAP_ROWSPEC,
                 FormSpecs.DEFAULT_ROWSPEC,
                 FormSpecs.RELATED_GAP_ROWSPEC,
+                FormSpecs.DEFAULT_ROWSPEC,
+                FormSpecs.RELATED_GAP_ROWSPEC,
+                FormSpecs.DEFAULT_ROWSPEC,
+                FormSpecs.RELATED_GAP_ROWSPEC,
+                FormSpecs.DEFAULT_ROWSPEC,
+                FormSpecs.RELATED_GAP_ROWSPEC,
                 FormSpecs.DEFAULT_ROWSPEC,}));
 
         lblName = new JLabel("Name");
@@ -128,8 +142,34 @@ public class HttpActuatorConfigurationWizard extends AbstractActuatorConfigurati
         regexTf = new JTextField();
         panelProperties.add(regexTf, "4, 12, fill, default");
         regexTf.setColumns(40);
-        
 
+        lblConnectTimeout = new JLabel("Connect Timeout [ms]");
+        panelProperties.add(lblConnectTimeout, "2, 14, right, default");
+
+        connectTimeout = new JTextField();
+        panelProperties.add(connectTimeout, "4, 14, left, default");
+        connectTimeout.setColumns(10);
+
+        lblReadTimeout = new JLabel("Read Timeout [ms]");
+        panelProperties.add(lblReadTimeout, "2, 16, right, default");
+
+        readTimeout = new JTextField();
+        panelProperties.add(readTimeout, "4, 16, left, default");
+        readTimeout.setColumns(10);
+
+        lblAsynchronous = new JLabel("Asynchronous?");
+        lblAsynchronous.setToolTipText("<html>\n"
+                + "Send actuations in the background, in the order they were made, so the machine<br/>\n"
+                + "does not wait for the HTTP response.<br/>\n"
+                + "A failed actuation is reported on the next actuation or read. Reads always wait<br/>\n"
+                + "for pending actuations.<br/><br/>\n"
+                + "If the actuator is coordinated after actuation, the actuation still waits for<br/>\n"
+                + "the HTTP response, as the machine must not continue before it is done.\n"
+                + "</html>");
+        panelProperties.add(lblAsynchronous, "2, 18, right, default");
+
+        asynchronous = new JCheckBox("");
+        panelProperties.add(asynchronous, "4, 18");
 
         super.createUi(machine);
     }
@@ -143,6 +183,10 @@ public class HttpActuatorConfigurationWizard extends AbstractActuatorConfigurati
         addWrappedBinding(actuator, "paramUrl", paramUrl, "text");
         addWrappedBinding(actuator, "readUrl", readUrlTf, "text");
         addWrappedBinding(actuator, "regex", regexTf, "text");
+        IntegerConverter intConverter = new IntegerConverter();
+        addWrappedBinding(actuator, "connectTimeoutMilliseconds", connectTimeout, "text", intConverter);
+        addWrappedBinding(actuator, "readTimeoutMilliseconds", readTimeout, "text", intConverter);
+        addWrappedBinding(actuator, "asynchronous", asynchronous, "selected");
 
         ComponentDecorators.decorateWithAutoSelect(nameTf);
         ComponentDecorators.decorateWithAutoSelect(onUrlTf);
@@ -150,6 +194,8 @@ public class HttpActuatorConfigurationWizard extends AbstractActuatorConfigurati
         ComponentDecorators.decorateWithAutoSelect(paramUrl);
         ComponentDecorators.decorateWithAutoSelect(readUrlTf);
         ComponentDecorators.decorateWithAutoSelect(regexTf);
+        ComponentDecorators.decorateWithAutoSelect(connectTimeout);
+        ComponentDecorators.decorateWithAutoSelect(readTimeout);
 
         super.createBindings();
     }
@@ -14,6 +14,7 @@ import org.openpnp.gui.components.ComponentDecorators;
 import org.openpnp.gui.components.LocationButtonsPanel;
 import org.openpnp.gui.support.AbstractConfigurationWizard;
 import org.openpnp.gui.support.DoubleConverter;
+import org.openpnp.gui.support.IntegerConverter;
 import org.openpnp.gui.support.LengthConverter;
 import org.openpnp.gui.support.MutableLocationProxy;
 import org.openpnp.machine.reference.ReferenceMachine;
@@ -40,6 +41,7 @@ public class ReferenceMachineConfigurationWizard extends AbstractConfigurationWi
     private JCheckBox safeZPark;
     private JTextField unsafeZRoamingDistance;
     private JCheckBox parkAfterHomed;
+    private JTextField concurrentTaskThreads;
 
     public ReferenceMachineConfigurationWizard(ReferenceMachine machine) {
         this.machine = machine;
@@ -108,6 +110,15 @@ public class ReferenceMachineConfigurationWizard extends AbstractConfigurationWi
         panelGeneral.add(unsafeZRoamingDistance, "4, 12, fill, default");
         unsafeZRoamingDistance.setColumns(10);
         
+        JLabel lblConcurrentTaskThreads = new JLabel("Concurrent Tasks");
+        lblConcurrentTaskThreads.setToolTipText("<html>Maximum number of tasks that do not move the machine, like camera-only vision,<br/>\r\n"
+                + "running concurrently with the machine task and with each other.</html>");
+        panelGeneral.add(lblConcurrentTaskThreads, "2, 14, right, default");
+
+        concurrentTaskThreads = new JTextField();
+        panelGeneral.add(concurrentTaskThreads, "4, 14, fill, default");
+        concurrentTaskThreads.setColumns(10);
+
         JLabel lblMotionPlanning = new JLabel("Motion Planning");
         panelGeneral.add(lblMotionPlanning, "2, 16, right, default");
         
@@ -184,12 +195,14 @@ public class ReferenceMachineConfigurationWizard extends AbstractConfigurationWi
         DoubleConverter doubleConverter =
                 new DoubleConverter(Configuration.get().getLengthDisplayFormat());
         LengthConverter lengthConverter = new LengthConverter();
+        IntegerConverter intConverter = new IntegerConverter();
 
         addWrappedBinding(machine, "homeAfterEnabled", checkBoxHomeAfterEnabled, "selected");
         addWrappedBinding(machine, "parkAfterHomed", parkAfterHomed, "selected");
         addWrappedBinding(machine, "autoToolSelect", autoToolSelect, "selected");
         addWrappedBinding(machine, "safeZPark", safeZPark, "selected");
         addWrappedBinding(machine, "unsafeZRoamingDistance", unsafeZRoamingDistance, "text", lengthConverter);
+        addWrappedBinding(machine, "concurrentTaskThreads", concurrentTaskThreads, "text", intConverter);
 
         motionPlannerClassName = machine.getMotionPlanner().getClass().getSimpleName();
         addWrappedBinding(this, "motionPlannerClassName", motionPlannerClass, "selectedItem");
@@ -202,6 +215,7 @@ public class ReferenceMachineConfigurationWizard extends AbstractConfigurationWi
         addWrappedBinding(discardLocation, "rotation", discardCTf, "text", doubleConverter);
 
         ComponentDecorators.decorateWithAutoSelectAndLengthConversion(unsafeZRoamingDistance);
+        ComponentDecorators.decorateWithAutoSelect(concurrentTaskThreads);
         ComponentDecorators.decorateWithAutoSelectAndLengthConversion(discardXTf);
         ComponentDecorators.decorateWithAutoSelectAndLengthConversion(discardYTf);
         ComponentDecorators.decorateWithAutoSelectAndLengthConversion(discardZTf);
@@ -45,6 +45,8 @@ public class ReferencePnpJobProcessorConfigurationWizard extends AbstractConfigu
     private JComboBox comboBoxJobOrder;
     private JTextField maxVisionRetriesTextField;
     private JCheckBox steppingToNextMotion;
+    private JCheckBox exportMetrics;
+    private JCheckBox continuousMotion;
 
     public ReferencePnpJobProcessorConfigurationWizard(ReferencePnpJobProcessor jobProcessor) {
         this.jobProcessor = jobProcessor;
@@ -67,6 +69,8 @@ public class ReferencePnpJobProcessorConfigurationWizard extends AbstractConfigu
                         FormSpecs.RELATED_GAP_ROWSPEC,
                         FormSpecs.DEFAULT_ROWSPEC,
                         FormSpecs.RELATED_GAP_ROWSPEC,
+                        FormSpecs.DEFAULT_ROWSPEC,
+                        FormSpecs.RELATED_GAP_ROWSPEC,
                         FormSpecs.DEFAULT_ROWSPEC,}));
 
         JLabel lblJobOrder = new JLabel(Translations.getString("MachineSetup.JobProcessors.ReferencePnpJobProcessor.Label.JobOrder"));
@@ -88,6 +92,27 @@ public class ReferencePnpJobProcessorConfigurationWizard extends AbstractConfigu
 
         steppingToNextMotion = new JCheckBox(); 
         panelGeneral.add(steppingToNextMotion, "4, 6");
+
+        JLabel lblExportMetrics = new JLabel("Export Metrics?");
+        lblExportMetrics.setToolTipText("<html>Export the job metrics as CSV and JSON files after each job.<br/>"
+                + "The files are written to the job-metrics subdirectory of the configuration directory.<br/>"
+                + "Use Job / Job Metrics... to view the metrics live.</html>");
+        panelGeneral.add(lblExportMetrics, "2, 8, right, default");
+
+        exportMetrics = new JCheckBox();
+        panelGeneral.add(exportMetrics, "4, 8");
+
+        JLabel lblContinuousMotion = new JLabel("Continuous Motion?");
+        lblContinuousMotion.setToolTipText("<html>Let the Advanced Motion Planner plan the moves of each job step ahead,<br/>"
+                + "blending them into continuous motion, as with its own continuous motion option,<br/>"
+                + "but only while the job is running. Moves are not blended across job steps.<br/>"
+                + "The machine still comes to a stillstand where needed, e.g. for camera settling and<br/>"
+                + "coordinated vacuum actuation. Actuators must be coordinated before actuation,<br/>"
+                + "Issues &amp; Solutions lists the ones that are not.</html>");
+        panelGeneral.add(lblContinuousMotion, "2, 10, right, default");
+
+        continuousMotion = new JCheckBox();
+        panelGeneral.add(continuousMotion, "4, 10");
     }
 
     @Override
@@ -97,6 +122,8 @@ public class ReferencePnpJobProcessorConfigurationWizard extends AbstractConfigu
         addWrappedBinding(jobProcessor, "jobOrder", comboBoxJobOrder, "selectedItem");
         addWrappedBinding(jobProcessor, "maxVisionRetries", maxVisionRetriesTextField, "text", intConverter);
         addWrappedBinding(jobProcessor, "steppingToNextMotion", steppingToNextMotion, "selected");
+        addWrappedBinding(jobProcessor, "exportMetrics", exportMetrics, "selected");
+        addWrappedBinding(jobProcessor, "continuousMotion", continuousMotion, "selected");
         
         ComponentDecorators.decorateWithAutoSelect(maxVisionRetriesTextField);
     }
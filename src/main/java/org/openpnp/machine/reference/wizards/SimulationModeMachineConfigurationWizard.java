@@ -65,6 +65,8 @@ public class SimulationModeMachineConfigurationWizard extends AbstractConfigurat
     private JTextField simulatedCameraLag;
     private JTextField machineTableZ;
     private JTextField simulatedVibrationDuration;
+    private JTextField simulationSpeedFactor;
+    private JCheckBox simulationSkipIdle;
 
     public SimulationModeMachineConfigurationWizard(SimulationModeMachine machine) {
         this.machine = machine;
@@ -79,6 +81,10 @@ public class SimulationModeMachineConfigurationWizard extends AbstractConfigurat
                 FormSpecs.RELATED_GAP_COLSPEC,
                 ColumnSpec.decode("max(50dlu;default)"),},
             new RowSpec[] {
+                FormSpecs.RELATED_GAP_ROWSPEC,
+                FormSpecs.DEFAULT_ROWSPEC,
+                FormSpecs.RELATED_GAP_ROWSPEC,
+                FormSpecs.DEFAULT_ROWSPEC,
                 FormSpecs.RELATED_GAP_ROWSPEC,
                 FormSpecs.DEFAULT_ROWSPEC,}));
 
@@ -88,6 +94,21 @@ public class SimulationModeMachineConfigurationWizard extends AbstractConfigurat
         simulationMode = new JComboBox(SimulationMode.values());
         panelGeneral.add(simulationMode, "4, 2, fill, default");
 
+        JLabel lblSpeedFactor = new JLabel("Speed Factor");
+        lblSpeedFactor.setToolTipText("<html>\r\nRuns the simulated machine faster than real-time by that factor, i.e. the<br/>\r\nsimulated motion, dwell times and camera settling take less time. \r\n</html>");
+        panelGeneral.add(lblSpeedFactor, "2, 4, right, default");
+
+        simulationSpeedFactor = new JTextField();
+        panelGeneral.add(simulationSpeedFactor, "4, 4, fill, default");
+        simulationSpeedFactor.setColumns(10);
+
+        JLabel lblSkipIdle = new JLabel("Skip Idle?");
+        lblSkipIdle.setToolTipText("<html>\r\nSkips the simulated clock ahead, whenever the simulated machine waits for motion, <br/>\r\ndwell times or camera settling, i.e. these take no real time at all.\r\n</html>");
+        panelGeneral.add(lblSkipIdle, "2, 6, right, default");
+
+        simulationSkipIdle = new JCheckBox("");
+        panelGeneral.add(simulationSkipIdle, "4, 6");
+
         JPanel panelLocations = new JPanel();
         panelLocations.setBorder(new TitledBorder(null, "Simulated Imperfections", TitledBorder.LEADING,
                 TitledBorder.TOP, null, null));
@@ -263,6 +284,8 @@ public class SimulationModeMachineConfigurationWizard extends AbstractConfigurat
         LengthConverter lengthConverter = new LengthConverter();
 
         addWrappedBinding(machine, "simulationMode", simulationMode, "selectedItem");
+        addWrappedBinding(machine, "simulationSpeedFactor", simulationSpeedFactor, "text", doubleConverter);
+        addWrappedBinding(machine, "simulationSkipIdle", simulationSkipIdle, "selected");
 
         addWrappedBinding(machine, "simulatedNonSquarenessFactor", simulatedNonSquarenessFactor, "text", doubleConverter);
 
@@ -286,5 +309,6 @@ public class SimulationModeMachineConfigurationWizard extends AbstractConfigurat
         ComponentDecorators.decorateWithAutoSelectAndLengthConversion(homingErrorY);
         
         ComponentDecorators.decorateWithAutoSelectAndLengthConversion(machineTableZ);
+        ComponentDecorators.decorateWithAutoSelect(simulationSpeedFactor);
     }
 }
@@ -89,6 +89,10 @@ public class Configuration extends AbstractModelObject {
     private static final String PREF_VERTICAL_SCROLL_UNIT_INCREMENT =
             "Configuration.verticalScrollUnitIncrement";
     private static final int PREF_VERTICAL_SCROLL_UNIT_INCREMENT_DEF = 16;
+
+    private static final String PREF_TEMPLATE_IMAGE_CACHE_MEGABYTES =
+            "Configuration.templateImageCacheMegabytes";
+    private static final int PREF_TEMPLATE_IMAGE_CACHE_MEGABYTES_DEF = 64;
     private static final String imgurClientId = "620fc1fa8ee0180";
 
     public enum TablesLinked {
@@ -294,6 +298,18 @@ public class Configuration extends AbstractModelObject {
         prefs.putInt(PREF_VERTICAL_SCROLL_UNIT_INCREMENT, PREF_VERTICAL_SCROLL_UNIT_INCREMENT_DEF);
     }
 
+    /**
+     * @return The memory budget of the shared TemplateImageCache in megabytes.
+     */
+    public int getTemplateImageCacheMegabytes() {
+        return prefs.getInt(PREF_TEMPLATE_IMAGE_CACHE_MEGABYTES,
+                PREF_TEMPLATE_IMAGE_CACHE_MEGABYTES_DEF);
+    }
+
+    public void setTemplateImageCacheMegabytes(int templateImageCacheMegabytes) {
+        prefs.putInt(PREF_TEMPLATE_IMAGE_CACHE_MEGABYTES, templateImageCacheMegabytes);
+    }
+
     /**
      * Gets a File reference for the resources directory belonging to the given class. The directory
      * is guaranteed to exist.
@@ -23,19 +23,29 @@ package org.openpnp.model;
 
 import java.awt.Color;
 import java.awt.Desktop;
+import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.swing.Action;
 import javax.swing.Icon;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 import javax.swing.border.LineBorder;
 import javax.swing.table.AbstractTableModel;
 import javax.swing.table.DefaultTableCellRenderer;
@@ -44,6 +54,8 @@ import org.apache.commons.codec.digest.DigestUtils;
 import org.openpnp.gui.MainFrame;
 import org.openpnp.gui.components.AutoSelectTextTable;
 import org.openpnp.gui.support.Icons;
+import org.openpnp.gui.support.MessageBoxes;
+import org.openpnp.machine.reference.ReferenceMachine;
 import org.openpnp.machine.reference.driver.NullDriver;
 import org.openpnp.machine.reference.driver.NullMotionPlanner;
 import org.openpnp.spi.Axis;
@@ -264,6 +276,7 @@ public class Solutions extends AbstractTableModel {
         final String uri;
         private State state;
         private Object choice;
+        private boolean stateListenerInstalled;
 
         public Issue(Subject subject, String issue, String solution, Severity severity, String uri) {
             super();
@@ -272,12 +285,7 @@ public class Solutions extends AbstractTableModel {
             this.solution = solution;
             this.severity = severity;
             this.uri = uri;
-            if (solution.isEmpty()) {
-                state = State.Dismissed;
-            }
-            else {
-                state = State.Open;
-            }
+            resetState();
         }
         public Subject getSubject() {
             return subject;
@@ -327,6 +335,18 @@ public class Solutions extends AbstractTableModel {
         void setInitialState(State state) {
             this.state = state;
         }
+        /**
+         * Reset the state to what it was when the issue was found, so it can be reported again from the 
+         * analysis cache.
+         */
+        void resetState() {
+            if (solution.isEmpty()) {
+                state = State.Dismissed;
+            }
+            else {
+                state = State.Open;
+            }
+        }
         public String getUri() {
             return uri;
         }
@@ -495,30 +515,109 @@ public class Solutions extends AbstractTableModel {
     private List<Issue> pendingIssues = null;
     private List<Issue> issues = new ArrayList<>();
 
+    /**
+     * Guards the dismissed and solved fingerprints, as these are checked by the parallel subject analyses.
+     */
+    private final Object fingerprintLock = new Object();
+
+    /**
+     * The issues found for a subject. The analysis is invalidated as soon as the subject, one of its child 
+     * property sheet holders, or one of the subjects of its issues fires a property change, or when the state 
+     * of one of its issues is changed.
+     */
+    private class AnalyzedSubject implements PropertyChangeListener {
+        final Subject subject;
+        final Milestone targetMilestone;
+        final Set<AbstractModelObject> watched = 
+                Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        List<Issue> issues;
+        volatile boolean invalid;
+
+        AnalyzedSubject(Subject subject, Milestone targetMilestone) {
+            this.subject = subject;
+            this.targetMilestone = targetMilestone;
+        }
+
+        void watch(Object object) {
+            if (object instanceof AbstractModelObject 
+                    && !(object instanceof Issue)
+                    && watched.add((AbstractModelObject) object)) {
+                ((AbstractModelObject) object).addPropertyChangeListener(this);
+            }
+            if (object instanceof PropertySheetHolder) {
+                PropertySheetHolder[] children = ((PropertySheetHolder) object).getChildPropertySheetHolders();
+                if (children != null) {
+                    for (PropertySheetHolder child : children) {
+                        if (!watched.contains(child)) {
+                            watch(child);
+                        }
+                    }
+                }
+            }
+        }
+
+        void unwatch() {
+            synchronized (watched) {
+                for (AbstractModelObject object : watched) {
+                    object.removePropertyChangeListener(this);
+                }
+            }
+        }
+
+        @Override
+        public void propertyChange(PropertyChangeEvent e) {
+            invalidate(this);
+        }
+    }
+
+    private final Map<Subject, AnalyzedSubject> analysisCache = new IdentityHashMap<>();
+    /**
+     * The issues list of the subject that is being analyzed on this thread.
+     */
+    private final ThreadLocal<List<Issue>> subjectIssues = new ThreadLocal<>();
+    /**
+     * Where {@link #findIssues(List)} defers the child subjects to on this thread, during a background search.
+     */
+    private final ThreadLocal<List<Subject>> deferredSubjects = new ThreadLocal<>();
+    /**
+     * Counts the background searches, so only the latest one is shown and published.
+     */
+    private final AtomicInteger backgroundSearch = new AtomicInteger();
+
+    private static ExecutorService analysisExecutor;
+
     public boolean isSolutionsIssueDismissed(Issue issue) {
-        return dismissedSolutions.contains(issue.getFingerprint());
+        synchronized (fingerprintLock) {
+            return dismissedSolutions.contains(issue.getFingerprint());
+        }
     }
     public void setSolutionsIssueDismissed(Issue issue, boolean dismissed) {
-        if (dismissed) {
-            solvedSolutions.remove(issue.getFingerprint());
-            dismissedSolutions.add(issue.getFingerprint()); 
-        }
-        else {
-            dismissedSolutions.remove(issue.getFingerprint());
+        synchronized (fingerprintLock) {
+            if (dismissed) {
+                solvedSolutions.remove(issue.getFingerprint());
+                dismissedSolutions.add(issue.getFingerprint()); 
+            }
+            else {
+                dismissedSolutions.remove(issue.getFingerprint());
+            }
         }
     }
 
     public boolean isSolutionsIssueSolved(Issue issue) {
-        return solvedSolutions.contains(issue.getFingerprint());
+        synchronized (fingerprintLock) {
+            return solvedSolutions.contains(issue.getFingerprint());
+        }
     }
 
     public void setSolutionsIssueSolved(Issue issue, boolean solved) {
-        if (solved) {
-            dismissedSolutions.remove(issue.getFingerprint());
-            solvedSolutions.add(issue.getFingerprint()); 
-        }
-        else {
-            solvedSolutions.remove(issue.getFingerprint());
+        synchronized (fingerprintLock) {
+            if (solved) {
+                dismissedSolutions.remove(issue.getFingerprint());
+                solvedSolutions.add(issue.getFingerprint()); 
+            }
+            else {
+                solvedSolutions.remove(issue.getFingerprint());
+            }
         }
     }
 
@@ -540,6 +639,13 @@ public class Solutions extends AbstractTableModel {
         pendingIssues = new ArrayList<>();
         Machine machine = getMachine();
         machine.findIssues(this);
+        completeIssues();
+    }
+
+    /**
+     * Add the milestone completion solution to the pending issues and remove those that are not shown.
+     */
+    private synchronized void completeIssues() {
         // Add the milestone completion solution.
         Milestone targetMilestone = getTargetMilestone();
         pendingIssues.add(new Solutions.Issue(
@@ -629,29 +735,272 @@ public class Solutions extends AbstractTableModel {
                 };
             }
         });
-        for (Issue issue : new ArrayList<>(pendingIssues)) {
-            if (isSolutionsIssueDismissed(issue)) {
-                if (isShowDismissed()) {
-                    issue.setInitialState(State.Dismissed);
+        pendingIssues.removeIf(issue -> !isShown(issue));
+    }
+
+    /**
+     * Determine whether the issue is shown, i.e. whether it is not dismissed or solved, unless these are to be 
+     * shown. Sets the initial state accordingly. 
+     * 
+     * @param issue
+     * @return
+     */
+    private boolean isShown(Issue issue) {
+        if (isSolutionsIssueDismissed(issue)) {
+            if (isShowDismissed()) {
+                issue.setInitialState(State.Dismissed);
+            }
+            else {
+                return false;
+            }
+        }
+        else if (isSolutionsIssueSolved(issue)) {
+            if (issue.isForcedUnsolved()) {
+                setSolutionsIssueSolved(issue, false);
+            }
+            else if (isShowSolved()) {
+                issue.setInitialState(State.Solved);
+            }
+            else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Perform the Issues & Solutions search on a background thread. The machine is analyzed first, then the 
+     * child subjects it passes to {@link #findIssues(List)} are analyzed in parallel. The table is cleared and 
+     * the issues of each subject are added to it on the Event Dispatch Thread, as soon as its analysis completes. 
+     * When the search is complete, all the issues are published and onCompletion is run. A new search supersedes 
+     * one that is still running.
+     * 
+     * The issues of a child subject are cached and reported again, until the subject's configuration changes,
+     * see {@link #invalidateAnalysis(Object)}. Use {@link #clearAnalysisCache()} for a fresh search. 
+     * 
+     * Must be called on the Event Dispatch Thread.
+     * 
+     * @param onCompletion
+     */
+    public void findIssuesInBackground(Runnable onCompletion) {
+        int search = backgroundSearch.incrementAndGet();
+        Milestone targetMilestone = getTargetMilestone();
+        issues = new ArrayList<>();
+        fireTableDataChanged();
+        Thread thread = new Thread(() -> {
+            try {
+                // The machine adds its own issues and defers its child subjects.
+                List<Issue> found = new ArrayList<>();
+                List<Subject> subjects = new ArrayList<>();
+                subjectIssues.set(found);
+                deferredSubjects.set(subjects);
+                try {
+                    getMachine().findIssues(this);
                 }
-                else {
-                    pendingIssues.remove(issue);
+                finally {
+                    deferredSubjects.remove();
+                    subjectIssues.remove();
                 }
+                showIssues(search, new ArrayList<>(found));
+                List<Future<List<Issue>>> analyses = new ArrayList<>();
+                for (Subject subject : subjects) {
+                    analyses.add(getAnalysisExecutor().submit(() -> {
+                        List<Issue> subjectFound = findSubjectIssues(subject, targetMilestone);
+                        showIssues(search, subjectFound);
+                        return subjectFound;
+                    }));
+                }
+                // Merge in the order of the subjects, regardless of the order in which the analyses complete.
+                for (Future<List<Issue>> analysis : analyses) {
+                    for (Issue issue : getAnalysis(analysis)) {
+                        add(found, issue);
+                    }
+                }
+                SwingUtilities.invokeLater(() -> {
+                    if (search == backgroundSearch.get()) {
+                        synchronized (this) {
+                            pendingIssues = found;
+                            completeIssues();
+                            publishIssues();
+                        }
+                        onCompletion.run();
+                    }
+                });
             }
-            else if (isSolutionsIssueSolved(issue)) {
-                if (issue.isForcedUnsolved()) {
-                    setSolutionsIssueSolved(issue, false);
+            catch (Exception e) {
+                SwingUtilities.invokeLater(() -> {
+                    MessageBoxes.errorBox(MainFrame.get(), "Issues & Solutions", e);
+                });
+            }
+        }, "Issues & Solutions");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Add the issues found by a background search to the table, on the Event Dispatch Thread.
+     * 
+     * @param search
+     * @param found
+     */
+    private void showIssues(int search, List<Issue> found) {
+        SwingUtilities.invokeLater(() -> {
+            if (search == backgroundSearch.get()) {
+                appendIssues(found);
+            }
+        });
+    }
+
+    private List<Issue> getAnalysis(Future<List<Issue>> analysis) throws Exception {
+        try {
+            return analysis.get();
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Find the issues of the given child subjects. This is called from inside {@link Subject#findIssues(Solutions)}, 
+     * typically by the machine. In a background search, the subjects are analyzed afterwards, in parallel, 
+     * otherwise they are analyzed right away.
+     * 
+     * @param subjects
+     */
+    public void findIssues(List<? extends Subject> subjects) {
+        List<Subject> deferred = deferredSubjects.get();
+        if (deferred != null) {
+            deferred.addAll(subjects);
+        }
+        else {
+            for (Subject subject : subjects) {
+                subject.findIssues(this);
+            }
+        }
+    }
+
+    private List<Issue> findSubjectIssues(Subject subject, Milestone targetMilestone) {
+        synchronized (analysisCache) {
+            AnalyzedSubject analyzed = analysisCache.get(subject);
+            if (analyzed != null && analyzed.targetMilestone == targetMilestone) {
+                return analyzed.issues;
+            }
+        }
+        // Watch before analyzing, so changes made during the analysis are not missed. 
+        AnalyzedSubject analyzed = new AnalyzedSubject(subject, targetMilestone);
+        analyzed.watch(subject);
+        List<Issue> found = new ArrayList<>();
+        subjectIssues.set(found);
+        try {
+            subject.findIssues(this);
+        }
+        catch (RuntimeException e) {
+            analyzed.unwatch();
+            throw e;
+        }
+        finally {
+            subjectIssues.remove();
+        }
+        for (Issue issue : found) {
+            analyzed.watch(issue.getSubject());
+        }
+        analyzed.issues = Collections.unmodifiableList(found);
+        synchronized (analysisCache) {
+            if (analyzed.invalid) {
+                analyzed.unwatch();
+            }
+            else {
+                AnalyzedSubject previous = analysisCache.put(subject, analyzed);
+                if (previous != null && previous != analyzed) {
+                    previous.unwatch();
                 }
-                else if (isShowSolved()) {
-                    issue.setInitialState(State.Solved);
+            }
+        }
+        return analyzed.issues;
+    }
+
+    private void invalidate(AnalyzedSubject analyzed) {
+        synchronized (analysisCache) {
+            analyzed.invalid = true;
+            analyzed.unwatch();
+            analysisCache.remove(analyzed.subject, analyzed);
+        }
+    }
+
+    /**
+     * Invalidate the cached analyses that depend on the given object, typically because its configuration was 
+     * changed without firing property changes.
+     * 
+     * @param object A subject, a child property sheet holder of a subject, or the subject of an issue.
+     */
+    public void invalidateAnalysis(Object object) {
+        synchronized (analysisCache) {
+            for (AnalyzedSubject analyzed : new ArrayList<>(analysisCache.values())) {
+                if (analyzed.subject == object || analyzed.watched.contains(object)) {
+                    invalidate(analyzed);
                 }
-                else {
-                    pendingIssues.remove(issue);
+            }
+        }
+    }
+
+    /**
+     * Invalidate the cached analysis that reported the given issue.
+     * 
+     * @param issue
+     */
+    private void invalidateAnalysis(Issue issue) {
+        synchronized (analysisCache) {
+            for (AnalyzedSubject analyzed : new ArrayList<>(analysisCache.values())) {
+                if (analyzed.issues.contains(issue)) {
+                    invalidate(analyzed);
                 }
             }
         }
     }
 
+    /**
+     * Invalidate the cached analyses that depend on the given objects, on the current machine's Issues & Solutions.  
+     * 
+     * @param objects
+     */
+    public static void invalidateAnalyses(Collection<?> objects) {
+        if (!Configuration.isInstanceInitialized() 
+                || !(Configuration.get().getMachine() instanceof ReferenceMachine)) {
+            return;
+        }
+        Solutions solutions = ((ReferenceMachine) Configuration.get().getMachine()).getSolutions();
+        for (Object object : objects) {
+            solutions.invalidateAnalysis(object);
+        }
+    }
+
+    /**
+     * Drop the cached subject issues, so the next search analyzes all subjects afresh.
+     */
+    public void clearAnalysisCache() {
+        synchronized (analysisCache) {
+            for (AnalyzedSubject analyzed : new ArrayList<>(analysisCache.values())) {
+                invalidate(analyzed);
+            }
+        }
+    }
+
+    private static synchronized ExecutorService getAnalysisExecutor() {
+        if (analysisExecutor == null) {
+            analysisExecutor = Executors.newFixedThreadPool(
+                    Math.max(2, Runtime.getRuntime().availableProcessors()), 
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "Issues & Solutions Analysis");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        return analysisExecutor;
+    }
+
     /**
      * Adds the issue to the list of pending issues that {@link #findIssues()} has opened.
      * This should only be called from inside {@link #Subject.findIssues(Solutions)}
@@ -659,16 +1008,26 @@ public class Solutions extends AbstractTableModel {
      * @param issue
      * @return true if the issue was already marked as solved.  
      */
-    public synchronized boolean add(Issue issue) {
+    public boolean add(Issue issue) {
+        List<Issue> found = subjectIssues.get();
+        if (found != null) {
+            return add(found, issue);
+        }
+        synchronized (this) {
+            return add(pendingIssues, issue);
+        }
+    }
+
+    private boolean add(List<Issue> found, Issue issue) {
         // Do not allow duplicates. These will sometimes be generated when multiple machine objects 
         // check the same issue that is relevant to them. 
         String fingerprint = issue.getFingerprint();
-        for (Issue duplicate : pendingIssues) {
+        for (Issue duplicate : found) {
             if (duplicate.getFingerprint().equals(fingerprint)) {
                 return true;
             }
         }
-        pendingIssues.add(issue);
+        found.add(issue);
         return isSolutionsIssueSolved(issue);
     }
 
@@ -679,16 +1038,7 @@ public class Solutions extends AbstractTableModel {
     public synchronized void publishIssues() {
         // Go through the issues and install listeners to update the dismissedTroubleshooting.
         for (Issue issue : pendingIssues) {
-            issue.addPropertyChangeListener("state", e -> {
-                if (e.getOldValue() == Solutions.State.Dismissed) {
-                    setSolutionsIssueDismissed(issue, false);
-                }
-                if (issue.getState() == Solutions.State.Dismissed) {
-                    setSolutionsIssueDismissed(issue, true);
-                }
-                int row = getIssues().indexOf(issue);
-                fireTableRowsUpdated(row, row);
-            });
+            installStateListener(issue);
         }
         // Sort by state (initially only Open and Dismissed possible) and place Fundamentals first.
         pendingIssues.sort(new Comparator<Issue>() {
@@ -712,6 +1062,54 @@ public class Solutions extends AbstractTableModel {
         //firePropertyChange("issues", oldValue, this.issues);
     }
 
+    /**
+     * Add the shown issues to the table while a background search is still running. 
+     * 
+     * @param found
+     */
+    private void appendIssues(List<Issue> found) {
+        List<Issue> issues = new ArrayList<>(this.issues);
+        int firstRow = issues.size();
+        for (Issue issue : found) {
+            // Issues from the analysis cache are reported again as new.
+            issue.resetState();
+            if (isShown(issue)) {
+                installStateListener(issue);
+                issues.add(issue);
+            }
+        }
+        this.issues = issues;
+        if (issues.size() > firstRow) {
+            fireTableRowsInserted(firstRow, issues.size() - 1);
+        }
+    }
+
+    /**
+     * Install the listener to update the dismissed fingerprints and to invalidate the cached analysis of the 
+     * issue's subject. Issues already shown during a background search, or reported again from the analysis cache, 
+     * have it.
+     * 
+     * @param issue
+     */
+    private void installStateListener(Issue issue) {
+        if (issue.stateListenerInstalled) {
+            return;
+        }
+        issue.stateListenerInstalled = true;
+        issue.addPropertyChangeListener("state", e -> {
+            if (e.getOldValue() == Solutions.State.Dismissed) {
+                setSolutionsIssueDismissed(issue, false);
+            }
+            if (issue.getState() == Solutions.State.Dismissed) {
+                setSolutionsIssueDismissed(issue, true);
+            }
+            // Solving or dismissing an issue may change what the subject reports.
+            invalidateAnalysis(issue);
+            int row = getIssues().indexOf(issue);
+            fireTableRowsUpdated(row, row);
+        });
+    }
+
     private String[] columnNames =
             new String[] {"Subject", "Severity", "Issue", "Solution", "State"};
     private Class[] columnTypes = new Class[] {Subject.class, Severity.class, String.class, String.class, State.class};
@@ -44,6 +44,14 @@ public interface Actuator
         return false;
     }
 
+    /**
+     * @return true if the actuator can be read outside of a machine task, i.e. concurrently with
+     * machine tasks, because neither the read nor any coordination it performs involves the machine. 
+     */
+    public default boolean isSafeOffMachineTask() {
+        return false;
+    }
+
     public enum ActuatorValueType {
         Double,
         Boolean,
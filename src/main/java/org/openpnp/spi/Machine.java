@@ -309,6 +309,51 @@ public interface Machine extends WizardConfigurable, PropertySheetHolder, Closea
         return execute(callable, true, DEFAULT_TASK_BUSY_TIMEOUT_MS);
     }
 
+    /**
+     * Priority of a concurrent task, see {@link #submitConcurrent(Callable, FutureCallback, TaskPriority)}.
+     */
+    public enum TaskPriority {
+        High,
+        Normal,
+        Low
+    }
+
+    /**
+     * Submit a task that does not move the machine, such as camera-only vision, script processing or
+     * reading a driverless actuator. Unlike with submit(), these tasks do not queue behind machine 
+     * tasks: they run concurrently with the machine task and with each other, with bounded 
+     * parallelism. Queued tasks are started by priority, then in the order they were submitted.
+     * 
+     * Concurrent tasks are not machine tasks, i.e. isTask() is false on their thread and they do not 
+     * make the machine busy. Anything that needs the machine, like motion or coordinated actuation, 
+     * must still go through execute(), which will then wait for the machine task. 
+     * 
+     * If a concurrent task throws an Exception, only this task fails, other tasks are not cancelled.
+     * 
+     * @param callable
+     * @param callback
+     * @param priority
+     * @return
+     */
+    public <T> Future<T> submitConcurrent(Callable<T> callable, FutureCallback<T> callback, 
+            TaskPriority priority);
+
+    public default <T> Future<T> submitConcurrent(Callable<T> callable) {
+        return submitConcurrent(callable, null, TaskPriority.Normal);
+    }
+
+    /**
+     * Execute a task that does not move the machine and wait for its completion. If called from 
+     * a machine task or a concurrent task, the task is executed immediately. 
+     * 
+     * @param <T>
+     * @param callable
+     * @param priority
+     * @return
+     * @throws Exception
+     */
+    public <T> T executeConcurrent(Callable<T> callable, TaskPriority priority) throws Exception;
+
     /**
      * Determines whether the given thread is a task thread currently executed by the machine. 
      * 
@@ -1,5 +1,8 @@
 package org.openpnp.spi;
 
+import java.util.Collections;
+import java.util.List;
+
 import org.openpnp.model.AbstractModelObject;
 import org.openpnp.model.BoardLocation;
 import org.openpnp.model.LengthUnit;
@@ -18,6 +21,9 @@ public interface PnpJobProcessor extends JobProcessor {
         private final Placement placement;
         private Status status = Status.Pending;
         private Exception error;
+        private long pickTime;
+        private long alignTime;
+        private long placeTime;
 
         public JobPlacement(BoardLocation boardLocation, Placement placement) {
             this.boardLocation = boardLocation;
@@ -57,6 +63,39 @@ public interface PnpJobProcessor extends JobProcessor {
             return error;
         }
 
+        /**
+         * @return The time spent picking this placement in nanoseconds, including retries.
+         */
+        public long getPickTime() {
+            return pickTime;
+        }
+
+        public void addPickTime(long t) {
+            pickTime += t;
+        }
+
+        /**
+         * @return The time spent aligning this placement in nanoseconds, including retries.
+         */
+        public long getAlignTime() {
+            return alignTime;
+        }
+
+        public void addAlignTime(long t) {
+            alignTime += t;
+        }
+
+        /**
+         * @return The time spent placing this placement in nanoseconds.
+         */
+        public long getPlaceTime() {
+            return placeTime;
+        }
+
+        public void addPlaceTime(long t) {
+            placeTime += t;
+        }
+
         public double getPartHeight() {
             return (placement.getPart() != null 
                     ? placement.getPart().getHeight().convertToUnits(LengthUnit.Millimeters).getValue()
@@ -74,4 +113,11 @@ public interface PnpJobProcessor extends JobProcessor {
             return placement.getId();
         }
     }
+
+    /**
+     * @return The placements of the job being processed, or an empty list if there is none.
+     */
+    default List<JobPlacement> getJobPlacements() {
+        return Collections.emptyList();
+    }
 }
@@ -1,5 +1,6 @@
 package org.openpnp.spi.base;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -9,10 +10,13 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -97,12 +101,44 @@ public abstract class AbstractMachine extends AbstractModelObject implements Mac
     @ElementList(required = false)
     protected IdentifiableList<NozzleTip> nozzleTips = new IdentifiableList<>();
 
+    @Attribute(required = false)
+    protected int concurrentTaskThreads = 2;
+
     protected Set<MachineListener> listeners = Collections.synchronizedSet(new HashSet<>());
 
     protected ThreadPoolExecutor executor;
 
     volatile protected Thread taskThread;
 
+    protected ThreadPoolExecutor concurrentExecutor;
+
+    private final AtomicLong concurrentTaskSequence = new AtomicLong();
+
+    private final ThreadLocal<Boolean> concurrentTask = ThreadLocal.withInitial(() -> false);
+
+    /**
+     * A concurrent task, ordered by priority, then by submission.
+     */
+    private static class ConcurrentTask<T> extends FutureTask<T> implements Comparable<ConcurrentTask<?>> {
+        private final TaskPriority priority;
+        private final long sequence;
+
+        ConcurrentTask(Callable<T> callable, TaskPriority priority, long sequence) {
+            super(callable);
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(ConcurrentTask<?> other) {
+            int c = priority.compareTo(other.priority);
+            if (c == 0) {
+                c = Long.compare(sequence, other.sequence);
+            }
+            return c;
+        }
+    }
+
     protected AbstractMachine() {}
 
     @SuppressWarnings("unused")
@@ -667,6 +703,117 @@ public abstract class AbstractMachine extends AbstractModelObject implements Mac
         }
     }
 
+    @Override
+    public <T> Future<T> submitConcurrent(final Callable<T> callable, final FutureCallback<T> callback,
+            final TaskPriority priority) {
+        synchronized (this) {
+            if (concurrentExecutor == null) {
+                int threads = Math.max(1, concurrentTaskThreads);
+                concurrentExecutor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.SECONDS,
+                        new PriorityBlockingQueue<>());
+                concurrentExecutor.allowCoreThreadTimeOut(true);
+            }
+        }
+
+        Callable<T> wrapper = new Callable<T>() {
+            public T call() throws Exception {
+                concurrentTask.set(true);
+                try {
+                    // Call the task, storing the result and exception if any
+                    T result = null;
+                    Exception exception = null;
+                    try {
+                        if (!isEnabled()) {
+                            throw new Exception("Machine has not been started.");
+                        }
+                        result = callable.call();
+                    }
+                    catch (Exception e) {
+                        exception = e;
+                    }
+
+                    // If a callback was supplied, call it with the results
+                    if (callback != null) {
+                        if (exception != null) {
+                            callback.onFailure(exception);
+                        }
+                        else {
+                            callback.onSuccess(result);
+                        }
+                    }
+
+                    // Unlike machine tasks, an error does not cancel the other tasks. 
+                    if (exception != null) {
+                        throw exception;
+                    }
+                    return result;
+                }
+                finally {
+                    concurrentTask.set(false);
+                }
+            }
+        };
+
+        ConcurrentTask<T> task = new ConcurrentTask<>(wrapper, 
+                priority == null ? TaskPriority.Normal : priority, 
+                concurrentTaskSequence.incrementAndGet());
+        concurrentExecutor.execute(task);
+        return task;
+    }
+
+    @Override
+    public <T> T executeConcurrent(final Callable<T> callable, final TaskPriority priority) 
+            throws Exception {
+        if (isTask(Thread.currentThread()) || concurrentTask.get()) {
+            // Already on a task, just execute this, waiting for the lane could deadlock. 
+            return callable.call();
+        }
+        try {
+            return submitConcurrent(callable, null, priority).get();
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception)e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Shut down the concurrent tasks, interrupting the running ones. Called when the machine is closed, 
+     * tasks submitted afterwards are rejected.
+     */
+    protected void shutdownConcurrentTasks() {
+        synchronized (this) {
+            if (concurrentExecutor != null) {
+                concurrentExecutor.shutdownNow();
+            }
+        }
+    }
+
+    public int getConcurrentTaskThreads() {
+        return concurrentTaskThreads;
+    }
+
+    public void setConcurrentTaskThreads(int concurrentTaskThreads) {
+        Object oldValue = this.concurrentTaskThreads;
+        this.concurrentTaskThreads = concurrentTaskThreads;
+        synchronized (this) {
+            if (concurrentExecutor != null && !concurrentExecutor.isShutdown()) {
+                int threads = Math.max(1, concurrentTaskThreads);
+                if (threads > concurrentExecutor.getMaximumPoolSize()) {
+                    concurrentExecutor.setMaximumPoolSize(threads);
+                    concurrentExecutor.setCorePoolSize(threads);
+                }
+                else {
+                    concurrentExecutor.setCorePoolSize(threads);
+                    concurrentExecutor.setMaximumPoolSize(threads);
+                }
+            }
+        }
+        firePropertyChange("concurrentTaskThreads", oldValue, concurrentTaskThreads);
+    }
+
     protected Thread getTaskThread() {
         return taskThread;
     }
@@ -761,31 +908,16 @@ public abstract class AbstractMachine extends AbstractModelObject implements Mac
 
     @Override
     public void findIssues(Solutions solutions) {
-        // MotionPlanner.
-        getMotionPlanner().findIssues(solutions);
-        // Recurse into axes.
-        for (Axis axis : getAxes()) {
-            axis.findIssues(solutions);
-        }
-        // Recurse into heads
-        for (Head head : getHeads()) {
-            head.findIssues(solutions);
-        }
-        // Recurse into machine cameras.  
-        for (Camera camera : getCameras()) {
-            camera.findIssues(solutions);
-        }
-        // Recurse into machine actuators.  
-        for (Actuator actuator : getActuators()) {
-            actuator.findIssues(solutions);
-        }
-        // Recurse into drivers.  
-        for (Driver driver : getDrivers()) {
-            driver.findIssues(solutions);
-        }
-        // Recurse into feeders.  
-        for (Feeder feeder : getFeeders()) {
-            feeder.findIssues(solutions);
-        }
+        // Recurse into the MotionPlanner, axes, heads, machine cameras, machine actuators, drivers and feeders.
+        // These are independent of each other, so they can be analyzed in parallel.
+        List<Solutions.Subject> subjects = new ArrayList<>();
+        subjects.add(getMotionPlanner());
+        subjects.addAll(getAxes());
+        subjects.addAll(getHeads());
+        subjects.addAll(getCameras());
+        subjects.addAll(getActuators());
+        subjects.addAll(getDrivers());
+        subjects.addAll(getFeeders());
+        solutions.findIssues(subjects);
     }
 }
@@ -560,7 +560,7 @@ public class GcodeServer extends Thread {
                     }
                     else if (m114Word.getNumberFraction() == 1) {
                         response.append("ok WCS:");
-                        double now = NanosecondTime.getRuntimeSeconds();
+                        double now = SimulationClock.getRuntimeSeconds();
                         Motion motion = getMomentaryMotion(now);
                         reportedLocation = motion.getMomentaryLocation(now - motion.getPlannedTime0());
                     }
@@ -598,8 +598,8 @@ public class GcodeServer extends Thread {
 
                 // Compute the wait or dwell time. Start with the motion plan completion time. 
                 long dwellMilliseconds = (motionPlan.isEmpty() ? 
-                        0 : (int)Math.max(0, (motionPlan.lastKey() - NanosecondTime.getRuntimeSeconds())*1000));
-                //Logger.debug("Motion ongoing for +"+dwellMilliseconds+" ms, lastKey = "+(motionPlan.isEmpty() ? 0 : motionPlan.lastKey())+", now="+NanosecondTime.getRuntimeSeconds());
+                        0 : (int)Math.max(0, (motionPlan.lastKey() - SimulationClock.getRuntimeSeconds())*1000));
+                //Logger.debug("Motion ongoing for +"+dwellMilliseconds+" ms, lastKey = "+(motionPlan.isEmpty() ? 0 : motionPlan.lastKey())+", now="+SimulationClock.getRuntimeSeconds());
                 boolean doDwell = false;
                 GcodeWord g4Word = getCodeWord(Gcode.G4, commandWords);
                 GcodeWord m400Word = getCodeWord(Gcode.M400, commandWords);
@@ -633,10 +633,10 @@ public class GcodeServer extends Thread {
                         dwellMilliseconds = maxDwellTimeMilliseconds;
                     }
                     Logger.trace("Waiting "+dwellMilliseconds+"ms");
-                    Thread.sleep(dwellMilliseconds);
+                    SimulationClock.sleep(dwellMilliseconds);
 
                     // Remove old stuff.
-                    double time = NanosecondTime.getRuntimeSeconds() - 30;
+                    double time = SimulationClock.getRuntimeSeconds() - 30;
                     while (motionPlan.isEmpty() == false && motionPlan.firstKey() < time) {
                         motionPlan.remove(motionPlan.firstKey());
                     }
@@ -713,7 +713,7 @@ public class GcodeServer extends Thread {
                             feedRate, acceleration, jerk,
                             (g0Word != null ? MotionOption.UncoordinatedMotion.flag() : 0));
                     synchronized (motionPlan) {
-                        double t = NanosecondTime.getRuntimeSeconds();
+                        double t = SimulationClock.getRuntimeSeconds();
                         if (motionPlan.isEmpty() == false && motionPlan.lastKey() > t) {
                             // Append to a plan that is still running. 
                             t = motionPlan.lastKey();
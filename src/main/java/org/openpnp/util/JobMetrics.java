@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2026 agent <agent@local>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+package org.openpnp.util;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.gson.GsonBuilder;
+
+/**
+ * Job execution metrics. Latencies are recorded into LatencyHistograms and events such as retries
+ * into counters, both by hierarchical keys in the form Scope/Name/Metric, e.g. 
+ * <ul>
+ * <li>Step/Pick</li>
+ * <li>Nozzle/N1/Pick</li>
+ * <li>Feeder/F1/Feed</li>
+ * <li>Part/R0603-1K/Align</li>
+ * <li>Camera/Top/Settle</li>
+ * </ul>
+ * 
+ * Metrics are only recorded while a job is running, i.e. between start() and stop(). Callers that 
+ * build their keys from names should check isRecording() first, so the keys are not concatenated 
+ * when nothing is recorded. 
+ */
+public class JobMetrics {
+    private static final JobMetrics instance = new JobMetrics();
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+    private volatile long startTimeNs;
+    private volatile long stopTimeNs;
+
+    public static JobMetrics get() {
+        return instance;
+    }
+
+    /**
+     * Reset the metrics and start recording.
+     */
+    public void start() {
+        reset();
+        startTimeNs = NanosecondTime.getRuntime();
+        stopTimeNs = 0;
+        recording = true;
+    }
+
+    /**
+     * Stop recording. The metrics remain available until the next start().
+     */
+    public void stop() {
+        if (recording) {
+            recording = false;
+            stopTimeNs = NanosecondTime.getRuntime();
+        }
+    }
+
+    public void reset() {
+        histograms.clear();
+        counters.clear();
+    }
+
+    public boolean isRecording() {
+        return recording;
+    }
+
+    /**
+     * @return The elapsed time of the job in nanoseconds, up to now, if still recording. 
+     */
+    public long getElapsedNs() {
+        if (startTimeNs == 0) {
+            return 0;
+        }
+        return (recording ? NanosecondTime.getRuntime() : stopTimeNs) - startTimeNs;
+    }
+
+    /**
+     * Record the time elapsed since t0.
+     * 
+     * @param key
+     * @param t0 The start time, as obtained from NanosecondTime.getRuntime().
+     */
+    public void recordSince(String key, long t0) {
+        if (recording) {
+            record(key, NanosecondTime.getRuntime() - t0);
+        }
+    }
+
+    /**
+     * Record a duration.
+     * 
+     * @param key
+     * @param durationNs
+     */
+    public void record(String key, long durationNs) {
+        if (recording) {
+            histograms.computeIfAbsent(key, (k) -> new LatencyHistogram()).record(durationNs);
+        }
+    }
+
+    /**
+     * Count an event, e.g. a retry.
+     * 
+     * @param key
+     */
+    public void count(String key) {
+        if (recording) {
+            counters.computeIfAbsent(key, (k) -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    /**
+     * @return The histograms, sorted by key.
+     */
+    public Map<String, LatencyHistogram> getHistograms() {
+        return new TreeMap<>(histograms);
+    }
+
+    /**
+     * @return The counters, sorted by key.
+     */
+    public Map<String, Long> getCounters() {
+        Map<String, Long> map = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> entry : counters.entrySet()) {
+            map.put(entry.getKey(), entry.getValue().get());
+        }
+        return map;
+    }
+
+    /**
+     * Export the metrics as CSV, one line per histogram or counter, times in milliseconds.
+     * 
+     * @param file
+     * @throws IOException
+     */
+    public void exportCsv(File file) throws IOException {
+        try (PrintWriter out = new PrintWriter(new FileWriter(file))) {
+            out.println("Key,Count,Total,Min,Mean,P50,P90,P99,Max");
+            for (Map.Entry<String, LatencyHistogram> entry : getHistograms().entrySet()) {
+                LatencyHistogram h = entry.getValue();
+                out.println(String.format(Locale.US, "%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f", 
+                        csvQuote(entry.getKey()), h.getCount(), 
+                        1e-6*h.getTotal(), 1e-6*h.getMin(), 1e-6*h.getMean(),
+                        1e-6*h.getValueAtPercentile(50), 1e-6*h.getValueAtPercentile(90), 
+                        1e-6*h.getValueAtPercentile(99), 1e-6*h.getMax()));
+            }
+            for (Map.Entry<String, Long> entry : getCounters().entrySet()) {
+                out.println(String.format(Locale.US, "%s,%d,,,,,,,", 
+                        csvQuote(entry.getKey()), entry.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Export the metrics as JSON, times in milliseconds.
+     * 
+     * @param file
+     * @throws IOException
+     */
+    public void exportJson(File file) throws IOException {
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("elapsed", 1e-6*getElapsedNs());
+        Map<String, Object> latencies = new LinkedHashMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : getHistograms().entrySet()) {
+            LatencyHistogram h = entry.getValue();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("count", h.getCount());
+            values.put("total", 1e-6*h.getTotal());
+            values.put("min", 1e-6*h.getMin());
+            values.put("mean", 1e-6*h.getMean());
+            values.put("p50", 1e-6*h.getValueAtPercentile(50));
+            values.put("p90", 1e-6*h.getValueAtPercentile(90));
+            values.put("p99", 1e-6*h.getValueAtPercentile(99));
+            values.put("max", 1e-6*h.getMax());
+            latencies.put(entry.getKey(), values);
+        }
+        root.put("latencies", latencies);
+        root.put("counters", getCounters());
+        try (Writer out = new FileWriter(file)) {
+            new GsonBuilder()
+            .setPrettyPrinting()
+            .create()
+            .toJson(root, out);
+        }
+    }
+
+    private static String csvQuote(String s) {
+        if (s.contains(",") || s.contains("\"")) {
+            return "\"" + s.replace("\"", "\"\"") + "\"";
+        }
+        return s;
+    }
+}
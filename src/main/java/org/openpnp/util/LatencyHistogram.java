@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2026 agent <agent@local>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+package org.openpnp.util;
+
+import java.util.Arrays;
+
+/**
+ * A latency histogram with log-linear buckets, in the spirit of an HDR histogram. Values are 
+ * recorded in nanoseconds with a relative precision of about 3%, from 1ns up to over an hour, in a
+ * fixed amount of memory. Recording is cheap and does not allocate.
+ */
+public class LatencyHistogram {
+    /**
+     * Number of bits of sub-bucket resolution. 
+     */
+    private static final int SUB_BITS = 6;
+    private static final int HALF_SUB_COUNT = 1 << (SUB_BITS - 1);
+    /**
+     * Values are clamped to 2^42ns, i.e. ~73 minutes. 
+     */
+    private static final int MAX_MAGNITUDE = 42;
+    private static final long MAX_VALUE = (1L << (MAX_MAGNITUDE + 1)) - 1;
+
+    private final long[] counts = new long[bucketIndex(MAX_VALUE) + 1];
+    private long count;
+    private long total;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    static int bucketIndex(long value) {
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        if (magnitude < SUB_BITS) {
+            return (int) value;
+        }
+        int shift = magnitude - SUB_BITS + 1;
+        return shift*HALF_SUB_COUNT + (int) (value >> shift);
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < 2*HALF_SUB_COUNT) {
+            return index;
+        }
+        int shift = index/HALF_SUB_COUNT - 1;
+        long subBucket = index - shift*HALF_SUB_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Record a value.
+     * 
+     * @param valueNs Value in nanoseconds. Negative values are recorded as zero.
+     */
+    public synchronized void record(long valueNs) {
+        long value = Math.min(MAX_VALUE, Math.max(0, valueNs));
+        counts[bucketIndex(value)]++;
+        count++;
+        total += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    public synchronized long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public synchronized long getMax() {
+        return max;
+    }
+
+    public synchronized double getMean() {
+        return count == 0 ? 0 : (double)total/count;
+    }
+
+    /**
+     * @param percentile Percentile in the range 0 ... 100.
+     * @return The value at the percentile, i.e. the upper bound of the bucket where it is found, 
+     * within the recorded min and max. 
+     */
+    public synchronized long getValueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile))/100*count));
+        long sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            sum += counts[i];
+            if (sum >= rank) {
+                return Math.max(min, Math.min(max, bucketUpperBound(i)));
+            }
+        }
+        return max;
+    }
+
+    public synchronized void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        total = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+}
@@ -234,6 +234,17 @@ public class SimpleGraph {
         return 1e-6*dt;
     }
 
+    /**
+     * @param nanoTime A System.nanoTime() based time, e.g. from NanosecondTime.getRuntime(). 
+     * @return The time in Milliseconds relative to the first getT() call on this instance.
+     */
+    public double getT(long nanoTime) {
+        if (zeroNanoTime == Long.MIN_VALUE) {
+            getT();
+        }
+        return 1e-6*(nanoTime - zeroNanoTime);
+    }
+
     public double getRelativePaddingLeft() {
         return relativePaddingLeft;
     }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2026 agent <agent@local>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.util;
+
+/**
+ * The clock of the simulated machine, shared by the motion planner's timed motion plan, the GcodeServer, the 
+ * NullDriver and the simulated cameras, i.e. by everything that predicts or simulates where the machine is at 
+ * a given time.
+ * 
+ * Unless accelerated, it is the same as {@link NanosecondTime#getRuntime()}. With a speed factor, simulated 
+ * time runs faster than real time, and simulated waits ({@link #sleep(long)}) are shortened accordingly. With 
+ * skip idle, simulated waits do not take any real time at all, the clock just jumps ahead. 
+ * 
+ * Only the simulation may accelerate the clock. Real machines must keep it at real time, as the motion plan 
+ * timing has to match the physical machine. 
+ */
+public class SimulationClock {
+    private static double speedFactor = 1.0;
+    private static boolean skipIdle = false;
+    /**
+     * Real and simulated time when the speed factor was last changed.
+     */
+    private static long realBaseNs = NanosecondTime.getRuntime();
+    private static long simulatedBaseNs = realBaseNs;
+    private static long simulatedLastNs = Long.MIN_VALUE;
+
+    /**
+     * Set the speed of the simulation clock. The clock remains continuous. 
+     * 
+     * @param speedFactor How many times faster than real time the simulation runs.
+     * @param skipIdle If true, simulated waits skip ahead without taking real time. 
+     */
+    public static synchronized void setSpeed(double speedFactor, boolean skipIdle) {
+        if (!(speedFactor > 0)) {
+            throw new IllegalArgumentException("Speed factor must be positive.");
+        }
+        long now = NanosecondTime.getRuntime();
+        simulatedBaseNs = getRuntime(now);
+        realBaseNs = now;
+        SimulationClock.speedFactor = speedFactor;
+        SimulationClock.skipIdle = skipIdle;
+    }
+
+    public static synchronized double getSpeedFactor() {
+        return speedFactor;
+    }
+
+    public static synchronized boolean isSkipIdle() {
+        return skipIdle;
+    }
+
+    /**
+     * @return True if the clock runs at real time.
+     */
+    public static synchronized boolean isRealTime() {
+        return speedFactor == 1.0 && !skipIdle;
+    }
+
+    /**
+     * @return The simulated time in nanoseconds, unique and monotonically increasing. 
+     */
+    public static synchronized long getRuntime() {
+        return getRuntime(NanosecondTime.getRuntime());
+    }
+
+    private static long getRuntime(long realNs) {
+        long simulatedNs = simulatedBaseNs + (long) ((realNs - realBaseNs)*speedFactor);
+        if (simulatedNs <= simulatedLastNs) {
+            simulatedNs = ++simulatedLastNs;
+        }
+        else {
+            simulatedLastNs = simulatedNs;
+        }
+        return simulatedNs;
+    }
+
+    public static double getRuntimeSeconds() {
+        return (double) getRuntime()*1e-9;
+    }
+
+    /**
+     * Wait for the given simulated time. Use this instead of Thread.sleep() wherever the wait simulates 
+     * machine time, such as motion or dwell times. 
+     * 
+     * With skip idle, the clock advances to the wake-up target, i.e. to the simulated time of the call plus the 
+     * given time. Concurrent waits, such as a camera settling while the machine moves, therefore advance the 
+     * clock to the latest of their wake-up targets, rather than by the sum of their times.  
+     * 
+     * @param milliseconds
+     * @throws InterruptedException
+     */
+    public static void sleep(long milliseconds) throws InterruptedException {
+        if (milliseconds <= 0) {
+            return;
+        }
+        long startNs = getRuntime();
+        long realNs;
+        synchronized (SimulationClock.class) {
+            if (skipIdle) {
+                // Jump ahead.
+                advanceTo(startNs + milliseconds*1000000);
+                return;
+            }
+            realNs = (long) (milliseconds*1e6/speedFactor);
+        }
+        Thread.sleep(realNs/1000000, (int) (realNs%1000000));
+    }
+
+    /**
+     * Advance the clock to the given simulated time, unless it is already past it.
+     * 
+     * @param simulatedNs
+     */
+    static synchronized void advanceTo(long simulatedNs) {
+        long nowNs = getRuntime(NanosecondTime.getRuntime());
+        if (simulatedNs > nowNs) {
+            simulatedBaseNs += simulatedNs - nowNs;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (C) 2026 agent <agent@local>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A text template with variables in the format {Name:Format}, as used in G-code commands,
+ * compiled once into literal segments and variable slots. The format of each slot is pre-parsed,
+ * so the common %s, %d and %.Nf formats are rendered without going through String.format.
+ *
+ * The result is the same as substituting each variable with TextUtils.substituteVar(). Variables
+ * that are not set in a Substitution are left in the text as they were.
+ */
+public class TextTemplate {
+    static final Pattern conversionPattern = Pattern.compile("%([-#+ 0,(<]*)(\\d+)?(?:\\.(\\d+))?([a-zA-Z%])");
+
+    enum FormatKind {
+        /**
+         * The format has no conversion, i.e. it is printed as is.
+         */
+        Literal,
+        Text,
+        Decimal,
+        Fixed,
+        /**
+         * Anything else goes through String.format().
+         */
+        Generic
+    }
+
+    static class Slot {
+        final String variable;
+        final int index;
+        final String text;
+        final String format;
+        final FormatKind kind;
+        final String prefix;
+        final String suffix;
+        final int precision;
+
+        Slot(String variable, int index, String format, String text) {
+            this.variable = variable;
+            this.index = index;
+            this.text = text;
+            this.format = (format == null ? "%s" : format);
+            Matcher matcher = conversionPattern.matcher(this.format);
+            FormatKind kind = FormatKind.Generic;
+            String prefix = "";
+            String suffix = "";
+            int precision = 0;
+            if (!matcher.find()) {
+                kind = FormatKind.Literal;
+                prefix = this.format;
+            }
+            else {
+                int start = matcher.start();
+                int end = matcher.end();
+                String flags = matcher.group(1);
+                String width = matcher.group(2);
+                String decimals = matcher.group(3);
+                char conversion = matcher.group(4).charAt(0);
+                if (!matcher.find() && flags.isEmpty() && width == null) {
+                    prefix = this.format.substring(0, start);
+                    suffix = this.format.substring(end);
+                    if (conversion == 's' && decimals == null) {
+                        kind = FormatKind.Text;
+                    }
+                    else if (conversion == 'd' && decimals == null) {
+                        kind = FormatKind.Decimal;
+                    }
+                    else if (conversion == 'f') {
+                        kind = FormatKind.Fixed;
+                        precision = (decimals == null ? 6 : Integer.parseInt(decimals));
+                    }
+                }
+            }
+            this.kind = kind;
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.precision = precision;
+        }
+
+        void render(StringBuilder sb, Object value) {
+            if (value == null) {
+                return;
+            }
+            switch (kind) {
+                case Literal:
+                    sb.append(prefix);
+                    return;
+                case Text:
+                    if (value instanceof CharSequence || value instanceof Number || value instanceof Boolean) {
+                        sb.append(prefix).append(value).append(suffix);
+                        return;
+                    }
+                    break;
+                case Decimal:
+                    if (value instanceof Integer || value instanceof Long
+                            || value instanceof Short || value instanceof Byte) {
+                        sb.append(prefix).append(((Number) value).longValue()).append(suffix);
+                        return;
+                    }
+                    break;
+                case Fixed:
+                    if (value instanceof Double) {
+                        double v = (Double) value;
+                        if (!Double.isNaN(v) && !Double.isInfinite(v)) {
+                            BigDecimal decimal = BigDecimal.valueOf(v).setScale(precision, RoundingMode.HALF_UP);
+                            sb.append(prefix);
+                            if (decimal.signum() == 0 && Double.doubleToRawLongBits(v) < 0) {
+                                // Like String.format(), keep the sign of negative values rounded to zero.
+                                sb.append('-');
+                            }
+                            sb.append(decimal.toPlainString()).append(suffix);
+                            return;
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+            sb.append(String.format((Locale) null, format, value));
+        }
+    }
+
+    private static final int maxRenderBufferCapacity = 4096;
+    private static final ThreadLocal<StringBuilder> renderBuffer = 
+            ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final String template;
+    /**
+     * Alternating literal segments and slots.
+     */
+    private final Object[] segments;
+    private final Map<String, Integer> variableIndex = new HashMap<>();
+    private final String[] variables;
+
+    public TextTemplate(String template) {
+        this.template = template;
+        List<Object> segments = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        Matcher matcher = TextUtils.variablePattern.matcher(template);
+        int pos = 0;
+        while (matcher.find()) {
+            if (matcher.start() > pos) {
+                segments.add(template.substring(pos, matcher.start()));
+            }
+            String variable = matcher.group(1);
+            if (!variableIndex.containsKey(variable)) {
+                variableIndex.put(variable, variables.size());
+                variables.add(variable);
+            }
+            segments.add(new Slot(variable, variableIndex.get(variable), matcher.group(2), matcher.group()));
+            pos = matcher.end();
+        }
+        if (pos < template.length()) {
+            segments.add(template.substring(pos));
+        }
+        this.segments = segments.toArray();
+        this.variables = variables.toArray(new String[variables.size()]);
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    /**
+     * @param name
+     * @return true if the template has the variable.
+     */
+    public boolean hasVariable(String name) {
+        return variableIndex.containsKey(name);
+    }
+
+    /**
+     * @return A new Substitution to set variable values and render the text.
+     */
+    public Substitution substitution() {
+        return new Substitution();
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+
+    public class Substitution {
+        private final Object[] values = new Object[variables.length];
+        private final boolean[] set = new boolean[variables.length];
+
+        /**
+         * Set a variable value. A null value replaces the variable with "". Unknown variables are
+         * ignored.
+         *
+         * @param name
+         * @param value
+         * @return this
+         */
+        public Substitution set(String name, Object value) {
+            Integer index = variableIndex.get(name);
+            if (index != null) {
+                values[index] = value;
+                set[index] = true;
+            }
+            return this;
+        }
+
+        public boolean hasVariable(String name) {
+            return TextTemplate.this.hasVariable(name);
+        }
+
+        /**
+         * Render the text into the given StringBuilder, in one pass.
+         *
+         * @param sb
+         * @return sb
+         */
+        public StringBuilder render(StringBuilder sb) {
+            for (Object segment : segments) {
+                if (segment instanceof Slot) {
+                    Slot slot = (Slot) segment;
+                    if (set[slot.index]) {
+                        slot.render(sb, values[slot.index]);
+                    }
+                    else {
+                        sb.append(slot.text);
+                    }
+                }
+                else {
+                    sb.append((String) segment);
+                }
+            }
+            return sb;
+        }
+
+        /**
+         * Render the text. The StringBuilder is reused per thread, only the resulting String is 
+         * allocated.
+         *
+         * @return The text.
+         */
+        public String render() {
+            StringBuilder sb = renderBuffer.get();
+            if (sb.length() > 0) {
+                // Re-entered, e.g. from a value's toString().
+                return render(new StringBuilder(template.length() + 16)).toString();
+            }
+            try {
+                return render(sb).toString();
+            }
+            finally {
+                if (sb.capacity() > maxRenderBufferCapacity) {
+                    // Do not hold on to a huge buffer.
+                    renderBuffer.remove();
+                }
+                else {
+                    sb.setLength(0);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return render();
+        }
+    }
+}
@@ -13,6 +13,7 @@ import org.openpnp.gui.support.MessageBoxes;
 import org.openpnp.model.Configuration;
 import org.openpnp.model.Location;
 import org.openpnp.spi.HeadMountable;
+import org.openpnp.spi.Machine.TaskPriority;
 import org.openpnp.spi.MotionPlanner.CompletionType;
 import org.pmw.tinylog.Logger;
 
@@ -120,6 +121,57 @@ public class UiUtils {
         }, ignoreEnabled);
     }
 
+    /**
+     * Functional version of Machine.submitConcurrent for tasks that do not move the machine. 
+     * Guarantees that the onSuccess and onFailure handlers will be run on the Swing event thread.
+     * 
+     * @param callable
+     * @param onSuccess
+     * @param onFailure
+     * @return
+     */
+    public static <T> Future<T> submitUiConcurrentTask(final Callable<T> callable,
+            final Consumer<T> onSuccess, final Consumer<Throwable> onFailure) {
+        return Configuration.get().getMachine().submitConcurrent(callable, new FutureCallback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                try {
+                    SwingUtilities.invokeLater(() -> onSuccess.accept(result));
+                }
+                catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                try {
+                    SwingUtilities.invokeLater(() -> onFailure.accept(t));
+                }
+                catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }, TaskPriority.High);
+    }
+
+    /**
+     * Shortcut for submitUiConcurrentTask(Callable, Consumer, Consumer) which shows a MessageBox 
+     * when an Exception is thrown.
+     * 
+     * @param thrunnable
+     * @return
+     */
+    public static Future<Void> submitUiConcurrentTask(final Thrunnable thrunnable) {
+        return submitUiConcurrentTask(() -> {
+            thrunnable.thrun();
+            return null;
+        }, (result) -> {
+        }, (t) -> {
+            showError(t);
+        });
+    }
+
     /**
      * Functional wrapper for actions that may throw an Exception. Presents an error box to the user
      * with the Exception contents if one is thrown. Basically saves like 5 lines of boilerplate in
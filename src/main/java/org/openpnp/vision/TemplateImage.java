@@ -20,11 +20,11 @@
 package org.openpnp.vision;
 
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -41,6 +41,8 @@ import org.simpleframework.xml.core.Persist;
  * and persisted even if it is referenced many times by different OpenPnP objects. Also provides
  * transparent XML serialization, so a TempateImage can simply be added as an @Element.
  * 
+ * The image is only decoded on first use, and then held in the shared TemplateImageCache, so large
+ * configurations load quickly and in bounded memory. 
  */
 public class TemplateImage {
     //TODO: perhaps support serialization inside the XML (base64 encoded).
@@ -48,26 +50,16 @@ public class TemplateImage {
 
     private static class ImageSlot {
         final private String hash;
-        final private BufferedImage image;
-        final private byte[] filedata;
-        private boolean dirty;
+        // Only kept until persisted. 
+        private byte[] filedata;
 
-        public ImageSlot(String hash, BufferedImage image, byte[] filedata, boolean dirty) {
+        public ImageSlot(String hash, byte[] filedata) {
             this.hash = hash;
-            this.image = image;
             this.filedata = filedata;
-            this.dirty = dirty;
         }
 
-        public ImageSlot(String hash) throws IOException {
-            File file = getFile(hash);
-            byte[] filedata = Files.readAllBytes(file.toPath());
-            ByteArrayInputStream stream = new ByteArrayInputStream(filedata);
-            BufferedImage image = ImageIO.read(stream);
-            this.hash = hash;
-            this.image = image;
-            this.filedata = filedata;
-            this.dirty = false;
+        public ImageSlot(String hash) {
+            this(hash, null);
         }
 
         protected File getFile(String hash) throws IOException {
@@ -76,15 +68,22 @@ public class TemplateImage {
                                         hash + "." + FILE_ENCODING_TYPE);
         }
 
-        public BufferedImage getImage() {
-            return image;
+        public synchronized byte[] getFiledata() throws IOException {
+            if (filedata != null) {
+                return filedata;
+            }
+            return Files.readAllBytes(getFile(hash).toPath());
+        }
+
+        public BufferedImage getImage() throws IOException {
+            return TemplateImageCache.getImage(hash, this::getFiledata);
         }
 
-        public void persist() throws IOException {
-            if (dirty) {
+        public synchronized void persist() throws IOException {
+            if (filedata != null) {
                 File file = getFile(hash);
                 Files.write(file.toPath(), filedata);
-                dirty = false;
+                filedata = null;
             }
         }
     }
@@ -101,33 +100,45 @@ public class TemplateImage {
         ImageIO.write(image, FILE_ENCODING_TYPE, outputStream);
         byte[] filedata = outputStream.toByteArray();
         hash = DigestUtils.shaHex(filedata);
-        if (!imageRegister.containsKey(hash)) {
-            // We re-read the file from the compressed filedata. 
-            // This way we also get rid of subImage -> OpenCv Mat incompatibility. 
-            ByteArrayInputStream stream = new ByteArrayInputStream(filedata);
-            image = ImageIO.read(stream);
-            imageRegister.put(hash, new ImageSlot(hash, image, filedata, true));
+        synchronized (imageRegister) {
+            if (!imageRegister.containsKey(hash)) {
+                // The image is later decoded from the compressed filedata. 
+                // This way we also get rid of subImage -> OpenCv Mat incompatibility. 
+                imageRegister.put(hash, new ImageSlot(hash, filedata));
+            }
         }
     }
 
     @Commit
-    private void commit() throws IOException {
-        if (!imageRegister.containsKey(hash)) {
-            imageRegister.put(hash, new ImageSlot(hash));
+    private void commit() {
+        synchronized (imageRegister) {
+            if (!imageRegister.containsKey(hash)) {
+                imageRegister.put(hash, new ImageSlot(hash));
+            }
         }
     }
 
     @Persist
     private void persist() throws IOException {
-        imageRegister.get(hash)
-                     .persist();
+        getSlot().persist();
+    }
+
+    private ImageSlot getSlot() {
+        synchronized (imageRegister) {
+            return imageRegister.get(hash);
+        }
     }
 
     public BufferedImage getImage() throws Exception {
-        ImageSlot slot = imageRegister.get(hash);
+        ImageSlot slot = getSlot();
         if (slot == null) {
             throw new Exception("Template Image is missing");
         }
-        return slot.getImage();
+        try {
+            return slot.getImage();
+        }
+        catch (NoSuchFileException e) {
+            throw new Exception("Template Image file "+e.getFile()+" is missing");
+        }
     }
 }
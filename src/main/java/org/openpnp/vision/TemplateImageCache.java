@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2026 agent <agent@local>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.vision;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.openpnp.model.Configuration;
+import org.pmw.tinylog.Logger;
+
+/**
+ * Shared cache of decoded template images, keyed by the content hash of the encoded image file, so
+ * identical images referenced by many parts, nozzle tips or pipelines are only held once. Images are
+ * decoded lazily on first use, as a BufferedImage or as an OpenCV Mat, whichever form is requested.
+ * The least recently used images are evicted once the cache exceeds its memory budget.
+ *
+ * BufferedImages are handed out shared. A Mat is handed out as a copy, because a pipeline takes
+ * ownership of its stage results, i.e. it modifies them in place and releases them. For the Mat, the
+ * cache therefore only saves reading and decoding the file, not the memory of the copies.
+ */
+public class TemplateImageCache {
+    public interface Loader {
+        /**
+         * @return The encoded image file data.
+         * @throws IOException
+         */
+        byte[] load() throws IOException;
+    }
+
+    private static class Entry {
+        private BufferedImage image;
+        private Mat mat;
+
+        long getBytes() {
+            long bytes = 0;
+            if (image != null) {
+                DataBuffer buffer = image.getRaster().getDataBuffer();
+                bytes += (long) buffer.getSize()*buffer.getNumBanks()
+                        *DataBuffer.getDataTypeSize(buffer.getDataType())/8;
+            }
+            if (mat != null) {
+                bytes += mat.total()*mat.elemSize();
+            }
+            return bytes;
+        }
+
+        void release() {
+            image = null;
+            if (mat != null) {
+                mat.release();
+                mat = null;
+            }
+        }
+    }
+
+    private static class FileKey {
+        private final long lastModified;
+        private final long length;
+        private final String hash;
+
+        FileKey(long lastModified, long length, String hash) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.hash = hash;
+        }
+    }
+
+    private static final int DEFAULT_MEGABYTES = 64;
+
+    // Access ordered, i.e. the least recently used entry comes first.
+    private static final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private static final Map<String, FileKey> files = new HashMap<>();
+    private static long bytes;
+    private static Long memoryBudget;
+
+    /**
+     * Get the decoded image with the given content hash.
+     *
+     * @param hash The content hash of the encoded image file data.
+     * @param loader Loads the encoded file data if the image is not in the cache.
+     * @return The image. It is shared and must not be modified.
+     * @throws IOException
+     */
+    public static BufferedImage getImage(String hash, Loader loader) throws IOException {
+        synchronized (TemplateImageCache.class) {
+            Entry entry = entries.get(hash);
+            if (entry != null && entry.image != null) {
+                return entry.image;
+            }
+        }
+        // Decode outside the lock, pipelines may run in parallel.
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(loader.load()));
+        if (image == null) {
+            throw new IOException("Cannot decode template image "+hash);
+        }
+        synchronized (TemplateImageCache.class) {
+            Entry entry = entries.computeIfAbsent(hash, k -> new Entry());
+            if (entry.image == null) {
+                bytes -= entry.getBytes();
+                entry.image = image;
+                bytes += entry.getBytes();
+                evict(entry);
+            }
+            return entry.image;
+        }
+    }
+
+    /**
+     * Get the decoded image file as an OpenCV Mat in BGR color, like Imgcodecs.imread(). The file is
+     * only read again if its modification time or length changed.
+     *
+     * @param file
+     * @return A copy of the cached Mat that the caller owns and must release, or null if the file
+     * does not exist or cannot be decoded.
+     * @throws IOException
+     */
+    public static Mat getMat(File file) throws IOException {
+        String path = file.getAbsolutePath();
+        long lastModified = file.lastModified();
+        long length = file.length();
+        if (lastModified == 0L) {
+            return null;
+        }
+        synchronized (TemplateImageCache.class) {
+            FileKey key = files.get(path);
+            if (key != null && key.lastModified == lastModified && key.length == length) {
+                Entry entry = entries.get(key.hash);
+                if (entry != null && entry.mat != null) {
+                    return entry.mat.clone();
+                }
+            }
+        }
+        byte[] filedata = Files.readAllBytes(file.toPath());
+        String hash = DigestUtils.shaHex(filedata);
+        synchronized (TemplateImageCache.class) {
+            files.put(path, new FileKey(lastModified, length, hash));
+            Entry entry = entries.get(hash);
+            if (entry != null && entry.mat != null) {
+                // Same content as another file.
+                return entry.mat.clone();
+            }
+        }
+        MatOfByte buffer = new MatOfByte(filedata);
+        Mat mat = Imgcodecs.imdecode(buffer, Imgcodecs.IMREAD_COLOR);
+        buffer.release();
+        if (mat.empty()) {
+            mat.release();
+            return null;
+        }
+        synchronized (TemplateImageCache.class) {
+            Entry entry = entries.computeIfAbsent(hash, k -> new Entry());
+            if (entry.mat == null) {
+                bytes -= entry.getBytes();
+                entry.mat = mat;
+                bytes += entry.getBytes();
+                evict(entry);
+            }
+            else {
+                mat.release();
+            }
+            return entry.mat.clone();
+        }
+    }
+
+    private static void evict(Entry keep) {
+        long budget = getMemoryBudget();
+        for (Iterator<Entry> iterator = entries.values().iterator(); bytes > budget && iterator.hasNext(); ) {
+            Entry entry = iterator.next();
+            if (entry != keep) {
+                bytes -= entry.getBytes();
+                entry.release();
+                iterator.remove();
+            }
+        }
+        if (bytes > budget) {
+            Logger.trace("Template image cache exceeds its budget with a single image of {} bytes.", bytes);
+        }
+    }
+
+    /**
+     * @return The memory budget in bytes, as set, or as configured in the preferences.
+     */
+    public static synchronized long getMemoryBudget() {
+        if (memoryBudget != null) {
+            return memoryBudget;
+        }
+        if (Configuration.isInstanceInitialized()) {
+            return Configuration.get().getTemplateImageCacheMegabytes()*1024L*1024L;
+        }
+        return DEFAULT_MEGABYTES*1024L*1024L;
+    }
+
+    /**
+     * Override the configured memory budget.
+     *
+     * @param memoryBudget The budget in bytes, or null to use the configured budget.
+     */
+    public static synchronized void setMemoryBudget(Long memoryBudget) {
+        TemplateImageCache.memoryBudget = memoryBudget;
+        evict(null);
+    }
+
+    /**
+     * @return The memory used by the cached images in bytes.
+     */
+    public static synchronized long getBytes() {
+        return bytes;
+    }
+
+    public static synchronized int size() {
+        return entries.size();
+    }
+
+    public static synchronized void clear() {
+        for (Entry entry : entries.values()) {
+            entry.release();
+        }
+        entries.clear();
+        files.clear();
+        bytes = 0;
+    }
+}
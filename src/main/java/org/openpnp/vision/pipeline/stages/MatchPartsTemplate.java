@@ -19,23 +19,23 @@
 
 package org.openpnp.vision.pipeline.stages;
 
-import java.awt.Point;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.opencv.core.Core;
 import org.opencv.core.Core.MinMaxLocResult;
+import org.opencv.core.CvType;
 import org.opencv.core.Mat;
 import org.opencv.core.Rect;
 import org.opencv.core.RotatedRect;
 import org.opencv.core.Size;
 import org.opencv.imgproc.Imgproc;
-import org.openpnp.util.OpenCvUtils;
 import org.openpnp.vision.pipeline.CvPipeline;
 import org.openpnp.vision.pipeline.CvStage;
-import org.openpnp.vision.pipeline.CvStage.Result.TemplateMatch;
 import org.openpnp.vision.pipeline.Property;
 import org.openpnp.vision.pipeline.Stage;
 import org.pmw.tinylog.Logger;
@@ -85,6 +85,23 @@ public class MatchPartsTemplate extends CvStage {
             description = "If maximum value is below this value, then no matches will be reported. Default is 0.85.")
     private double threshold = 0.85;
 
+    @Attribute(required = false)
+    @Property(description = "Angle step in degrees of the precomputed bank of rotated templates.")
+    private double angleStep = 1.0;
+
+    @Attribute(required = false)
+    @Property(description = "Number of image pyramid levels to find the match coarsely, before refining it at full resolution. 0 to disable.")
+    private int pyramidLevels = 1;
+
+    @Attribute(required = false)
+    @Property(description = "Match the model rectangles in parallel.")
+    private boolean parallel = true;
+
+    /**
+     * The template bank of the last processed template.
+     */
+    private TemplateBank templateBank;
+
     public String getTemplateStageName() {
         return templateStageName;
     }
@@ -109,6 +126,30 @@ public class MatchPartsTemplate extends CvStage {
         this.threshold = threshold;
     }
 
+    public double getAngleStep() {
+        return angleStep;
+    }
+
+    public void setAngleStep(double angleStep) {
+        this.angleStep = angleStep;
+    }
+
+    public int getPyramidLevels() {
+        return pyramidLevels;
+    }
+
+    public void setPyramidLevels(int pyramidLevels) {
+        this.pyramidLevels = pyramidLevels;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
     @Override
     public Result process(CvPipeline pipeline) throws Exception {
 
@@ -144,12 +185,12 @@ public class MatchPartsTemplate extends CvStage {
         }
         
         Result result  = new Result(pipeline.getWorkingImage(), new ArrayList<RotatedRect>());
-
+        TemplateBank bank = getTemplateBank(template);
 
         if (model instanceof RotatedRect) {
             Mat originalImage = pipeline.getWorkingImage()
                     .clone();
-            RotatedRect res = handleSingleRectangle(originalImage, template, ((RotatedRect) model).clone());
+            RotatedRect res = handleSingleRectangle(originalImage, bank, ((RotatedRect) model).clone());
             originalImage.release();
             if (res != null) {
                 ((List<RotatedRect>) result.model).add(res);
@@ -157,14 +198,20 @@ public class MatchPartsTemplate extends CvStage {
         } else if (model instanceof List<?> ) {
             Mat originalImage = pipeline.getWorkingImage()
                     .clone();
-            for (Object rect: ((List<?>) model)) {
-                if (rect instanceof RotatedRect) {
-                    RotatedRect res = handleSingleRectangle(originalImage, template, (RotatedRect)rect);
-                    if (res != null) {
-                        ((List<RotatedRect>) result.model).add(res);
-                    }
-                }
+            List<RotatedRect> rects = ((List<?>) model).stream()
+                    .filter(rect -> rect instanceof RotatedRect)
+                    .map(rect -> (RotatedRect) rect)
+                    .collect(Collectors.toList());
+            IntStream indices = IntStream.range(0, rects.size());
+            if (parallel) {
+                indices = indices.parallel();
             }
+            // Collecting the ordered stream keeps the order of the model.
+            List<RotatedRect> matched = indices
+                    .mapToObj(i -> handleSingleRectangle(originalImage, bank, rects.get(i)))
+                    .filter(res -> res != null)
+                    .collect(Collectors.toList());
+            ((List<RotatedRect>) result.model).addAll(matched);
             originalImage.release();
         }
         else {
@@ -181,24 +228,44 @@ public class MatchPartsTemplate extends CvStage {
         return result;
     }
 
-    private RotatedRect handleSingleRectangle(Mat originalImage, Result template,
-            RotatedRect rrect) {
-        Mat timage = template.image.clone();
-        
-        if (log) {
-            Logger.info("part found = " + rrect);
-        }
-        
+    /**
+     * Get the template bank for the template, reusing the last one if the template is unchanged.
+     */
+    private synchronized TemplateBank getTemplateBank(Result template) {
         // we need a RotatedRect model for the template
         RotatedRect trect = null;
         if (template.model == null) {
             // no model in template so, make one up
-            trect = new RotatedRect(new org.opencv.core.Point(((int) timage.size().width) / 2,
-                    ((int) timage.size().height) / 2), timage.size(), 0.0);
+            trect = new RotatedRect(new org.opencv.core.Point(((int) template.image.size().width) / 2,
+                    ((int) template.image.size().height) / 2), template.image.size(), 0.0);
         }
         else {
             trect = ((RotatedRect) template.model).clone();
         }
+        int hash = TemplateBank.hash(template.image, trect);
+        if (templateBank == null 
+                || hash == 0 
+                || templateBank.hash != hash
+                || templateBank.angleStep != angleStep
+                || templateBank.pyramidLevels != pyramidLevels) {
+            if (templateBank != null) {
+                templateBank.release();
+            }
+            templateBank = new TemplateBank(template.image, trect, angleStep, pyramidLevels, hash);
+            if (log) {
+                Logger.info("template bank created for " + templateBank.templates.length() + " rotations");
+            }
+        }
+        return templateBank;
+    }
+
+    private RotatedRect handleSingleRectangle(Mat originalImage, TemplateBank bank,
+            RotatedRect rrect) {
+        if (log) {
+            Logger.info("part found = " + rrect);
+        }
+        
+        RotatedRect trect = bank.trect;
 
         boolean isTemplateOrientationPortrait = (trect.size.width / trect.size.height) > 1.0;
         
@@ -236,9 +303,8 @@ public class MatchPartsTemplate extends CvStage {
             Logger.info("part angle = " + rrect.angle);
         }
 
-        // first rotation
-        // rotate the template to be the same as rrect
-        timage = rotateRect(timage, trect, -rrect.angle);
+        // coarse image for the first matching pass
+        Mat coarseImage = bank.pyramidLevels > 0 ? TemplateBank.pyramid(image, bank.pyramidLevels) : null;
 
         // variables to keep score and winning rotation
         double maxscore = 0;
@@ -248,37 +314,12 @@ public class MatchPartsTemplate extends CvStage {
 
         // match template 4 times, each differing by 90deg
         for (int i = 1; i <= 4; i++) {
-            // first rotation already done
-            if (i > 1) {
-                // fast rotate/flip the template 90deg
-                Core.flip(timage.t(), timage, 1);
-                // reset rect center to the center of the image
-                trect.center.x = timage.size().width / 2.0;
-                trect.center.y = timage.size().height / 2.0;
-                trect.angle -= angleAdv;
-                /*
-                 * file = new File("tests/template"+i+".png");
-                 * Highgui.imwrite(file.getAbsolutePath(), timage); drawRotatedRect(timage, trect,
-                 * new Scalar(255,255,255));
-                 */
-            }
-            List<TemplateMatch> matches = matchTemplate(image, timage);
-            double rotScore = 0;
-            // get the best of local matches
-            for (int j = 0; j < matches.size(); j++) {
-                TemplateMatch match = matches.get(j);
-                double x = match.x;
-                double y = match.y;
-                double score = match.score;
-                double width = match.width;
-                double height = match.height;
-                if (score > maxscore) {
-                    maxscore = score;
-                    winrot = i;
-                }
-                if (score > rotScore) {
-                    rotScore = score;
-                }
+            // take the template rotated to be the same as rrect, plus the 90deg steps
+            TemplateBank.Entry entry = bank.get(-rrect.angle - (i - 1) * angleAdv);
+            double rotScore = matchScore(image, coarseImage, entry, bank.pyramidLevels);
+            if (rotScore >= threshold && rotScore > maxscore) {
+                maxscore = rotScore;
+                winrot = i;
             }
             if (log) {
                 Logger.info("rotation" + i + " score = " + rotScore);
@@ -286,7 +327,9 @@ public class MatchPartsTemplate extends CvStage {
         }
         
         // release not used Mat
-        timage.release();
+        if (coarseImage != null) {
+            coarseImage.release();
+        }
         image.release();
         
         // correct original model's angle to the orientation detected
@@ -308,40 +351,171 @@ public class MatchPartsTemplate extends CvStage {
         return orect;
     }
 
-    List<TemplateMatch>  matchTemplate(Mat mat, Mat template) {
-        
-        Mat result = new Mat();
-        
-        Imgproc.matchTemplate(mat, template, result, Imgproc.TM_CCOEFF_NORMED);
-
-        MinMaxLocResult mmr = Core.minMaxLoc(result);
-        double maxVal = mmr.maxVal;
-
-        double rangeMax = maxVal;
-
-        // Since matchTemplate type is fixed to TM_CCOEFF_NORMED, corr is not actually needed
-        // Using just threshold is enought
-        List<TemplateMatch> matches = new ArrayList<>();
-        for (Point point : OpenCvUtils.matMaxima(result, threshold, rangeMax)) {
-            int x = point.x;
-            int y = point.y;
-            TemplateMatch match =
-                    new TemplateMatch(x, y, template.cols(), template.rows(), result.get(y, x)[0]);
-            matches.add(match);
+    /**
+     * Get the best match score of a template in the image. If a coarse image and template are
+     * given, the match is first found in these, then only the neighborhood is matched at full
+     * resolution.
+     */
+    static double matchScore(Mat image, Mat coarseImage, TemplateBank.Entry entry, int pyramidLevels) {
+        Mat template = entry.template;
+        int tw = template.cols();
+        int th = template.rows();
+        if (tw > image.cols() || th > image.rows()) {
+            // the template does not fit
+            return 0;
         }
-        
-        // release
+        Mat searchImage = image;
+        if (coarseImage != null && entry.coarse != null 
+                && entry.coarse.cols() <= coarseImage.cols() && entry.coarse.rows() <= coarseImage.rows()) {
+            Mat coarseResult = new Mat();
+            Imgproc.matchTemplate(coarseImage, entry.coarse, coarseResult, Imgproc.TM_CCOEFF_NORMED);
+            MinMaxLocResult coarseMatch = Core.minMaxLoc(coarseResult);
+            coarseResult.release();
+            int scale = 1 << pyramidLevels;
+            int x = (int) coarseMatch.maxLoc.x * scale;
+            int y = (int) coarseMatch.maxLoc.y * scale;
+            int x0 = Math.max(0, x - scale);
+            int y0 = Math.max(0, y - scale);
+            int x1 = Math.min(image.cols() - tw, x + scale);
+            int y1 = Math.min(image.rows() - th, y + scale);
+            if (x1 >= x0 && y1 >= y0) {
+                searchImage = image.submat(y0, y1 + th, x0, x1 + tw);
+            }
+        }
+        Mat result = new Mat();
+        Imgproc.matchTemplate(searchImage, template, result, Imgproc.TM_CCOEFF_NORMED);
+        double score = Core.minMaxLoc(result).maxVal;
         result.release();
+        if (searchImage != image) {
+            searchImage.release();
+        }
+        return score;
+    }
 
-        Collections.sort(matches, new Comparator<TemplateMatch>() {
-            @Override
-            public int compare(TemplateMatch o1, TemplateMatch o2) {
-                return ((Double) o2.score).compareTo(o1.score);
+    /**
+     * A bank of templates, rotated in angle steps over the full circle, with optional downscaled
+     * versions for coarse matching. Each rotation is built when it is first needed and then kept for
+     * the template, so the templates need not be rotated for every model rectangle, and only the
+     * rotations the models actually have are ever built.
+     */
+    static class TemplateBank {
+        static class Entry {
+            final Mat template;
+            final Mat coarse;
+
+            Entry(Mat template, Mat coarse) {
+                this.template = template;
+                this.coarse = coarse;
             }
-        });
 
+            void release() {
+                template.release();
+                if (coarse != null) {
+                    coarse.release();
+                }
+            }
+        }
 
-        return matches;
+        final RotatedRect trect;
+        final double angleStep;
+        final int pyramidLevels;
+        final int hash;
+        final Mat template;
+        final AtomicReferenceArray<Entry> templates;
+
+        TemplateBank(Mat template, RotatedRect trect, double angleStep, int pyramidLevels, int hash) {
+            this.template = template.clone();
+            this.trect = trect;
+            this.angleStep = angleStep;
+            this.pyramidLevels = pyramidLevels;
+            this.hash = hash;
+            int n = (int) Math.max(4, Math.round(360.0 / Math.max(0.1, angleStep)));
+            templates = new AtomicReferenceArray<>(n);
+        }
+
+        /**
+         * @param degrees
+         * @return The template rotated by the nearest angle step.
+         */
+        Entry get(double degrees) {
+            int n = templates.length();
+            int i = (int) Math.round(degrees * n / 360.0) % n;
+            if (i < 0) {
+                i += n;
+            }
+            Entry entry = templates.get(i);
+            if (entry == null) {
+                Entry created = createEntry(i * 360.0 / n);
+                if (templates.compareAndSet(i, null, created)) {
+                    entry = created;
+                }
+                else {
+                    // another model rectangle built it concurrently, use that one
+                    created.release();
+                    entry = templates.get(i);
+                }
+            }
+            return entry;
+        }
+
+        private Entry createEntry(double degrees) {
+            Mat rotated = rotateRect(template.clone(), trect.clone(), degrees);
+            Mat coarse = null;
+            if (pyramidLevels > 0 
+                    && Math.min(rotated.cols(), rotated.rows()) >> pyramidLevels >= 8) {
+                // only worth it, if the coarse template still has some detail
+                coarse = pyramid(rotated, pyramidLevels);
+            }
+            return new Entry(rotated, coarse);
+        }
+
+        /**
+         * @return The number of rotations built so far.
+         */
+        int getBuiltCount() {
+            int count = 0;
+            for (int i = 0; i < templates.length(); i++) {
+                if (templates.get(i) != null) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        void release() {
+            for (int i = 0; i < templates.length(); i++) {
+                Entry entry = templates.getAndSet(i, null);
+                if (entry != null) {
+                    entry.release();
+                }
+            }
+            template.release();
+        }
+
+        static Mat pyramid(Mat mat, int levels) {
+            Mat result = mat.clone();
+            for (int i = 0; i < levels; i++) {
+                Imgproc.pyrDown(result, result);
+            }
+            return result;
+        }
+
+        /**
+         * @return A hash of the template image and model, or 0 if the image cannot be hashed.
+         */
+        static int hash(Mat template, RotatedRect trect) {
+            if (template.depth() != CvType.CV_8U || !template.isContinuous()) {
+                return 0;
+            }
+            byte[] data = new byte[(int) (template.total() * template.channels())];
+            template.get(0, 0, data);
+            int hash = Arrays.hashCode(data);
+            hash = 31 * hash + template.cols();
+            hash = 31 * hash + template.rows();
+            hash = 31 * hash + template.type();
+            hash = 31 * hash + trect.toString().hashCode();
+            return hash == 0 ? 1 : hash;
+        }
     }
 
     static Mat rotateRect(Mat mat, RotatedRect rect, double degrees) {
@@ -27,7 +27,6 @@ import org.opencv.core.Point;
 import org.opencv.core.RotatedRect;
 import org.opencv.core.Scalar;
 import org.opencv.core.Size;
-import org.opencv.imgcodecs.Imgcodecs;
 import org.openpnp.model.Configuration;
 import org.openpnp.model.Footprint;
 import org.openpnp.model.Location;
@@ -35,6 +34,7 @@ import org.openpnp.model.Part;
 import org.openpnp.spi.Camera;
 import org.openpnp.spi.Feeder;
 import org.openpnp.vision.FluentCv.ColorSpace;
+import org.openpnp.vision.TemplateImageCache;
 import org.openpnp.vision.pipeline.CvPipeline;
 import org.openpnp.vision.pipeline.CvStage;
 import org.openpnp.vision.pipeline.Property;
@@ -235,8 +235,12 @@ public class ReadPartTemplateImage extends CvStage {
                 }
             }
         }
-        // Read template image from disk
-        Mat templateImage = Imgcodecs.imread(file.getAbsolutePath());
+        // Read template image from disk, decoded only once across pipelines and parts. The copy
+        // is owned by the pipeline.
+        Mat templateImage = TemplateImageCache.getMat(file);
+        if (templateImage == null) {
+            return null;
+        }
 
         if (templateImage.channels() == 1) {
             colorSpace = ColorSpace.Gray;
@@ -1,5 +1,8 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 
 import org.junit.jupiter.api.AfterEach;
@@ -83,6 +86,24 @@ public class GcodeDriverTest {
         machine.home();
     }
 
+    /**
+     * The commands must still load from and save to the inline command elements of the 
+     * machine.xml.
+     */
+    @Test
+    public void testCommandsSerialization() throws Exception {
+        GcodeDriver driver = new GcodeDriver();
+        driver.createDefaults();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Configuration.createSerializer().write(driver, out);
+        String xml = out.toString("UTF-8");
+        assertTrue(xml.contains("<command type=\"HOME_COMMAND\">"), xml);
+        GcodeDriver read = Configuration.createSerializer()
+                .read(GcodeDriver.class, new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(driver.commands.size(), read.commands.size());
+        assertEquals("G28 ; Home all axes", read.getCommand(null, CommandType.HOME_COMMAND));
+    }
+
     @Test
     public void testActuatorRead() throws Exception {
         Machine machine = Configuration.get().getMachine();
@@ -2,6 +2,13 @@ import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,6 +24,11 @@ import static org.junit.jupiter.api.Assertions.*;
 
 
 public class HttpActuatorTest {
+    static {
+        // The test server writes the response headers and body separately, without TCP_NODELAY 
+        // the body waits for the delayed ACK of the client, i.e. for ~40ms. 
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
 	
 	@BeforeEach
 	public void before() throws Exception {
@@ -59,6 +71,243 @@ public class HttpActuatorTest {
         assertEquals(result, Double.valueOf( 42.0));
        
     }
+    @Test
+    public void testAsynchronousActuation() throws Exception {
+        // Record the requests in the order they arrive, answer slowly.
+        List<String> requests = Collections.synchronizedList(new ArrayList<>());
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", (t) -> {
+            requests.add(t.getRequestURI().getPath());
+            try {
+                Thread.sleep(50);
+            }
+            catch (InterruptedException e) {
+            }
+            String response = "read:7";
+            t.sendResponseHeaders(200, response.length());
+            OutputStream os = t.getResponseBody();
+            os.write(response.getBytes());
+            os.close();
+        });
+        server.start();
+        try {
+            String base = "http://127.0.0.1:"+server.getAddress().getPort();
+            HttpActuator actuator = new HttpActuator();
+            actuator.setOnUrl(base+"/on");
+            actuator.setOffUrl(base+"/off");
+            actuator.setReadUrl(base+"/msr");
+            actuator.setRegex("read:(?<Value>-?\\d+)");
+            actuator.setAsynchronous(true);
+
+            Configuration.get().getMachine().setEnabled(true);
+            String result = Configuration.get().getMachine().execute(() -> {
+                long t0 = System.nanoTime();
+                actuator.actuate(true);
+                actuator.actuate(false);
+                actuator.actuate(true);
+                long elapsedMs = (System.nanoTime() - t0)/1000000;
+                assertTrue(elapsedMs < 150, "Asynchronous actuations took "+elapsedMs+"ms.");
+                // The read must wait for the pending actuations.
+                return actuator.read();
+            }, false, 0);
+
+            assertEquals("7", result);
+            assertEquals(Arrays.asList("/on", "/off", "/on", "/msr"), requests);
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testAsynchronousCoordinatedActuation() throws Exception {
+        List<String> responses = Collections.synchronizedList(new ArrayList<>());
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", (t) -> {
+            try {
+                Thread.sleep(50);
+            }
+            catch (InterruptedException e) {
+            }
+            responses.add(t.getRequestURI().getPath());
+            String response = "ok";
+            t.sendResponseHeaders(200, response.length());
+            OutputStream os = t.getResponseBody();
+            os.write(response.getBytes());
+            os.close();
+        });
+        server.start();
+        try {
+            String base = "http://127.0.0.1:"+server.getAddress().getPort();
+            HttpActuator actuator = new HttpActuator();
+            actuator.setOnUrl(base+"/on");
+            actuator.setOffUrl(base+"/off");
+            actuator.setAsynchronous(true);
+            actuator.setCoordinatedAfterActuate(true);
+
+            Configuration.get().getMachine().setEnabled(true);
+            // The machine must not continue before the actuation is done.
+            List<String> completed = Configuration.get().getMachine().execute(() -> {
+                actuator.actuate(true);
+                return new ArrayList<>(responses);
+            }, false, 0);
+            assertEquals(Arrays.asList("/on"), completed);
+            completed = Configuration.get().getMachine().execute(() -> {
+                actuator.actuate(false);
+                return new ArrayList<>(responses);
+            }, false, 0);
+            assertEquals(Arrays.asList("/on", "/off"), completed);
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Start a server on a free port that answers "ok" after the given device time, or the given 
+     * error code for URLs ending in /fail. The remote addresses of the requests are recorded, 
+     * each connection has its own client port.
+     */
+    private static HttpServer startServer(long deviceMilliseconds, int failCode, Set<String> connections, 
+            AtomicInteger requestCount) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", (t) -> {
+            connections.add(t.getRemoteAddress().toString());
+            try {
+                Thread.sleep(deviceMilliseconds);
+            }
+            catch (InterruptedException e) {
+            }
+            // Count before responding, the client may go on as soon as it has the response.
+            requestCount.incrementAndGet();
+            String response = "ok";
+            t.sendResponseHeaders(t.getRequestURI().getPath().endsWith("/fail") ? failCode : 200, 
+                    response.length());
+            OutputStream os = t.getResponseBody();
+            os.write(response.getBytes());
+            os.close();
+        });
+        server.start();
+        return server;
+    }
+
+    @Test
+    public void testConnectionReuse() throws Exception {
+        Set<String> connections = Collections.synchronizedSet(new HashSet<>());
+        AtomicInteger requestCount = new AtomicInteger();
+        HttpServer server = startServer(0, 500, connections, requestCount);
+        try {
+            String base = "http://127.0.0.1:"+server.getAddress().getPort();
+            HttpActuator actuator = new HttpActuator();
+            actuator.setOnUrl(base+"/on");
+            actuator.setOffUrl(base+"/off");
+            actuator.setReadUrl(base+"/msr");
+            actuator.setRegex("(?<Value>.*)");
+
+            Configuration.get().getMachine().setEnabled(true);
+            Configuration.get().getMachine().execute(() -> {
+                for (int i = 0; i < 20; i++) {
+                    actuator.actuate(i % 2 == 0);
+                    actuator.read();
+                }
+                return null;
+            }, false, 0);
+            assertEquals(40, requestCount.get());
+            // Keep-alive, all the requests went over the same connection.
+            assertEquals(1, connections.size(), "Connections: "+connections);
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testAsynchronousError() throws Exception {
+        Set<String> connections = Collections.synchronizedSet(new HashSet<>());
+        AtomicInteger requestCount = new AtomicInteger();
+        HttpServer server = startServer(0, 500, connections, requestCount);
+        try {
+            String base = "http://127.0.0.1:"+server.getAddress().getPort();
+            HttpActuator actuator = new HttpActuator();
+            actuator.setOnUrl(base+"/fail");
+            actuator.setOffUrl(base+"/off");
+            actuator.setAsynchronous(true);
+
+            Configuration.get().getMachine().setEnabled(true);
+            Configuration.get().getMachine().execute(() -> {
+                // Returns before the error is known.
+                actuator.actuate(true);
+                while (requestCount.get() < 1) {
+                    Thread.sleep(5);
+                }
+                Thread.sleep(100);
+                // The error surfaces on the next actuation, before anything else is done.
+                assertThrows(IOException.class, () -> actuator.actuate(true));
+                // It is reported once, then the actuator works again.
+                actuator.actuate(false);
+                actuator.waitForPendingActuations();
+                return null;
+            }, false, 0);
+            assertEquals(2, requestCount.get());
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testActuationBenchmark() throws Exception {
+        final int deviceMilliseconds = 2;
+        final int n = 100;
+        Set<String> connections = Collections.synchronizedSet(new HashSet<>());
+        AtomicInteger requestCount = new AtomicInteger();
+        HttpServer server = startServer(deviceMilliseconds, 500, connections, requestCount);
+        try {
+            String base = "http://127.0.0.1:"+server.getAddress().getPort();
+            HttpActuator actuator = new HttpActuator();
+            actuator.setOnUrl(base+"/on");
+            actuator.setOffUrl(base+"/off");
+
+            Configuration.get().getMachine().setEnabled(true);
+            // Warm up.
+            Configuration.get().getMachine().execute(() -> {
+                actuator.actuate(true);
+                actuator.actuate(false);
+                return null;
+            }, false, 0);
+            double synchronousMs = Configuration.get().getMachine().execute(() -> {
+                long t0 = System.nanoTime();
+                for (int i = 0; i < n; i++) {
+                    actuator.actuate(i % 2 == 0);
+                }
+                return (System.nanoTime() - t0)*1e-6/n;
+            }, false, 0);
+            actuator.setAsynchronous(true);
+            double[] asynchronousMs = Configuration.get().getMachine().execute(() -> {
+                long t0 = System.nanoTime();
+                for (int i = 0; i < n; i++) {
+                    actuator.actuate(i % 2 == 0);
+                }
+                long t1 = System.nanoTime();
+                actuator.waitForPendingActuations();
+                long t2 = System.nanoTime();
+                return new double[] { (t1 - t0)*1e-6/n, (t2 - t0)*1e-6/n };
+            }, false, 0);
+            System.out.println(String.format("HttpActuator with %dms device time: synchronous %.2fms, "
+                    + "asynchronous %.3fms (%.2fms until delivered) per actuation over %d connection(s).", 
+                    deviceMilliseconds, synchronousMs, asynchronousMs[0], asynchronousMs[1], 
+                    connections.size()));
+            assertEquals(2 + 2*n, requestCount.get());
+            // Near the device time, i.e. no connection setup per actuation.
+            assertTrue(synchronousMs < deviceMilliseconds + 20, "Synchronous actuation took "+synchronousMs+"ms.");
+            // The machine does not wait for the device.
+            assertTrue(asynchronousMs[0] < deviceMilliseconds, "Asynchronous actuation took "+asynchronousMs[0]+"ms.");
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
     static class TestHttpServer   {
         TestHttpServer() {
             HttpServer server;
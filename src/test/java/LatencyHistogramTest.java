@@ -0,0 +1,58 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.openpnp.util.LatencyHistogram;
+
+public class LatencyHistogramTest {
+    @Test
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMin());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+    }
+
+    /**
+     * Compare the percentiles of random log-normal latencies against the exact percentiles of the 
+     * sorted values. 
+     */
+    @Test
+    public void testPercentiles() {
+        Random random = new Random(1);
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = new long[100000];
+        long total = 0;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(14 + 2*random.nextGaussian());
+            histogram.record(values[i]);
+            total += values[i];
+        }
+        Arrays.sort(values);
+        assertEquals(values.length, histogram.getCount());
+        assertEquals(total, histogram.getTotal());
+        assertEquals(values[0], histogram.getMin());
+        assertEquals(values[values.length - 1], histogram.getMax());
+        for (double percentile : new double[] { 1, 10, 50, 90, 99, 99.9 }) {
+            long exact = values[(int) Math.ceil(percentile/100*values.length) - 1];
+            long value = histogram.getValueAtPercentile(percentile);
+            assertTrue(value >= exact && value <= exact*1.04, 
+                    "P"+percentile+" "+value+" vs. exact "+exact);
+        }
+        assertEquals(values[values.length - 1], histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 64; i++) {
+            histogram.record(i);
+        }
+        assertEquals(31, histogram.getValueAtPercentile(50));
+        assertEquals(0, histogram.getValueAtPercentile(0));
+    }
+}
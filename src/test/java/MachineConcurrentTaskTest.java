@@ -0,0 +1,98 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openpnp.model.Configuration;
+import org.openpnp.spi.Machine;
+import org.openpnp.spi.Machine.TaskPriority;
+import org.openpnp.spi.base.AbstractMachine;
+
+import com.google.common.io.Files;
+
+public class MachineConcurrentTaskTest {
+    Machine machine;
+
+    @BeforeEach
+    public void before() throws Exception {
+        File workingDirectory = Files.createTempDir();
+        workingDirectory = new File(workingDirectory, ".openpnp");
+        System.out.println("Configuration directory: " + workingDirectory);
+        Configuration.initialize(workingDirectory);
+        Configuration.get().load();
+        machine = Configuration.get().getMachine();
+        machine.setEnabled(true);
+    }
+
+    @AfterEach
+    public void after() throws Exception {
+        machine.setEnabled(false);
+    }
+
+    @Test
+    public void testConcurrentWithMachineTask() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Object> machineTask = machine.submit(() -> {
+            release.await(10, TimeUnit.SECONDS);
+            return null;
+        });
+        // The concurrent task must not queue behind the blocked machine task.
+        Future<Boolean> concurrentTask = machine.submitConcurrent(() -> {
+            return machine.isTask(Thread.currentThread());
+        });
+        assertFalse(concurrentTask.get(5, TimeUnit.SECONDS));
+        assertTrue(machine.isBusy());
+        release.countDown();
+        machineTask.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testPriorityAndErrors() throws Exception {
+        ((AbstractMachine) machine).setConcurrentTaskThreads(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        machine.submitConcurrent(() -> {
+            release.await(10, TimeUnit.SECONDS);
+            return null;
+        });
+        Future<Object> failing = machine.submitConcurrent(() -> {
+            order.add("failing");
+            throw new Exception("Failed");
+        }, null, TaskPriority.Normal);
+        Future<Boolean> low = machine.submitConcurrent(() -> order.add("low"), null, TaskPriority.Low);
+        Future<Boolean> high = machine.submitConcurrent(() -> order.add("high"), null, TaskPriority.High);
+        release.countDown();
+        high.get(5, TimeUnit.SECONDS);
+        // An error does not cancel the other tasks.
+        low.get(5, TimeUnit.SECONDS);
+        assertTrue(failing.isDone());
+        assertEquals("[high, failing, low]", order.toString());
+    }
+
+    @Test
+    public void testCloseShutsDownConcurrentTasks() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        Future<Boolean> running = machine.submitConcurrent(() -> {
+            started.countDown();
+            return new CountDownLatch(1).await(10, TimeUnit.SECONDS);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        machine.close();
+        // The running task is interrupted, new ones are rejected.
+        assertThrows(ExecutionException.class, () -> running.get(5, TimeUnit.SECONDS));
+        assertThrows(RejectedExecutionException.class, () -> machine.submitConcurrent(() -> null));
+    }
+}
@@ -0,0 +1,176 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openpnp.machine.neoden4.NeoDen4Driver;
+import org.openpnp.machine.neoden4.NeoDen4Server;
+import org.openpnp.machine.neoden4.NeoDen4SimulatedCommunications;
+import org.openpnp.machine.reference.axis.ReferenceControllerAxis;
+import org.openpnp.machine.reference.driver.ReferenceDriverCommunications;
+import org.openpnp.model.AxesLocation;
+import org.openpnp.model.Configuration;
+import org.openpnp.spi.Actuator;
+import org.openpnp.spi.Axis;
+import org.openpnp.spi.Machine;
+
+import com.google.common.io.Files;
+
+public class NeoDen4DriverTest {
+    /**
+     * Talk to the simulated NeoDen4 controller regardless of simulation mode.
+     */
+    class TestDriver extends NeoDen4Driver {
+        @Override
+        public ReferenceDriverCommunications getCommunications() {
+            return communications;
+        }
+
+        public void move(AxesLocation location0, AxesLocation location1) throws Exception {
+            // The default 250mm/s feed-rate, i.e. full speed.
+            moveToInternal(location0, location1, 250.0);
+        }
+    }
+
+    NeoDen4SimulatedCommunications communications;
+    TestDriver driver;
+    NeoDen4Server server;
+    ReferenceControllerAxis axisX;
+    ReferenceControllerAxis axisY;
+    ReferenceControllerAxis axisZ;
+    ReferenceControllerAxis axisC;
+
+    @BeforeEach
+    public void before() throws Exception {
+        File workingDirectory = Files.createTempDir();
+        workingDirectory = new File(workingDirectory, ".openpnp");
+        System.out.println("Configuration directory: " + workingDirectory);
+        Configuration.initialize(workingDirectory);
+        Configuration.get().load();
+
+        communications = new NeoDen4SimulatedCommunications();
+        driver = new TestDriver();
+        // One step per 1/100mm, so the moves are easy to check.
+        driver.setScaleFactorX(1.0);
+        driver.setScaleFactorY(1.0);
+        driver.connect();
+        server = communications.getServer();
+
+        axisX = createAxis("X", Axis.Type.X);
+        axisY = createAxis("Y", Axis.Type.Y);
+        axisZ = createAxis("Z", Axis.Type.Z);
+        axisC = createAxis("A", Axis.Type.Rotation);
+    }
+
+    ReferenceControllerAxis createAxis(String letter, Axis.Type type) {
+        ReferenceControllerAxis axis = new ReferenceControllerAxis();
+        axis.setName(letter);
+        axis.setLetter(letter);
+        axis.setType(type);
+        axis.setDriver(driver);
+        return axis;
+    }
+
+    AxesLocation location(double x, double y, double z, double c) {
+        return new AxesLocation(axisX, x)
+                .put(new AxesLocation(axisY, y))
+                .put(new AxesLocation(axisZ, z))
+                .put(new AxesLocation(axisC, c));
+    }
+
+    long timeMove(AxesLocation location0, AxesLocation location1) throws Exception {
+        long t0 = System.nanoTime();
+        driver.move(location0, location1);
+        return (System.nanoTime() - t0)/1000000;
+    }
+
+    @AfterEach
+    public void after() throws Exception {
+        driver.disconnect();
+    }
+
+    @Test
+    public void testHomeAndMove() throws Exception {
+        Machine machine = Configuration.get().getMachine();
+        driver.home(machine);
+        assertTrue(server.isHomed());
+
+        // 50mm at 250mm/s takes 200ms of simulated time.
+        long t0 = System.nanoTime();
+        driver.moveStep(5000, 0);
+        long elapsedMs = (System.nanoTime() - t0)/1000000;
+        assertEquals(5000, server.getXSteps());
+        assertEquals(0, server.getYSteps());
+        assertFalse(server.isBusy(), "moveStep() must wait for the move to complete.");
+        assertTrue(elapsedMs >= 190, "moveStep() returned after "+elapsedMs+"ms.");
+    }
+
+    @Test
+    public void testFeed() throws Exception {
+        driver.feed(5, 50, 20);
+        assertEquals(5, server.getLastFeederId());
+        assertEquals(1, server.getFeedCount());
+        driver.peel(5, 50, 20);
+        driver.peel(25, 50, 20);
+        assertEquals(2, server.getPeelCount());
+    }
+
+    @Test
+    public void testVacuum() throws Exception {
+        Machine machine = Configuration.get().getMachine();
+        Actuator actuator = machine.getDefaultHead().getActuatorByName(NeoDen4Driver.ACT_N2_VACUUM);
+        driver.actuate(actuator, -100.0);
+        assertEquals(-100, server.getAir(2));
+        assertEquals("-100", driver.actuatorRead(actuator));
+    }
+
+    @Test
+    public void testRotationSettle() throws Exception {
+        assertFalse(driver.isOverlapRotation(), "Overlapping rotation must be opt-in.");
+        driver.setSettleRotationMilliseconds(300);
+        driver.setSettleZMilliseconds(0);
+        driver.setSettleXyMilliseconds(50);
+
+        // Rotation settles before the 200ms XY move, then XY settles.
+        long elapsedMs = timeMove(location(0, 0, 0, 0), location(50, 0, 0, 90));
+        assertEquals(5000, server.getXSteps());
+        assertEquals(90, server.getC(1), 0.1);
+        assertTrue(elapsedMs >= 550, "Sequential move returned after "+elapsedMs+"ms.");
+    }
+
+    @Test
+    public void testOverlapRotation() throws Exception {
+        driver.setOverlapRotation(true);
+        driver.setSettleRotationMilliseconds(300);
+        driver.setSettleZMilliseconds(0);
+        driver.setSettleXyMilliseconds(50);
+
+        // Rotation settles during the 200ms XY move, only the remainder is waited for.
+        long elapsedMs = timeMove(location(0, 0, 0, 0), location(50, 0, 0, 90));
+        assertEquals(5000, server.getXSteps());
+        assertEquals(90, server.getC(1), 0.1);
+        assertTrue(elapsedMs >= 300, "Overlapped move returned after "+elapsedMs+"ms.");
+        assertTrue(elapsedMs < 500, "Overlapped move returned after "+elapsedMs+"ms.");
+
+        // Not when Z moves in the same segment, the rotation then settles before Z and XY.
+        elapsedMs = timeMove(location(50, 0, 0, 90), location(0, 0, -5, 0));
+        assertEquals(0, server.getXSteps());
+        assertEquals(5, server.getZ(1), 0.01);
+        assertTrue(elapsedMs >= 550, "Move with Z returned after "+elapsedMs+"ms.");
+    }
+
+    @Test
+    public void testZSettle() throws Exception {
+        driver.setSettleRotationMilliseconds(0);
+        driver.setSettleZMilliseconds(200);
+        driver.setSettleXyMilliseconds(0);
+
+        long elapsedMs = timeMove(location(0, 0, 0, 0), location(0, 0, -5, 0));
+        assertEquals(5, server.getZ(1), 0.01);
+        assertTrue(elapsedMs >= 200, "Z move returned after "+elapsedMs+"ms.");
+    }
+}
@@ -1,13 +1,27 @@
+import java.awt.geom.AffineTransform;
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.openpnp.machine.reference.vision.ReferenceFiducialLocator;
+import org.openpnp.model.Board;
+import org.openpnp.model.BoardLocation;
+import org.openpnp.model.Configuration;
 import org.openpnp.model.LengthUnit;
 import org.openpnp.model.Location;
+import org.openpnp.model.Part;
+import org.openpnp.model.PartSettingsHolder;
 import org.openpnp.model.Placement;
+import org.openpnp.spi.JobProcessor.JobProcessorException;
+
+import com.google.common.io.Files;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class ReferenceFiducialLocatorTest {
     static Placement createPlacement(double x, double y) {
@@ -92,4 +106,56 @@ public class ReferenceFiducialLocatorTest {
         assertEquals(results.size(), 2);
         System.out.println("testSameY " + results + " in " + (System.currentTimeMillis() - t));
     }
+
+    static BoardLocation createBoardLocation(double x, double y) {
+        Part part = new Part("FIDUCIAL");
+        Board board = new Board();
+        for (int i = 0; i < 2; i++) {
+            Placement fiducial = createPlacement(i*10, i*10);
+            fiducial.setType(Placement.Type.Fiducial);
+            fiducial.setPart(part);
+            board.addPlacement(fiducial);
+        }
+        BoardLocation boardLocation = new BoardLocation(board);
+        boardLocation.setLocation(new Location(LengthUnit.Millimeters, x, y, 0, 0));
+        return boardLocation;
+    }
+
+    @Test
+    public void testBatchFailureRestoresTransforms() throws Exception {
+        File workingDirectory = Files.createTempDir();
+        workingDirectory = new File(workingDirectory, ".openpnp");
+        Configuration.initialize(workingDirectory);
+        Configuration.get().load();
+
+        // Locate the fiducials at their nominal locations, but fail on the fourth visit, i.e. on 
+        // the second fiducial of the second board.
+        int[] visits = new int[1];
+        ReferenceFiducialLocator locator = new ReferenceFiducialLocator() {
+            @Override
+            public Location getFiducialLocation(Location nominalLocation,
+                    PartSettingsHolder partSettingsHolder) throws Exception {
+                if (++visits[0] == 4) {
+                    return null;
+                }
+                return nominalLocation;
+            }
+        };
+        BoardLocation board1 = createBoardLocation(0, 0);
+        BoardLocation board2 = createBoardLocation(200, 0);
+        BoardLocation board3 = createBoardLocation(400, 0);
+        AffineTransform saved2 = AffineTransform.getTranslateInstance(1, 2);
+        AffineTransform saved3 = AffineTransform.getTranslateInstance(3, 4);
+        board2.setPlacementTransform(saved2);
+        board3.setPlacementTransform(saved3);
+        List<BoardLocation> located = new ArrayList<>();
+        assertThrows(JobProcessorException.class, 
+                () -> locator.locateBoards(Arrays.asList(board1, board2, board3), located::add));
+        assertEquals(4, visits[0]);
+        // The first board finished, the partially measured and the unstarted board are restored.
+        assertEquals(Arrays.asList(board1), located);
+        assertNotNull(board1.getPlacementTransform());
+        assertSame(saved2, board2.getPlacementTransform());
+        assertSame(saved3, board3.getPlacementTransform());
+    }
 }
@@ -0,0 +1,778 @@
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openpnp.machine.reference.camera.BufferedImageCamera;
+import org.openpnp.machine.reference.camera.ImageCamera;
+import org.openpnp.machine.reference.vision.ReferenceBottomVision;
+import org.openpnp.machine.reference.vision.ReferenceFiducialLocator;
+import org.openpnp.model.Configuration;
+import org.openpnp.model.Footprint;
+import org.openpnp.model.LengthUnit;
+import org.openpnp.spi.Camera;
+import org.openpnp.spi.Camera.SettleOption;
+import org.openpnp.vision.FluentCv.ColorCode;
+import org.openpnp.vision.pipeline.CvPipeline;
+import org.openpnp.vision.pipeline.CvStage;
+import org.openpnp.vision.pipeline.CvStage.Result;
+import org.openpnp.vision.pipeline.stages.ActuatorWrite;
+import org.openpnp.vision.pipeline.stages.Add;
+import org.openpnp.vision.pipeline.stages.AffineUnwarp;
+import org.openpnp.vision.pipeline.stages.AffineWarp;
+import org.openpnp.vision.pipeline.stages.ClosestModel;
+import org.openpnp.vision.pipeline.stages.ComposeResult;
+import org.openpnp.vision.pipeline.stages.ConvertColor;
+import org.openpnp.vision.pipeline.stages.ConvertModelToKeyPoints;
+import org.openpnp.vision.pipeline.stages.ConvertModelToPoints;
+import org.openpnp.vision.pipeline.stages.CreateFootprintTemplateImage;
+import org.openpnp.vision.pipeline.stages.CreateModelTemplateImage;
+import org.openpnp.vision.pipeline.stages.CreateShapeTemplateImage;
+import org.openpnp.vision.pipeline.stages.DetectCirclesHough;
+import org.openpnp.vision.pipeline.stages.DetectCircularSymmetry;
+import org.openpnp.vision.pipeline.stages.DetectEdgesCanny;
+import org.openpnp.vision.pipeline.stages.DetectFixedCirclesHough;
+import org.openpnp.vision.pipeline.stages.DetectLinesHough;
+import org.openpnp.vision.pipeline.stages.DetectRectangleHough;
+import org.openpnp.vision.pipeline.stages.DilateModel;
+import org.openpnp.vision.pipeline.stages.DrawCircles;
+import org.openpnp.vision.pipeline.stages.DrawContours;
+import org.openpnp.vision.pipeline.stages.DrawEllipses;
+import org.openpnp.vision.pipeline.stages.DrawKeyPoints;
+import org.openpnp.vision.pipeline.stages.DrawRotatedRects;
+import org.openpnp.vision.pipeline.stages.DrawTemplateMatches;
+import org.openpnp.vision.pipeline.stages.FilterContours;
+import org.openpnp.vision.pipeline.stages.FilterRects;
+import org.openpnp.vision.pipeline.stages.FindContours;
+import org.openpnp.vision.pipeline.stages.FitEllipseContours;
+import org.openpnp.vision.pipeline.stages.ImageCapture;
+import org.openpnp.vision.pipeline.stages.ImageRead;
+import org.openpnp.vision.pipeline.stages.ImageRecall;
+import org.openpnp.vision.pipeline.stages.ImageWrite;
+import org.openpnp.vision.pipeline.stages.ImageWriteDebug;
+import org.openpnp.vision.pipeline.stages.MaskModel;
+import org.openpnp.vision.pipeline.stages.MaskPolygon;
+import org.openpnp.vision.pipeline.stages.MatchPartTemplate;
+import org.openpnp.vision.pipeline.stages.MatchPartsTemplate;
+import org.openpnp.vision.pipeline.stages.MatchTemplate;
+import org.openpnp.vision.pipeline.stages.MinAreaRect;
+import org.openpnp.vision.pipeline.stages.MinAreaRectContours;
+import org.openpnp.vision.pipeline.stages.MinEnclosingCircle;
+import org.openpnp.vision.pipeline.stages.OrientRotatedRects;
+import org.openpnp.vision.pipeline.stages.ReadModelProperty;
+import org.openpnp.vision.pipeline.stages.ReadPartTemplateImage;
+import org.openpnp.vision.pipeline.stages.ScriptRun;
+import org.openpnp.vision.pipeline.stages.SelectSingleRect;
+import org.openpnp.vision.pipeline.stages.SetColor;
+import org.openpnp.vision.pipeline.stages.SimpleBlobDetector;
+import org.openpnp.vision.pipeline.stages.SizeCheck;
+import org.openpnp.vision.pipeline.stages.Threshold;
+import org.openpnp.vision.pipeline.stages.ThresholdAdaptive;
+import org.openpnp.vision.pipeline.stages.WritePartTemplateImage;
+import org.openpnp.vision.pipeline.ui.CvPipelineEditor;
+import org.pmw.tinylog.Configurator;
+import org.pmw.tinylog.Level;
+
+import com.google.common.io.Files;
+
+/**
+ * Throughput benchmark for the vision pipeline stages and the stock pipelines. Every registered
+ * CvStage is run on top of a captured image, and the stock bottom vision and fiducial pipelines are
+ * run as a whole, each at several image resolutions. The images are rendered by the ImageCamera from
+ * the bundled pnp-test sample.
+ *
+ * Stages that need inputs get a minimal valid configuration in {@link #createStageSetups()}: their
+ * input stages are added in front of them and their stage names and properties are set. The
+ * benchmark fails if a stage throws, or if it does not produce the image or model it is expected to,
+ * because a stage that returns early would otherwise be measured as fast. The few stages that need
+ * the machine or files are excluded, see {@link #createExcludedStages()}.
+ *
+ * The benchmark is skipped unless enabled, because it takes minutes and its results depend on the
+ * computer. Run it with:
+ *
+ * <pre>
+ * mvn test -Dtest=VisionBenchmarkTest -Dopenpnp.benchmark=true
+ * </pre>
+ *
+ * System properties:
+ * <ul>
+ * <li>openpnp.benchmark.resolutions: comma separated WxH list, default 640x480,1280x960,2592x1944</li>
+ * <li>openpnp.benchmark.warmup, openpnp.benchmark.iterations: runs per measurement, default 5, 20</li>
+ * <li>openpnp.benchmark.output: properties file to write the results to, to be used as a baseline</li>
+ * <li>openpnp.benchmark.baseline: properties file of an earlier run to compare against</li>
+ * <li>openpnp.benchmark.threshold: the test fails if any ns/op exceeds the baseline by this factor,
+ * default 1.5</li>
+ * </ul>
+ *
+ * Stage times are taken from the per stage processing time the CvPipeline records. Allocation is
+ * measured in bytes/op on the Java heap per pipeline run, i.e. native OpenCV Mat memory is not
+ * included, and it includes the input stages.
+ */
+public class VisionBenchmarkTest {
+    static class Measurement {
+        final String key;
+        final double nsPerOp;
+        final double bytesPerOp;
+        final String error;
+
+        Measurement(String key, double nsPerOp, double bytesPerOp, String error) {
+            this.key = key;
+            this.nsPerOp = nsPerOp;
+            this.bytesPerOp = bytesPerOp;
+            this.error = error;
+        }
+    }
+
+    /**
+     * What a benchmarked stage must produce, to tell a stage that ran from one that returned early.
+     */
+    enum Output {
+        None,
+        Image,
+        Model,
+    }
+
+    /**
+     * Adds the input stages and the configured benchmarked stage, named "stage", to a pipeline that
+     * starts with the "image" capture.
+     */
+    interface StageSetup {
+        void addStages(CvPipeline pipeline) throws Exception;
+    }
+
+    static class StageConfiguration {
+        final Output output;
+        final StageSetup setup;
+
+        StageConfiguration(Output output, StageSetup setup) {
+            this.output = output;
+            this.setup = setup;
+        }
+    }
+
+    private final int warmup = Integer.getInteger("openpnp.benchmark.warmup", 5);
+    private final int iterations = Math.max(1, Integer.getInteger("openpnp.benchmark.iterations", 20));
+
+    @Test
+    @EnabledIfSystemProperty(named = "openpnp.benchmark", matches = "true")
+    public void benchmark() throws Exception {
+        File workingDirectory = Files.createTempDir();
+        workingDirectory = new File(workingDirectory, ".openpnp");
+        System.out.println("Configuration directory: " + workingDirectory);
+        Configuration.initialize(workingDirectory);
+        Configuration.get().load();
+
+        Configurator
+        .currentConfig()
+        .level(Level.WARNING)
+        .activate();
+
+        ImageCamera camera = null;
+        for (Camera c : Configuration.get().getMachine().getDefaultHead().getCameras()) {
+            if (c instanceof ImageCamera) {
+                camera = (ImageCamera) c;
+            }
+        }
+        assertTrue(camera != null, "Default configuration has no ImageCamera.");
+
+        Map<Class<? extends CvStage>, StageConfiguration> stageSetups = createStageSetups();
+        Map<Class<? extends CvStage>, String> excludedStages = createExcludedStages();
+        Map<String, Measurement> measurements = new LinkedHashMap<>();
+        String resolutions = System.getProperty("openpnp.benchmark.resolutions", "640x480,1280x960,2592x1944");
+        for (String resolution : resolutions.split(",")) {
+            String[] wh = resolution.trim().split("x");
+            camera.setViewWidth(Integer.parseInt(wh[0]));
+            camera.setViewHeight(Integer.parseInt(wh[1]));
+            BufferedImage image = camera.internalCapture();
+            Camera imageCamera = BufferedImageCamera.get(camera, image);
+            String suffix = "."+image.getWidth()+"x"+image.getHeight();
+
+            // Stock pipelines.
+            benchmarkPipeline(measurements, "pipeline.BottomVision-Default"+suffix,
+                    ReferenceBottomVision.createStockPipeline("Default"), imageCamera);
+            benchmarkPipeline(measurements, "pipeline.BottomVision-Rectlinear"+suffix,
+                    ReferenceBottomVision.createStockPipeline("Rectlinear"), imageCamera);
+            benchmarkPipeline(measurements, "pipeline.FiducialLocator-Default"+suffix,
+                    ReferenceFiducialLocator.createStockPipeline("Default"), imageCamera);
+            benchmarkPipeline(measurements, "pipeline.FiducialLocator-Template"+suffix,
+                    ReferenceFiducialLocator.createStockPipeline("Template"), imageCamera);
+
+            // Single stages.
+            List<Class<? extends CvStage>> stageClasses = new ArrayList<>(CvPipelineEditor.getStageClasses());
+            stageClasses.sort(Comparator.comparing(Class::getSimpleName));
+            for (Class<? extends CvStage> stageClass : stageClasses) {
+                if (excludedStages.containsKey(stageClass)) {
+                    continue;
+                }
+                StageConfiguration configuration = stageSetups.get(stageClass);
+                if (configuration == null) {
+                    // Works on the captured image as it is.
+                    configuration = new StageConfiguration(Output.None,
+                            pipeline -> pipeline.add("stage", stageClass.getDeclaredConstructor().newInstance()));
+                }
+                benchmarkStage(measurements, "stage."+stageClass.getSimpleName()+suffix,
+                        configuration, imageCamera);
+            }
+        }
+
+        System.out.println(String.format("%-60s %15s %15s", "Benchmark", "ns/op", "bytes/op"));
+        for (Measurement m : measurements.values()) {
+            if (m.error != null) {
+                System.out.println(String.format("%-60s %15.0f %15s  (%s)", m.key, m.nsPerOp, "", m.error));
+            }
+            else {
+                System.out.println(String.format("%-60s %15.0f %15.0f", m.key, m.nsPerOp, m.bytesPerOp));
+            }
+        }
+
+        StringBuilder errors = new StringBuilder();
+        for (Measurement m : measurements.values()) {
+            if (m.error != null) {
+                errors.append(m.key+": "+m.error+"\n");
+            }
+        }
+        assertTrue(errors.length() == 0, "Stages that could not run:\n"+errors);
+
+        String output = System.getProperty("openpnp.benchmark.output");
+        if (output != null) {
+            Properties properties = new Properties();
+            for (Measurement m : measurements.values()) {
+                properties.setProperty(m.key, String.valueOf(Math.round(m.nsPerOp)));
+            }
+            try (OutputStream out = new FileOutputStream(output)) {
+                properties.store(out, "OpenPnP vision benchmark ns/op");
+            }
+        }
+
+        String baseline = System.getProperty("openpnp.benchmark.baseline");
+        if (baseline != null) {
+            double threshold = Double.parseDouble(System.getProperty("openpnp.benchmark.threshold", "1.5"));
+            Properties properties = new Properties();
+            try (InputStream in = new FileInputStream(baseline)) {
+                properties.load(in);
+            }
+            StringBuilder regressions = new StringBuilder();
+            for (Measurement m : measurements.values()) {
+                String value = properties.getProperty(m.key);
+                if (value != null) {
+                    double baselineNs = Double.parseDouble(value);
+                    if (m.nsPerOp > baselineNs*threshold) {
+                        regressions.append(String.format("%s: %.0f ns/op, baseline %.0f ns/op (x%.2f)\n",
+                                m.key, m.nsPerOp, baselineNs, m.nsPerOp/baselineNs));
+                    }
+                }
+            }
+            assertTrue(regressions.length() == 0,
+                    "Regressions beyond threshold x"+threshold+":\n"+regressions);
+        }
+    }
+
+    private void benchmarkPipeline(Map<String, Measurement> measurements, String key,
+            CvPipeline pipeline, Camera camera) throws Exception {
+        try {
+            prepare(pipeline, camera);
+            for (int i = 0; i < warmup; i++) {
+                process(pipeline);
+            }
+            long allocated = allocatedBytes();
+            long totalNs = 0;
+            for (int i = 0; i < iterations; i++) {
+                process(pipeline);
+                totalNs += pipeline.getTotalProcessingTimeNs();
+            }
+            allocated = allocatedBytes() - allocated;
+            measurements.put(key, new Measurement(key, (double)totalNs/iterations,
+                    (double)allocated/iterations, null));
+            // Also record the stages of the stock pipeline.
+            for (CvStage stage : pipeline.getStages()) {
+                Result result = pipeline.getResult(stage);
+                if (stage.isEnabled() && result != null) {
+                    String stageKey = key+"."+stage.getName();
+                    measurements.put(stageKey, new Measurement(stageKey, result.processingTimeNs, 0,
+                            errorOf(result)));
+                }
+            }
+        }
+        finally {
+            pipeline.release();
+        }
+    }
+
+    private void benchmarkStage(Map<String, Measurement> measurements, String key,
+            StageConfiguration configuration, Camera camera) throws Exception {
+        CvPipeline pipeline = new CvPipeline();
+        try {
+            pipeline.add("image", new ImageCapture());
+            configuration.setup.addStages(pipeline);
+            CvStage stage = pipeline.getStage("stage");
+            prepare(pipeline, camera);
+            for (int i = 0; i < warmup; i++) {
+                process(pipeline);
+            }
+            long allocated = allocatedBytes();
+            long totalNs = 0;
+            String error = null;
+            for (int i = 0; i < iterations; i++) {
+                process(pipeline);
+                for (CvStage inputStage : pipeline.getStages()) {
+                    if (error == null) {
+                        error = errorOf(pipeline.getResult(inputStage));
+                    }
+                }
+                Result result = pipeline.getResult(stage);
+                totalNs += result.processingTimeNs;
+                if (error == null) {
+                    error = missingOutputOf(result, configuration.output);
+                }
+            }
+            // Includes the input stages.
+            allocated = allocatedBytes() - allocated;
+            measurements.put(key, new Measurement(key, (double)totalNs/iterations,
+                    (double)allocated/iterations, error));
+        }
+        finally {
+            pipeline.release();
+        }
+    }
+
+    private static void prepare(CvPipeline pipeline, Camera camera) {
+        pipeline.setProperty("camera", camera);
+        pipeline.setProperty("footprint", createFiducialFootprint());
+        for (CvStage stage : pipeline.getStages()) {
+            if (stage instanceof ImageCapture) {
+                ((ImageCapture) stage).setSettleOption(SettleOption.Skip);
+            }
+        }
+    }
+
+    private static void process(CvPipeline pipeline) {
+        try {
+            pipeline.process();
+        }
+        catch (Exception e) {
+            // The failing stage has the exception as its result model, see errorOf().
+        }
+    }
+
+    private static String errorOf(Result result) {
+        if (result != null && result.model instanceof Exception) {
+            return result.model.toString();
+        }
+        return null;
+    }
+
+    private static String missingOutputOf(Result result, Output output) {
+        if (output == Output.Image && result.image == null) {
+            return "no image";
+        }
+        if (output == Output.Model && result.model == null) {
+            return "no model";
+        }
+        return null;
+    }
+
+    private static Footprint createFiducialFootprint() {
+        Footprint footprint = new Footprint();
+        footprint.setUnits(LengthUnit.Millimeters);
+        Footprint.Pad pad = new Footprint.Pad();
+        pad.setWidth(1);
+        pad.setHeight(1);
+        pad.setRoundness(100);
+        footprint.addPad(pad);
+        return footprint;
+    }
+
+    /**
+     * The stages that cannot run in a bare pipeline, with the reason.
+     */
+    private static Map<Class<? extends CvStage>, String> createExcludedStages() {
+        Map<Class<? extends CvStage>, String> excluded = new HashMap<>();
+        excluded.put(ImageCapture.class, "the source of every benchmarked pipeline");
+        excluded.put(ImageRead.class, "reads an image file");
+        excluded.put(ImageWrite.class, "writes an image file");
+        excluded.put(ImageWriteDebug.class, "writes an image file");
+        excluded.put(ReadPartTemplateImage.class, "reads the template image file of a part");
+        excluded.put(WritePartTemplateImage.class, "writes the template image file of a part");
+        excluded.put(ActuatorWrite.class, "needs a machine actuator");
+        excluded.put(ScriptRun.class, "runs a script file");
+        return excluded;
+    }
+
+    /**
+     * The minimal valid configurations of the stages that need inputs. The stages not listed run on
+     * the captured color image with their default settings.
+     */
+    private static Map<Class<? extends CvStage>, StageConfiguration> createStageSetups() {
+        Map<Class<? extends CvStage>, StageConfiguration> setups = new HashMap<>();
+        setups.put(Add.class, new StageConfiguration(Output.Image, pipeline -> {
+            Add stage = new Add();
+            stage.setFirstStageName("image");
+            stage.setSecondStageName("image");
+            pipeline.add("stage", stage);
+        }));
+        setups.put(AffineWarp.class, new StageConfiguration(Output.Model, pipeline -> {
+            pipeline.add("stage", createAffineWarp());
+        }));
+        setups.put(AffineUnwarp.class, new StageConfiguration(Output.Model, pipeline -> {
+            addRects(pipeline);
+            pipeline.add("warp", createAffineWarp());
+            AffineUnwarp stage = new AffineUnwarp();
+            stage.setWarpStageName("warp");
+            stage.setResultsStageName("rects");
+            pipeline.add("stage", stage);
+        }));
+        setups.put(ClosestModel.class, new StageConfiguration(Output.Model, pipeline -> {
+            addRects(pipeline);
+            ClosestModel stage = new ClosestModel();
+            stage.setModelStageName("rects");
+            stage.setFilterStageName("rects");
+            pipeline.add("stage", stage);
+        }));
+        setups.put(ComposeResult.class, new StageConfiguration(Output.Model, pipeline -> {
+            addRects(pipeline);
+            ComposeResult stage = new ComposeResult();
+            stage.setImageStageName("image");
+            stage.setModelStageName("rects");
+            pipeline.add("stage", stage);
+        }));
+        setups.put(ConvertModelToKeyPoints.class, new StageConfiguration(Output.Model, pipeline -> {
+            addRects(pipeline);
+            ConvertModelToKeyPoints stage = new ConvertModelToKeyPoints();
+            stage.setModelStageName("rects");
+            pipeline.add("stage", stage);
+        }));
+        setups.put(ConvertModelToPoints.class, new StageConfiguration(Output.Model, pipeline -> {
+            addRects(pipeline);
+            ConvertModelToPoints stage = new ConvertModelToPoints();
+            stage.setModelStageName("rects");
+            pipeline.add("stage", stage);
+        }));
+        setups.put(CreateFootprintTemplateImage.class, new StageConfiguration(Output.Image,
+                pipeline -> pipeline.add("stage", new CreateFootprintTemplateImage())));
+        setups.put(CreateModelTemplateImage.class, new StageConfiguration(Output.Image, pipeline -> {
+            addRects(pipeline);
+            CreateModelTemplateImage stage = new CreateModelTemplateImage();
+            stage.setModelStageName("rects");
+            pipeline.add("stage", stage);
+        }));
+        setups.put(CreateShapeTemplateImage.class, new StageConfiguration(Output.Image, pipeline -> {
+            pipeline.setProperty("shape", createFiducialFootprint().getPadsShape());
+            CreateShapeTemplateImage stage = new CreateShapeTemplateImage();
+            stage.setTemplateShapeName("shape");
+            pipeline.add("stage", stage);
+        }));
+        setups.put(DetectCirclesHough.class, new StageConfiguration(Output.Model, pipeline -> {
+            addGray(pipeline);
+            pipeline.add("stage", createDetectCirclesHough());
+        }));
+        setups.put(DetectCircularSymmetry.class, new StageConfiguration(Output.Model, pipeline -> {
+            addGray(pipeline);
+            DetectCircularSymmetry stage = new DetectCircularSymmetry();
+            stage.setMinDiameter(10);
+            stage.setMaxDiameter(40);
+            stage.setMaxDistance(100);
+            pipeline.add("stage", stage);
+        }));
+        setups.put(DetectEdgesCanny.class, new StageConfiguration(Output.Image, pipeline -> {
+            addGray(pipeline);
+            pipeline.add("stage", new DetectEdgesCanny());
+        }));
+        setups.put(DetectFixedCirclesHough.class, new StageConfiguration(Output.Model, pipeline -> {
+            addGray(pipeline);
+            pipeline.setProperty("DetectFixedCirclesHough.minDistance", 10);
+            pipeline.setProperty("DetectFixedCirclesHough.minDiameter", 10);
+            pipeline.setProperty("DetectFixedCirclesHough.maxDiameter", 40);
+            pipeline.add("stage", new DetectFixedCirclesHough());
+        }));
+        setups.put(DetectLinesHough.class, new StageConfiguration(Output.Model, pipeline -> {
+            addGray(pipeline);
+            pipeline.add("edges", new DetectEdgesCanny());
+            pipeline.add("stage", new DetectLinesHough());
+        }));
+        setups.put(DetectRectangleHough.class, new StageConfiguration(Output.Image, pipeline -> {
+            addGray(pipeline);
+            pipeline.add("edges", new DetectEdgesCanny());
+            pipeline.add("stage", new DetectRectangleHough());
+        }));
+        setups.put(DilateModel.class, new StageConfiguration(Output.Image, pipeline -> {
+            addRects(pipeline);
+            DilateModel stage = new DilateModel();
+            stage.setModelStageName("rects");
+            pipeline.add("stage", stage);
+        }));
+        setups.put(DrawCircles.class, new StageConfiguration(Output.Image, pipeline -> {
+            addGray(pipeline);
+            pipeline.add("circles", createDetectCirclesHough());
+            pipeline.add("recall", createImageRecall("image"));
+            DrawCircles stage = new DrawCircles();
+            stage.setCirclesStageName("circles");
+            pipeline.add("stage", stage);
+        }));
+        setups.put(DrawContours.class, new StageConfiguration(Output.Image, pipeline -> {
+            addContours(pipeline);
+            pipeline.add("recall", createImageRecall("image"));
+            DrawContours stage = new DrawContours();
+            stage.setContoursStageName("contours");
+            pipeline.add("stage", stage);
+        }));
+        setups.put(DrawEllipses.class, new StageConfiguration(Output.Image, pipeline -> {
+            addContours(pipeline);
+            FitEllipseContours ellipses = new FitEllipseContours();
+            ellipses.setContoursStageName("contours");
+            pipeline.add("ellipses", ellipses);
+            pipeline.add("recall", createImageRecall("image"));
+            DrawEllipses stage = new DrawEllipses();
+            stage.setEllipsesStageName("ellipses");
+            pipeline.add("stage", stage);
+        }));
+        setups.put(DrawKeyPoints.class, new StageConfiguration(Output.Image, pipeline -> {
+            addRects(pipeline);
+            ConvertModelToKeyPoints keyPoints = new ConvertModelToKeyPoints();
+            keyPoints.setModelStageName("rects");
+            pipeline.add("keyPoints", keyPoints);
+            pipeline.add("recall", createImageRecall("image"));
+            DrawKeyPoints stage = new DrawKeyPoints();
+            stage.setKeyPointsStageName("keyPoints");
+            pipeline.add("stage", stage);
+        }));
+        setups.put(DrawRotatedRects.class, new StageConfiguration(Output.Image, pipeline -> {
+            addRects(pipeline);
+            pipeline.add("recall", createImageRecall("image"));
+            DrawRotatedRects stage = new DrawRotatedRects();
+            stage.setRotatedRectsStageName("rects");
+            pipeline.add("stage", stage);
+        }));
+        setups.put(DrawTemplateMatches.class, new StageConfiguration(Output.Image, pipeline -> {
+            addTemplate(pipeline);
+            MatchTemplate matches = new MatchTemplate();
+            matches.setTemplateStageName("template");
+            pipeline.add("matches", matches);
+            pipeline.add("recall2", createImageRecall("image"));
+            DrawTemplateMatches stage = new DrawTemplateMatches();
+            stage.setTemplateMatchesStageName("matches");
+            pipeline.add("stage", stage);
+        }));
+        setups.put(FilterContours.class, new StageConfiguration(Output.Model, pipeline -> {
+            addGray(pipeline);
+            addThreshold(pipeline);
+            pipeline.add("allContours", new FindContours());
+            FilterContours stage = new FilterContours();
+            stage.setContoursStageName("allContours");
+            stage.setMinArea(100);
+            pipeline.add("stage", stage);
+        }));
+        setups.put(FilterRects.class, new StageConfiguration(Output.Model, pipeline -> {
+            addRects(pipeline);
+            FilterRects stage = new FilterRects();
+            stage.setRotatedRectsStageName("rects");
+            stage.setWidthMin(5);
+            stage.setWidthMax(500);
+            stage.setLengthMin(5);
+            stage.setLengthMax(500);
+            pipeline.add("stage", stage);
+        }));
+        setups.put(FindContours.class, new StageConfiguration(Output.Model, pipeline -> {
+            addGray(pipeline);
+            addThreshold(pipeline);
+            pipeline.add("stage", new FindContours());
+        }));
+        setups.put(FitEllipseContours.class, new StageConfiguration(Output.Model, pipeline -> {
+            addContours(pipeline);
+            FitEllipseContours stage = new FitEllipseContours();
+            stage.setContoursStageName("contours");
+            pipeline.add("stage", stage);
+        }));
+        setups.put(ImageRecall.class, new StageConfiguration(Output.Image, pipeline -> {
+            addGray(pipeline);
+            pipeline.add("stage", createImageRecall("image"));
+        }));
+        setups.put(MaskModel.class, new StageConfiguration(Output.Image, pipeline -> {
+            addRects(pipeline);
+            pipeline.add("recall", createImageRecall("image"));
+            MaskModel stage = new MaskModel();
+            stage.setModelStageName("rects");
+            pipeline.add("stage", stage);
+        }));
+        setups.put(MaskPolygon.class, new StageConfiguration(Output.Image, pipeline -> {
+            MaskPolygon stage = new MaskPolygon();
+            stage.setShapes("200,200 : 100; 100,100 : 100,50; 10,10 : 300,20 : 150,300");
+            pipeline.add("stage", stage);
+        }));
+        setups.put(MatchPartTemplate.class, new StageConfiguration(Output.Model, pipeline -> {
+            addTemplate(pipeline);
+            MatchPartTemplate stage = new MatchPartTemplate();
+            stage.setTemplateStageName("template");
+            stage.setModelStageName("rects");
+            pipeline.add("stage", stage);
+        }));
+        setups.put(MatchPartsTemplate.class, new StageConfiguration(Output.Model, pipeline -> {
+            addTemplate(pipeline);
+            MatchPartsTemplate stage = new MatchPartsTemplate();
+            stage.setTemplateStageName("template");
+            stage.setModelStageName("rects");
+            pipeline.add("stage", stage);
+        }));
+        setups.put(MatchTemplate.class, new StageConfiguration(Output.Model, pipeline -> {
+            addTemplate(pipeline);
+            MatchTemplate stage = new MatchTemplate();
+            stage.setTemplateStageName("template");
+            pipeline.add("stage", stage);
+        }));
+        setups.put(MinAreaRect.class, new StageConfiguration(Output.Model, pipeline -> {
+            addGray(pipeline);
+            addThreshold(pipeline);
+            pipeline.add("stage", new MinAreaRect());
+        }));
+        setups.put(MinAreaRectContours.class, new StageConfiguration(Output.Model, pipeline -> {
+            addContours(pipeline);
+            MinAreaRectContours stage = new MinAreaRectContours();
+            stage.setContoursStageName("contours");
+            pipeline.add("stage", stage);
+        }));
+        setups.put(MinEnclosingCircle.class, new StageConfiguration(Output.Model, pipeline -> {
+            addGray(pipeline);
+            addThreshold(pipeline);
+            pipeline.add("stage", new MinEnclosingCircle());
+        }));
+        setups.put(OrientRotatedRects.class, new StageConfiguration(Output.Model, pipeline -> {
+            addRects(pipeline);
+            OrientRotatedRects stage = new OrientRotatedRects();
+            stage.setRotatedRectsStageName("rects");
+            pipeline.add("stage", stage);
+        }));
+        setups.put(ReadModelProperty.class, new StageConfiguration(Output.Model, pipeline -> {
+            pipeline.add("warp", createAffineWarp());
+            ReadModelProperty stage = new ReadModelProperty();
+            stage.setModelStageName("warp");
+            stage.setPropertyName("scaleX");
+            pipeline.add("stage", stage);
+        }));
+        setups.put(SelectSingleRect.class, new StageConfiguration(Output.Model, pipeline -> {
+            addRects(pipeline);
+            SelectSingleRect stage = new SelectSingleRect();
+            stage.setRotatedRectsStageName("rects");
+            pipeline.add("stage", stage);
+        }));
+        setups.put(SetColor.class, new StageConfiguration(Output.None, pipeline -> {
+            SetColor stage = new SetColor();
+            stage.setColor(Color.red);
+            pipeline.add("stage", stage);
+        }));
+        setups.put(SimpleBlobDetector.class, new StageConfiguration(Output.Model,
+                pipeline -> pipeline.add("stage", new SimpleBlobDetector())));
+        setups.put(SizeCheck.class, new StageConfiguration(Output.None, pipeline -> {
+            addRects(pipeline);
+            SelectSingleRect rect = new SelectSingleRect();
+            rect.setRotatedRectsStageName("rects");
+            pipeline.add("rect", rect);
+            pipeline.add("stage", new SizeCheck());
+        }));
+        setups.put(ThresholdAdaptive.class, new StageConfiguration(Output.Image, pipeline -> {
+            addGray(pipeline);
+            pipeline.add("stage", new ThresholdAdaptive());
+        }));
+        return setups;
+    }
+
+    private static void addGray(CvPipeline pipeline) {
+        ConvertColor stage = new ConvertColor();
+        stage.setConversion(ColorCode.Bgr2Gray);
+        pipeline.add("gray", stage);
+    }
+
+    private static void addThreshold(CvPipeline pipeline) {
+        Threshold stage = new Threshold();
+        stage.setAuto(true);
+        pipeline.add("threshold", stage);
+    }
+
+    /**
+     * Adds the outer contours of the bright features as "contours", on a thresholded working image.
+     */
+    private static void addContours(CvPipeline pipeline) {
+        addGray(pipeline);
+        addThreshold(pipeline);
+        pipeline.add("allContours", new FindContours());
+        FilterContours stage = new FilterContours();
+        stage.setContoursStageName("allContours");
+        stage.setMinArea(100);
+        pipeline.add("contours", stage);
+    }
+
+    /**
+     * Adds the rotated rects of the contours as "rects".
+     */
+    private static void addRects(CvPipeline pipeline) {
+        addContours(pipeline);
+        MinAreaRectContours stage = new MinAreaRectContours();
+        stage.setContoursStageName("contours");
+        pipeline.add("rects", stage);
+    }
+
+    /**
+     * Adds the "rects" and a "template" image cut from the first of them, and recalls the captured
+     * image as the working image.
+     */
+    private static void addTemplate(CvPipeline pipeline) {
+        addRects(pipeline);
+        pipeline.add("recall", createImageRecall("image"));
+        CreateModelTemplateImage stage = new CreateModelTemplateImage();
+        stage.setModelStageName("rects");
+        pipeline.add("template", stage);
+        pipeline.add("recallTemplate", createImageRecall("image"));
+    }
+
+    private static DetectCirclesHough createDetectCirclesHough() {
+        DetectCirclesHough stage = new DetectCirclesHough();
+        stage.setMinDiameter(10);
+        stage.setMaxDiameter(40);
+        stage.setMinDistance(10);
+        return stage;
+    }
+
+    private static ImageRecall createImageRecall(String imageStageName) {
+        ImageRecall stage = new ImageRecall();
+        stage.setImageStageName(imageStageName);
+        return stage;
+    }
+
+    /**
+     * Warps a 4mm square around the camera center.
+     */
+    private static AffineWarp createAffineWarp() {
+        AffineWarp stage = new AffineWarp();
+        stage.setX0(-2);
+        stage.setY0(2);
+        stage.setX1(2);
+        stage.setY1(2);
+        stage.setX2(-2);
+        stage.setY2(-2);
+        return stage;
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported()) {
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,160 @@
+package org.openpnp.machine.index;
+
+import com.google.common.io.Files;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openpnp.model.Configuration;
+import org.openpnp.model.LengthUnit;
+import org.openpnp.model.Location;
+import org.openpnp.spi.Actuator;
+import org.openpnp.spi.Machine;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.openpnp.machine.index.protocol.IndexCommands.*;
+
+public class IndexFeederBusTest {
+    private static final int feederCount = 6;
+
+    private Machine machine;
+    private SimulatedIndexBus bus;
+    private IndexProperties indexProperties;
+    private List<IndexFeeder> feeders;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        File workingDirectory = Files.createTempDir();
+        workingDirectory = new File(workingDirectory, ".openpnp");
+        System.out.println("Configuration directory: " + workingDirectory);
+        Configuration.initialize(workingDirectory);
+        Configuration.get().load();
+
+        machine = Configuration.get().getMachine();
+        indexProperties = new IndexProperties(machine);
+
+        // Replace the data actuator with one that talks to the simulated bus
+        IndexFeeder.getDataActuator();
+        machine.removeActuator(machine.getActuatorByName(IndexFeeder.ACTUATOR_DATA_NAME));
+        bus = new SimulatedIndexBus();
+        Actuator actuator = mock(Actuator.class);
+        when(actuator.getName()).thenReturn(IndexFeeder.ACTUATOR_DATA_NAME);
+        when(actuator.read(any())).thenAnswer(invocation -> bus.handle((String) invocation.getArgument(0)));
+        machine.addActuator(actuator);
+
+        feeders = new ArrayList<>();
+        for (int address = 1; address <= feederCount; address++) {
+            String hardwareId = String.format("00112233445566778899AA%02X", address);
+            bus.insert(address, hardwareId);
+            indexProperties.getFeederSlots().getSlot(address)
+                    .setLocation(new Location(LengthUnit.Millimeters, address * 10, 0, 0, 0));
+
+            IndexFeeder feeder = new IndexFeeder();
+            feeder.setHardwareId(hardwareId);
+            feeder.setOffset(new Location(LengthUnit.Millimeters, 1, 1, 0, 0));
+            feeder.setSlotAddress(address);
+            feeder.setEnabled(true);
+            machine.addFeeder(feeder);
+            feeders.add(feeder);
+        }
+    }
+
+    private void prepareAll() throws Exception {
+        for (IndexFeeder feeder : feeders) {
+            feeder.prepareForJob(false);
+        }
+    }
+
+    private void forgetState() {
+        // Like after a restart, only the slot cache remains.
+        for (IndexFeeder feeder : feeders) {
+            feeder.slotAddress = null;
+            feeder.initialized = false;
+        }
+    }
+
+    @Test
+    public void firstFeederInitializesAllFeedersInOnePass() throws Exception {
+        feeders.get(0).prepareForJob(false);
+
+        assertEquals(feederCount, bus.getCommands().size());
+        for (int address = 1; address <= feederCount; address++) {
+            assertTrue(bus.isInitialized(address));
+            assertTrue(feeders.get(address - 1).isInitialized());
+        }
+
+        // The others have nothing left to do
+        for (IndexFeeder feeder : feeders) {
+            feeder.prepareForJob(false);
+        }
+        assertEquals(feederCount, bus.getCommands().size());
+    }
+
+    @Test
+    public void slotCacheSavesAddressLookup() throws Exception {
+        forgetState();
+
+        prepareAll();
+
+        // One initialization per feeder, no address lookup
+        assertEquals(feederCount, bus.getCommands().size());
+        for (int address = 1; address <= feederCount; address++) {
+            IndexFeeder feeder = feeders.get(address - 1);
+            assertTrue(bus.getCommands().contains(initializeFeeder(address, feeder.getHardwareId())));
+            assertEquals(address, (int) feeder.getSlotAddress());
+            assertTrue(feeder.isInitialized());
+        }
+    }
+
+    @Test
+    public void movedFeederIsReverifiedOnItsOwn() throws Exception {
+        forgetState();
+
+        // Feeder 3 was moved to slot 10
+        IndexFeeder moved = feeders.get(2);
+        bus.remove(3);
+        bus.insert(10, moved.getHardwareId());
+        indexProperties.getFeederSlots().getSlot(10)
+                .setLocation(new Location(LengthUnit.Millimeters, 100, 0, 0, 0));
+
+        prepareAll();
+
+        List<String> expected = new ArrayList<>();
+        for (int address = 1; address <= feederCount; address++) {
+            expected.add(initializeFeeder(address, feeders.get(address - 1).getHardwareId()));
+        }
+        expected.add(getFeederAddress(moved.getHardwareId()));
+        expected.add(initializeFeeder(10, moved.getHardwareId()));
+        assertEquals(expected, bus.getCommands());
+
+        assertEquals(10, (int) moved.getSlotAddress());
+        assertTrue(moved.isInitialized());
+        assertSame(indexProperties.getFeederSlots().getSlot(10),
+                indexProperties.getFeederSlots().findSlotByHardwareId(moved.getHardwareId()));
+    }
+
+    @Test
+    public void disabledFeederIsNotCoveredByBusPass() throws Exception {
+        forgetState();
+        indexProperties.setFeederCommunicationMaxRetry(0);
+        IndexFeeder disabled = feeders.get(1);
+        disabled.setEnabled(false);
+
+        feeders.get(0).prepareForJob(false);
+
+        assertEquals(feederCount - 1, bus.getCommands().size());
+        assertFalse(disabled.isInitialized());
+        assertFalse(bus.isInitialized(2));
+
+        // Once enabled, it makes its own first attempt
+        disabled.setEnabled(true);
+        disabled.prepareForJob(false);
+
+        assertEquals(feederCount, bus.getCommands().size());
+        assertTrue(disabled.isInitialized());
+    }
+}
@@ -0,0 +1,81 @@
+package org.openpnp.machine.index;
+
+import org.openpnp.machine.index.protocol.PacketHelper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.openpnp.machine.index.protocol.IndexResponses.*;
+
+/**
+ * A simulated RS-485 bus of Index feeders. Answers the command packets the data actuator is read
+ * with, using the same PacketBuilder based responses as the feeders. Records every command, so
+ * tests can count the round trips.
+ */
+public class SimulatedIndexBus {
+    private final Map<Integer, String> feeders = new HashMap<>();
+    private final Set<Integer> initialized = new HashSet<>();
+    private final List<String> commands = new ArrayList<>();
+
+    public void insert(int address, String uuid) {
+        feeders.put(address, uuid);
+        initialized.remove(address);
+    }
+
+    public void remove(int address) {
+        feeders.remove(address);
+        initialized.remove(address);
+    }
+
+    public List<String> getCommands() {
+        return commands;
+    }
+
+    public boolean isInitialized(int address) {
+        return initialized.contains(address);
+    }
+
+    public synchronized String handle(String command) {
+        commands.add(command);
+
+        int address = PacketHelper.getByteAtIndex(command, 0);
+        int commandId = PacketHelper.getByteAtIndex(command, 2);
+
+        if (address == 0xFF && commandId == 0xC0) {
+            String uuid = command.substring(6, 30);
+            for (Map.Entry<Integer, String> entry : feeders.entrySet()) {
+                if (entry.getValue().equals(uuid)) {
+                    return GetFeederAddress.ok(entry.getKey(), uuid);
+                }
+            }
+            return Errors.timeout();
+        }
+
+        String uuid = feeders.get(address);
+        if (uuid == null) {
+            return Errors.timeout();
+        }
+
+        switch (commandId) {
+            case 0x01:
+                return GetFeederId.ok(address, uuid);
+            case 0x02:
+                if (!uuid.equals(command.substring(6, 30))) {
+                    return Errors.wrongFeederUUID(address, uuid);
+                }
+                initialized.add(address);
+                return InitializeFeeder.ok(address);
+            case 0x04:
+                if (!initialized.contains(address)) {
+                    return Errors.uninitializedFeeder(address, uuid);
+                }
+                return MoveFeedForward.ok(address);
+            default:
+                return Errors.timeout();
+        }
+    }
+}
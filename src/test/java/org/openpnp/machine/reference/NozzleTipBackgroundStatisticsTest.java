@@ -0,0 +1,133 @@
+package org.openpnp.machine.reference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+
+public class NozzleTipBackgroundStatisticsTest {
+    static {
+        nu.pattern.OpenCV.loadShared();
+    }
+
+    private static final int rows = 40;
+    private static final int cols = 50;
+    private static final int worstSaturation = 32;
+    private static final int maskSq = 18*18;
+
+    private static byte[] randomImage(Random random, int channels) {
+        byte data[] = new byte[rows*cols*channels];
+        random.nextBytes(data);
+        return data;
+    }
+
+    private static Mat toMat(byte data[], int channels) {
+        Mat image = new Mat(rows, cols, channels == 3 ? CvType.CV_8UC3 : CvType.CV_8UC1);
+        image.put(0, 0, data);
+        return image;
+    }
+
+    @Test
+    public void testKeyColorMatchesStoredImages() {
+        Random random = new Random(1);
+        List<byte[]> images = new ArrayList<>();
+        NozzleTipBackgroundStatistics statistics = new NozzleTipBackgroundStatistics(true, worstSaturation, maskSq);
+        for (int i = 0; i < 6; i++) {
+            byte data[] = randomImage(random, 3);
+            images.add(data);
+            Mat image = toMat(data, 3);
+            statistics.accumulate(image);
+            image.release();
+        }
+
+        // The histograms as formerly computed over all the stored images.
+        int histogramHueValue[] = new int[256*256];
+        int histogramMonochrome[] = new int[256];
+        int minSaturationAtValue[] = new int[256];
+        int maxSaturationAtValue[] = new int[256];
+        Arrays.fill(minSaturationAtValue, 255);
+        byte brightest[] = images.get(0).clone();
+        for (byte data[] : images) {
+            for (int y = 0; y < rows; y++) {
+                for (int x = 0, idx = y*cols*3; x < cols; x++, idx += 3) {
+                    int dx = x - cols/2;
+                    int dy = y - rows/2;
+                    if (dx*dx + dy*dy < maskSq) {
+                        int hue = Byte.toUnsignedInt(data[idx+0]);
+                        int saturation = Byte.toUnsignedInt(data[idx+1]);
+                        int value = Byte.toUnsignedInt(data[idx+2]);
+                        if (saturation >= worstSaturation) {
+                            histogramHueValue[hue*256 + value]++;
+                            minSaturationAtValue[value] = Math.min(minSaturationAtValue[value], saturation);
+                            maxSaturationAtValue[value] = Math.max(maxSaturationAtValue[value], saturation);
+                        }
+                        else {
+                            histogramMonochrome[value]++;
+                        }
+                        if (value > Byte.toUnsignedInt(brightest[idx+2])) {
+                            System.arraycopy(data, idx, brightest, idx, 3);
+                        }
+                    }
+                }
+            }
+        }
+
+        assertEquals(6, statistics.getSamples());
+        assertEquals(3, statistics.getChannels());
+        assertArrayEquals(histogramHueValue, statistics.getHistogramHueValue());
+        assertArrayEquals(histogramMonochrome, statistics.getHistogramMonochrome());
+        assertArrayEquals(minSaturationAtValue, statistics.getMinSaturationAtValue());
+        assertArrayEquals(maxSaturationAtValue, statistics.getMaxSaturationAtValue());
+        // Compare the brightest observation within the mask only.
+        byte observed[] = statistics.getBrightestObservation();
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0, idx = y*cols*3; x < cols; x++, idx += 3) {
+                int dx = x - cols/2;
+                int dy = y - rows/2;
+                if (dx*dx + dy*dy < maskSq) {
+                    assertArrayEquals(Arrays.copyOfRange(brightest, idx, idx + 3),
+                            Arrays.copyOfRange(observed, idx, idx + 3));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMonochromeAndMismatchedImages() {
+        Random random = new Random(2);
+        int histogramMonochrome[] = new int[256];
+        NozzleTipBackgroundStatistics statistics = new NozzleTipBackgroundStatistics(false, worstSaturation, maskSq);
+        for (int i = 0; i < 4; i++) {
+            byte data[] = randomImage(random, 1);
+            for (int y = 0; y < rows; y++) {
+                for (int x = 0; x < cols; x++) {
+                    int dx = x - cols/2;
+                    int dy = y - rows/2;
+                    if (dx*dx + dy*dy < maskSq) {
+                        histogramMonochrome[Byte.toUnsignedInt(data[y*cols + x])]++;
+                    }
+                }
+            }
+            Mat image = toMat(data, 1);
+            statistics.accumulate(image);
+            image.release();
+        }
+        // Images with the wrong channels or size are ignored.
+        Mat color = new Mat(rows, cols, CvType.CV_8UC3);
+        statistics.accumulate(color);
+        color.release();
+        Mat small = new Mat(rows/2, cols, CvType.CV_8UC1);
+        statistics.accumulate(small);
+        small.release();
+
+        assertEquals(4, statistics.getSamples());
+        assertArrayEquals(histogramMonochrome, statistics.getHistogramMonochrome());
+    }
+}
@@ -0,0 +1,241 @@
+package org.openpnp.machine.reference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.swing.Action;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openpnp.gui.support.Wizard;
+import org.openpnp.machine.reference.driver.ReferenceAdvancedMotionPlanner;
+import org.openpnp.model.Board;
+import org.openpnp.model.BoardLocation;
+import org.openpnp.model.Configuration;
+import org.openpnp.model.Job;
+import org.openpnp.model.Length;
+import org.openpnp.model.LengthUnit;
+import org.openpnp.model.Location;
+import org.openpnp.model.Package;
+import org.openpnp.model.Part;
+import org.openpnp.model.Placement;
+import org.openpnp.model.Solutions;
+import org.openpnp.model.Solutions.Issue;
+import org.openpnp.spi.JobProcessor.JobProcessorException;
+import org.openpnp.spi.Nozzle;
+import org.openpnp.spi.PropertySheetHolder;
+
+import com.google.common.io.Files;
+
+public class ReferencePnpJobProcessorTest {
+    ReferenceMachine machine;
+    ReferenceAdvancedMotionPlanner motionPlanner;
+    ReferencePnpJobProcessor jobProcessor;
+
+    @BeforeEach
+    public void before() throws Exception {
+        File workingDirectory = Files.createTempDir();
+        workingDirectory = new File(workingDirectory, ".openpnp");
+        Configuration.initialize(workingDirectory);
+        Configuration.get().load();
+        machine = (ReferenceMachine) Configuration.get().getMachine();
+        motionPlanner = new ReferenceAdvancedMotionPlanner();
+        machine.setMotionPlanner(motionPlanner);
+        jobProcessor = (ReferencePnpJobProcessor) machine.getPnpJobProcessor();
+    }
+
+    private List<Issue> findUncoordinatedIssues(Solutions.Subject subject) {
+        Solutions solutions = machine.getSolutions();
+        solutions.findIssues();
+        solutions.publishIssues();
+        List<Issue> issues = new ArrayList<>();
+        for (Issue issue : solutions.getIssues()) {
+            if (issue.getSubject() == subject 
+                    && issue.getIssue().contains("not coordinated before actuation")) {
+                issues.add(issue);
+            }
+        }
+        return issues;
+    }
+
+    @Test
+    public void testContinuousMotionScope() throws Exception {
+        List<Boolean> continuous = new ArrayList<>();
+        ReferencePnpJobProcessor.Step step = () -> {
+            continuous.add(motionPlanner.isContinuousMotion());
+            return null;
+        };
+        // Off by default.
+        assertFalse(jobProcessor.isContinuousMotion());
+        jobProcessor.step(step);
+        jobProcessor.setContinuousMotion(true);
+        jobProcessor.step(step);
+        // The scope ends with the step, also when it fails.
+        assertFalse(motionPlanner.isContinuousMotion());
+        JobProcessorException exception = new JobProcessorException(null, "Step failed.");
+        assertSame(exception, assertThrows(JobProcessorException.class, () -> jobProcessor.step(() -> {
+            continuous.add(motionPlanner.isContinuousMotion());
+            throw exception;
+        })));
+        assertFalse(motionPlanner.isContinuousMotion());
+        assertEquals(Arrays.asList(false, true, true), continuous);
+        // Generally allowed continuous motion is not affected.
+        motionPlanner.setAllowContinuousMotion(true);
+        jobProcessor.step(step);
+        assertTrue(motionPlanner.isContinuousMotion());
+        assertFalse(motionPlanner.setContinuousMotionScope(false));
+    }
+
+    @Test
+    public void testUncoordinatedActuatorIssue() throws Exception {
+        ReferenceActuator actuator = new ReferenceActuator();
+        actuator.setName("Uncoordinated Test Actuator");
+        actuator.setCoordinatedBeforeActuate(false);
+        machine.addActuator(actuator);
+        // Only an issue with continuous motion.
+        assertTrue(findUncoordinatedIssues(actuator).isEmpty());
+        jobProcessor.setContinuousMotion(true);
+        List<Issue> issues = findUncoordinatedIssues(actuator);
+        assertEquals(1, issues.size());
+        issues.get(0).setState(Solutions.State.Solved);
+        assertTrue(actuator.isCoordinatedBeforeActuate());
+        assertTrue(findUncoordinatedIssues(actuator).isEmpty());
+    }
+
+    /**
+     * A feeder that only records its job preparations.
+     */
+    public static class PrepCountingFeeder extends ReferenceFeeder {
+        List<Boolean> preparations = new ArrayList<>();
+
+        @Override
+        public void prepareForJob(boolean visit) throws Exception {
+            preparations.add(visit);
+        }
+
+        @Override
+        public Location getPickLocation() throws Exception {
+            return location;
+        }
+
+        @Override
+        public void feed(Nozzle nozzle) throws Exception {
+        }
+
+        @Override
+        public Wizard getConfigurationWizard() {
+            return null;
+        }
+
+        @Override
+        public String getPropertySheetHolderTitle() {
+            return null;
+        }
+
+        @Override
+        public PropertySheetHolder[] getChildPropertySheetHolders() {
+            return null;
+        }
+
+        @Override
+        public Action[] getPropertySheetHolderActions() {
+            return null;
+        }
+    }
+
+    private Job createJob(Board board) {
+        Job job = new Job();
+        BoardLocation boardLocation = new BoardLocation(board);
+        boardLocation.setLocation(new Location(LengthUnit.Millimeters, 10, 10, 0, 0));
+        job.addBoardLocation(boardLocation);
+        return job;
+    }
+
+    private void addPlacement(Board board, String id, Part part) {
+        Placement placement = new Placement(id);
+        placement.setPart(part);
+        placement.setLocation(new Location(LengthUnit.Millimeters, 10, 10, 0, 0));
+        board.addPlacement(placement);
+    }
+
+    @Test
+    public void testPreFlightReportsAllSetupErrors() throws Exception {
+        // A package that no nozzle tip can handle.
+        Package unloadable = new Package("Unloadable");
+        Configuration.get().addPackage(unloadable);
+        Board board = new Board();
+        board.setName("Setup Errors");
+        int partCount = 13;
+        List<Part> parts = new ArrayList<>();
+        for (int i = 0; i < partCount; i++) {
+            Part part = new Part(String.format("Broken-%02d", i));
+            if (i % 2 == 0) {
+                part.setPackage(null);
+            }
+            else {
+                part.setPackage(unloadable);
+                part.setHeight(new Length(1, LengthUnit.Millimeters));
+            }
+            Configuration.get().addPart(part);
+            parts.add(part);
+            // Several placements per part, the part error is only reported once.
+            addPlacement(board, "R"+i+"a", part);
+            addPlacement(board, "R"+i+"b", part);
+        }
+        jobProcessor.initialize(createJob(board));
+        JobProcessorException exception = assertThrows(JobProcessorException.class, 
+                () -> jobProcessor.next());
+
+        // All the errors are reported together, in placement order, capped.
+        String[] lines = exception.getMessage().split("\n");
+        assertEquals(partCount+" setup errors found:", lines[0]);
+        assertEquals(1 + 10 + 1, lines.length);
+        for (int i = 0; i < 10; i++) {
+            Part part = parts.get(i);
+            String expected = (i % 2 == 0 ? 
+                    "No package set for part " : "No compatible, loadable nozzle tip found for part ")
+                    +part.getId()+".";
+            assertEquals(expected, lines[1 + i]);
+        }
+        assertEquals("... and 3 more, see the log.", lines[11]);
+        assertSame(parts.get(0), exception.getSource());
+        jobProcessor.abort();
+    }
+
+    @Test
+    public void testPreFlightPrepsSharedFeederOnce() throws Exception {
+        Part part = Configuration.get().getPart("R0805-1K");
+        PrepCountingFeeder feeder = new PrepCountingFeeder();
+        feeder.setName("Shared Feeder");
+        feeder.setPart(part);
+        feeder.setLocation(new Location(LengthUnit.Millimeters, 100, 20, -5, 0));
+        feeder.setEnabled(true);
+        machine.addFeeder(feeder);
+        Board board = new Board();
+        board.setName("Shared Feeder");
+        for (int i = 0; i < 5; i++) {
+            addPlacement(board, "R"+i, part);
+        }
+        machine.setEnabled(true);
+        try {
+            machine.home();
+            jobProcessor.initialize(createJob(board));
+            // PreFlight succeeds.
+            assertTrue(jobProcessor.next());
+            // Prepared once, without a visit, as it has no job preparation location.
+            assertEquals(Arrays.asList(false), feeder.preparations);
+            jobProcessor.abort();
+        }
+        finally {
+            machine.setEnabled(false);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.openpnp.machine.reference.camera;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class AutoFocusProviderTest {
+
+    @Test
+    public void testFocusPeak() {
+        // Unevenly spaced frames, as captured during a sweep, on a parabolic focus curve.
+        double peak = 0.437;
+        List<double[]> samples = new ArrayList<>();
+        for (double fraction : new double[] { 0.0, 0.13, 0.21, 0.36, 0.47, 0.61, 0.7, 0.88, 1.0 }) {
+            samples.add(new double[] { fraction, 100 - 300*Math.pow(fraction - peak, 2) });
+        }
+        assertEquals(peak, AutoFocusProvider.focusPeak(samples), 1e-9);
+
+        // Peak at the end of the sweep.
+        samples.clear();
+        samples.add(new double[] { 0.0, 1.0 });
+        samples.add(new double[] { 0.5, 2.0 });
+        samples.add(new double[] { 1.0, 3.0 });
+        assertEquals(1.0, AutoFocusProvider.focusPeak(samples), 1e-9);
+
+        // Flat top stays between the best samples.
+        samples.clear();
+        samples.add(new double[] { 0.2, 1.0 });
+        samples.add(new double[] { 0.4, 2.0 });
+        samples.add(new double[] { 0.6, 2.0 });
+        double fraction = AutoFocusProvider.focusPeak(samples);
+        assertTrue(fraction >= 0.2 && fraction <= 0.6);
+    }
+
+    /**
+     * Simulate the samples of a sweep at constant velocity, as mapped by sweepPass(). The frames are exposed 
+     * trueLag before they are returned, but mapped to the location at the assumed lag.
+     */
+    private static List<double[]> sweep(double from, double to, double duration, double peak, 
+            double trueLag, double assumedLag) {
+        List<double[]> samples = new ArrayList<>();
+        double velocity = (to - from)/duration;
+        for (double t = 0; t - assumedLag <= duration; t += 0.01) {
+            double exposed = from + velocity*Math.max(0, Math.min(duration, t - trueLag));
+            double time = t - assumedLag;
+            double fraction = from + velocity*Math.max(0, Math.min(duration, time));
+            samples.add(new double[] { fraction, 100 - 300*Math.pow(exposed - peak, 2), time });
+        }
+        return samples;
+    }
+
+    @Test
+    public void testSweepFrameLag() {
+        double peak = 0.437;
+        double lag = 0.03;
+        // Uncalibrated, the peaks are shifted in the direction of the sweep.
+        List<double[]> forward = sweep(0.3, 0.6, 1.0, peak, lag, 0);
+        List<double[]> backward = sweep(0.6, 0.3, 1.0, peak, lag, 0);
+        double forwardPeak = AutoFocusProvider.focusPeak(forward);
+        double backwardPeak = AutoFocusProvider.focusPeak(backward);
+        assertEquals(peak + 0.3*lag, forwardPeak, 1e-6);
+        assertEquals(peak - 0.3*lag, backwardPeak, 1e-6);
+        double velocity = AutoFocusProvider.peakVelocity(forward);
+        assertEquals(0.3, velocity, 1e-6);
+        // The difference calibrates the lag, the mean is the peak.
+        assertEquals(lag, AutoFocusProvider.frameLagError(forwardPeak, backwardPeak, velocity), 1e-6);
+        assertEquals(peak, (forwardPeak + backwardPeak)/2, 1e-6);
+        // Calibrated, a single sweep finds the peak.
+        assertEquals(peak, AutoFocusProvider.focusPeak(sweep(0.3, 0.6, 1.0, peak, lag, lag)), 1e-6);
+    }
+}
@@ -0,0 +1,104 @@
+package org.openpnp.machine.reference.camera;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.openpnp.model.LengthUnit;
+import org.openpnp.model.Location;
+
+public class CameraFrameRecordingTest {
+    private static BufferedImage createImage(Random random, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        return image;
+    }
+
+    private static void assertImageEquals(BufferedImage expected, BufferedImage actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+            }
+        }
+    }
+
+    private void testRoundTrip(boolean compressed) throws Exception {
+        File file = File.createTempFile("recording", ".frames");
+        file.deleteOnExit();
+        Random random = new Random(compressed ? 1 : 2);
+        BufferedImage images[] = new BufferedImage[5];
+        Location locations[] = new Location[images.length];
+        try (CameraFrameRecording.Writer writer = new CameraFrameRecording.Writer(file, compressed, images.length)) {
+            for (int i = 0; i < images.length; i++) {
+                images[i] = createImage(random, 32 + i, 24);
+                // Recorded in millimeters.
+                locations[i] = new Location(LengthUnit.Inches, i, -i, 0.5, 90*i);
+                assertTrue(writer.record(images[i], locations[i]));
+                Thread.sleep(2);
+            }
+            writer.close();
+            assertEquals(images.length, writer.getFramesWritten());
+            assertEquals(0, writer.getFramesDropped());
+        }
+        try (CameraFrameRecording.Reader reader = new CameraFrameRecording.Reader(file)) {
+            assertEquals(images.length, reader.getFrameCount());
+            long timeNs = -1;
+            for (int i = 0; i < images.length; i++) {
+                CameraFrameRecording.Frame frame = reader.getFrame(i);
+                assertEquals(reader.getFrameTimeNs(i), frame.getTimeNs());
+                assertTrue(frame.getTimeNs() > timeNs);
+                timeNs = frame.getTimeNs();
+                Location expected = locations[i].convertToUnits(LengthUnit.Millimeters);
+                assertEquals(LengthUnit.Millimeters, frame.getLocation().getUnits());
+                assertEquals(expected.getX(), frame.getLocation().getX(), 1e-9);
+                assertEquals(expected.getY(), frame.getLocation().getY(), 1e-9);
+                assertEquals(expected.getZ(), frame.getLocation().getZ(), 1e-9);
+                assertEquals(expected.getRotation(), frame.getLocation().getRotation(), 1e-9);
+                assertImageEquals(images[i], frame.getImage());
+            }
+        }
+    }
+
+    @Test
+    public void testRoundTripRaw() throws Exception {
+        testRoundTrip(false);
+    }
+
+    @Test
+    public void testRoundTripCompressed() throws Exception {
+        testRoundTrip(true);
+    }
+
+    @Test
+    public void testTruncatedAndInvalidFiles() throws Exception {
+        File file = File.createTempFile("recording", ".frames");
+        file.deleteOnExit();
+        Random random = new Random(3);
+        try (CameraFrameRecording.Writer writer = new CameraFrameRecording.Writer(file, false, 2)) {
+            writer.record(createImage(random, 16, 16), new Location(LengthUnit.Millimeters));
+            writer.record(createImage(random, 16, 16), new Location(LengthUnit.Millimeters));
+        }
+        // Cut into the second frame, as if the application was terminated while recording.
+        byte data[] = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(data, data.length - 10));
+        try (CameraFrameRecording.Reader reader = new CameraFrameRecording.Reader(file)) {
+            assertEquals(1, reader.getFrameCount());
+        }
+        Files.write(file.toPath(), new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9 });
+        assertThrows(IOException.class, () -> new CameraFrameRecording.Reader(file));
+    }
+}
@@ -0,0 +1,110 @@
+package org.openpnp.machine.reference.camera.calibration;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A camera calibration data set with the golden results of the solver, as captured from the
+ * CameraCalibrationUtils before its rewrite on primitive arrays. The data sets are in
+ * src/test/resources/samples/calibration, see the comments in the files for the format.
+ */
+public class CalibrationDataSet {
+    public int flags;
+    public double[] trueParameters;
+    public double[] startParameters;
+    public double[][][] testPattern3dPoints;
+    public double[][][] testPatternImagePoints;
+
+    public double[] parameters;
+    public List<Integer> outliers = new ArrayList<>();
+    public double drms;
+    public double[][][] modeledImagePoints;
+
+    public int getNumberOfTestPatterns() {
+        return testPattern3dPoints.length;
+    }
+
+    public static CalibrationDataSet load(String name) throws IOException {
+        String resource = "samples/calibration/"+name+".txt";
+        InputStream in = CalibrationDataSet.class.getClassLoader().getResourceAsStream(resource);
+        if (in == null) {
+            throw new IOException("Calibration data set "+resource+" not found.");
+        }
+        CalibrationDataSet dataSet = new CalibrationDataSet();
+        List<double[][]> points3d = new ArrayList<>();
+        List<double[][]> imagePoints = new ArrayList<>();
+        List<double[][]> modeledPoints = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] tokens = line.split(" ");
+                switch (tokens[0]) {
+                    case "flags":
+                        dataSet.flags = Integer.parseInt(tokens[1]);
+                        break;
+                    case "true":
+                        dataSet.trueParameters = values(tokens);
+                        break;
+                    case "start":
+                        dataSet.startParameters = values(tokens);
+                        break;
+                    case "pattern": {
+                        int n = Integer.parseInt(tokens[2]);
+                        double[][] pattern3d = new double[n][];
+                        double[][] patternImage = new double[n][];
+                        for (int i = 0; i < n; i++) {
+                            double[] point = values(reader.readLine().split(" "));
+                            pattern3d[i] = new double[] { point[0], point[1], point[2] };
+                            patternImage[i] = new double[] { point[3], point[4] };
+                        }
+                        points3d.add(pattern3d);
+                        imagePoints.add(patternImage);
+                        break;
+                    }
+                    case "parameters":
+                        dataSet.parameters = values(tokens);
+                        break;
+                    case "outliers":
+                        for (int i = 1; i < tokens.length; i++) {
+                            dataSet.outliers.add(Integer.parseInt(tokens[i]));
+                        }
+                        break;
+                    case "drms":
+                        dataSet.drms = Double.parseDouble(tokens[1]);
+                        break;
+                    case "modeled": {
+                        int n = Integer.parseInt(tokens[2]);
+                        double[][] modeled = new double[n][];
+                        for (int i = 0; i < n; i++) {
+                            modeled[i] = values(reader.readLine().split(" "));
+                        }
+                        modeledPoints.add(modeled);
+                        break;
+                    }
+                    default:
+                        throw new IOException("Unexpected line in "+resource+": "+line);
+                }
+            }
+        }
+        dataSet.testPattern3dPoints = points3d.toArray(new double[points3d.size()][][]);
+        dataSet.testPatternImagePoints = imagePoints.toArray(new double[imagePoints.size()][][]);
+        dataSet.modeledImagePoints = modeledPoints.toArray(new double[modeledPoints.size()][][]);
+        return dataSet;
+    }
+
+    private static double[] values(String[] tokens) {
+        double[] values = new double[tokens.length - 1];
+        for (int i = 1; i < tokens.length; i++) {
+            values[i - 1] = Double.parseDouble(tokens[i]);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,54 @@
+package org.openpnp.machine.reference.camera.calibration;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark of the camera calibration solver over the saved calibration data sets, see
+ * {@link CalibrationDataSet}. Run it from the test classpath with the main() method, the
+ * benchmark is generated by the JMH annotation processor in the test compile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CameraCalibrationBenchmark {
+    @Param({ "principal-point-fixed", "aspect-principal-tangential-fixed", "large" })
+    public String dataSetName;
+
+    private CalibrationDataSet dataSet;
+
+    @Setup
+    public void setup() throws Exception {
+        dataSet = CalibrationDataSet.load(dataSetName);
+    }
+
+    @Benchmark
+    public double computeBestCameraParameters() throws Exception {
+        return CameraCalibrationUtils.computeBestCameraParameters(dataSet.testPattern3dPoints,
+                dataSet.testPatternImagePoints, new double[dataSet.getNumberOfTestPatterns()][][],
+                new ArrayList<>(), dataSet.startParameters.clone(), dataSet.flags);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(CameraCalibrationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,61 @@
+package org.openpnp.machine.reference.camera.calibration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class CameraCalibrationUtilsTest {
+
+    /**
+     * Solve the data set and compare with the golden results of the previous solver.
+     */
+    private void testSameSolution(String name) throws Exception {
+        CalibrationDataSet dataSet = CalibrationDataSet.load(name);
+        int numberOfTestPatterns = dataSet.getNumberOfTestPatterns();
+
+        double[] parameters = dataSet.startParameters.clone();
+        double[][][] modeledImagePoints = new double[numberOfTestPatterns][][];
+        List<Integer> outliers = new ArrayList<>();
+        double drms = CameraCalibrationUtils.computeBestCameraParameters(dataSet.testPattern3dPoints,
+                dataSet.testPatternImagePoints, modeledImagePoints, outliers, parameters, dataSet.flags);
+
+        // Same solution as the previous solver.
+        assertEquals(dataSet.outliers, outliers);
+        assertEquals(dataSet.drms, drms, 1e-9);
+        for (int i = 0; i < parameters.length; i++) {
+            assertEquals(dataSet.parameters[i], parameters[i],
+                    1e-9*Math.max(1, Math.abs(dataSet.parameters[i])), "parameter "+i);
+        }
+        for (int i = 0; i < numberOfTestPatterns; i++) {
+            for (int j = 0; j < dataSet.testPattern3dPoints[i].length; j++) {
+                assertEquals(dataSet.modeledImagePoints[i][j][0], modeledImagePoints[i][j][0], 1e-6);
+                assertEquals(dataSet.modeledImagePoints[i][j][1], modeledImagePoints[i][j][1], 1e-6);
+            }
+        }
+        // And it is the right one, within the noise. The gross outliers are rejected.
+        assertTrue(outliers.size() >= dataSet.testPattern3dPoints[0].length*numberOfTestPatterns/50,
+                "outliers "+outliers);
+        assertTrue(drms < 0.5, "DRMS "+drms);
+        assertEquals(dataSet.trueParameters[0], parameters[0], 10);
+        assertEquals(dataSet.trueParameters[12], parameters[12], 0.5);
+    }
+
+    @Test
+    public void testSameSolutionAsPreviousSolver() throws Exception {
+        testSameSolution("principal-point-fixed");
+    }
+
+    @Test
+    public void testSameSolutionWithFixedParameters() throws Exception {
+        testSameSolution("aspect-principal-tangential-fixed");
+    }
+
+    @Test
+    public void testSameSolutionLargeDataSet() throws Exception {
+        testSameSolution("large");
+    }
+}
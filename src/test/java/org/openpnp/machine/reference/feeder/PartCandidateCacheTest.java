@@ -0,0 +1,69 @@
+package org.openpnp.machine.reference.feeder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+import org.openpnp.machine.reference.feeder.PartCandidateCache.Candidate;
+import org.openpnp.model.LengthUnit;
+import org.openpnp.model.Location;
+
+public class PartCandidateCacheTest {
+    private static Candidate candidate(double x, double y, double radius) {
+        return new Candidate(new Location(LengthUnit.Millimeters, x, y, 0, 0), radius, null);
+    }
+
+    @Test
+    public void testTakeNearest() {
+        PartCandidateCache cache = new PartCandidateCache();
+        cache.add(candidate(10, 0, 1));
+        cache.add(candidate(0, 10, 1));
+        cache.add(candidate(5, 5, 1));
+        Location origin = new Location(LengthUnit.Millimeters);
+        assertEquals(5, cache.take(origin, 0).getLocation().getX(), 1e-9);
+        assertEquals(2, cache.size());
+        cache.take(origin, 0);
+        cache.take(origin, 0);
+        assertNull(cache.take(origin, 0));
+    }
+
+    @Test
+    public void testExclusionZone() {
+        PartCandidateCache cache = new PartCandidateCache();
+        // Two touching parts and one standing apart.
+        cache.add(candidate(0, 0, 1));
+        cache.add(candidate(1.5, 0, 1));
+        cache.add(candidate(10, 0, 1));
+        // The pick might have disturbed its neighbor.
+        cache.markPicked(new Location(LengthUnit.Millimeters, 0.1, 0, 0, 0));
+        assertEquals(1, cache.size());
+        assertEquals(10, cache.take(new Location(LengthUnit.Millimeters), 0).getLocation().getX(), 1e-9);
+    }
+
+    @Test
+    public void testInvalidation() throws Exception {
+        PartCandidateCache cache = new PartCandidateCache();
+        cache.add(candidate(0, 0, 1));
+        cache.add(candidate(10, 0, 1));
+        Thread.sleep(20);
+        // Expired.
+        assertNull(cache.take(new Location(LengthUnit.Millimeters), 10));
+        assertEquals(0, cache.size());
+
+        cache.add(candidate(0, 0, 1));
+        cache.invalidate();
+        assertNull(cache.take(new Location(LengthUnit.Millimeters), 0));
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        PartCandidateCache cache = new PartCandidateCache();
+        cache.add(candidate(0, 0, 1));
+        // Disabled by default, the pipeline must be run.
+        assertNull(cache.feedCandidate(null, new Location(LengthUnit.Millimeters), (location) -> location));
+        assertEquals(1, cache.size());
+        // Toggling it drops what was cached.
+        cache.setEnabled(true);
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,83 @@
+package org.openpnp.machine.reference.feeder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openpnp.machine.reference.feeder.ReferenceStripFeeder.HoleRegistration;
+import org.openpnp.model.Length;
+import org.openpnp.model.LengthUnit;
+import org.openpnp.model.Location;
+
+public class ReferenceStripFeederTest {
+    private static final Length holePitch = new Length(4, LengthUnit.Millimeters);
+    private static final Length lineTolerance = new Length(0.5, LengthUnit.Millimeters);
+
+    @Test
+    public void testHoleRegistration() {
+        // Tape along Y, the holes slightly stretched and tilted against the nominal line.
+        Location reference = new Location(LengthUnit.Millimeters, 100, 50, 0, 0);
+        Location last = new Location(LengthUnit.Millimeters, 100, 150, 0, 0);
+        List<Location> holes = new ArrayList<>();
+        for (int k = 4; k <= 7; k++) {
+            holes.add(new Location(LengthUnit.Millimeters, 100 + 0.01*k, 50 + 4.02*k, 0, 0));
+        }
+        // A hole of the neighboring tape.
+        holes.add(new Location(LengthUnit.Millimeters, 112, 70, 0, 0));
+        HoleRegistration registration = HoleRegistration.fit(reference, last, holePitch, 25, lineTolerance, holes);
+        assertEquals(4, registration.getIndexMin());
+        assertEquals(7, registration.getIndexMax());
+        assertTrue(registration.getDrift() < 1e-6);
+        Location hole = registration.get(6);
+        assertEquals(100.06, hole.getX(), 1e-6);
+        assertEquals(74.12, hole.getY(), 1e-6);
+        // Outside the registered window.
+        assertNull(registration.get(3));
+        assertNull(registration.get(8));
+        assertEquals(82.16, registration.predict(8).getY(), 1e-6);
+    }
+
+    @Test
+    public void testHoleRegistrationDrift() {
+        Location reference = new Location(LengthUnit.Millimeters, 0, 0, 0, 0);
+        Location last = new Location(LengthUnit.Millimeters, 100, 0, 0, 0);
+        List<Location> holes = new ArrayList<>();
+        holes.add(new Location(LengthUnit.Millimeters, 8, 0.1, 0, 0));
+        holes.add(new Location(LengthUnit.Millimeters, 12, -0.1, 0, 0));
+        holes.add(new Location(LengthUnit.Millimeters, 16, 0.1, 0, 0));
+        HoleRegistration registration = HoleRegistration.fit(reference, last, holePitch, 25, lineTolerance, holes);
+        assertTrue(registration.getDrift() > 0.05);
+        registration.addDrift(0.5);
+        assertEquals(0.5, registration.getDrift(), 1e-9);
+        // No hole on the line.
+        holes.clear();
+        holes.add(new Location(LengthUnit.Millimeters, 8, 2, 0, 0));
+        assertNull(HoleRegistration.fit(reference, last, holePitch, 25, lineTolerance, holes));
+    }
+
+    @Test
+    public void testHoleRegistrationEndOfStrip() {
+        Location reference = new Location(LengthUnit.Millimeters, 0, 0, 0, 0);
+        Location last = new Location(LengthUnit.Millimeters, 24, 0, 0, 0);
+        List<Location> holes = new ArrayList<>();
+        for (int k = -2; k <= 9; k++) {
+            holes.add(new Location(LengthUnit.Millimeters, 4*k, 0, 0, 0));
+        }
+        // Only the holes of the strip are registered, i.e. from the reference hole to the last hole.
+        HoleRegistration registration = HoleRegistration.fit(reference, last, holePitch, 6, lineTolerance, holes);
+        assertEquals(0, registration.getIndexMin());
+        assertEquals(6, registration.getIndexMax());
+        assertEquals(24, registration.get(6).getX(), 1e-6);
+        assertNull(registration.get(-1));
+        assertNull(registration.get(7));
+        // Holes past the end of the strip only.
+        holes.clear();
+        holes.add(new Location(LengthUnit.Millimeters, 28, 0, 0, 0));
+        holes.add(new Location(LengthUnit.Millimeters, 32, 0, 0, 0));
+        assertNull(HoleRegistration.fit(reference, last, holePitch, 6, lineTolerance, holes));
+    }
+}
@@ -0,0 +1,185 @@
+package org.openpnp.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openpnp.machine.reference.ReferenceMachine;
+import org.openpnp.machine.reference.feeder.ReferenceTubeFeeder;
+import org.openpnp.model.Solutions.Issue;
+import org.openpnp.model.Solutions.Severity;
+import org.openpnp.model.Solutions.State;
+
+import com.google.common.io.Files;
+
+public class SolutionsTest {
+    ReferenceMachine machine;
+    Solutions solutions;
+    List<Boolean> analysisOnEdt;
+    List<ReferenceTubeFeeder> feeders;
+
+    @BeforeEach
+    public void before() throws Exception {
+        File workingDirectory = Files.createTempDir();
+        workingDirectory = new File(workingDirectory, ".openpnp");
+        Configuration.initialize(workingDirectory);
+        Configuration.get().load();
+        machine = (ReferenceMachine) Configuration.get().getMachine();
+        solutions = machine.getSolutions();
+        analysisOnEdt = Collections.synchronizedList(new ArrayList<>());
+        feeders = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            ReferenceTubeFeeder feeder = new ReferenceTubeFeeder() {
+                @Override
+                public void findIssues(Solutions solutions) {
+                    analysisOnEdt.add(SwingUtilities.isEventDispatchThread());
+                    solutions.add(new Solutions.PlainIssue(this, "Test issue of "+getName(),
+                            "Test solution", Severity.Warning, null));
+                    super.findIssues(solutions);
+                }
+            };
+            feeder.setName("Test Feeder "+i);
+            machine.addFeeder(feeder);
+            feeders.add(feeder);
+        }
+    }
+
+    private static List<String> getFingerprints(List<Issue> issues) {
+        List<String> fingerprints = new ArrayList<>();
+        for (Issue issue : issues) {
+            fingerprints.add(issue.getFingerprint());
+        }
+        return fingerprints;
+    }
+
+    private List<Issue> findIssuesInBackground() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        SwingUtilities.invokeLater(() -> solutions.findIssuesInBackground(() -> done.countDown()));
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        List<Issue> issues = new ArrayList<>();
+        SwingUtilities.invokeAndWait(() -> issues.addAll(solutions.getIssues()));
+        return issues;
+    }
+
+    private Issue getIssue(List<Issue> issues, ReferenceTubeFeeder feeder) {
+        for (Issue issue : issues) {
+            if (issue.getSubject() == feeder) {
+                return issue;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void testFreshIssues() throws Exception {
+        solutions.findIssues();
+        solutions.publishIssues();
+        List<Issue> issues = new ArrayList<>(solutions.getIssues());
+        assertTrue(issues.size() >= 2);
+        Issue dismissed = issues.get(issues.size() - 2);
+        dismissed.setState(State.Dismissed);
+        assertTrue(solutions.isSolutionsIssueDismissed(dismissed));
+
+        solutions.findIssues();
+        solutions.publishIssues();
+        List<Issue> again = solutions.getIssues();
+        for (Issue issue : again) {
+            for (Issue previous : issues) {
+                assertNotSame(previous, issue);
+            }
+            if (issue.getFingerprint().equals(dismissed.getFingerprint())) {
+                assertEquals(State.Dismissed, issue.getState());
+            }
+            else {
+                assertTrue(issue.getState() != State.Solved);
+            }
+        }
+        // The previous instance is not touched by the new search.
+        assertEquals(State.Dismissed, dismissed.getState());
+        dismissed.setState(State.Open);
+    }
+
+    @Test
+    public void testBackgroundSearch() throws Exception {
+        solutions.findIssues();
+        solutions.publishIssues();
+        List<Issue> issues = new ArrayList<>(solutions.getIssues());
+        analysisOnEdt.clear();
+
+        List<Issue> background = findIssuesInBackground();
+        // Same issues in the same order.
+        assertEquals(getFingerprints(issues), getFingerprints(background));
+        // The subjects are analyzed off the Event Dispatch Thread.
+        assertEquals(Arrays.asList(false, false), analysisOnEdt);
+
+        // A superseded search is not completed.
+        AtomicBoolean superseded = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(1);
+        SwingUtilities.invokeAndWait(() -> {
+            solutions.findIssuesInBackground(() -> superseded.set(true));
+            solutions.findIssuesInBackground(() -> done.countDown());
+        });
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        SwingUtilities.invokeAndWait(() -> {});
+        assertFalse(superseded.get());
+        assertEquals(getFingerprints(issues), getFingerprints(solutions.getIssues()));
+    }
+
+    @Test
+    public void testAnalysisCache() throws Exception {
+        List<Issue> issues = findIssuesInBackground();
+        assertEquals(2, analysisOnEdt.size());
+
+        // Unchanged subjects are not analyzed again.
+        List<Issue> again = findIssuesInBackground();
+        assertEquals(2, analysisOnEdt.size());
+        assertEquals(getFingerprints(issues), getFingerprints(again));
+        assertSame(getIssue(issues, feeders.get(0)), getIssue(again, feeders.get(0)));
+
+        // A property change invalidates only the subject that changed.
+        feeders.get(0).setName("Renamed Test Feeder");
+        again = findIssuesInBackground();
+        assertEquals(3, analysisOnEdt.size());
+        assertEquals("Test issue of Renamed Test Feeder", getIssue(again, feeders.get(0)).getIssue());
+        assertSame(getIssue(issues, feeders.get(1)), getIssue(again, feeders.get(1)));
+
+        // A configuration applied without property change.
+        solutions.invalidateAnalysis(feeders.get(1));
+        findIssuesInBackground();
+        assertEquals(4, analysisOnEdt.size());
+
+        // Changing the state of an issue.
+        Issue issue = getIssue(again, feeders.get(0));
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                issue.setState(State.Dismissed);
+                issue.setState(State.Open);
+            }
+            catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        findIssuesInBackground();
+        assertEquals(5, analysisOnEdt.size());
+
+        // Explicitly analyze all afresh.
+        solutions.clearAnalysisCache();
+        findIssuesInBackground();
+        assertEquals(7, analysisOnEdt.size());
+    }
+}
@@ -0,0 +1,73 @@
+package org.openpnp.util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class SimulationClockTest {
+    private static final long ms = 1000000;
+
+    @AfterEach
+    public void after() {
+        SimulationClock.setSpeed(1.0, false);
+    }
+
+    @Test
+    public void testMonotonic() {
+        assertTrue(SimulationClock.isRealTime());
+        long t = SimulationClock.getRuntime();
+        for (int i = 0; i < 1000; i++) {
+            long t1 = SimulationClock.getRuntime();
+            assertTrue(t1 > t);
+            t = t1;
+        }
+        assertThrows(IllegalArgumentException.class, () -> SimulationClock.setSpeed(0, false));
+    }
+
+    @Test
+    public void testSpeedFactor() throws Exception {
+        long t0 = SimulationClock.getRuntime();
+        SimulationClock.setSpeed(10.0, false);
+        assertFalse(SimulationClock.isRealTime());
+        // The clock remains continuous.
+        assertTrue(SimulationClock.getRuntime() - t0 < 100*ms);
+        long real0 = NanosecondTime.getRuntime();
+        long simulated0 = SimulationClock.getRuntime();
+        SimulationClock.sleep(500);
+        long real = NanosecondTime.getRuntime() - real0;
+        long simulated = SimulationClock.getRuntime() - simulated0;
+        assertTrue(real >= 50*ms && real < 400*ms, "real time "+real);
+        assertTrue(simulated >= 500*ms, "simulated time "+simulated);
+    }
+
+    @Test
+    public void testSkipIdle() throws Exception {
+        SimulationClock.setSpeed(1.0, true);
+        long real0 = NanosecondTime.getRuntime();
+        long simulated0 = SimulationClock.getRuntime();
+        SimulationClock.sleep(10000);
+        SimulationClock.sleep(5000);
+        long real = NanosecondTime.getRuntime() - real0;
+        long simulated = SimulationClock.getRuntime() - simulated0;
+        // Successive waits add up, without taking real time.
+        assertTrue(real < 1000*ms, "real time "+real);
+        assertTrue(simulated >= 15000*ms && simulated < 16000*ms, "simulated time "+simulated);
+    }
+
+    @Test
+    public void testConcurrentSkipIdle() throws Exception {
+        SimulationClock.setSpeed(1.0, true);
+        long start = SimulationClock.getRuntime();
+        // Two waits started at the same simulated time, i.e. concurrently, advance to the later wake-up target.
+        SimulationClock.advanceTo(start + 100*ms);
+        SimulationClock.advanceTo(start + 50*ms);
+        long simulated = SimulationClock.getRuntime() - start;
+        assertTrue(simulated >= 100*ms && simulated < 150*ms, "simulated time "+simulated);
+        // The clock never goes back.
+        SimulationClock.advanceTo(start);
+        assertTrue(SimulationClock.getRuntime() - start > simulated);
+    }
+}
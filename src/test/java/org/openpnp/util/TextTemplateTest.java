@@ -0,0 +1,138 @@
+package org.openpnp.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.IllegalFormatException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class TextTemplateTest {
+    /**
+     * Substitute the variables the old way, one by one, using TextUtils.substituteVar().
+     */
+    private static String substituteVars(String template, Map<String, Object> values) {
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            template = TextUtils.substituteVar(template, entry.getKey(), entry.getValue());
+        }
+        return template;
+    }
+
+    private static String render(String template, Map<String, Object> values) {
+        TextTemplate.Substitution substitution = new TextTemplate(template).substitution();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            substitution.set(entry.getKey(), entry.getValue());
+        }
+        return substitution.render();
+    }
+
+    private static void assertSameAsSubstituteVar(String template, Map<String, Object> values) {
+        assertEquals(substituteVars(template, values), render(template, values), template+" "+values);
+    }
+
+    private static Map<String, Object> values(Object... nameValuePairs) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (int i = 0; i < nameValuePairs.length; i += 2) {
+            values.put((String) nameValuePairs[i], nameValuePairs[i + 1]);
+        }
+        return values;
+    }
+
+    @Test
+    public void testFixedFastPath() {
+        Random random = new Random(1);
+        double[] specials = new double[] { 0.0, -0.0, -0.00001, 0.00001, 0.5, 1.5, 2.5, -2.5, 0.125, -0.125,
+                1.0005, 2.675, 1e-7, -1e-7, 123456.789, -98765.4321, 1e15, 1e20,
+                Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY };
+        for (int precision = 0; precision <= 6; precision++) {
+            String template = "G1 {X:X%."+precision+"f} {Y:Y%."+precision+"f}";
+            for (double value : specials) {
+                assertSameAsSubstituteVar(template, values("X", value, "Y", -value));
+            }
+            for (int i = 0; i < 1000; i++) {
+                double value = (random.nextDouble() - 0.5)*2000;
+                // Also values with few decimals, where ties are frequent.
+                double rounded = Math.round(value*1000)/1000.0;
+                assertSameAsSubstituteVar(template, values("X", value, "Y", rounded));
+            }
+        }
+        // Without precision.
+        assertSameAsSubstituteVar("{Z:%f}", values("Z", 1.23456789));
+        // Float is not on the fast path.
+        assertSameAsSubstituteVar("{Z:%.2f}", values("Z", 1.005f));
+    }
+
+    @Test
+    public void testTextAndDecimal() {
+        assertSameAsSubstituteVar("{Id} {Name:%s}", values("Id", 42, "Name", "Nozzle N1"));
+        assertSameAsSubstituteVar("{Value}", values("Value", 1.25));
+        assertSameAsSubstituteVar("{Value}", values("Value", true));
+        assertSameAsSubstituteVar("M42 P{Index:%d} S{Count:%d}", values("Index", 7, "Count", -12345678901L));
+        // Not on the fast path, e.g. with flags, width or other conversions.
+        assertSameAsSubstituteVar("{X:%08.3f} {Y:%+.2f} {Z:%-6d|} {Hex:%x} {Pct:%.1f%%}",
+                values("X", -3.14159, "Y", 2.5, "Z", 42, "Hex", 255, "Pct", 99.95));
+        // Both fail on the wrong type.
+        assertThrows(IllegalFormatException.class, () -> substituteVars("{Index:%d}", values("Index", 1.5)));
+        assertThrows(IllegalFormatException.class, () -> render("{Index:%d}", values("Index", 1.5)));
+    }
+
+    @Test
+    public void testMissingVariables() {
+        String template = "G0 {X:X%.4f} {Y:Y%.4f} {Z:Z%.4f} {Rotation:A%.4f}";
+        // Variables that are not set are left as they are.
+        assertSameAsSubstituteVar(template, values("X", 1.0, "Z", 3.0));
+        assertEquals("G0 X1.0000 {Y:Y%.4f} Z3.0000 {Rotation:A%.4f}", render(template, values("X", 1.0, "Z", 3.0)));
+        // Nothing set.
+        assertSameAsSubstituteVar(template, values());
+        // Unknown variables are ignored.
+        assertSameAsSubstituteVar(template, values("Unknown", 1.0, "X", 2.0));
+        TextTemplate textTemplate = new TextTemplate(template);
+        assertTrue(textTemplate.hasVariable("Rotation"));
+        assertFalse(textTemplate.hasVariable("Unknown"));
+    }
+
+    @Test
+    public void testConditionalSections() {
+        String template = "{Enable:M17}G0 {X:X%.4f} {Y:Y%.4f} {FeedRate:F%.0f} ; {Comment}";
+        // A null value removes the whole section, including its text.
+        assertSameAsSubstituteVar(template, values("Enable", null, "X", 1.0, "Y", null, "FeedRate", 5000.0,
+                "Comment", null));
+        assertEquals("G0 X1.0000  F5000 ; ", render(template, values("Enable", null, "X", 1.0, "Y", null,
+                "FeedRate", 5000.0, "Comment", null)));
+        // A literal section is printed for any value.
+        assertSameAsSubstituteVar(template, values("Enable", true, "X", -0.00004, "Y", 2.0, "FeedRate", 1234.5,
+                "Comment", "move"));
+        // The same variable used repeatedly.
+        assertSameAsSubstituteVar("{Value:%.2f}/{Value:%.3f}/{Value}", values("Value", 0.1005));
+    }
+
+    @Test
+    public void testRenderBufferReuse() {
+        TextTemplate inner = new TextTemplate("X{X:%.1f}");
+        Object reentrant = new Object() {
+            @Override
+            public String toString() {
+                // Rendered while the outer template is rendering.
+                return inner.substitution().set("X", 1.5).render();
+            }
+        };
+        assertEquals("G0 X1.5 ; X1.5", new TextTemplate("G0 {Value} ; {Other:%s}").substitution()
+                .set("Value", reentrant)
+                .set("Other", reentrant)
+                .render());
+        // Longer and shorter renders after each other on the same thread.
+        StringBuilder longText = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            longText.append("G1 X{X:%.4f}\n");
+        }
+        TextTemplate longTemplate = new TextTemplate(longText.toString());
+        String rendered = longTemplate.substitution().set("X", 2.0).render();
+        assertEquals(longText.toString().replace("{X:%.4f}", "2.0000"), rendered);
+        assertEquals("X3.0", inner.substitution().set("X", 3.0).render());
+    }
+}
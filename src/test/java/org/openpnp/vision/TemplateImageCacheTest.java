@@ -0,0 +1,100 @@
+package org.openpnp.vision;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+
+public class TemplateImageCacheTest {
+    static {
+        nu.pattern.OpenCV.loadShared();
+    }
+
+    private static byte[] encode(int width, int height, int rgb) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(width/2, height/2, rgb);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @AfterEach
+    public void after() {
+        TemplateImageCache.setMemoryBudget(null);
+        TemplateImageCache.clear();
+    }
+
+    @Test
+    public void testLazyAndShared() throws Exception {
+        byte[] filedata = encode(20, 10, 0xff0000);
+        String hash = DigestUtils.shaHex(filedata);
+        AtomicInteger loads = new AtomicInteger();
+        BufferedImage image = TemplateImageCache.getImage(hash, () -> {
+            loads.incrementAndGet();
+            return filedata;
+        });
+        assertEquals(20, image.getWidth());
+        assertSame(image, TemplateImageCache.getImage(hash, () -> {
+            loads.incrementAndGet();
+            return filedata;
+        }));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            byte[] filedata = encode(100, 100, i);
+            String hash = DigestUtils.shaHex(filedata);
+            TemplateImageCache.getImage(hash, () -> filedata);
+            if (i == 0) {
+                // Allow for two images of this size.
+                TemplateImageCache.setMemoryBudget(TemplateImageCache.getBytes()*2);
+            }
+        }
+        assertEquals(2, TemplateImageCache.size());
+        assertEquals(TemplateImageCache.getMemoryBudget(), TemplateImageCache.getBytes());
+    }
+
+    @Test
+    public void testMatDeduplication() throws Exception {
+        byte[] filedata = encode(30, 40, 0x00ff00);
+        File file1 = File.createTempFile("template1", ".png");
+        File file2 = File.createTempFile("template2", ".png");
+        file1.deleteOnExit();
+        file2.deleteOnExit();
+        Files.write(file1.toPath(), filedata);
+        Files.write(file2.toPath(), filedata);
+        Mat mat1 = TemplateImageCache.getMat(file1);
+        Mat mat2 = TemplateImageCache.getMat(file2);
+        assertEquals(30, mat1.cols());
+        assertEquals(40, mat1.rows());
+        assertEquals(3, mat1.channels());
+        // The caller owns a copy, it can be modified and released without affecting the cache.
+        assertNotSame(mat1, mat2);
+        assertEquals(1, TemplateImageCache.size());
+        mat1.setTo(new Scalar(255, 255, 255));
+        mat1.release();
+        mat2.release();
+        Mat mat3 = TemplateImageCache.getMat(file1);
+        assertEquals(30, mat3.cols());
+        assertEquals(0, mat3.get(0, 0)[0], 0);
+        mat3.release();
+        assertNull(TemplateImageCache.getMat(new File(file1.getParentFile(), "missing-template.png")));
+    }
+}
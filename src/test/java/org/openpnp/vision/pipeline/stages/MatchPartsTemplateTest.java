@@ -0,0 +1,63 @@
+package org.openpnp.vision.pipeline.stages;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.core.RotatedRect;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+import org.openpnp.vision.pipeline.stages.MatchPartsTemplate.TemplateBank;
+
+public class MatchPartsTemplateTest {
+    static {
+        nu.pattern.OpenCV.loadShared();
+    }
+
+    /**
+     * A polarized part: a body with a pin 1 marker.
+     */
+    private static Mat createTemplate() {
+        Mat template = new Mat(40, 24, CvType.CV_8UC1, new Scalar(0));
+        Imgproc.rectangle(template, new Point(2, 2), new Point(21, 37), new Scalar(160), -1);
+        Imgproc.circle(template, new Point(7, 8), 3, new Scalar(255), -1);
+        return template;
+    }
+
+    @Test
+    public void testTemplateBank() {
+        Mat template = createTemplate();
+        RotatedRect trect = new RotatedRect(new Point(12, 20), new Size(24, 40), 0);
+        TemplateBank bank = new TemplateBank(template, trect, 1.0, 1, TemplateBank.hash(template, trect));
+        assertEquals(360, bank.templates.length());
+        // Rotations are only built when needed.
+        assertEquals(0, bank.getBuiltCount());
+        // Same entry for equivalent angles.
+        assertTrue(bank.get(-90.2) == bank.get(270.0));
+        assertTrue(bank.get(359.7) == bank.get(0));
+        assertEquals(2, bank.getBuiltCount());
+
+        // Place the part turned by 180° in an image.
+        Mat image = new Mat(80, 80, CvType.CV_8UC1, new Scalar(0));
+        Mat part = new Mat();
+        Core.rotate(template, part, Core.ROTATE_180);
+        part.copyTo(image.submat(new Rect(23, 17, 24, 40)));
+
+        Mat coarseImage = TemplateBank.pyramid(image, 1);
+        double upright = MatchPartsTemplate.matchScore(image, coarseImage, bank.get(0), 1);
+        double turned = MatchPartsTemplate.matchScore(image, coarseImage, bank.get(180), 1);
+        double turnedFull = MatchPartsTemplate.matchScore(image, null, bank.get(180), 1);
+        // The rotated templates are resampled at half pixel offsets, so the match is not perfect.
+        assertTrue(turned > 0.9, "score "+turned);
+        assertTrue(upright < turned, "upright "+upright+" turned "+turned);
+        // Coarse to fine finds the same match as the full search.
+        assertEquals(turnedFull, turned, 1e-6);
+        bank.release();
+    }
+}